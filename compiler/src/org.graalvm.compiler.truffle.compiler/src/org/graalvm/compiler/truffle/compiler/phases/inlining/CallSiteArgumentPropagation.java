@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.compiler.phases.inlining;
+
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeInputList;
+import org.graalvm.compiler.nodes.AbstractMergeNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.VirtualState;
+import org.graalvm.compiler.nodes.extended.BoxNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.NewArrayNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.truffle.compiler.nodes.frame.NewFrameNode;
+
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Specializes a copy of a callee graph to the values that are known at one of its call sites, so
+ * that canonicalizing the copy estimates the size of the callee after inlining.
+ *
+ * Arguments of the call site that are constants replace their parameter. Truffle passes the guest
+ * arguments in an {@code Object[]} (see {@code callInlinedAgnostic(Object...)}), which is never a
+ * constant itself, so constants stored into an argument array that is allocated in the caller also
+ * replace the reads of the same elements of the array parameter in the callee. The result is only
+ * an estimate: boxed constants are assumed to be identical to their cached box, and bounds checks
+ * of the replaced reads are dropped.
+ */
+public final class CallSiteArgumentPropagation {
+
+    private CallSiteArgumentPropagation() {
+    }
+
+    /**
+     * Replaces the parameters and argument array reads of {@code callee} that are known at
+     * {@code invoke}. {@code callee} must be a copy of the graph of the method called by
+     * {@code invoke}, since it no longer computes the same values for other call sites.
+     */
+    public static void propagate(Invoke invoke, StructuredGraph callee, CoreProviders providers) {
+        final NodeInputList<ValueNode> arguments = invoke.callTarget().arguments();
+        for (ParameterNode parameter : callee.getNodes(ParameterNode.TYPE).snapshot()) {
+            if (parameter.index() >= arguments.size()) {
+                continue;
+            }
+            final ValueNode argument = arguments.get(parameter.index());
+            if (argument.isConstant()) {
+                final ConstantNode constant = ConstantNode.forConstant(argument.stamp(NodeView.DEFAULT), argument.asConstant(), providers.getMetaAccess(), callee);
+                parameter.replaceAtUsagesAndDelete(constant);
+                continue;
+            }
+            final JavaConstant[] elements = storedElements(invoke, argument, providers);
+            if (elements != null && isOnlyRead(parameter)) {
+                replaceElementReads(callee, parameter, elements, providers);
+            }
+        }
+    }
+
+    /**
+     * Returns the constants stored into the elements of {@code argument} on the path from its
+     * allocation to {@code invoke}, with {@code null} for elements whose value is not known, or
+     * {@code null} if {@code argument} is not an array allocated in the caller that is only
+     * written on that path.
+     */
+    private static JavaConstant[] storedElements(Invoke invoke, ValueNode argument, CoreProviders providers) {
+        final ValueNode array = GraphUtil.skipPi(argument);
+        if (!(array instanceof NewArrayNode) || !((NewArrayNode) array).length().isJavaConstant() || !isOnlyStoredAndPassed(array, invoke)) {
+            return null;
+        }
+        final int length = ((NewArrayNode) array).length().asJavaConstant().asInt();
+        final JavaConstant[] elements = new JavaConstant[length];
+        final boolean[] seen = new boolean[length];
+        for (Node node = invoke.asNode().predecessor(); node != array; node = node.predecessor()) {
+            if (node == null || node instanceof AbstractMergeNode) {
+                // the allocation does not reach the call site on a single path
+                return null;
+            }
+            if (node instanceof StoreIndexedNode && GraphUtil.skipPi(((StoreIndexedNode) node).array()) == array) {
+                final StoreIndexedNode store = (StoreIndexedNode) node;
+                if (!store.index().isJavaConstant()) {
+                    return null;
+                }
+                final int index = store.index().asJavaConstant().asInt();
+                if (index >= 0 && index < length && !seen[index]) {
+                    // the store closest to the call site wins
+                    seen[index] = true;
+                    elements[index] = constantValue(store.value(), providers);
+                }
+            }
+        }
+        return elements;
+    }
+
+    private static JavaConstant constantValue(ValueNode value, CoreProviders providers) {
+        if (value.isJavaConstant()) {
+            return value.asJavaConstant();
+        }
+        if (value instanceof BoxNode && ((BoxNode) value).getValue().isJavaConstant()) {
+            return providers.getConstantReflection().boxPrimitive(((BoxNode) value).getValue().asJavaConstant());
+        }
+        return null;
+    }
+
+    /**
+     * Checks that {@code array} is only written by stores into its elements, so that the stores
+     * that precede {@code invoke} determine what the callee reads.
+     */
+    private static boolean isOnlyStoredAndPassed(ValueNode array, Invoke invoke) {
+        for (Node usage : array.usages()) {
+            if (usage instanceof StoreIndexedNode) {
+                if (((StoreIndexedNode) usage).value() == array) {
+                    return false;
+                }
+            } else if (usage instanceof PiNode) {
+                if (!isOnlyStoredAndPassed((PiNode) usage, invoke)) {
+                    return false;
+                }
+            } else if (usage != invoke.callTarget() && !isRead(usage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Checks that the callee never writes into the array passed as {@code parameter}. */
+    private static boolean isOnlyRead(ValueNode parameter) {
+        for (Node usage : parameter.usages()) {
+            if (usage instanceof PiNode) {
+                if (!isOnlyRead((PiNode) usage)) {
+                    return false;
+                }
+            } else if (!isRead(usage) && !(usage instanceof NewFrameNode)) {
+                // a Truffle frame exposes the arguments array, but writes into it are stores
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isRead(Node usage) {
+        return usage instanceof LoadIndexedNode || usage instanceof ArrayLengthNode || usage instanceof VirtualState;
+    }
+
+    private static void replaceElementReads(StructuredGraph callee, ParameterNode parameter, JavaConstant[] elements, CoreProviders providers) {
+        for (LoadIndexedNode load : callee.getNodes().filter(LoadIndexedNode.class).snapshot()) {
+            if (load.elementKind() != JavaKind.Object || !load.index().isJavaConstant() || GraphUtil.skipPi(load.array()) != parameter) {
+                continue;
+            }
+            final int index = load.index().asJavaConstant().asInt();
+            if (index >= 0 && index < elements.length && elements[index] != null) {
+                callee.replaceFixedWithFloating(load, ConstantNode.forConstant(elements[index], providers.getMetaAccess(), callee));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.compiler.phases.inlining;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.truffle.compiler.SharedTruffleCompilerOptions;
+import org.graalvm.compiler.truffle.compiler.TruffleCompilerOptions;
+
+/**
+ * An inlining policy that weighs the benefit of inlining a call site against its cost.
+ *
+ * Call nodes are expanded in order of their frequency, like in the {@link DefaultPolicy}. After
+ * expansion, a copy of the callee graph is canonicalized with the arguments that are known at its
+ * call site, including the constants stored into the Truffle argument array, and the size of the
+ * reduced copy is used as the cost of inlining the callee. Expanded call nodes are then inlined in
+ * order of their frequency per reduced node, until the estimated size of the root graph reaches the
+ * inlining budget.
+ */
+final class CostBenefitPolicy implements InliningPolicy {
+
+    private static final int MAX_DEPTH = 15;
+    private static final Comparator<CallNode> EXPAND_ORDER = (o1, o2) -> Double.compare(o2.getRootRelativeFrequency(), o1.getRootRelativeFrequency());
+    private static final Comparator<CallNode> INLINE_ORDER = (o1, o2) -> Double.compare(benefit(o2), benefit(o1));
+
+    private final CoreProviders providers;
+    private final OptionValues optionValues;
+    private final CanonicalizerPhase canonicalizer = CanonicalizerPhase.create();
+    private int expandedCount = 0;
+
+    CostBenefitPolicy(CoreProviders providers, OptionValues optionValues) {
+        this.providers = providers;
+        this.optionValues = optionValues;
+    }
+
+    private static PriorityQueue<CallNode> getQueue(CallTree tree, CallNode.State state, Comparator<CallNode> order) {
+        PriorityQueue<CallNode> queue = new PriorityQueue<>(order);
+        for (CallNode child : tree.getRoot().getChildren()) {
+            if (child.getState() == state) {
+                queue.add(child);
+            }
+        }
+        return queue;
+    }
+
+    private static Data data(CallNode callNode) {
+        return (Data) callNode.getData();
+    }
+
+    /**
+     * The frequency of the call node relative to the root, per node of the reduced size of its
+     * graph.
+     */
+    private static double benefit(CallNode callNode) {
+        return callNode.getRootRelativeFrequency() / Math.max(1, data(callNode).reducedSize);
+    }
+
+    @Override
+    public Object newCallNodeData(CallNode callNode) {
+        return new Data();
+    }
+
+    @Override
+    public void afterExpand(CallNode callNode) {
+        if (!callNode.isRoot()) {
+            data(callNode).reducedSize = reducedSize(callNode);
+        }
+    }
+
+    @Override
+    public void putProperties(CallNode callNode, Map<Object, Object> properties) {
+        final Data data = data(callNode);
+        if (data.reducedSize >= 0) {
+            properties.put("Reduced IR Nodes", data.reducedSize);
+            properties.put("Benefit", benefit(callNode));
+        }
+    }
+
+    /**
+     * Returns the node count of the graph of the call node after canonicalizing it with the
+     * arguments that are known at the call site, see {@link CallSiteArgumentPropagation}. The graph
+     * of the call node itself is not changed.
+     */
+    private int reducedSize(CallNode callNode) {
+        final StructuredGraph ir = callNode.getIR();
+        final Invoke invoke = callNode.getInvoke();
+        if (invoke == null || !invoke.isAlive()) {
+            return ir.getNodeCount();
+        }
+        final StructuredGraph copy = (StructuredGraph) ir.copy(ir.getDebug());
+        CallSiteArgumentPropagation.propagate(invoke, copy, providers);
+        canonicalizer.apply(copy, providers);
+        return copy.getNodeCount();
+    }
+
+    @Override
+    public void run(CallTree tree) {
+        expand(tree);
+        inline(tree);
+    }
+
+    private void inline(CallTree tree) {
+        final int inliningBudget = TruffleCompilerOptions.TruffleInliningInliningBudget.getValue(optionValues);
+        final PriorityQueue<CallNode> inlineQueue = getQueue(tree, CallNode.State.Expanded, INLINE_ORDER);
+        int estimatedSize = tree.getRoot().getIR().getNodeCount();
+        CallNode candidate;
+        while ((candidate = inlineQueue.poll()) != null) {
+            final int cost = data(candidate).reducedSize;
+            if (!candidate.isForced()) {
+                if (estimatedSize >= inliningBudget) {
+                    break;
+                }
+                if (estimatedSize + cost > inliningBudget) {
+                    // a candidate with less benefit may still be small enough
+                    continue;
+                }
+            }
+            candidate.inline();
+            estimatedSize += cost;
+            for (CallNode child : candidate.getChildren()) {
+                if (child.getState() == CallNode.State.Expanded) {
+                    inlineQueue.add(child);
+                }
+            }
+        }
+    }
+
+    private void expand(CallTree tree) {
+        final int expansionBudget = TruffleCompilerOptions.TruffleInliningExpansionBudget.getValue(optionValues);
+        final int maximumRecursiveInlining = SharedTruffleCompilerOptions.TruffleMaximumRecursiveInlining.getValue(optionValues);
+        final PriorityQueue<CallNode> expandQueue = getQueue(tree, CallNode.State.Cutoff, EXPAND_ORDER);
+        CallNode candidate;
+        while ((candidate = expandQueue.poll()) != null) {
+            if (!candidate.isForced()) {
+                if (expandedCount > expansionBudget) {
+                    break;
+                }
+                if (candidate.getRecursionDepth() > maximumRecursiveInlining || candidate.getDepth() > MAX_DEPTH) {
+                    continue;
+                }
+            }
+            candidate.expand();
+            expandedCount += candidate.getIR().getNodeCount();
+            for (CallNode child : candidate.getChildren()) {
+                if (child.getState() == CallNode.State.Cutoff) {
+                    expandQueue.add(child);
+                }
+            }
+        }
+    }
+
+    static final class Data {
+        /** Node count of the reduced graph, or -1 if the call node was not expanded. */
+        int reducedSize = -1;
+    }
+}
@@ -27,6 +27,12 @@ package org.graalvm.compiler.truffle.runtime;
 import static org.graalvm.compiler.truffle.runtime.TruffleRuntimeOptions.overrideOptions;
 
 import java.lang.ref.WeakReference;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
@@ -37,6 +43,8 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.graalvm.compiler.truffle.common.TruffleCompilationTask;
 import org.graalvm.compiler.truffle.runtime.TruffleRuntimeOptions.TruffleRuntimeOptionsOverrideScope;
@@ -50,6 +58,14 @@ import org.graalvm.options.OptionValues;
  * the compilation requests of the same optimization tier, the queuing policy is FIFO
  * (first-in-first-out).
  *
+ * With {@link PolyglotCompilerOptions#TraversingCompilationQueue} turned on, the queue is instead
+ * traversed every time a compiler thread takes a request, and the request whose call target got
+ * hottest while it waited is scheduled first. The hotness of a call target is the rate at which its
+ * call and loop count grew since the request was queued. Requests whose call target was collected
+ * or whose compilation was cancelled are dropped from the queue without being compiled, and so are
+ * requests whose call target went cold while it waited if
+ * {@link PolyglotCompilerOptions#CompilationQueueColdDelay} is set.
+ *
  * Note that all the compilation requests are second tier when the multi-tier option is turned off.
  */
 public class BackgroundCompileQueue {
@@ -87,8 +103,16 @@ public class BackgroundCompileQueue {
 
             TruffleCompilerThreadFactory factory = new TruffleCompilerThreadFactory("TruffleCompilerThread");
 
+            BlockingQueue<Runnable> queue;
+            if (callTarget.getOptionValue(PolyglotCompilerOptions.TraversingCompilationQueue)) {
+                long coldDelay = TimeUnit.MILLISECONDS.toNanos(callTarget.getOptionValue(PolyglotCompilerOptions.CompilationQueueColdDelay));
+                queue = new TraversingBlockingQueue(coldDelay);
+            } else {
+                queue = new PriorityBlockingQueue<>();
+            }
+
             return compilationExecutorService = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
-                            new PriorityBlockingQueue<>(), factory) {
+                            queue, factory) {
                 @Override
                 protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
                     return new RequestFutureTask<>((RequestImpl<T>) callable);
@@ -100,7 +124,7 @@ public class BackgroundCompileQueue {
     public CancellableCompileTask submitTask(Priority priority, OptimizedCallTarget target, Request request) {
         final OptionValues optionOverrides = TruffleRuntimeOptions.getCurrentOptionOverrides();
         CancellableCompileTask cancellable = new CancellableCompileTask(priority == Priority.LAST_TIER);
-        RequestImpl<Void> requestImpl = new RequestImpl<>(nextId(), priority, optionOverrides, target, cancellable, request);
+        RequestImpl<Void> requestImpl = new RequestImpl<>(this, nextId(), priority, optionOverrides, target, cancellable, request);
         cancellable.setFuture(getExecutorService(target).submit(requestImpl));
         return cancellable;
     }
@@ -158,20 +182,65 @@ public class BackgroundCompileQueue {
 
     private static final class RequestImpl<V> implements Callable<V>, Comparable<RequestImpl<?>> {
 
+        private final BackgroundCompileQueue queue;
         private final long id;
         private final Priority priority;
         private final OptionValues optionOverrides;
-        private final TruffleCompilationTask task;
+        private final CancellableCompileTask task;
         private final WeakReference<OptimizedCallTarget> targetRef;
         private final Request request;
+        private final long queuedTime;
+        private final int queuedCallAndLoopCount;
 
-        RequestImpl(long id, Priority priority, OptionValues optionOverrides, OptimizedCallTarget callTarget, TruffleCompilationTask task, Request request) {
+        RequestImpl(BackgroundCompileQueue queue, long id, Priority priority, OptionValues optionOverrides, OptimizedCallTarget callTarget, CancellableCompileTask task, Request request) {
+            this.queue = queue;
             this.id = id;
             this.priority = priority;
             this.optionOverrides = optionOverrides;
             this.targetRef = new WeakReference<>(callTarget);
             this.task = task;
             this.request = request;
+            this.queuedTime = System.nanoTime();
+            this.queuedCallAndLoopCount = callTarget.getCallAndLoopCount();
+        }
+
+        /**
+         * The hotness of the call target at time {@code now}: its call and loop count, weighted by
+         * the number of calls and loop iterations per millisecond since this request was queued.
+         * Returns a negative value if the call target was collected.
+         */
+        double hotness(long now) {
+            OptimizedCallTarget target = targetRef.get();
+            if (target == null) {
+                return -1;
+            }
+            int count = target.getCallAndLoopCount();
+            double millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - queuedTime));
+            double rate = Math.max(0, count - queuedCallAndLoopCount) / millis;
+            return Math.max(0, count) * (1 + rate);
+        }
+
+        /**
+         * Determines if this request can be dropped from the queue without compiling it, because
+         * its compilation was cancelled, its call target was collected, or its call target was
+         * neither called nor looped for at least {@code coldDelay} nanoseconds since it was queued.
+         * Cold requests are cancelled by this method.
+         */
+        boolean isDroppable(long now, long coldDelay) {
+            if (task.isCancelled()) {
+                return true;
+            }
+            OptimizedCallTarget target = targetRef.get();
+            if (target == null) {
+                return true;
+            }
+            if (coldDelay > 0 && priority != Priority.INITIALIZATION && now - queuedTime > coldDelay && target.getCallAndLoopCount() == queuedCallAndLoopCount) {
+                if (task.cancel()) {
+                    OptimizedCallTarget.runtime().getListener().onCompilationDequeued(target, null, "Target went cold while queued");
+                }
+                return true;
+            }
+            return false;
         }
 
         @Override
@@ -186,6 +255,10 @@ public class BackgroundCompileQueue {
         @SuppressWarnings("try")
         @Override
         public V call() {
+            OptimizedCallTarget target = targetRef.get();
+            if (target != null && !task.isCancelled()) {
+                OptimizedCallTarget.runtime().getListener().onCompilationPolled(target, System.nanoTime() - queuedTime, queue.getQueueSize());
+            }
             try (TruffleRuntimeOptionsOverrideScope scope = optionOverrides != null ? overrideOptions(optionOverrides) : null) {
                 request.execute(task, targetRef);
             }
@@ -217,6 +290,221 @@ public class BackgroundCompileQueue {
         }
     }
 
+    /**
+     * A blocking queue that is traversed every time an element is taken, so that the order of the
+     * queued compilation requests can change while they wait. Among the requests of the highest
+     * {@link Priority}, the one with the highest {@linkplain RequestImpl#hotness(long) hotness} is
+     * taken, and requests of equal hotness are taken in FIFO order. Requests that can be
+     * {@linkplain RequestImpl#isDroppable(long, long) dropped} are taken before all others, so that
+     * compiler threads discard them without compiling.
+     *
+     * Traversing is linear in the length of the queue, which is negligible compared to the
+     * compilation that follows.
+     */
+    private static final class TraversingBlockingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+        private final long coldDelay;
+        private final List<Runnable> entries = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+
+        TraversingBlockingQueue(long coldDelay) {
+            this.coldDelay = coldDelay;
+        }
+
+        /** Removes and returns the next element to take. Must be called with the lock held. */
+        private Runnable dequeue() {
+            if (entries.isEmpty()) {
+                return null;
+            }
+            long now = System.nanoTime();
+            int best = -1;
+            RequestImpl<?> bestRequest = null;
+            double bestHotness = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                Runnable entry = entries.get(i);
+                if (!(entry instanceof RequestFutureTask<?>)) {
+                    /* Not a compilation request: keep the FIFO order. */
+                    best = i;
+                    break;
+                }
+                RequestImpl<?> request = ((RequestFutureTask<?>) entry).request;
+                if (request.isDroppable(now, coldDelay)) {
+                    best = i;
+                    break;
+                }
+                double hotness = request.hotness(now);
+                if (bestRequest == null || isBetter(request, hotness, bestRequest, bestHotness)) {
+                    best = i;
+                    bestRequest = request;
+                    bestHotness = hotness;
+                }
+            }
+            return entries.remove(best);
+        }
+
+        private static boolean isBetter(RequestImpl<?> request, double hotness, RequestImpl<?> other, double otherHotness) {
+            if (request.priority != other.priority) {
+                return request.priority.value < other.priority.value;
+            }
+            if (hotness != otherHotness) {
+                return hotness > otherHotness;
+            }
+            return request.id < other.id;
+        }
+
+        @Override
+        public boolean offer(Runnable e) {
+            if (e == null) {
+                throw new NullPointerException();
+            }
+            lock.lock();
+            try {
+                entries.add(e);
+                notEmpty.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void put(Runnable e) {
+            offer(e);
+        }
+
+        @Override
+        public boolean offer(Runnable e, long timeout, TimeUnit unit) {
+            return offer(e);
+        }
+
+        @Override
+        public Runnable poll() {
+            lock.lock();
+            try {
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                Runnable result;
+                while ((result = dequeue()) == null) {
+                    notEmpty.await();
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                Runnable result;
+                while ((result = dequeue()) == null && nanos > 0) {
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable peek() {
+            lock.lock();
+            try {
+                return entries.isEmpty() ? null : entries.get(0);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            lock.lock();
+            try {
+                return entries.remove(o);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public Iterator<Runnable> iterator() {
+            lock.lock();
+            try {
+                return new ArrayList<>(entries).iterator();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Object[] toArray() {
+            lock.lock();
+            try {
+                return entries.toArray();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public <T> T[] toArray(T[] a) {
+            lock.lock();
+            try {
+                return entries.toArray(a);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c) {
+            return drainTo(c, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c, int maxElements) {
+            if (c == this) {
+                throw new IllegalArgumentException();
+            }
+            lock.lock();
+            try {
+                int n = Math.min(maxElements, entries.size());
+                List<Runnable> drained = entries.subList(0, n);
+                c.addAll(drained);
+                drained.clear();
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
     private static final class TruffleCompilerThreadFactory implements ThreadFactory {
         private final String namePrefix;
 
@@ -37,6 +37,7 @@ import static org.graalvm.compiler.truffle.runtime.PolyglotCompilerOptions.MinIn
 import static org.graalvm.compiler.truffle.runtime.PolyglotCompilerOptions.Mode;
 import static org.graalvm.compiler.truffle.runtime.PolyglotCompilerOptions.MultiTier;
 import static org.graalvm.compiler.truffle.runtime.PolyglotCompilerOptions.PerformanceWarningsAreFatal;
+import static org.graalvm.compiler.truffle.runtime.PolyglotCompilerOptions.ProfileSnapshotFile;
 import static org.graalvm.compiler.truffle.runtime.PolyglotCompilerOptions.ReturnTypeSpeculation;
 import static org.graalvm.compiler.truffle.runtime.PolyglotCompilerOptions.Splitting;
 import static org.graalvm.compiler.truffle.runtime.PolyglotCompilerOptions.SplittingAllowForcedSplits;
@@ -105,6 +106,7 @@ public final class EngineData {
     @CompilationFinal public boolean performanceWarningsAreFatal;
     @CompilationFinal public String compileOnly;
     @CompilationFinal public boolean callTargetStatistics;
+    ProfileSnapshot profileSnapshot;
 
     // computed fields.
     @CompilationFinal public int firstTierCallThreshold;
@@ -150,6 +152,8 @@ public final class EngineData {
         this.lastTierCallThreshold = firstTierCallAndLoopThreshold;
         this.callTargetStatistics = TruffleRuntimeOptions.getValue(TruffleCompilationStatistics) ||
                         TruffleRuntimeOptions.getValue(TruffleCompilationStatisticDetails);
+        String profileSnapshotFile = getValue(options, ProfileSnapshotFile);
+        this.profileSnapshot = profileSnapshotFile != null && !profileSnapshotFile.isEmpty() ? ProfileSnapshot.get(profileSnapshotFile) : null;
     }
 
     private int computeFirstTierCallThreshold(OptionValues options) {
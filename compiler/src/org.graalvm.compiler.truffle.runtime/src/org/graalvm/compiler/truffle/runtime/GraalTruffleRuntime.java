@@ -399,6 +399,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         TraceSplittingListener.install(this);
         StatisticsListener.install(this);
         TraceASTCompilationListener.install(this);
+        ProfileSnapshot.install(this);
         installShutdownHooks();
     }
 
@@ -676,6 +677,14 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         listeners.remove(listener);
     }
 
+    /**
+     * Stores the profile snapshots of all engines that use the {@code ProfileSnapshotFile} option,
+     * without waiting for the process to exit.
+     */
+    public void storeProfileSnapshots() {
+        ProfileSnapshot.storeAll();
+    }
+
     private void shutdown() {
         getListener().onShutdown();
         TruffleCompiler tcp = truffleCompiler;
@@ -82,6 +82,17 @@ public interface GraalTruffleRuntimeListener {
     default void onCompilationDequeued(OptimizedCallTarget target, Object source, CharSequence reason) {
     }
 
+    /**
+     * Notifies this object after a compiler thread took {@code target} from the compilation queue
+     * to compile it.
+     *
+     * @param target the call target that has just been taken from the compilation queue
+     * @param timeInQueue the time in nanoseconds {@code target} spent in the compilation queue
+     * @param queueLength the number of compilations still waiting in the compilation queue
+     */
+    default void onCompilationPolled(OptimizedCallTarget target, long timeInQueue, int queueLength) {
+    }
+
     /**
      * Notifies this object when compilation of {@code target} is about to start.
      *
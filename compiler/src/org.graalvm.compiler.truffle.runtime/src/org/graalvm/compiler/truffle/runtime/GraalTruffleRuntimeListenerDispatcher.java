@@ -68,6 +68,13 @@ final class GraalTruffleRuntimeListenerDispatcher extends CopyOnWriteArrayList<G
         }
     }
 
+    @Override
+    public void onCompilationPolled(OptimizedCallTarget target, long timeInQueue, int queueLength) {
+        for (GraalTruffleRuntimeListener l : this) {
+            l.onCompilationPolled(target, timeInQueue, queueLength);
+        }
+    }
+
     @Override
     public void onCompilationFailed(OptimizedCallTarget target, String reason, boolean bailout, boolean permanent) {
         for (GraalTruffleRuntimeListener l : this) {
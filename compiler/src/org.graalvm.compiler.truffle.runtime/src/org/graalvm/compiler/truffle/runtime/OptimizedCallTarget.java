@@ -515,6 +515,9 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
                 this.uninitializedRootNode = NodeUtil.cloneNode(rootNode);
             }
             tvmci.onFirstExecution(this);
+            if (engine.profileSnapshot != null) {
+                engine.profileSnapshot.restore(this);
+            }
             if (engine.callTargetStatistics) {
                 this.initializedTimestamp = System.nanoTime();
             } else {
@@ -1069,6 +1072,39 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         }
     }
 
+    /*
+     * Profile snapshot support. The accessors must not initialize the profiles, unlike
+     * getProfiledArgumentTypes and getProfiledReturnType.
+     */
+    final Class<?>[] getSnapshotArgumentTypes() {
+        OptimizedAssumption assumption = profiledArgumentTypesAssumption;
+        return assumption != null && assumption.isValid() && !callProfiled ? profiledArgumentTypes : null;
+    }
+
+    final Class<?> getSnapshotReturnType() {
+        OptimizedAssumption assumption = profiledReturnTypeAssumption;
+        return assumption != null && assumption.isValid() ? profiledReturnType : null;
+    }
+
+    /**
+     * Restores the counts and type profiles of a previous process before the first call of this
+     * call target. The counts are capped at the compilation thresholds.
+     */
+    final void restoreProfile(int callCount, int callAndLoopCount, Class<?>[] argumentTypes, Class<?> returnType) {
+        CompilerAsserts.neverPartOfCompilation();
+        assert !initialized;
+        callThreshold -= Math.max(0, Math.min(callCount, engine.firstTierCallThreshold));
+        callAndLoopThreshold -= Math.max(0, Math.min(callAndLoopCount, engine.firstTierCallAndLoopThreshold));
+        if (argumentTypes != null && profiledArgumentTypesAssumption == null && argumentTypes.length <= MAX_PROFILED_ARGUMENTS && engine.argumentTypeSpeculation) {
+            profiledArgumentTypes = argumentTypes;
+            profiledArgumentTypesAssumption = createValidAssumption(ARGUMENT_TYPES_ASSUMPTION_NAME);
+        }
+        if (returnType != null && profiledReturnTypeAssumption == null && engine.returnTypeSpeculation) {
+            profiledReturnType = returnType;
+            profiledReturnTypeAssumption = createValidAssumption(RETURN_TYPE_ASSUMPTION_NAME);
+        }
+    }
+
     private static OptimizedAssumption createInvalidAssumption(String name) {
         OptimizedAssumption result = createValidAssumption(name);
         result.invalidate();
@@ -89,6 +89,12 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Manually set the number of compiler threads", category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilerThreads = new OptionKey<>(SharedTruffleRuntimeOptions.TruffleCompilerThreads.getDefaultValue());
 
+    @Option(help = "Order queued compilations of the same tier by how fast their call and loop counts grow while queued, instead of first-in-first-out.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> TraversingCompilationQueue = new OptionKey<>(false);
+
+    @Option(help = "Drop a queued compilation if its call target was neither called nor looped for this many milliseconds since it was queued (0 to never drop). Only used with TraversingCompilationQueue.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> CompilationQueueColdDelay = new OptionKey<>(0);
+
     @Option(help = "Minimum number of invocations or loop iterations needed to compile a guest language root.",
                     category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilationThreshold = new OptionKey<>(SharedTruffleRuntimeOptions.TruffleCompilationThreshold.getDefaultValue());
@@ -102,6 +108,11 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Delay compilation after a node replacement. Deprecated: no longer has any effect.", category = OptionCategory.EXPERT, deprecated =  true)
     public static final OptionKey<Integer> ReplaceReprofileCount = new OptionKey<>(SharedTruffleRuntimeOptions.TruffleReplaceReprofileCount.getDefaultValue());
 
+    @Option(help = "Load the call and loop counts and the type profiles of hot call targets from this file when they are first executed, " +
+                    "and store them to this file when the process exits. Lets a new process compile its hot call targets without warming them up again.",
+            category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)
+    public static final OptionKey<String> ProfileSnapshotFile = new OptionKey<>(null, OptionType.defaultType(String.class));
+
     @Option(help = "Speculate on arguments types at call sites", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> ArgumentTypeSpeculation = new OptionKey<>(true);
 
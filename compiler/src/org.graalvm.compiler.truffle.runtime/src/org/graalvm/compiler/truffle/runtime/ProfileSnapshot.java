@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.graalvm.compiler.truffle.runtime.OptimizedOSRLoopNode.OSRRootNode;
+
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * The profiles of the hot call targets of a process, persisted in a file to warm up the call
+ * targets of the next process that uses the same file.
+ *
+ * A call target is identified by the content hash and name of its {@link Source}, the character
+ * range of its root {@link SourceSection} and the name of its root node. Call targets without an
+ * available source section, splits and OSR targets are not persisted. For each call target the
+ * snapshot stores the call and loop counts and the argument and return type profiles when it was
+ * last queued for compilation. When a call target with a snapshot is executed for the first time,
+ * its counts are restored so that it is queued for compilation right away, and its type profiles
+ * are restored if the profiled classes can be loaded by the class loader of the root node. Engines
+ * of the same process that use the same file also restore the profiles recorded by each other.
+ */
+final class ProfileSnapshot {
+
+    private static final int MAGIC = 0x54505346;
+    private static final int VERSION = 1;
+
+    private static final Map<String, ProfileSnapshot> SNAPSHOTS = new HashMap<>();
+
+    private final Path file;
+    private final Map<Key, Profile> loaded;
+    private final Map<Key, Recorded> recorded = new ConcurrentHashMap<>();
+    private final Map<Source, Integer> sourceHashes = Collections.synchronizedMap(new WeakHashMap<>());
+    private volatile boolean dirty;
+
+    private ProfileSnapshot(Path file, Map<Key, Profile> loaded) {
+        this.file = file;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Returns the snapshot stored in a file, loading it the first time it is requested. Engines
+     * that use the same file share the snapshot.
+     */
+    static ProfileSnapshot get(String fileName) {
+        synchronized (SNAPSHOTS) {
+            ProfileSnapshot snapshot = SNAPSHOTS.get(fileName);
+            if (snapshot == null) {
+                Path path = Paths.get(fileName);
+                snapshot = new ProfileSnapshot(path, load(path));
+                SNAPSHOTS.put(fileName, snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Stores all snapshots that were requested in this process.
+     */
+    static void storeAll() {
+        List<ProfileSnapshot> snapshots;
+        synchronized (SNAPSHOTS) {
+            snapshots = new ArrayList<>(SNAPSHOTS.values());
+        }
+        for (ProfileSnapshot snapshot : snapshots) {
+            snapshot.store();
+        }
+    }
+
+    static void install(GraalTruffleRuntime runtime) {
+        runtime.addListener(new GraalTruffleRuntimeListener() {
+            @Override
+            public void onCompilationQueued(OptimizedCallTarget target) {
+                ProfileSnapshot snapshot = target.engine.profileSnapshot;
+                if (snapshot != null) {
+                    snapshot.record(target);
+                }
+            }
+
+            @Override
+            public void onShutdown() {
+                storeAll();
+            }
+        });
+    }
+
+    /**
+     * Restores the profile of a call target that is executed for the first time.
+     */
+    void restore(OptimizedCallTarget target) {
+        if (loaded.isEmpty() && recorded.isEmpty()) {
+            return;
+        }
+        Key key = keyOf(target);
+        if (key == null) {
+            return;
+        }
+        Recorded inProcess = recorded.get(key);
+        Profile profile = inProcess != null ? inProcess.current() : loaded.get(key);
+        if (profile == null) {
+            return;
+        }
+        ClassLoader loader = target.getRootNode().getClass().getClassLoader();
+        Class<?>[] argumentTypes = null;
+        if (profile.argumentTypes != null) {
+            argumentTypes = new Class<?>[profile.argumentTypes.length];
+            for (int i = 0; i < argumentTypes.length; i++) {
+                argumentTypes[i] = loadClass(profile.argumentTypes[i], loader);
+            }
+        }
+        target.restoreProfile(profile.callCount, profile.callAndLoopCount, argumentTypes, loadClass(profile.returnType, loader));
+    }
+
+    void record(OptimizedCallTarget target) {
+        Key key = keyOf(target);
+        if (key != null) {
+            recorded.put(key, new Recorded(target, Profile.of(target)));
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the snapshot to its file, unless no call target was queued for compilation since it
+     * was last written.
+     */
+    synchronized void store() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        Map<Key, Profile> profiles = new LinkedHashMap<>(loaded);
+        for (Map.Entry<Key, Recorded> entry : recorded.entrySet()) {
+            profiles.put(entry.getKey(), entry.getValue().current());
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(profiles.size());
+                for (Map.Entry<Key, Profile> entry : profiles.entrySet()) {
+                    entry.getKey().write(out);
+                    entry.getValue().write(out);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            GraalTruffleRuntime.getRuntime().log(String.format("[truffle] Failed to store the profile snapshot %s: %s", file, e));
+        }
+    }
+
+    private static Map<Key, Profile> load(Path path) {
+        Map<Key, Profile> profiles = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported file format.");
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                profiles.put(Key.read(in), Profile.read(in));
+            }
+        } catch (NoSuchFileException e) {
+            // first process to use the snapshot
+        } catch (IOException e) {
+            GraalTruffleRuntime.getRuntime().log(String.format("[truffle] Ignoring the profile snapshot %s: %s", path, e));
+            profiles.clear();
+        }
+        return profiles;
+    }
+
+    private Key keyOf(OptimizedCallTarget target) {
+        RootNode rootNode = target.getRootNode();
+        if (target.isSplit() || rootNode instanceof OSRRootNode) {
+            return null;
+        }
+        SourceSection section = rootNode.getSourceSection();
+        if (section == null || !section.isAvailable()) {
+            return null;
+        }
+        Source source = section.getSource();
+        int contentHash = sourceHashes.computeIfAbsent(source, ProfileSnapshot::contentHash);
+        return new Key(source.getName(), contentHash, section.getCharIndex(), section.getCharLength(), rootNode.getName());
+    }
+
+    private static int contentHash(Source source) {
+        if (source.hasBytes()) {
+            return Arrays.hashCode(source.getBytes().toByteArray());
+        }
+        return source.getCharacters().toString().hashCode();
+    }
+
+    private static Class<?> loadClass(String name, ClassLoader loader) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static final class Key {
+
+        final String sourceName;
+        final int contentHash;
+        final int charIndex;
+        final int charLength;
+        final String rootName;
+
+        Key(String sourceName, int contentHash, int charIndex, int charLength, String rootName) {
+            this.sourceName = sourceName;
+            this.contentHash = contentHash;
+            this.charIndex = charIndex;
+            this.charLength = charLength;
+            this.rootName = rootName;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeNullableUTF(out, sourceName);
+            out.writeInt(contentHash);
+            out.writeInt(charIndex);
+            out.writeInt(charLength);
+            writeNullableUTF(out, rootName);
+        }
+
+        static Key read(DataInputStream in) throws IOException {
+            return new Key(readNullableUTF(in), in.readInt(), in.readInt(), in.readInt(), readNullableUTF(in));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceName, contentHash, charIndex, charLength, rootName);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return contentHash == other.contentHash && charIndex == other.charIndex && charLength == other.charLength &&
+                            Objects.equals(sourceName, other.sourceName) && Objects.equals(rootName, other.rootName);
+        }
+    }
+
+    private static final class Profile {
+
+        final int callCount;
+        final int callAndLoopCount;
+        final String[] argumentTypes;
+        final String returnType;
+
+        Profile(int callCount, int callAndLoopCount, String[] argumentTypes, String returnType) {
+            this.callCount = callCount;
+            this.callAndLoopCount = callAndLoopCount;
+            this.argumentTypes = argumentTypes;
+            this.returnType = returnType;
+        }
+
+        static Profile of(OptimizedCallTarget target) {
+            Class<?>[] argumentTypes = target.getSnapshotArgumentTypes();
+            String[] argumentTypeNames = null;
+            if (argumentTypes != null) {
+                argumentTypeNames = new String[argumentTypes.length];
+                for (int i = 0; i < argumentTypes.length; i++) {
+                    argumentTypeNames[i] = argumentTypes[i] != null ? argumentTypes[i].getName() : null;
+                }
+            }
+            Class<?> returnType = target.getSnapshotReturnType();
+            return new Profile(target.getCallCount(), target.getCallAndLoopCount(), argumentTypeNames, returnType != null ? returnType.getName() : null);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(callCount);
+            out.writeInt(callAndLoopCount);
+            out.writeInt(argumentTypes != null ? argumentTypes.length : -1);
+            if (argumentTypes != null) {
+                for (String argumentType : argumentTypes) {
+                    writeNullableUTF(out, argumentType);
+                }
+            }
+            writeNullableUTF(out, returnType);
+        }
+
+        static Profile read(DataInputStream in) throws IOException {
+            int callCount = in.readInt();
+            int callAndLoopCount = in.readInt();
+            int argumentCount = in.readInt();
+            String[] argumentTypes = null;
+            if (argumentCount >= 0) {
+                argumentTypes = new String[argumentCount];
+                for (int i = 0; i < argumentCount; i++) {
+                    argumentTypes[i] = readNullableUTF(in);
+                }
+            }
+            return new Profile(callCount, callAndLoopCount, argumentTypes, readNullableUTF(in));
+        }
+    }
+
+    /**
+     * The profile of a call target when it was queued for compilation. The profile is refreshed
+     * from the call target when the snapshot is stored, unless the call target was collected.
+     */
+    private static final class Recorded {
+
+        final WeakReference<OptimizedCallTarget> target;
+        final Profile profile;
+
+        Recorded(OptimizedCallTarget target, Profile profile) {
+            this.target = new WeakReference<>(target);
+            this.profile = profile;
+        }
+
+        Profile current() {
+            OptimizedCallTarget t = target.get();
+            return t != null ? Profile.of(t) : profile;
+        }
+    }
+}
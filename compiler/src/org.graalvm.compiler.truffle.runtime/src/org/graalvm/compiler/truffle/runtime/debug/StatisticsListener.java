@@ -72,6 +72,8 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
 
     private final LongSummaryStatistics timeToQueue = new LongSummaryStatistics();
     private final LongSummaryStatistics timeToCompilation = new LongSummaryStatistics();
+    private final LongSummaryStatistics timeInQueue = new LongSummaryStatistics();
+    private final IntSummaryStatistics queueLength = new IntSummaryStatistics();
 
     private final IntSummaryStatistics nodeCount = new IntSummaryStatistics();
     private final IntSummaryStatistics nodeCountTrivial = new IntSummaryStatistics();
@@ -146,6 +148,12 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         dequeues++;
     }
 
+    @Override
+    public synchronized void onCompilationPolled(OptimizedCallTarget target, long time, int length) {
+        timeInQueue.accept(time);
+        queueLength.accept(length);
+    }
+
     @Override
     public synchronized void onCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
         invalidations++;
@@ -263,6 +271,8 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
 
         printStatisticTime(rt, "Time to queue", timeToQueue);
         printStatisticTime(rt, "Time to compilation", timeToCompilation);
+        printStatisticTime(rt, "Time in queue", timeInQueue);
+        printStatistic(rt, "Queue length", queueLength);
 
         printStatisticTime(rt, "Compilation time", compilationTime);
         printStatisticTime(rt, "  Truffle Tier", compilationTimeTruffleTier);
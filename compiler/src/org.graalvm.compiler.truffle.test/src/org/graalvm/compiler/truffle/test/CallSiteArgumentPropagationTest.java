@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.truffle.compiler.phases.inlining.CallSiteArgumentPropagation;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CallSiteArgumentPropagationTest extends GraalCompilerTest {
+
+    public static Object callee(Object[] args) {
+        if (args[0] == "fast") {
+            return args[1];
+        }
+        String result = "";
+        for (int i = 0; i < args.length; i++) {
+            result = result + i + ": " + args[i] + "\n";
+        }
+        return result;
+    }
+
+    public static Object constantArgumentSnippet(Object value) {
+        return callee(new Object[]{"fast", value});
+    }
+
+    public static Object unknownArgumentSnippet(Object mode, Object value) {
+        return callee(new Object[]{mode, value});
+    }
+
+    public static Object overwrittenArgumentSnippet(Object mode, Object value) {
+        Object[] args = new Object[]{"fast", value};
+        args[0] = mode;
+        return callee(args);
+    }
+
+    private int reducedSize(String snippet) {
+        StructuredGraph caller = parseEager(snippet, AllowAssumptions.NO);
+        createCanonicalizerPhase().apply(caller, getProviders());
+        Invoke invoke = caller.getInvokes().iterator().next();
+        StructuredGraph copy = (StructuredGraph) calleeGraph().copy(caller.getDebug());
+        CallSiteArgumentPropagation.propagate(invoke, copy, getProviders());
+        createCanonicalizerPhase().apply(copy, getProviders());
+        return copy.getNodeCount();
+    }
+
+    private StructuredGraph calleeGraph() {
+        StructuredGraph callee = parseEager("callee", AllowAssumptions.NO);
+        createCanonicalizerPhase().apply(callee, getProviders());
+        return callee;
+    }
+
+    @Test
+    public void testStoredConstantReducesCallee() {
+        int rawSize = calleeGraph().getNodeCount();
+        int reducedSize = reducedSize("constantArgumentSnippet");
+        Assert.assertTrue("reduced size " + reducedSize + " is not smaller than raw size " + rawSize, reducedSize < rawSize);
+    }
+
+    @Test
+    public void testUnknownArgument() {
+        Assert.assertEquals(calleeGraph().getNodeCount(), reducedSize("unknownArgumentSnippet"));
+    }
+
+    @Test
+    public void testLastStoreWins() {
+        Assert.assertEquals(calleeGraph().getNodeCount(), reducedSize("overwrittenArgumentSnippet"));
+    }
+}
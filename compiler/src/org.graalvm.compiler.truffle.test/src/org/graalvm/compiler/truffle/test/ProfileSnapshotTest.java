@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.test.polyglot.ProxyLanguage;
+
+public class ProfileSnapshotTest extends TestWithSynchronousCompiling {
+
+    private static final GraalTruffleRuntime runtime = (GraalTruffleRuntime) Truffle.getRuntime();
+    private static final int TEST_COMPILATION_THRESHOLD = 10;
+    private static final SourceSection SECTION = Source.newBuilder(ProxyLanguage.ID, "profile snapshot test", "snapshot.test").build().createSection(0, 7);
+
+    private static final class SnapshotRootNode extends RootNode {
+
+        SnapshotRootNode() {
+            super(null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return frame.getArguments()[0];
+        }
+
+        @Override
+        public SourceSection getSourceSection() {
+            return SECTION;
+        }
+
+        @Override
+        public String getName() {
+            return "snapshotRoot";
+        }
+    }
+
+    private static Context createContext(Path file) {
+        Context context = Context.newBuilder().allowExperimentalOptions(true)//
+                        .option("engine.ProfileSnapshotFile", file.toString())//
+                        .option("engine.CompilationThreshold", String.valueOf(TEST_COMPILATION_THRESHOLD)).build();
+        context.enter();
+        return context;
+    }
+
+    @Test
+    public void testRestoredTargetCompilesOnFirstCall() throws IOException {
+        Path directory = Files.createTempDirectory("profileSnapshot");
+        Path file = directory.resolve("profiles.snapshot");
+        try {
+            Context first = createContext(file);
+            try {
+                OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new SnapshotRootNode());
+                for (int i = 0; i < TEST_COMPILATION_THRESHOLD; i++) {
+                    assertNotCompiled(target);
+                    target.call(42);
+                }
+                assertCompiled(target);
+                runtime.storeProfileSnapshots();
+                assertTrue(Files.exists(file));
+            } finally {
+                first.leave();
+                first.close();
+            }
+
+            Context second = createContext(file);
+            try {
+                OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new SnapshotRootNode());
+                assertNotCompiled(target);
+                assertEquals(42, target.call(42));
+                assertCompiled(target);
+                // do not leave the snapshot dirty for the shutdown hook
+                runtime.storeProfileSnapshots();
+            } finally {
+                second.leave();
+                second.close();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilationTask;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.Priority;
+import org.graalvm.compiler.truffle.runtime.CancellableCompileTask;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Tests the ordering and the dropping of requests by the compilation queue with
+ * {@code engine.TraversingCompilationQueue} enabled. The queue runs a single compiler thread that
+ * is blocked while the requests under test are submitted, so that they are all queued when the
+ * thread starts taking them.
+ */
+public class TraversingCompilationQueueTest {
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private Context context;
+    private BackgroundCompileQueue queue;
+    private final List<OptimizedCallTarget> executed = Collections.synchronizedList(new ArrayList<>());
+
+    private void setUp(int coldDelay) {
+        context = Context.newBuilder().allowExperimentalOptions(true) //
+                        .option("engine.Compilation", "false") //
+                        .option("engine.CompilerThreads", "1") //
+                        .option("engine.TraversingCompilationQueue", "true") //
+                        .option("engine.CompilationQueueColdDelay", String.valueOf(coldDelay)).build();
+        context.enter();
+        queue = new BackgroundCompileQueue();
+    }
+
+    @After
+    public void tearDown() {
+        if (queue != null) {
+            queue.shutdownAndAwaitTermination(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        }
+        if (context != null) {
+            context.leave();
+            context.close();
+        }
+    }
+
+    private static OptimizedCallTarget createTarget(int calls) {
+        OptimizedCallTarget target = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(42));
+        call(target, calls);
+        return target;
+    }
+
+    private static void call(OptimizedCallTarget target, int calls) {
+        for (int i = 0; i < calls; i++) {
+            target.call();
+        }
+    }
+
+    /**
+     * Occupies the compiler thread until {@code release} is counted down.
+     */
+    private void block(CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        queue.submitTask(Priority.LAST_TIER, createTarget(0), new BackgroundCompileQueue.Request() {
+            @Override
+            protected void execute(TruffleCompilationTask task, WeakReference<OptimizedCallTarget> targetRef) {
+                started.countDown();
+                try {
+                    release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Assert.assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private CancellableCompileTask submit(Priority priority, OptimizedCallTarget target, CountDownLatch done) {
+        return queue.submitTask(priority, target, new BackgroundCompileQueue.Request() {
+            @Override
+            protected void execute(TruffleCompilationTask task, WeakReference<OptimizedCallTarget> targetRef) {
+                executed.add(targetRef.get());
+                done.countDown();
+            }
+        });
+    }
+
+    @Test
+    public void testHotnessOrder() throws InterruptedException {
+        setUp(0);
+        CountDownLatch release = new CountDownLatch(1);
+        block(release);
+        try {
+            OptimizedCallTarget cold = createTarget(1);
+            OptimizedCallTarget warm = createTarget(5);
+            OptimizedCallTarget hot = createTarget(20);
+            OptimizedCallTarget firstTier = createTarget(1);
+            CountDownLatch done = new CountDownLatch(4);
+            submit(Priority.LAST_TIER, cold, done);
+            submit(Priority.LAST_TIER, warm, done);
+            submit(Priority.LAST_TIER, hot, done);
+            submit(Priority.FIRST_TIER, firstTier, done);
+            // The cold target gets the hottest while it waits.
+            call(cold, 30);
+
+            release.countDown();
+            Assert.assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList(firstTier, cold, hot, warm), executed);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testEqualHotnessIsFIFO() throws InterruptedException {
+        setUp(0);
+        CountDownLatch release = new CountDownLatch(1);
+        block(release);
+        try {
+            OptimizedCallTarget first = createTarget(3);
+            OptimizedCallTarget second = createTarget(3);
+            OptimizedCallTarget third = createTarget(3);
+            CountDownLatch done = new CountDownLatch(3);
+            submit(Priority.LAST_TIER, first, done);
+            submit(Priority.LAST_TIER, second, done);
+            submit(Priority.LAST_TIER, third, done);
+
+            release.countDown();
+            Assert.assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList(first, second, third), executed);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testColdDelayDrops() throws InterruptedException {
+        int coldDelay = 50;
+        setUp(coldDelay);
+        CountDownLatch release = new CountDownLatch(1);
+        block(release);
+        try {
+            OptimizedCallTarget cold = createTarget(10);
+            OptimizedCallTarget warm = createTarget(1);
+            CountDownLatch done = new CountDownLatch(1);
+            CancellableCompileTask coldTask = submit(Priority.LAST_TIER, cold, done);
+            CancellableCompileTask warmTask = submit(Priority.LAST_TIER, warm, done);
+            Thread.sleep(coldDelay * 4);
+            // Only the warm target is called after it was queued.
+            call(warm, 1);
+
+            release.countDown();
+            Assert.assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList(warm), executed);
+            Assert.assertTrue(coldTask.isCancelled());
+            Assert.assertFalse(warmTask.isCancelled());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testNoColdDelayKeepsColdTargets() throws InterruptedException {
+        setUp(0);
+        CountDownLatch release = new CountDownLatch(1);
+        block(release);
+        try {
+            OptimizedCallTarget cold = createTarget(10);
+            CountDownLatch done = new CountDownLatch(1);
+            CancellableCompileTask coldTask = submit(Priority.LAST_TIER, cold, done);
+            Thread.sleep(200);
+
+            release.countDown();
+            Assert.assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList(cold), executed);
+            Assert.assertFalse(coldTask.isCancelled());
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.regex.util.CacheStatistics;
+import com.oracle.truffle.regex.util.ConcurrentLRUCache;
+
+public class ConcurrentLRUCacheTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        CacheStatistics statistics = new CacheStatistics();
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(100, statistics);
+        Assert.assertEquals(1, (int) cache.computeIfAbsent("a", String::length));
+        Assert.assertEquals(1, (int) cache.computeIfAbsent("a", k -> -1));
+        Assert.assertEquals(2, (int) cache.computeIfAbsent("bb", String::length));
+        Assert.assertEquals(1, statistics.getHits());
+        Assert.assertEquals(2, statistics.getMisses());
+        Assert.assertEquals(0, statistics.getEvictions());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testSizeBound() {
+        CacheStatistics statistics = new CacheStatistics();
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(37, statistics);
+        for (int i = 0; i < 1000; i++) {
+            cache.computeIfAbsent(i, k -> k);
+        }
+        Assert.assertEquals(37, cache.size());
+        Assert.assertEquals(1000 - 37, statistics.getEvictions());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(1, new CacheStatistics());
+        cache.computeIfAbsent(1, k -> k);
+        cache.computeIfAbsent(2, k -> k);
+        Assert.assertEquals(-1, (int) cache.computeIfAbsent(1, k -> -1));
+    }
+
+    @Test
+    public void testExceptionIsNotCached() {
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(10, new CacheStatistics());
+        try {
+            cache.computeIfAbsent("a", k -> {
+                throw new IllegalStateException();
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(1, (int) cache.computeIfAbsent("a", String::length));
+    }
+
+    @Test
+    public void testSingleFlight() throws InterruptedException {
+        CacheStatistics statistics = new CacheStatistics();
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(10, statistics);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                Assert.assertEquals(3, (int) cache.computeIfAbsent("abc", k -> {
+                    computations.incrementAndGet();
+                    return k.length();
+                }));
+            });
+            t.start();
+            threads.add(t);
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        Assert.assertEquals(1, computations.get());
+        Assert.assertEquals(1, statistics.getMisses());
+        Assert.assertEquals(7, statistics.getHits());
+    }
+}
@@ -40,6 +40,13 @@
  */
 package com.oracle.truffle.regex.tregex.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
 import org.junit.Test;
 
 public class JsTests extends RegexTestBase {
@@ -63,4 +70,19 @@ public class JsTests extends RegexTestBase {
         test("(x??)*", "", "x", 0, true, 0, 1, 0, 1);
         test("(x??)*", "", "x", 1, true, 1, 1, -1, -1);
     }
+
+    @Test
+    public void foreignByteArrays() {
+        // bytes of foreign arrays are sign-extended, unlike in UTF-8 mode
+        test("a\\uffe9", "", ProxyArray.fromArray((byte) 'a', (byte) 0xe9), 0, true, 0, 2);
+        test("a\\u00e9", "", ProxyArray.fromArray((byte) 'a', (byte) 0xe9), 0, false);
+        // host byte arrays need host access
+        try (Context hostAccessContext = Context.newBuilder().allowHostAccess(HostAccess.ALL).build()) {
+            Value hostAccessEngine = hostAccessContext.eval(TRegexTestDummyLanguage.ID, "").execute("RegressionTestMode=true");
+            Value result = execRegex(hostAccessEngine.execute("a\\uffe9", ""), new byte[]{'a', (byte) 0xe9}, 0);
+            assertTrue(result.getMember("isMatch").asBoolean());
+            assertEquals(0, result.invokeMember("getStart", 0).asInt());
+            assertEquals(2, result.invokeMember("getEnd", 0).asInt());
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RegexSetTests extends RegexTestBase {
+
+    @Override
+    String getEngineOptions() {
+        return "";
+    }
+
+    private Value compileSet(String flags, String... patterns) {
+        return getEngine().invokeMember("compileSet", ProxyArray.fromArray((Object[]) patterns), flags);
+    }
+
+    private static void testMatch(Value regexSet, String input, int... expected) {
+        Value result = regexSet.invokeMember("match", input);
+        int[] actual = new int[(int) result.getArraySize()];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = result.getArrayElement(i).asInt();
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void literals() {
+        Value set = compileSet("", "error", "warn", "info");
+        assertEquals(3, set.getMember("size").asInt());
+        testMatch(set, "an error occurred", 0);
+        testMatch(set, "warn: no info", 1, 2);
+        testMatch(set, "debug");
+        testMatch(set, "");
+    }
+
+    @Test
+    public void anchors() {
+        Value set = compileSet("", "^a", "b$", "^c$", "d");
+        testMatch(set, "ab", 0, 1);
+        testMatch(set, "ba");
+        testMatch(set, "c", 2);
+        testMatch(set, "cd", 3);
+        testMatch(set, "xd", 3);
+    }
+
+    @Test
+    public void overlapping() {
+        Value set = compileSet("", "a+b", "ab+", "[a-c]{3}", "x|ab");
+        testMatch(set, "aab", 0, 1, 2, 3);
+        testMatch(set, "abb", 0, 1, 2, 3);
+        testMatch(set, "acb", 2);
+        testMatch(set, "x", 3);
+    }
+
+    @Test
+    public void emptyPatterns() {
+        testMatch(compileSet("", ""), "", 0);
+        testMatch(compileSet("", "", "a"), "b", 0);
+        testMatch(compileSet(""), "abc");
+    }
+
+    @Test
+    public void deadPatterns() {
+        testMatch(compileSet("", "[]", "a"), "a", 1);
+    }
+
+    @Test
+    public void flags() {
+        Value set = compileSet("i", "ERROR", "^warn");
+        testMatch(set, "Error", 0);
+        testMatch(set, "WARNING", 1);
+        testMatch(compileSet("y", "b"), "ab");
+        testMatch(compileSet("m", "^b"), "a\nb", 0);
+    }
+
+    @Test
+    public void nonLatin1() {
+        Value set = compileSet("", "été", "[Ѐ-ӿ]+", "中");
+        testMatch(set, "l'été", 0);
+        testMatch(set, "Привет 中", 1, 2);
+    }
+
+    @Test
+    public void manyPatterns() {
+        String[] patterns = new String[100];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = "k" + i + "=\\d+";
+        }
+        Value set = compileSet("", patterns);
+        testMatch(set, "k7=1 k42=x k99=3", 7, 99);
+    }
+
+    @Test
+    public void unsupported() {
+        try {
+            compileSet("", "a", "(a)\\1");
+            Assert.fail();
+        } catch (PolyglotException e) {
+            Assert.assertTrue(e.getMessage().contains("backreferences"));
+        }
+    }
+}
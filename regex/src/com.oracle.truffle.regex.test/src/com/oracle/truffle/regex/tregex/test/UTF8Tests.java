@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputIndexOfNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputStartsWithNode;
+
+public class UTF8Tests extends RegexTestBase {
+
+    /**
+     * UTF-8 input is also matched on host byte arrays, which requires host access.
+     */
+    private static Context hostAccessContext;
+    private Value engine;
+
+    @BeforeClass
+    public static void setUpHostAccess() {
+        hostAccessContext = Context.newBuilder().allowHostAccess(HostAccess.ALL).build();
+    }
+
+    @AfterClass
+    public static void tearDownHostAccess() {
+        if (hostAccessContext != null) {
+            hostAccessContext.close();
+            hostAccessContext = null;
+        }
+    }
+
+    @Override
+    String getEngineOptions() {
+        return "Encoding=UTF-8";
+    }
+
+    @Override
+    Value getEngine() {
+        if (engine == null) {
+            engine = hostAccessContext.eval(TRegexTestDummyLanguage.ID, "").execute("RegressionTestMode=true," + getEngineOptions());
+        }
+        return engine;
+    }
+
+    private static ProxyArray utf8(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        Object[] boxed = new Object[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            boxed[i] = bytes[i];
+        }
+        return ProxyArray.fromArray(boxed);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void ascii() {
+        test("b+", "", utf8("abbc"), 0, true, 1, 3);
+        test("^abc$", "", utf8("abc"), 0, true, 0, 3);
+    }
+
+    @Test
+    public void multiByteLiteral() {
+        test("é", "", utf8("caté"), 0, true, 3, 5);
+        test("€+", "", utf8("x€€y"), 0, true, 1, 7);
+    }
+
+    @Test
+    public void dot() {
+        test("a.b", "", utf8("xa€b"), 0, true, 1, 6);
+        test("a.b", "", utf8("xa€€b"), 0, false);
+    }
+
+    @Test
+    public void charClass() {
+        test("[à-ÿ]+", "", utf8("voilà!"), 0, true, 4, 6);
+        test("[^a]", "", utf8("aé"), 0, true, 1, 3);
+        test("[^é]", "", utf8("éè"), 0, true, 2, 4);
+    }
+
+    @Test
+    public void astral() {
+        test("\\u{1F600}", "u", utf8("x😀"), 0, true, 1, 5);
+        test("^.$", "u", utf8("😀"), 0, true, 0, 4);
+        test("[\\u{1F000}-\\u{1FFFF}]", "u", utf8("aé😀"), 0, true, 3, 7);
+    }
+
+    @Test
+    public void captureGroups() {
+        test("(é+)(x)", "", utf8("éééx"), 0, true, 0, 7, 0, 6, 6, 7);
+        test("(a|é)c", "", utf8("béc"), 0, true, 1, 4, 1, 3);
+    }
+
+    @Test
+    public void fromIndex() {
+        test("é", "", utf8("éaé"), 1, true, 3, 5);
+    }
+
+    @Test
+    public void hostByteArray() {
+        test("b+", "", bytes("abbc"), 0, true, 1, 3);
+        test("é", "", bytes("caté"), 0, true, 3, 5);
+        test("a.b", "", bytes("xa€b"), 0, true, 1, 6);
+        test("[à-ÿ]+", "", bytes("voilà!"), 0, true, 4, 6);
+        test("(é+)(x)", "", bytes("éééx"), 0, true, 0, 7, 0, 6, 6, 7);
+        test("\\u{1F600}", "u", bytes("x😀"), 0, true, 1, 5);
+    }
+
+    @Test
+    public void invalidBytes() {
+        test("a.b", "", new byte[]{'a', (byte) 0xff, 'b'}, 0, false);
+        test("a.b", "", new byte[]{'a', (byte) 0x80, 'b'}, 0, false);
+        test("a[^x]b", "", new byte[]{'a', (byte) 0xc3, 'b'}, 0, false);
+    }
+
+    @Test
+    public void inputNodesOnByteArrays() {
+        byte[] input = bytes("aé€");
+        assertEquals(6, InputLengthNode.create().execute(input));
+        assertEquals(0xc3, InputCharAtNode.create().execute(input, 1));
+        assertEquals(0xa9, InputCharAtNode.create().execute(input, 2));
+        assertEquals(0xe2, InputCharAtNode.create().execute(input, 3));
+        assertEquals(3, InputIndexOfNode.create().execute(input, 0, input.length, new char[]{0xe2}));
+        assertTrue(InputStartsWithNode.create().execute(input, "a\u00c3\u00a9", null));
+        assertFalse(InputStartsWithNode.create().execute(input, "a\uffc3", null));
+    }
+}
@@ -41,29 +41,27 @@
 package com.oracle.truffle.regex;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.util.CacheStatistics;
 import com.oracle.truffle.regex.util.CompilationResult;
-import com.oracle.truffle.regex.util.LRUCache;
-
-import java.util.Collections;
-import java.util.Map;
+import com.oracle.truffle.regex.util.ConcurrentLRUCache;
 
+/**
+ * A {@link RegexEngine} that caches its compilation results in a {@link ConcurrentLRUCache} of
+ * {@link RegexOptions#getMaxCacheSize()} entries. Concurrent requests for the same
+ * {@link RegexSource} compile it only once.
+ */
 public class CachingRegexEngine extends RegexEngine {
 
-    private final Map<RegexSource, CompilationResult<RegexObject>> cache = Collections.synchronizedMap(new LRUCache<>(TRegexOptions.RegexMaxCacheSize));
+    private final ConcurrentLRUCache<RegexSource, CompilationResult<RegexObject>> cache;
 
-    public CachingRegexEngine(RegexCompiler compiler, RegexOptions options) {
+    public CachingRegexEngine(RegexCompiler compiler, RegexOptions options, CacheStatistics cacheStatistics) {
         super(compiler, options);
+        this.cache = new ConcurrentLRUCache<>(options.getMaxCacheSize(), cacheStatistics);
     }
 
     @Override
     public RegexObject compile(RegexSource regexSource) throws RegexSyntaxException, UnsupportedRegexException {
-        CompilationResult<RegexObject> result = cacheGet(regexSource);
-        if (result == null) {
-            result = doCompile(regexSource);
-            cachePut(regexSource, result);
-        }
-        return result.unpack();
+        return cacheGetOrCompile(regexSource).unpack();
     }
 
     private CompilationResult<RegexObject> doCompile(RegexSource regexSource) {
@@ -71,12 +69,7 @@ public class CachingRegexEngine extends RegexEngine {
     }
 
     @TruffleBoundary
-    private CompilationResult<RegexObject> cacheGet(RegexSource source) {
-        return cache.get(source);
-    }
-
-    @TruffleBoundary
-    private CompilationResult<RegexObject> cachePut(RegexSource source, CompilationResult<RegexObject> result) {
-        return cache.put(source, result);
+    private CompilationResult<RegexObject> cacheGetOrCompile(RegexSource source) {
+        return cache.computeIfAbsent(source, this::doCompile);
     }
 }
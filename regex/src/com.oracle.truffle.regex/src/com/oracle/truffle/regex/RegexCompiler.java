@@ -64,4 +64,18 @@ public interface RegexCompiler {
      * @throws UnsupportedRegexException if the regular expression is not supported by the engine
      */
     Object compile(RegexSource source) throws RegexSyntaxException, UnsupportedRegexException;
+
+    /**
+     * Uses the compiler to try and compile all regular expressions described in {@code sources}
+     * into a single automaton that matches them simultaneously.
+     *
+     * @return a {@link RegexSetObject}
+     * @throws RegexSyntaxException if the engine discovers a syntax error in one of the regular
+     *             expressions
+     * @throws UnsupportedRegexException if the engine does not support regex sets, or one of the
+     *             regular expressions is not supported by the engine
+     */
+    default RegexSetObject compileSet(RegexSource[] sources) throws RegexSyntaxException, UnsupportedRegexException {
+        throw new UnsupportedRegexException("regex sets are not supported by this compiler");
+    }
 }
@@ -104,6 +104,16 @@ public class RegexCompilerWithFallback implements RegexCompiler {
         return regex;
     }
 
+    /**
+     * Regex sets are compiled by the main compiler only, since the patterns of a set cannot be
+     * distributed over different compilers.
+     */
+    @Override
+    @CompilerDirectives.TruffleBoundary
+    public RegexSetObject compileSet(RegexSource[] sources) throws RegexSyntaxException, UnsupportedRegexException {
+        return mainCompiler.compileSet(sources);
+    }
+
     private static boolean shouldLogCompilationTime() {
         return LOG_TOTAL_COMPILATION_TIME.isLoggable(Level.FINE);
     }
@@ -41,13 +41,17 @@
 package com.oracle.truffle.regex;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.regex.runtime.nodes.StringEqualsNode;
@@ -72,13 +76,18 @@ import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
  * engine</li>
  * </ul>
  * <p>
+ * The {@code compileSet} member compiles a set of regular expressions into a single
+ * {@link RegexSetObject}, which matches all of them in one pass over the input. It takes an array
+ * of patterns and an optional flags string that applies to all patterns.
+ * <p>
  * A {@link RegexEngine} can be obtained by executing the {@link RegexEngineBuilder}.
  */
 @ExportLibrary(InteropLibrary.class)
 public class RegexEngine extends AbstractConstantKeysObject {
 
     private static final String PROP_VALIDATE = "validate";
-    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_VALIDATE);
+    private static final String PROP_COMPILE_SET = "compileSet";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_VALIDATE, PROP_COMPILE_SET);
 
     private final RegexCompiler compiler;
     private final RegexOptions options;
@@ -110,6 +119,15 @@ public class RegexEngine extends AbstractConstantKeysObject {
         return regexObject;
     }
 
+    /**
+     * Compiles all regular expressions in {@code sources} into a single automaton. Unlike
+     * {@link #compile(RegexSource)}, this happens eagerly and the result is not cached.
+     */
+    @TruffleBoundary
+    public RegexSetObject compileSet(RegexSource[] sources) throws RegexSyntaxException, UnsupportedRegexException {
+        return compiler.compileSet(sources);
+    }
+
     @Override
     public TruffleReadOnlyKeysArray getKeys() {
         return KEYS;
@@ -120,6 +138,8 @@ public class RegexEngine extends AbstractConstantKeysObject {
         switch (symbol) {
             case PROP_VALIDATE:
                 return ValidateMethod.getInstance();
+            case PROP_COMPILE_SET:
+                return new CompileSetMethod(this);
             default:
                 CompilerDirectives.transferToInterpreter();
                 throw UnknownIdentifierException.create(symbol);
@@ -141,21 +161,27 @@ public class RegexEngine extends AbstractConstantKeysObject {
     @SuppressWarnings("static-method")
     @ExportMessage
     boolean isMemberInvocable(String member,
-                    @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode) {
-        return isValidatePropNode.execute(member, PROP_VALIDATE);
+                    @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode,
+                    @Shared("isCompileSetPropNode") @Cached StringEqualsNode isCompileSetPropNode) {
+        return isValidatePropNode.execute(member, PROP_VALIDATE) || isCompileSetPropNode.execute(member, PROP_COMPILE_SET);
     }
 
     @ExportMessage
     Object invokeMember(String member, Object[] args,
                     @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode,
+                    @Shared("isCompileSetPropNode") @Cached StringEqualsNode isCompileSetPropNode,
                     @Shared("patternToStringNode") @Cached ToStringNode patternToStringNode,
-                    @Shared("flagsToStringNode") @Cached ToStringNode flagsToStringNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException {
-        if (!isValidatePropNode.execute(member, PROP_VALIDATE)) {
-            CompilerDirectives.transferToInterpreter();
-            throw UnknownIdentifierException.create(member);
+                    @Shared("flagsToStringNode") @Cached ToStringNode flagsToStringNode,
+                    @CachedLibrary(limit = "2") InteropLibrary patterns) throws UnknownIdentifierException, ArityException, UnsupportedTypeException {
+        if (isValidatePropNode.execute(member, PROP_VALIDATE)) {
+            RegexLanguage.validateRegex(argsToRegexSource(args, patternToStringNode, flagsToStringNode));
+            return true;
         }
-        RegexLanguage.validateRegex(argsToRegexSource(args, patternToStringNode, flagsToStringNode));
-        return true;
+        if (isCompileSetPropNode.execute(member, PROP_COMPILE_SET)) {
+            return compileSet(argsToRegexSources(args, patterns, patternToStringNode, flagsToStringNode));
+        }
+        CompilerDirectives.transferToInterpreter();
+        throw UnknownIdentifierException.create(member);
     }
 
     @ExportLibrary(InteropLibrary.class)
@@ -186,6 +212,58 @@ public class RegexEngine extends AbstractConstantKeysObject {
         }
     }
 
+    @ExportLibrary(InteropLibrary.class)
+    public static final class CompileSetMethod implements RegexLanguageObject {
+
+        private final RegexEngine engine;
+
+        public CompileSetMethod(RegexEngine engine) {
+            this.engine = engine;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @CachedLibrary(limit = "2") InteropLibrary patterns,
+                        @Cached ToStringNode patternToStringNode,
+                        @Cached ToStringNode flagsToStringNode) throws ArityException, UnsupportedTypeException {
+            return engine.compileSet(argsToRegexSources(args, patterns, patternToStringNode, flagsToStringNode));
+        }
+    }
+
+    private static RegexSource[] argsToRegexSources(Object[] args, InteropLibrary patterns, ToStringNode patternToStringNode, ToStringNode flagsToStringNode)
+                    throws ArityException, UnsupportedTypeException {
+        if (!(args.length == 1 || args.length == 2)) {
+            CompilerDirectives.transferToInterpreter();
+            throw ArityException.create(2, args.length);
+        }
+        if (!patterns.hasArrayElements(args[0])) {
+            CompilerDirectives.transferToInterpreter();
+            throw UnsupportedTypeException.create(args);
+        }
+        String flags = args.length == 2 ? flagsToStringNode.execute(args[1]) : "";
+        try {
+            long size = patterns.getArraySize(args[0]);
+            if (size > Integer.MAX_VALUE) {
+                CompilerDirectives.transferToInterpreter();
+                throw UnsupportedTypeException.create(args);
+            }
+            RegexSource[] sources = new RegexSource[(int) size];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = new RegexSource(patternToStringNode.execute(patterns.readArrayElement(args[0], i)), flags);
+            }
+            return sources;
+        } catch (UnsupportedMessageException | InvalidArrayIndexException e) {
+            CompilerDirectives.transferToInterpreter();
+            throw UnsupportedTypeException.create(args);
+        }
+    }
+
     private static RegexSource argsToRegexSource(Object[] args, ToStringNode patternToStringNode, ToStringNode flagsToStringNode) throws ArityException, UnsupportedTypeException {
         if (!(args.length == 1 || args.length == 2)) {
             CompilerDirectives.transferToInterpreter();
@@ -131,9 +131,9 @@ public class RegexEngineBuilder implements RegexLanguageObject {
     @TruffleBoundary
     private static RegexEngine createRegexEngine(RegexLanguage regexLanguage, RegexOptions options, TruffleObject fallbackCompiler) {
         if (fallbackCompiler != null) {
-            return new CachingRegexEngine(new RegexCompilerWithFallback(new TRegexCompiler(regexLanguage, options), fallbackCompiler), options);
+            return new CachingRegexEngine(new RegexCompilerWithFallback(new TRegexCompiler(regexLanguage, options), fallbackCompiler), options, regexLanguage.getCacheStatistics());
         } else {
-            return new CachingRegexEngine(new TRegexCompiler(regexLanguage, options), options);
+            return new CachingRegexEngine(new TRegexCompiler(regexLanguage, options), options, regexLanguage.getCacheStatistics());
         }
     }
 }
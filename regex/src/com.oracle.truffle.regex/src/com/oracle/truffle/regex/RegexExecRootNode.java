@@ -43,18 +43,25 @@ package com.oracle.truffle.regex;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.regex.result.RegexResult;
+import com.oracle.truffle.regex.tregex.nodes.input.ForeignByteArrayInput;
 import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
 import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
 
 public abstract class RegexExecRootNode extends RegexBodyNode {
 
     private final boolean mustCheckUnicodeSurrogates;
+    private final boolean utf8;
     private @Child InputLengthNode lengthNode;
     private @Child InputCharAtNode charAtNode;
 
     public RegexExecRootNode(RegexLanguage language, RegexSource source, boolean mustCheckUnicodeSurrogates) {
+        this(language, source, mustCheckUnicodeSurrogates, false);
+    }
+
+    public RegexExecRootNode(RegexLanguage language, RegexSource source, boolean mustCheckUnicodeSurrogates, boolean utf8) {
         super(language, source);
         this.mustCheckUnicodeSurrogates = mustCheckUnicodeSurrogates;
+        this.utf8 = utf8;
     }
 
     @Override
@@ -62,6 +69,9 @@ public abstract class RegexExecRootNode extends RegexBodyNode {
         Object[] args = frame.getArguments();
         assert args.length == 2;
         Object input = args[0];
+        if (utf8 && !(input instanceof String || input instanceof byte[])) {
+            input = new ForeignByteArrayInput(input);
+        }
         int fromIndex = (int) args[1];
         return execute(input, adjustFromIndex(fromIndex, input));
     }
@@ -51,6 +51,7 @@ import com.oracle.truffle.api.instrumentation.ProvidedTags;
 import com.oracle.truffle.api.instrumentation.StandardTags;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.regex.tregex.parser.RegexValidator;
+import com.oracle.truffle.regex.util.CacheStatistics;
 
 /**
  * Truffle Regular Expression Language
@@ -99,6 +100,8 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
 
     private final CallTarget getEngineBuilderCT = Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(engineBuilder));
 
+    private final CacheStatistics cacheStatistics = new CacheStatistics();
+
     public static void validateRegex(String pattern, String flags) throws RegexSyntaxException {
         RegexValidator.validate(new RegexSource(pattern, flags));
     }
@@ -107,6 +110,14 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
         RegexValidator.validate(source);
     }
 
+    /**
+     * Hit, miss and eviction counts of the compilation caches of all {@link RegexEngine}s created by
+     * this language.
+     */
+    public CacheStatistics getCacheStatistics() {
+        return cacheStatistics;
+    }
+
     @Override
     protected CallTarget parse(ParsingRequest parsingRequest) {
         return getEngineBuilderCT;
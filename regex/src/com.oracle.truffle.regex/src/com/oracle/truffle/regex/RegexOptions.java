@@ -41,6 +41,7 @@
 package com.oracle.truffle.regex;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
 import com.oracle.truffle.regex.tregex.parser.RegexFeatureSet;
 import com.oracle.truffle.regex.tregex.parser.flavors.PythonFlavor;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavor;
@@ -59,6 +60,11 @@ public final class RegexOptions {
     public static final String STEP_EXECUTION_NAME = "StepExecution";
     private static final int ALWAYS_EAGER = 1 << 4;
     public static final String ALWAYS_EAGER_NAME = "AlwaysEager";
+    private static final int UTF8 = 1 << 5;
+
+    private static final String ENCODING_NAME = "Encoding";
+    private static final String ENCODING_UTF_8 = "UTF-8";
+    private static final String ENCODING_UTF_16 = "UTF-16";
 
     private static final String FLAVOR_NAME = "Flavor";
     private static final String FLAVOR_PYTHON_STR = "PythonStr";
@@ -69,17 +75,22 @@ public final class RegexOptions {
     private static final String FEATURE_SET_TREGEX_JONI = "TRegexJoni";
     private static final String FEATURE_SET_JONI = "Joni";
 
-    public static final RegexOptions DEFAULT = new RegexOptions(0, null, RegexFeatureSet.DEFAULT);
+    private static final String MAX_CACHE_SIZE_NAME = "MaxCacheSize";
+
+    public static final RegexOptions DEFAULT = new RegexOptions(0, null, RegexFeatureSet.DEFAULT, TRegexOptions.RegexMaxCacheSize);
 
     private final int options;
     private final RegexFlavor flavor;
     private final RegexFeatureSet featureSet;
+    private final int maxCacheSize;
 
-    private RegexOptions(int options, RegexFlavor flavor, RegexFeatureSet featureSet) {
+    private RegexOptions(int options, RegexFlavor flavor, RegexFeatureSet featureSet, int maxCacheSize) {
         assert flavor == null || featureSet == RegexFeatureSet.DEFAULT;
+        assert maxCacheSize > 0;
         this.options = options;
         this.flavor = flavor;
         this.featureSet = featureSet;
+        this.maxCacheSize = maxCacheSize;
     }
 
     public static Builder newBuilder() {
@@ -91,6 +102,7 @@ public final class RegexOptions {
         int options = 0;
         RegexFlavor flavor = null;
         RegexFeatureSet featureSet = RegexFeatureSet.DEFAULT;
+        int maxCacheSize = TRegexOptions.RegexMaxCacheSize;
         for (String propValue : optionsString.split(",")) {
             if (propValue.isEmpty()) {
                 continue;
@@ -123,11 +135,44 @@ public final class RegexOptions {
                 case FEATURE_SET_NAME:
                     featureSet = parseFeatureSet(optionsString, value);
                     break;
+                case ENCODING_NAME:
+                    options = parseEncoding(optionsString, options, value);
+                    break;
+                case MAX_CACHE_SIZE_NAME:
+                    maxCacheSize = parsePositiveIntOption(optionsString, key, value);
+                    break;
                 default:
                     throw optionsSyntaxError(optionsString, "unexpected option " + key);
             }
         }
-        return new RegexOptions(options, flavor, featureSet);
+        if ((options & UTF8) != 0 && flavor == PythonFlavor.BYTES_INSTANCE) {
+            throw optionsSyntaxError(optionsString, "the " + FLAVOR_PYTHON_BYTES + " flavor does not support the " + ENCODING_UTF_8 + " encoding");
+        }
+        return new RegexOptions(options, flavor, featureSet, maxCacheSize);
+    }
+
+    private static int parseEncoding(String optionsString, int options, String value) throws RegexSyntaxException {
+        switch (value) {
+            case ENCODING_UTF_8:
+                return options | UTF8;
+            case ENCODING_UTF_16:
+                return options & ~UTF8;
+            default:
+                throw optionsSyntaxErrorUnexpectedValue(optionsString, ENCODING_NAME, value, ENCODING_UTF_8, ENCODING_UTF_16);
+        }
+    }
+
+    private static int parsePositiveIntOption(String optionsString, String key, String value) throws RegexSyntaxException {
+        int result;
+        try {
+            result = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            result = 0;
+        }
+        if (result <= 0) {
+            throw optionsSyntaxError(optionsString, String.format("unexpected value '%s' for option '%s', expected a positive integer", value, key));
+        }
+        return result;
     }
 
     private static int parseBooleanOption(String optionsString, int options, String key, String value, int flag) throws RegexSyntaxException {
@@ -204,6 +249,17 @@ public final class RegexOptions {
         return isBitSet(ALWAYS_EAGER);
     }
 
+    /**
+     * Match the UTF-8 encoding of the input instead of its UTF-16 encoding. In this mode, every
+     * character class of the expression is translated to the byte sequences of its UTF-8
+     * encodings, the input is read one byte per character, and all indices are byte offsets. Inputs
+     * are expected to be {@code byte[]} or foreign arrays of bytes, e.g. native memory, which are
+     * matched without copying or transcoding them.
+     */
+    public boolean isUTF8() {
+        return isBitSet(UTF8);
+    }
+
     public RegexFlavor getFlavor() {
         return flavor;
     }
@@ -217,10 +273,17 @@ public final class RegexOptions {
         return featureSet;
     }
 
+    /**
+     * Maximum number of compilation results cached by a {@link CachingRegexEngine}.
+     */
+    public int getMaxCacheSize() {
+        return maxCacheSize;
+    }
+
     @Override
     public int hashCode() {
         int flavorHash = flavor == null ? 0 : flavor.hashCode();
-        return options + 13 * flavorHash;
+        return options + 13 * flavorHash + 31 * maxCacheSize;
     }
 
     @Override
@@ -232,7 +295,7 @@ public final class RegexOptions {
             return false;
         }
         RegexOptions other = (RegexOptions) obj;
-        return this.options == other.options && this.flavor == other.flavor;
+        return this.options == other.options && this.flavor == other.flavor && this.maxCacheSize == other.maxCacheSize;
     }
 
     @Override
@@ -253,6 +316,9 @@ public final class RegexOptions {
         if (isAlwaysEager()) {
             sb.append(ALWAYS_EAGER_NAME + "=true,");
         }
+        if (isUTF8()) {
+            sb.append(ENCODING_NAME + "=" + ENCODING_UTF_8 + ",");
+        }
         if (flavor == PythonFlavor.STR_INSTANCE) {
             sb.append(FLAVOR_NAME + "=" + FLAVOR_PYTHON_STR + ",");
         } else if (flavor == PythonFlavor.BYTES_INSTANCE) {
@@ -263,6 +329,9 @@ public final class RegexOptions {
         } else if (featureSet == RegexFeatureSet.JONI) {
             sb.append(FEATURE_SET_NAME + "=" + FEATURE_SET_JONI + ",");
         }
+        if (maxCacheSize != TRegexOptions.RegexMaxCacheSize) {
+            sb.append(MAX_CACHE_SIZE_NAME + "=" + maxCacheSize + ",");
+        }
         return sb.toString();
     }
 
@@ -271,11 +340,13 @@ public final class RegexOptions {
         private int options;
         private RegexFlavor flavor;
         private RegexFeatureSet featureSet;
+        private int maxCacheSize;
 
         private Builder() {
             this.options = 0;
             this.flavor = null;
             this.featureSet = RegexFeatureSet.DEFAULT;
+            this.maxCacheSize = TRegexOptions.RegexMaxCacheSize;
         }
 
         public Builder u180eWhitespace(boolean enabled) {
@@ -303,6 +374,11 @@ public final class RegexOptions {
             return this;
         }
 
+        public Builder utf8(boolean enabled) {
+            updateOption(enabled, UTF8);
+            return this;
+        }
+
         public Builder flavor(@SuppressWarnings("hiding") RegexFlavor flavor) {
             this.flavor = flavor;
             return this;
@@ -313,8 +389,16 @@ public final class RegexOptions {
             return this;
         }
 
+        public Builder maxCacheSize(@SuppressWarnings("hiding") int maxCacheSize) {
+            if (maxCacheSize <= 0) {
+                throw new IllegalArgumentException("maxCacheSize must be positive: " + maxCacheSize);
+            }
+            this.maxCacheSize = maxCacheSize;
+            return this;
+        }
+
         public RegexOptions build() {
-            return new RegexOptions(this.options, this.flavor, this.featureSet);
+            return new RegexOptions(this.options, this.flavor, this.featureSet, this.maxCacheSize);
         }
 
         private void updateOption(boolean enabled, int bitMask) {
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.interop.ArityException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.regex.runtime.nodes.ExpectStringOrTruffleObjectNode;
+import com.oracle.truffle.regex.runtime.nodes.StringEqualsNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+import com.oracle.truffle.regex.tregex.set.RegexSetDFA;
+import com.oracle.truffle.regex.util.TruffleReadOnlyIntArray;
+import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
+
+/**
+ * {@link RegexSetObject} represents a set of regular expressions that were compiled into a single
+ * automaton, see {@link RegexEngine#compileSet(RegexSource[])}. It exposes the following
+ * properties:
+ * <ol>
+ * <li>{@code int size}: the number of regular expressions in the set.</li>
+ * <li>{@link RegexSetMatchMethod} {@code match}: an executable method that matches all regular
+ * expressions of the set against a string in a single pass. The method accepts one parameter:
+ * <ol>
+ * <li>{@link Object} {@code input}: the character sequence to search in, see
+ * {@link RegexObject}.</li>
+ * </ol>
+ * The return value is an array of the indices of all regular expressions that match somewhere in
+ * {@code input}, in ascending order.</li>
+ * </ol>
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class RegexSetObject extends AbstractConstantKeysObject {
+
+    private static final String PROP_MATCH = "match";
+    private static final String PROP_SIZE = "size";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_MATCH, PROP_SIZE);
+
+    private final RegexSource[] sources;
+    private final RegexSetDFA dfa;
+
+    public RegexSetObject(RegexSource[] sources, RegexSetDFA dfa) {
+        assert sources.length == dfa.getNumberOfPatterns();
+        this.sources = sources;
+        this.dfa = dfa;
+    }
+
+    public RegexSource[] getSources() {
+        return sources;
+    }
+
+    public RegexSetDFA getDFA() {
+        return dfa;
+    }
+
+    @Override
+    public TruffleReadOnlyKeysArray getKeys() {
+        return KEYS;
+    }
+
+    @Override
+    public Object readMemberImpl(String symbol) throws UnknownIdentifierException {
+        switch (symbol) {
+            case PROP_MATCH:
+                return new RegexSetMatchMethod(this);
+            case PROP_SIZE:
+                return sources.length;
+            default:
+                CompilerDirectives.transferToInterpreter();
+                throw UnknownIdentifierException.create(symbol);
+        }
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    boolean isMemberInvocable(String member,
+                    @Shared("isMatchPropNode") @Cached StringEqualsNode isMatchPropNode) {
+        return isMatchPropNode.execute(member, PROP_MATCH);
+    }
+
+    @ExportMessage
+    Object invokeMember(String member, Object[] args,
+                    @Shared("isMatchPropNode") @Cached StringEqualsNode isMatchPropNode,
+                    @Shared("expectStringOrTruffleObjectNode") @Cached ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode,
+                    @Shared("lengthNode") @Cached InputLengthNode lengthNode,
+                    @Shared("charAtNode") @Cached InputCharAtNode charAtNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException {
+        if (!isMatchPropNode.execute(member, PROP_MATCH)) {
+            CompilerDirectives.transferToInterpreter();
+            throw UnknownIdentifierException.create(member);
+        }
+        return match(args, expectStringOrTruffleObjectNode, lengthNode, charAtNode);
+    }
+
+    private TruffleReadOnlyIntArray match(Object[] args, ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode, InputLengthNode lengthNode, InputCharAtNode charAtNode)
+                    throws ArityException, UnsupportedTypeException {
+        if (args.length != 1) {
+            CompilerDirectives.transferToInterpreter();
+            throw ArityException.create(1, args.length);
+        }
+        Object input = expectStringOrTruffleObjectNode.execute(args[0]);
+        return new TruffleReadOnlyIntArray(dfa.match(input, lengthNode, charAtNode));
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexSetMatchMethod implements RegexLanguageObject {
+
+        private final RegexSetObject regexSet;
+
+        public RegexSetMatchMethod(RegexSetObject regexSet) {
+            this.regexSet = regexSet;
+        }
+
+        public RegexSetObject getRegexSetObject() {
+            return regexSet;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @Cached ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode,
+                        @Cached InputLengthNode lengthNode,
+                        @Cached InputCharAtNode charAtNode) throws ArityException, UnsupportedTypeException {
+            return regexSet.match(args, expectStringOrTruffleObjectNode, lengthNode, charAtNode);
+        }
+    }
+}
@@ -63,7 +63,7 @@ public abstract class LiteralRegexExecRootNode extends RegexExecRootNode impleme
     protected final PreCalculatedResultFactory resultFactory;
 
     public LiteralRegexExecRootNode(RegexLanguage language, RegexAST ast, PreCalcResultVisitor preCalcResultVisitor) {
-        super(language, ast.getSource(), ast.getFlags().isUnicode());
+        super(language, ast.getSource(), ast.getFlags().isUnicode(), ast.getOptions().isUTF8());
         this.resultFactory = preCalcResultVisitor.getResultFactory();
     }
 
@@ -59,6 +59,11 @@ public abstract class ExpectStringOrTruffleObjectNode extends Node {
         return input;
     }
 
+    @Specialization
+    static Object doBytes(byte[] input) {
+        return input;
+    }
+
     @Specialization(guards = "inputs.isString(input)", limit = "2")
     static Object doBoxedString(Object input, @CachedLibrary("input") InteropLibrary inputs) throws UnsupportedTypeException {
         try {
@@ -162,6 +162,36 @@ public final class TRegexCompilationRequest {
                         new TRegexNFAExecutorNode(nfa, ast.getNumberOfCaptureGroups()));
     }
 
+    /**
+     * Parses the regular expression and generates its NFA, for use as one member of a regex set.
+     * Returns {@code null} if the regular expression can never match.
+     */
+    @TruffleBoundary
+    NFA compileRegexSetMemberNFA() {
+        try {
+            LOG_TREGEX_COMPILATIONS.finer(() -> String.format("TRegex compiling regex set member %s", DebugUtil.jsStringEscape(source.toString())));
+            RegexParser regexParser = createParser();
+            phaseStart("Parser");
+            try {
+                ast = regexParser.parse();
+                regexParser.prepareForDFA();
+            } finally {
+                phaseEnd("Parser");
+            }
+            debugAST();
+            checkFeatureSupport(ast.getProperties());
+            if (ast.getRoot().isDead()) {
+                return null;
+            }
+            createNFA();
+            return nfa.isDead() ? null : nfa;
+        } catch (UnsupportedRegexException e) {
+            e.setReason("TRegex: " + e.getReason());
+            e.setRegex(source);
+            throw e;
+        }
+    }
+
     @TruffleBoundary
     TRegexExecRootNode.LazyCaptureGroupRegexSearchNode compileLazyDFAExecutor(TRegexExecRootNode rootNode, boolean allowSimpleCG) {
         assert ast != null;
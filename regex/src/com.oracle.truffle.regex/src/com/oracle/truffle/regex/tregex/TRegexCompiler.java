@@ -45,12 +45,14 @@ import com.oracle.truffle.regex.CompiledRegexObject;
 import com.oracle.truffle.regex.RegexCompiler;
 import com.oracle.truffle.regex.RegexLanguage;
 import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSetObject;
 import com.oracle.truffle.regex.RegexSource;
 import com.oracle.truffle.regex.RegexSyntaxException;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode.LazyCaptureGroupRegexSearchNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
+import com.oracle.truffle.regex.tregex.set.RegexSetDFAGenerator;
 
 public final class TRegexCompiler implements RegexCompiler {
 
@@ -76,6 +78,16 @@ public final class TRegexCompiler implements RegexCompiler {
         return new TRegexCompilationRequest(this, source).compile();
     }
 
+    @TruffleBoundary
+    @Override
+    public RegexSetObject compileSet(RegexSource[] sources) throws RegexSyntaxException {
+        NFA[] nfas = new NFA[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            nfas[i] = new TRegexCompilationRequest(this, sources[i]).compileRegexSetMemberNFA();
+        }
+        return new RegexSetObject(sources, RegexSetDFAGenerator.generate(nfas));
+    }
+
     @TruffleBoundary
     public TRegexDFAExecutorNode compileEagerDFAExecutor(RegexSource source) {
         return new TRegexCompilationRequest(this, source).compileEagerDFAExecutor();
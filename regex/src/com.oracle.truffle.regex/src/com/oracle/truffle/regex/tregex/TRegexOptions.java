@@ -139,8 +139,17 @@ public class TRegexOptions {
     public static final int TRegexMaxDFASize = 2_400;
 
     /**
-     * Maximum number of entries in the global compilation cache in
-     * {@link com.oracle.truffle.regex.RegexLanguage}.
+     * Bailout threshold for number of states in the combined DFA of a regex set (generated by
+     * {@link com.oracle.truffle.regex.tregex.set.RegexSetDFAGenerator}). A regex set DFA is built
+     * from the NFAs of all its patterns at once, so it is allowed to be larger than the DFA of a
+     * single regular expression.
+     */
+    public static final int TRegexMaxRegexSetDFASize = 10_000;
+
+    /**
+     * Default maximum number of entries in the compilation cache of a
+     * {@link com.oracle.truffle.regex.CachingRegexEngine}, see
+     * {@link com.oracle.truffle.regex.RegexOptions#getMaxCacheSize()}.
      */
     public static final int RegexMaxCacheSize = 1_000;
 
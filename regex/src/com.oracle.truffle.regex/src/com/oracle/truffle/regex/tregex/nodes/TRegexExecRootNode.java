@@ -87,7 +87,7 @@ public class TRegexExecRootNode extends RegexExecRootNode implements RegexProfil
     @Child private RunRegexSearchNode runnerNode;
 
     public TRegexExecRootNode(RegexLanguage language, TRegexCompiler tRegexCompiler, RegexSource source, RegexFlags flags, boolean regressionTestMode, TRegexExecutorNode backTrackingExecutor) {
-        super(language, source, flags.isUnicode());
+        super(language, source, flags.isUnicode(), tRegexCompiler.getOptions().isUTF8());
         this.tRegexCompiler = tRegexCompiler;
         this.regressionTestMode = regressionTestMode;
         this.nfaNode = new NFARegexSearchNode(createEntryNode(backTrackingExecutor));
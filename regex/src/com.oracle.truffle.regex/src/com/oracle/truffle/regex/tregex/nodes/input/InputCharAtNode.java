@@ -47,7 +47,6 @@ import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
-import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
@@ -68,6 +67,28 @@ public abstract class InputCharAtNode extends Node {
         return input.charAt(index);
     }
 
+    /**
+     * Byte arrays are matched one byte per character, see
+     * {@link com.oracle.truffle.regex.RegexOptions#isUTF8()}.
+     */
+    @Specialization
+    static char doBytes(byte[] input, int index) {
+        return (char) Byte.toUnsignedInt(input[index]);
+    }
+
+    @Specialization(limit = "2")
+    static char doForeignBytes(ForeignByteArrayInput input, int index,
+                    @CachedLibrary("input.getBytes()") InteropLibrary inputs,
+                    @Cached ToCharNode toCharNode) {
+        try {
+            return (char) (toCharNode.execute(inputs.readArrayElement(input.getBytes(), index)) & 0xff);
+        } catch (UnsupportedMessageException | InvalidArrayIndexException | UnsupportedTypeException e) {
+            CompilerDirectives.transferToInterpreter();
+            // should never be reached
+            throw new RuntimeException(e);
+        }
+    }
+
     @Specialization(guards = "inputs.hasArrayElements(input)", limit = "2")
     static char doBoxedCharArray(Object input, int index,
                     @CachedLibrary("input") InteropLibrary inputs,
@@ -81,7 +102,7 @@ public abstract class InputCharAtNode extends Node {
         }
     }
 
-    public static char charAtWithMask(TruffleObject input, int indexInput, String mask, int indexMask, InputCharAtNode charAtNode) {
+    public static char charAtWithMask(Object input, int indexInput, String mask, int indexMask, InputCharAtNode charAtNode) {
         CompilerAsserts.partialEvaluationConstant(mask == null);
         char c = charAtNode.execute(input, indexInput);
         return (mask == null ? c : (char) (c | mask.charAt(indexMask)));
@@ -79,7 +79,15 @@ public abstract class InputEndsWithNode extends Node {
         return endsWithTruffleObj(input, suffix, mask, lengthNode, charAtNode);
     }
 
-    private static boolean endsWithTruffleObj(TruffleObject input, String suffix, String mask, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
+    @Specialization
+    public boolean endsWithBytes(byte[] input, String suffix, String mask,
+                    @Cached("create()") InputLengthNode lengthNode,
+                    @Cached("create()") InputCharAtNode charAtNode) {
+        assert mask == null || mask.length() == suffix.length();
+        return endsWithTruffleObj(input, suffix, mask, lengthNode, charAtNode);
+    }
+
+    private static boolean endsWithTruffleObj(Object input, String suffix, String mask, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
         final int inputLength = lengthNode.execute(input);
         if (inputLength < suffix.length()) {
             return false;
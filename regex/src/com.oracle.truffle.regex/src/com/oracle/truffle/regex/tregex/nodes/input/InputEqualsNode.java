@@ -78,7 +78,14 @@ public abstract class InputEqualsNode extends Node {
         return equalsTruffleObj(input, string, mask, lengthNode, charAtNode);
     }
 
-    private static boolean equalsTruffleObj(TruffleObject input, String string, String mask, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
+    @Specialization
+    public boolean equalsBytes(byte[] input, String string, String mask,
+                    @Cached("create()") InputLengthNode lengthNode,
+                    @Cached("create()") InputCharAtNode charAtNode) {
+        return equalsTruffleObj(input, string, mask, lengthNode, charAtNode);
+    }
+
+    private static boolean equalsTruffleObj(Object input, String string, String mask, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
         if (lengthNode.execute(input) != string.length()) {
             return false;
         }
@@ -62,6 +62,16 @@ public abstract class InputIndexOfNode extends Node {
     @Specialization
     public int indexOf(TruffleObject input, int fromIndex, int maxIndex, char[] chars,
                     @Cached("create()") InputCharAtNode charAtNode) {
+        return indexOfGeneric(input, fromIndex, maxIndex, chars, charAtNode);
+    }
+
+    @Specialization
+    public int indexOf(byte[] input, int fromIndex, int maxIndex, char[] chars,
+                    @Cached("create()") InputCharAtNode charAtNode) {
+        return indexOfGeneric(input, fromIndex, maxIndex, chars, charAtNode);
+    }
+
+    private static int indexOfGeneric(Object input, int fromIndex, int maxIndex, char[] chars, InputCharAtNode charAtNode) {
         for (int i = fromIndex; i < maxIndex; i++) {
             char c = charAtNode.execute(input, i);
             for (char v : chars) {
@@ -71,6 +71,17 @@ public abstract class InputIndexOfStringNode extends Node {
     public int doTruffleObject(TruffleObject input, int fromIndex, int maxIndex, String match, String mask,
                     @Cached("create()") InputLengthNode lengthNode,
                     @Cached("create()") InputRegionMatchesNode regionMatchesNode) {
+        return indexOfGeneric(input, fromIndex, maxIndex, match, mask, lengthNode, regionMatchesNode);
+    }
+
+    @Specialization
+    public int doBytes(byte[] input, int fromIndex, int maxIndex, String match, String mask,
+                    @Cached("create()") InputLengthNode lengthNode,
+                    @Cached("create()") InputRegionMatchesNode regionMatchesNode) {
+        return indexOfGeneric(input, fromIndex, maxIndex, match, mask, lengthNode, regionMatchesNode);
+    }
+
+    private static int indexOfGeneric(Object input, int fromIndex, int maxIndex, String match, String mask, InputLengthNode lengthNode, InputRegionMatchesNode regionMatchesNode) {
         if (maxIndex > lengthNode.execute(input)) {
             return -1;
         }
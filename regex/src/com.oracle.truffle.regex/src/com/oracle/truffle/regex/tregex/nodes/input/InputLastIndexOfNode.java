@@ -66,6 +66,16 @@ public abstract class InputLastIndexOfNode extends Node {
     @Specialization
     public int lastIndexOf(TruffleObject input, char c, int fromIndex, int maxIndex,
                     @Cached("create()") InputCharAtNode charAtNode) {
+        return lastIndexOfGeneric(input, c, fromIndex, maxIndex, charAtNode);
+    }
+
+    @Specialization
+    public int lastIndexOf(byte[] input, char c, int fromIndex, int maxIndex,
+                    @Cached("create()") InputCharAtNode charAtNode) {
+        return lastIndexOfGeneric(input, c, fromIndex, maxIndex, charAtNode);
+    }
+
+    private static int lastIndexOfGeneric(Object input, char c, int fromIndex, int maxIndex, InputCharAtNode charAtNode) {
         for (int i = fromIndex; i >= maxIndex; i--) {
             if (charAtNode.execute(input, i) == c) {
                 return i;
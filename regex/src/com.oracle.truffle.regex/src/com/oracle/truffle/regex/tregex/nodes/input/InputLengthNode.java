@@ -62,6 +62,17 @@ public abstract class InputLengthNode extends Node {
         return input.length();
     }
 
+    @Specialization
+    static int doBytes(byte[] input) {
+        return input.length;
+    }
+
+    @Specialization(limit = "2")
+    static int doForeignBytes(ForeignByteArrayInput input,
+                    @CachedLibrary("input.getBytes()") InteropLibrary inputs) {
+        return doBoxedCharArray(input.getBytes(), inputs);
+    }
+
     @Specialization(guards = "inputs.hasArrayElements(input)", limit = "2")
     static int doBoxedCharArray(Object input,
                     @CachedLibrary("input") InteropLibrary inputs) {
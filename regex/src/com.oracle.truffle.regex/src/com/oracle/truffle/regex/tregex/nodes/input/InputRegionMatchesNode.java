@@ -96,7 +96,15 @@ public abstract class InputRegionMatchesNode extends Node {
         return true;
     }
 
-    private static boolean regionMatchesTruffleObj(TruffleObject input, int fromIndex1, String match, int fromIndex2, int length, String mask, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
+    @Specialization
+    public boolean regionMatchesBytes(byte[] input, int fromIndex1, String match, int fromIndex2, int length, String mask,
+                    @Cached("create()") InputLengthNode lengthNode,
+                    @Cached("create()") InputCharAtNode charAtNode) {
+        assert mask == null || match.length() == mask.length();
+        return regionMatchesTruffleObj(input, fromIndex1, match, fromIndex2, length, mask, lengthNode, charAtNode);
+    }
+
+    private static boolean regionMatchesTruffleObj(Object input, int fromIndex1, String match, int fromIndex2, int length, String mask, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
         if (fromIndex1 + length > lengthNode.execute(input) || fromIndex2 + length > match.length()) {
             return false;
         }
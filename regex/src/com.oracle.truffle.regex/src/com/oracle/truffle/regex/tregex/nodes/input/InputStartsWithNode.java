@@ -79,7 +79,15 @@ public abstract class InputStartsWithNode extends Node {
         return startsWithTruffleObj(input, prefix, mask, lengthNode, charAtNode);
     }
 
-    private static boolean startsWithTruffleObj(TruffleObject input, String prefix, String mask, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
+    @Specialization
+    public boolean startsWithBytes(byte[] input, String prefix, String mask,
+                    @Cached("create()") InputLengthNode lengthNode,
+                    @Cached("create()") InputCharAtNode charAtNode) {
+        assert mask == null || mask.length() == prefix.length();
+        return startsWithTruffleObj(input, prefix, mask, lengthNode, charAtNode);
+    }
+
+    private static boolean startsWithTruffleObj(Object input, String prefix, String mask, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
         if (lengthNode.execute(input) < prefix.length()) {
             return false;
         }
@@ -88,6 +88,16 @@ public final class RegexParser {
     private static final Group NO_LEAD_SURROGATE_BEHIND;
     private static final Group NO_TRAIL_SURROGATE_AHEAD;
 
+    /**
+     * The largest code point whose UTF-8 encoding has the number of bytes given by the index.
+     */
+    private static final int[] UTF8_MAX_CODE_POINT = {-1, 0x7f, 0x7ff, 0xffff, 0x10ffff};
+    /**
+     * The bits that mark the first byte of a UTF-8 encoding with the number of bytes given by the
+     * index.
+     */
+    private static final int[] UTF8_LEAD_BYTE_PREFIX = {0, 0, 0xc0, 0xe0, 0xf0};
+
     static {
         final String wordBoundarySrc = "(?:^|(?<=\\W))(?=\\w)|(?<=\\w)(?:(?=\\W)|$)";
         final String nonWordBoundarySrc = "(?:^|(?<=\\W))(?:(?=\\W)|$)|(?<=\\w)(?=\\w)";
@@ -408,9 +418,110 @@ public final class RegexParser {
         return group;
     }
 
+    /**
+     * Translates a character class to the UTF-8 encoding, where every byte of the input is one
+     * character. The resulting term matches the UTF-8 encoding of every code point of the class, as
+     * a sequence of byte ranges per encoded range of code points. Surrogate code points are dropped
+     * from the class, since they cannot occur in well-formed UTF-8.
+     */
+    private Term translateUTF8CharClass(Token.CharacterClass token) {
+        CodePointSet codePointSet = token.getCodePointSet();
+        if (codePointSet.getHi(codePointSet.size() - 1) <= UTF8_MAX_CODE_POINT[1]) {
+            return createCharClass(codePointSet, token, token.wasSingleChar());
+        }
+        IntRangesBuffer asciiRanges = compilationBuffer.getIntRangesBuffer1();
+        asciiRanges.clear();
+        Group group = ast.createGroup();
+        group.setEnclosedCaptureGroupsLow(groupCount.getCount());
+        group.setEnclosedCaptureGroupsHigh(groupCount.getCount());
+        for (int i = 0; i < codePointSet.size(); i++) {
+            int lo = codePointSet.getLo(i);
+            int hi = codePointSet.getHi(i);
+            if (lo <= UTF8_MAX_CODE_POINT[1]) {
+                asciiRanges.addRange(lo, Math.min(hi, UTF8_MAX_CODE_POINT[1]));
+                lo = UTF8_MAX_CODE_POINT[1] + 1;
+            }
+            if (lo <= Character.MAX_SURROGATE && hi >= Character.MIN_SURROGATE) {
+                addUTF8Alternatives(group, lo, Character.MIN_SURROGATE - 1, token);
+                addUTF8Alternatives(group, Character.MAX_SURROGATE + 1, hi, token);
+            } else {
+                addUTF8Alternatives(group, lo, hi, token);
+            }
+        }
+        if (group.isEmpty()) {
+            return createCharClass(asciiRanges, token);
+        }
+        if (asciiRanges.matchesSomething()) {
+            // Single bytes match most often and so we want them as an early alternative
+            Sequence asciiAlternative = ast.createSequence();
+            group.insertFirst(asciiAlternative);
+            asciiAlternative.add(createCharClass(asciiRanges, token));
+        }
+        if (group.size() > 1) {
+            properties.setAlternations();
+        }
+        return group;
+    }
+
+    /**
+     * Adds alternatives matching the UTF-8 encodings of the code points {@code lo} to {@code hi} to
+     * {@code group}, after splitting the range by the length of the encodings.
+     */
+    private void addUTF8Alternatives(Group group, int lo, int hi, Token token) {
+        int curLo = lo;
+        for (int nBytes = 2; nBytes <= 4 && curLo <= hi; nBytes++) {
+            int max = UTF8_MAX_CODE_POINT[nBytes];
+            if (curLo <= max) {
+                addUTF8Alternatives(group, curLo, Math.min(hi, max), nBytes, token);
+                curLo = max + 1;
+            }
+        }
+    }
+
+    /**
+     * Adds alternatives matching the {@code nBytes}-byte UTF-8 encodings of the code points
+     * {@code lo} to {@code hi} to {@code group}. The range is split until the encodings of all of
+     * its code points are the cartesian product of one range of values per byte.
+     */
+    private void addUTF8Alternatives(Group group, int lo, int hi, int nBytes, Token token) {
+        for (int i = 1; i < nBytes; i++) {
+            int mask = (1 << (6 * i)) - 1;
+            if ((lo & ~mask) != (hi & ~mask)) {
+                if ((lo & mask) != 0) {
+                    addUTF8Alternatives(group, lo, lo | mask, nBytes, token);
+                    addUTF8Alternatives(group, (lo | mask) + 1, hi, nBytes, token);
+                    return;
+                }
+                if ((hi & mask) != mask) {
+                    addUTF8Alternatives(group, lo, (hi & ~mask) - 1, nBytes, token);
+                    addUTF8Alternatives(group, hi & ~mask, hi, nBytes, token);
+                    return;
+                }
+            }
+        }
+        Sequence alternative = group.addSequence(ast);
+        for (int i = 0; i < nBytes; i++) {
+            alternative.add(createCharClass(CharSet.create(utf8Byte(lo, i, nBytes), utf8Byte(hi, i, nBytes)), token));
+        }
+    }
+
+    private static char utf8Byte(int codePoint, int index, int nBytes) {
+        int shift = 6 * (nBytes - 1 - index);
+        if (index == 0) {
+            return (char) (UTF8_LEAD_BYTE_PREFIX[nBytes] | (codePoint >> shift));
+        }
+        return (char) (0x80 | ((codePoint >> shift) & 0x3f));
+    }
+
     private void addCharClass(Token.CharacterClass token) {
         CodePointSet codePointSet = token.getCodePointSet();
-        if (flags.isUnicode()) {
+        if (options.isUTF8()) {
+            if (codePointSet.matchesNothing()) {
+                addTerm(createCharClass(CharSet.getEmpty(), token));
+            } else {
+                addTerm(translateUTF8CharClass(token));
+            }
+        } else if (flags.isUnicode()) {
             if (codePointSet.matchesNothing()) {
                 // We need this branch because a Group with no alternatives is invalid
                 addTerm(createCharClass(CharSet.getEmpty(), token));
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.set;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+
+/**
+ * The combined DFA of a regex set, generated by {@link RegexSetDFAGenerator}. A single scan over
+ * the input yields the indices of all patterns of the set that match somewhere in the input.
+ *
+ * The input alphabet is partitioned into character classes whose characters are indistinguishable
+ * by all patterns of the set. The transition table maps every state and class to the successor
+ * state, or to {@link #DEAD_STATE} if no pattern can match anymore.
+ */
+public final class RegexSetDFA {
+
+    static final int DEAD_STATE = -1;
+    static final int INITIAL_STATE = 0;
+
+    private static final int LATIN1_SIZE = 256;
+
+    private final int numberOfPatterns;
+    private final char[] classLowerBounds;
+    private final int[] latin1Classes;
+    private final int[][] transitions;
+    private final long[][] acceptAny;
+    private final long[][] acceptAtEnd;
+
+    /**
+     * @param classLowerBounds sorted lower bounds of the character classes, starting with
+     *            {@code 0}.
+     * @param transitions the successor of every state for every character class.
+     * @param acceptAny for every state, the set of patterns that match if the state is reached at
+     *            any position of the input, or {@code null} if there are none.
+     * @param acceptAtEnd for every state, the set of patterns that match if the state is reached at
+     *            the end of the input, or {@code null} if there are none.
+     */
+    RegexSetDFA(int numberOfPatterns, char[] classLowerBounds, int[][] transitions, long[][] acceptAny, long[][] acceptAtEnd) {
+        assert classLowerBounds.length > 0 && classLowerBounds[0] == 0;
+        this.numberOfPatterns = numberOfPatterns;
+        this.classLowerBounds = classLowerBounds;
+        this.transitions = transitions;
+        this.acceptAny = acceptAny;
+        this.acceptAtEnd = acceptAtEnd;
+        this.latin1Classes = new int[LATIN1_SIZE];
+        for (int c = 0; c < LATIN1_SIZE; c++) {
+            latin1Classes[c] = searchClass((char) c);
+        }
+    }
+
+    public int getNumberOfPatterns() {
+        return numberOfPatterns;
+    }
+
+    public int getNumberOfStates() {
+        return transitions.length;
+    }
+
+    public int getNumberOfCharacterClasses() {
+        return classLowerBounds.length;
+    }
+
+    /**
+     * Returns the indices of all patterns that match somewhere in {@code input}, in ascending
+     * order.
+     */
+    public int[] match(Object input, InputLengthNode lengthNode, InputCharAtNode charAtNode) {
+        long[] matched = new long[wordsFor(numberOfPatterns)];
+        int length = lengthNode.execute(input);
+        int state = INITIAL_STATE;
+        for (int i = 0; i < length; i++) {
+            if (acceptAny[state] != null && union(matched, acceptAny[state])) {
+                // all patterns have matched, the rest of the input is irrelevant
+                return toIndices(matched);
+            }
+            state = transitions[state][classOf(charAtNode.execute(input, i))];
+            if (state == DEAD_STATE) {
+                return toIndices(matched);
+            }
+        }
+        if (acceptAtEnd[state] != null) {
+            union(matched, acceptAtEnd[state]);
+        }
+        return toIndices(matched);
+    }
+
+    private int classOf(char c) {
+        return c < LATIN1_SIZE ? latin1Classes[c] : searchClass(c);
+    }
+
+    private int searchClass(char c) {
+        int i = Arrays.binarySearch(classLowerBounds, c);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * Adds {@code patterns} to {@code matched} and returns {@code true} if {@code matched} now
+     * contains all patterns of the set.
+     */
+    private boolean union(long[] matched, long[] patterns) {
+        int numberOfMatches = 0;
+        for (int i = 0; i < matched.length; i++) {
+            matched[i] |= patterns[i];
+            numberOfMatches += Long.bitCount(matched[i]);
+        }
+        return numberOfMatches == numberOfPatterns;
+    }
+
+    private int[] toIndices(long[] matched) {
+        int numberOfMatches = 0;
+        for (long word : matched) {
+            numberOfMatches += Long.bitCount(word);
+        }
+        int[] indices = new int[numberOfMatches];
+        int n = 0;
+        for (int i = 0; i < matched.length; i++) {
+            long word = matched[i];
+            while (word != 0) {
+                indices[n++] = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return indices;
+    }
+
+    static int wordsFor(int nbits) {
+        return (nbits + Long.SIZE - 1) / Long.SIZE;
+    }
+}
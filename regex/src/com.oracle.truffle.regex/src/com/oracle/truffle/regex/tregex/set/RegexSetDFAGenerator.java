@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.set;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.truffle.regex.UnsupportedRegexException;
+import com.oracle.truffle.regex.charset.CharSet;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.buffer.IntArrayBuffer;
+import com.oracle.truffle.regex.tregex.nfa.NFA;
+import com.oracle.truffle.regex.tregex.nfa.NFAState;
+import com.oracle.truffle.regex.tregex.nfa.NFAStateTransition;
+import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexNFAExecutorNode;
+import com.oracle.truffle.regex.util.CompilationFinalBitSet;
+
+/**
+ * Generates a {@link RegexSetDFA} from the NFAs of all patterns of a regex set by subset
+ * construction. The states of all NFAs are numbered consecutively, and every DFA state is the set of
+ * NFA states of all patterns that are active at the same position of the input.
+ *
+ * The NFAs are interpreted like {@link TRegexNFAExecutorNode} does, except that a regex set is only
+ * interested in whether a pattern matches, not where: all paths are followed, regardless of their
+ * priority. Searching patterns (neither sticky nor starting with {@code ^}) may start a match at
+ * any position, so their unanchored initial state is part of every DFA state.
+ */
+public final class RegexSetDFAGenerator {
+
+    private static final int CHAR_SPACE_SIZE = Character.MAX_VALUE + 1;
+
+    private final int numberOfPatterns;
+    private final NFA[] nfas;
+    private final NFAState[] states;
+    private final NFAStateTransition[] loopBackTransitions;
+    private final int[] stateOffsets;
+    private final int[] patternOfState;
+    private final int[] searchingInitialStates;
+    private char[] classLowerBounds;
+
+    private final Map<StateSet, Integer> stateIndex = new HashMap<>();
+    private final List<StateSet> stateSets = new ArrayList<>();
+
+    private RegexSetDFAGenerator(NFA[] nfas) {
+        this.nfas = nfas;
+        numberOfPatterns = nfas.length;
+        stateOffsets = new int[nfas.length];
+        loopBackTransitions = new NFAStateTransition[nfas.length];
+        int numberOfStates = 0;
+        for (int i = 0; i < nfas.length; i++) {
+            stateOffsets[i] = numberOfStates;
+            if (nfas[i] != null) {
+                nfas[i].setInitialLoopBack(false);
+                loopBackTransitions[i] = nfas[i].getInitialLoopBackTransition();
+                numberOfStates += nfas[i].getNumberOfStates();
+            }
+        }
+        states = new NFAState[numberOfStates];
+        patternOfState = new int[numberOfStates];
+        IntArrayBuffer searching = new IntArrayBuffer(nfas.length);
+        for (int i = 0; i < nfas.length; i++) {
+            NFA nfa = nfas[i];
+            if (nfa == null) {
+                continue;
+            }
+            for (int id = 0; id < nfa.getNumberOfStates(); id++) {
+                states[stateOffsets[i] + id] = nfa.getState(id);
+                patternOfState[stateOffsets[i] + id] = i;
+            }
+            NFAState unAnchoredInitialState = nfa.getUnAnchoredEntry()[0].getTarget();
+            if (isSearching(nfa) && isLive(i, unAnchoredInitialState)) {
+                searching.add(globalId(i, unAnchoredInitialState));
+            }
+        }
+        searchingInitialStates = searching.toArray();
+    }
+
+    /**
+     * Generates the combined DFA of the given NFAs. {@code null} entries denote patterns that can
+     * never match.
+     *
+     * @throws UnsupportedRegexException if the DFA exceeds
+     *             {@link TRegexOptions#TRegexMaxRegexSetDFASize} states.
+     */
+    public static RegexSetDFA generate(NFA[] nfas) throws UnsupportedRegexException {
+        return new RegexSetDFAGenerator(nfas).generate();
+    }
+
+    private static boolean isSearching(NFA nfa) {
+        return !nfa.getAst().getFlags().isSticky() && !nfa.getAst().getRoot().startsWithCaret();
+    }
+
+    private int globalId(int pattern, NFAState state) {
+        return stateOffsets[pattern] + state.getId();
+    }
+
+    private boolean isLive(int pattern, NFAState state) {
+        return states[globalId(pattern, state)] == state;
+    }
+
+    private RegexSetDFA generate() {
+        classLowerBounds = calcClassLowerBounds();
+        int numberOfClasses = classLowerBounds.length;
+        addState(createInitialStateSet());
+        List<int[]> transitions = new ArrayList<>();
+        List<long[]> acceptAny = new ArrayList<>();
+        List<long[]> acceptAtEnd = new ArrayList<>();
+        IntArrayBuffer[] classTargets = new IntArrayBuffer[numberOfClasses];
+        for (int i = 0; i < numberOfClasses; i++) {
+            classTargets[i] = new IntArrayBuffer(8);
+        }
+        // stateSets grows while we iterate over it
+        for (int i = 0; i < stateSets.size(); i++) {
+            int[] stateSet = stateSets.get(i).ids;
+            acceptAny.add(calcAccepting(stateSet, false));
+            acceptAtEnd.add(calcAccepting(stateSet, true));
+            for (IntArrayBuffer buf : classTargets) {
+                buf.clear();
+            }
+            collectTargets(stateSet, classTargets);
+            int[] successors = new int[numberOfClasses];
+            for (int c = 0; c < numberOfClasses; c++) {
+                successors[c] = addState(createSuccessorStateSet(classTargets[c]));
+            }
+            transitions.add(successors);
+        }
+        return new RegexSetDFA(numberOfPatterns, classLowerBounds,
+                        transitions.toArray(new int[0][]), acceptAny.toArray(new long[0][]), acceptAtEnd.toArray(new long[0][]));
+    }
+
+    /**
+     * Partitions the character space such that every character class is either completely
+     * contained in or disjoint with the character set of every NFA state.
+     */
+    private char[] calcClassLowerBounds() {
+        CompilationFinalBitSet bounds = new CompilationFinalBitSet(CHAR_SPACE_SIZE + 1);
+        bounds.set(0);
+        for (NFAState s : states) {
+            if (s == null || s.isFinalState(true)) {
+                continue;
+            }
+            CharSet charSet = s.getCharSet();
+            for (int i = 0; i < charSet.size(); i++) {
+                bounds.set(charSet.getLo(i));
+                bounds.set(charSet.getHi(i) + 1);
+            }
+        }
+        bounds.clear(CHAR_SPACE_SIZE);
+        char[] result = new char[bounds.numberOfSetBits()];
+        int i = 0;
+        for (int b : bounds) {
+            result[i++] = (char) b;
+        }
+        return result;
+    }
+
+    private int classOf(int c) {
+        int i = Arrays.binarySearch(classLowerBounds, (char) c);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private int[] createInitialStateSet() {
+        IntArrayBuffer ids = new IntArrayBuffer(numberOfPatterns * 2);
+        for (int i = 0; i < numberOfPatterns; i++) {
+            NFA nfa = nfas[i];
+            if (nfa == null) {
+                continue;
+            }
+            NFAState anchoredInitialState = nfa.getAnchoredEntry()[0].getTarget();
+            NFAState unAnchoredInitialState = nfa.getUnAnchoredEntry()[0].getTarget();
+            if (anchoredInitialState != unAnchoredInitialState && isLive(i, anchoredInitialState)) {
+                ids.add(globalId(i, anchoredInitialState));
+            }
+            if (isLive(i, unAnchoredInitialState)) {
+                ids.add(globalId(i, unAnchoredInitialState));
+            }
+        }
+        return toSortedSet(ids);
+    }
+
+    private void collectTargets(int[] stateSet, IntArrayBuffer[] classTargets) {
+        for (int id : stateSet) {
+            NFAState s = states[id];
+            int pattern = patternOfState[id];
+            for (NFAStateTransition t : s.getNext()) {
+                NFAState target = t.getTarget();
+                if (t == loopBackTransitions[pattern] || target.isFinalState(true) || !isLive(pattern, target)) {
+                    continue;
+                }
+                int targetId = globalId(pattern, target);
+                CharSet charSet = target.getCharSet();
+                for (int i = 0; i < charSet.size(); i++) {
+                    int hi = classOf(charSet.getHi(i));
+                    for (int c = classOf(charSet.getLo(i)); c <= hi; c++) {
+                        classTargets[c].add(targetId);
+                    }
+                }
+            }
+        }
+    }
+
+    private int[] createSuccessorStateSet(IntArrayBuffer targets) {
+        for (int id : searchingInitialStates) {
+            targets.add(id);
+        }
+        return toSortedSet(targets);
+    }
+
+    private static int[] toSortedSet(IntArrayBuffer ids) {
+        int[] buf = ids.getBuffer();
+        int length = ids.length();
+        Arrays.sort(buf, 0, length);
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (n == 0 || buf[n - 1] != buf[i]) {
+                buf[n++] = buf[i];
+            }
+        }
+        return Arrays.copyOf(buf, n);
+    }
+
+    private long[] calcAccepting(int[] stateSet, boolean atEnd) {
+        long[] result = null;
+        for (int id : stateSet) {
+            NFAState s = states[id];
+            if (atEnd ? s.hasTransitionToFinalState(true) : s.hasTransitionToUnAnchoredFinalState(true)) {
+                if (result == null) {
+                    result = new long[RegexSetDFA.wordsFor(numberOfPatterns)];
+                }
+                int pattern = patternOfState[id];
+                result[pattern / Long.SIZE] |= 1L << pattern;
+            }
+        }
+        return result;
+    }
+
+    private int addState(int[] ids) {
+        if (ids.length == 0) {
+            return RegexSetDFA.DEAD_STATE;
+        }
+        StateSet key = new StateSet(ids);
+        Integer index = stateIndex.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (stateSets.size() >= TRegexOptions.TRegexMaxRegexSetDFASize) {
+            throw new UnsupportedRegexException("regex set DFA explosion");
+        }
+        stateIndex.put(key, stateSets.size());
+        stateSets.add(key);
+        return stateSets.size() - 1;
+    }
+
+    private static final class StateSet {
+
+        private final int[] ids;
+        private final int hash;
+
+        StateSet(int[] ids) {
+            this.ids = ids;
+            this.hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StateSet && Arrays.equals(ids, ((StateSet) obj).ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache with an approximate least-recently-used policy.
+ * <p>
+ * The cache is split into segments by the hash of the key, and every segment is a
+ * {@link LinkedHashMap} in access order that is guarded by its own lock, so lookups of different
+ * keys rarely contend. Every segment evicts its own least recently used entry when it is full, which
+ * approximates a global LRU policy.
+ * <p>
+ * Values are computed outside of the segment locks. Concurrent lookups of the same absent key
+ * compute the value only once: the first thread computes it, the others wait for its result.
+ */
+public final class ConcurrentLRUCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final CacheStatistics statistics;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLRUCache(int maxCacheSize, CacheStatistics statistics) {
+        if (maxCacheSize < 1) {
+            throw new IllegalArgumentException("maxCacheSize must be positive: " + maxCacheSize);
+        }
+        int nSegments = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maxCacheSize));
+        this.segments = new Segment[nSegments];
+        for (int i = 0; i < nSegments; i++) {
+            // distribute the remainder, so that the capacities add up to maxCacheSize
+            int capacity = maxCacheSize / nSegments + (i < maxCacheSize % nSegments ? 1 : 0);
+            segments[i] = new Segment<>(capacity, statistics);
+        }
+        this.statistics = statistics;
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Returns the value cached for {@code key}, computing it with {@code function} if it is absent.
+     * If the computation throws an exception, nothing is cached and the exception is rethrown in all
+     * threads that waited for the value.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        Segment<K, V> segment = segmentFor(key);
+        FutureTask<V> task;
+        boolean computeHere = false;
+        synchronized (segment) {
+            task = segment.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> function.apply(key));
+                segment.put(key, task);
+                computeHere = true;
+            }
+        }
+        if (computeHere) {
+            statistics.recordMiss();
+            task.run();
+        } else {
+            statistics.recordHit();
+        }
+        return await(segment, key, task);
+    }
+
+    private static <K, V> V await(Segment<K, V> segment, K key, FutureTask<V> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    synchronized (segment) {
+                        segment.remove(key, task);
+                    }
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached entries, including entries that are still being computed.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, FutureTask<V>> {
+        private static final long serialVersionUID = -4335426262539718014L;
+
+        private final int capacity;
+        private final transient CacheStatistics statistics;
+
+        Segment(int capacity, CacheStatistics statistics) {
+            super(16, 0.75F, true);
+            this.capacity = capacity;
+            this.statistics = statistics;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, FutureTask<V>> eldest) {
+            if (size() > capacity) {
+                statistics.recordEviction();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -644,6 +644,21 @@ public final class Engine implements AutoCloseable {
             return access.allowListAccess;
         }
 
+        @Override
+        public boolean isIterableAccessible(HostAccess access) {
+            return access.allowIterableAccess;
+        }
+
+        @Override
+        public boolean isMapAccessible(HostAccess access) {
+            return access.allowMapAccess;
+        }
+
+        @Override
+        public boolean isBufferAccessible(HostAccess access) {
+            return access.allowBufferAccess;
+        }
+
         @Override
         public Object getHostAccessImpl(HostAccess conf) {
             return conf.impl;
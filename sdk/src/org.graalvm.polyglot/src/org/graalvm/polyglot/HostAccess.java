@@ -94,9 +94,12 @@ public final class HostAccess {
     private final boolean allowAllImplementations;
     final boolean allowArrayAccess;
     final boolean allowListAccess;
+    final boolean allowIterableAccess;
+    final boolean allowMapAccess;
+    final boolean allowBufferAccess;
     volatile Object impl;
 
-    private static final HostAccess EMPTY = new HostAccess(null, null, null, null, null, null, null, false, false, false, false);
+    private static final HostAccess EMPTY = new HostAccess(null, null, null, null, null, null, null, false, false, false, false, false, false, false);
 
     /**
      * Predefined host access policy that allows access to public host methods or fields that were
@@ -130,12 +133,14 @@ public final class HostAccess {
      *
      * <pre>
      * HostAccess.newBuilder().allowPublicAccess(true).allowAllImplementations(true).//
-     *                 allowArrayAccess(true).allowListAccess(true).build();
+     *                 allowArrayAccess(true).allowListAccess(true).allowIterableAccess(true).//
+     *                 allowMapAccess(true).allowBufferAccess(true).build();
      * </pre>
      *
      * @since 19.0
      */
-    public static final HostAccess ALL = newBuilder().allowPublicAccess(true).allowAllImplementations(true).allowArrayAccess(true).allowListAccess(true).name("HostAccess.ALL").build();
+    public static final HostAccess ALL = newBuilder().allowPublicAccess(true).allowAllImplementations(true).allowArrayAccess(true).allowListAccess(true).allowIterableAccess(true).//
+                    allowMapAccess(true).allowBufferAccess(true).name("HostAccess.ALL").build();
 
     /**
      * Predefined host access policy that disallows any access to public host methods or fields.
@@ -154,7 +159,8 @@ public final class HostAccess {
                     EconomicSet<Class<? extends Annotation>> implementableAnnotations,
                     EconomicSet<Class<?>> implementableTypes, List<Object> targetMappings,
                     String name,
-                    boolean allowPublic, boolean allowAllImplementations, boolean allowArrayAccess, boolean allowListAccess) {
+                    boolean allowPublic, boolean allowAllImplementations, boolean allowArrayAccess, boolean allowListAccess, boolean allowIterableAccess, boolean allowMapAccess,
+                    boolean allowBufferAccess) {
         // create defensive copies
         this.accessAnnotations = copySet(annotations, Equivalence.IDENTITY);
         this.excludeTypes = copyMap(excludeTypes, Equivalence.IDENTITY);
@@ -167,6 +173,9 @@ public final class HostAccess {
         this.allowAllImplementations = allowAllImplementations;
         this.allowArrayAccess = allowArrayAccess;
         this.allowListAccess = allowListAccess;
+        this.allowIterableAccess = allowIterableAccess;
+        this.allowMapAccess = allowMapAccess;
+        this.allowBufferAccess = allowBufferAccess;
     }
 
     private static <T> EconomicSet<T> copySet(EconomicSet<T> values, Equivalence equivalence) {
@@ -368,6 +377,9 @@ public final class HostAccess {
         private boolean allowPublic;
         private boolean allowListAccess;
         private boolean allowArrayAccess;
+        private boolean allowIterableAccess;
+        private boolean allowMapAccess;
+        private boolean allowBufferAccess;
         private boolean allowAllImplementations;
         private String name;
 
@@ -387,6 +399,9 @@ public final class HostAccess {
             this.allowPublic = access.allowPublic;
             this.allowListAccess = access.allowListAccess;
             this.allowArrayAccess = access.allowArrayAccess;
+            this.allowIterableAccess = access.allowIterableAccess;
+            this.allowMapAccess = access.allowMapAccess;
+            this.allowBufferAccess = access.allowBufferAccess;
             this.allowAllImplementations = access.allowAllImplementations;
         }
 
@@ -542,6 +557,47 @@ public final class HostAccess {
             return this;
         }
 
+        /**
+         * Allows the guest application to iterate over {@link Iterable iterables} and
+         * {@link java.util.Iterator iterators} with {@link Value#hasIterator() iterator} access.
+         * By default no iterator access is allowed.
+         *
+         * @see Value#hasIterator()
+         * @see Value#isIterator()
+         * @since 20.0
+         */
+        public Builder allowIterableAccess(boolean iterableAccess) {
+            this.allowIterableAccess = iterableAccess;
+            return this;
+        }
+
+        /**
+         * Allows the guest application to access {@link java.util.Map maps} as values with
+         * {@link Value#hasHashEntries() hash entries}. By default no hash entry access is allowed.
+         *
+         * @see Value#hasHashEntries()
+         * @since 20.0
+         */
+        public Builder allowMapAccess(boolean mapAccess) {
+            this.allowMapAccess = mapAccess;
+            return this;
+        }
+
+        /**
+         * Allows the guest application to access {@link java.nio.ByteBuffer byte buffers} as values
+         * with {@link Value#hasBufferElements() buffer elements}, and to write into them unless they
+         * are read-only. Byte arrays are accessible as buffers if
+         * {@link #allowArrayAccess(boolean) array access} is allowed. By default no buffer access
+         * is allowed.
+         *
+         * @see Value#hasBufferElements()
+         * @since 20.0
+         */
+        public Builder allowBufferAccess(boolean bufferAccess) {
+            this.allowBufferAccess = bufferAccess;
+            return this;
+        }
+
         /**
          * Adds a custom source to target type mapping for Java host calls, host field assignments
          * and {@link Value#as(Class) explicit value conversions}. The source type specifies the
@@ -671,7 +727,7 @@ public final class HostAccess {
          */
         public HostAccess build() {
             return new HostAccess(accessAnnotations, excludeTypes, members, implementationAnnotations, implementableTypes, targetMappings, name, allowPublic, allowAllImplementations, allowArrayAccess,
-                            allowListAccess);
+                            allowListAccess, allowIterableAccess, allowMapAccess, allowBufferAccess);
         }
     }
 
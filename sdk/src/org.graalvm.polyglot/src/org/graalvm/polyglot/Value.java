@@ -42,6 +42,8 @@ package org.graalvm.polyglot;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -51,6 +53,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
@@ -233,6 +236,305 @@ public final class Value {
         return impl.getArraySize(receiver);
     }
 
+    /**
+     * Returns <code>true</code> if this polyglot value has buffer elements. In this case the
+     * contents of the value can be accessed as a sequence of bytes using
+     * {@link #readBufferByte(long)}, {@link #readBuffer(long, byte[], int, int)} and related
+     * methods, and the buffer size in bytes can be queried using {@link #getBufferSize()}. Host
+     * <code>byte[]</code> arrays and {@link ByteBuffer byte buffers} have buffer elements.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public boolean hasBufferElements() {
+        return impl.hasBufferElements(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if the buffer elements of this value can be written.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public boolean isBufferWritable() {
+        return impl.isBufferWritable(receiver);
+    }
+
+    /**
+     * Returns the buffer size in bytes for values with buffer elements.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public long getBufferSize() {
+        return impl.getBufferSize(receiver);
+    }
+
+    /**
+     * Reads the byte at the given byte offset of the buffer.
+     *
+     * @throws IndexOutOfBoundsException if the byte offset is not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public byte readBufferByte(long byteOffset) {
+        return impl.readBufferByte(receiver, byteOffset);
+    }
+
+    /**
+     * Writes the byte at the given byte offset of the buffer.
+     *
+     * @throws IndexOutOfBoundsException if the byte offset is not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public void writeBufferByte(long byteOffset, byte value) {
+        impl.writeBufferByte(receiver, byteOffset, value);
+    }
+
+    /**
+     * Reads the <code>int</code> at the given byte offset of the buffer in the given byte order.
+     * The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the value is not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public int readBufferInt(ByteOrder order, long byteOffset) {
+        Objects.requireNonNull(order);
+        return impl.readBufferInt(receiver, order, byteOffset);
+    }
+
+    /**
+     * Reads the <code>long</code> at the given byte offset of the buffer in the given byte order.
+     * The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the value is not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public long readBufferLong(ByteOrder order, long byteOffset) {
+        Objects.requireNonNull(order);
+        return impl.readBufferLong(receiver, order, byteOffset);
+    }
+
+    /**
+     * Reads the <code>double</code> at the given byte offset of the buffer in the given byte
+     * order. The byte offset does not need to be aligned.
+     *
+     * @throws IndexOutOfBoundsException if the value is not within the buffer.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public double readBufferDouble(ByteOrder order, long byteOffset) {
+        Objects.requireNonNull(order);
+        return impl.readBufferDouble(receiver, order, byteOffset);
+    }
+
+    /**
+     * Copies <code>length</code> bytes starting at the given byte offset of the buffer into
+     * <code>destination</code>, starting at <code>destinationOffset</code>. Languages copy the
+     * bytes at once where possible, so this is the preferred way to transfer larger amounts of
+     * data out of a buffer.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the buffer or not within
+     *             <code>destination</code>.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public void readBuffer(long byteOffset, byte[] destination, int destinationOffset, int length) {
+        Objects.requireNonNull(destination);
+        impl.readBuffer(receiver, byteOffset, destination, destinationOffset, length);
+    }
+
+    /**
+     * Copies <code>length</code> bytes of <code>source</code>, starting at
+     * <code>sourceOffset</code>, into the buffer starting at the given byte offset. Languages copy
+     * the bytes at once where possible, so this is the preferred way to transfer larger amounts of
+     * data into a buffer.
+     *
+     * @throws IndexOutOfBoundsException if the range is not within the buffer or not within
+     *             <code>source</code>.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasBufferElements() buffer elements} or the buffer is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public void writeBuffer(long byteOffset, byte[] source, int sourceOffset, int length) {
+        Objects.requireNonNull(source);
+        impl.writeBuffer(receiver, byteOffset, source, sourceOffset, length);
+    }
+
+    /**
+     * Returns <code>true</code> if this polyglot value provides an {@link #getIterator()
+     * iterator} over its elements. Host {@link Iterable iterables} provide an iterator if
+     * {@link HostAccess.Builder#allowIterableAccess(boolean) iterable access} is allowed.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @see #getIterator()
+     * @since 20.0
+     */
+    public boolean hasIterator() {
+        return impl.hasIterator(receiver);
+    }
+
+    /**
+     * Returns a new {@link #isIterator() iterator} over the elements of this value. The elements
+     * are produced one at a time, so large collections can be traversed without materializing
+     * all of their elements.
+     *
+     * @throws UnsupportedOperationException if the value does not {@link #hasIterator() provide
+     *             an iterator}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public Value getIterator() {
+        return impl.getIterator(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if this polyglot value is an iterator. The elements of an
+     * iterator are traversed using {@link #hasIteratorNextElement()} and
+     * {@link #getIteratorNextElement()}. Host {@link java.util.Iterator iterators} are iterators
+     * if {@link HostAccess.Builder#allowIterableAccess(boolean) iterable access} is allowed.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public boolean isIterator() {
+        return impl.isIterator(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if this iterator has an element that was not returned by
+     * {@link #getIteratorNextElement()} yet.
+     *
+     * @throws UnsupportedOperationException if the value is not an {@link #isIterator()
+     *             iterator}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public boolean hasIteratorNextElement() {
+        return impl.hasIteratorNextElement(receiver);
+    }
+
+    /**
+     * Returns the next element of this iterator and advances the iterator.
+     *
+     * @throws NoSuchElementException if the iterator does not have more elements.
+     * @throws UnsupportedOperationException if the value is not an {@link #isIterator()
+     *             iterator}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public Value getIteratorNextElement() {
+        return impl.getIteratorNextElement(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if this polyglot value maps keys to values. Unlike
+     * {@link #hasMembers() members}, the keys may be arbitrary values. Host {@link Map maps} have
+     * hash entries if {@link HostAccess.Builder#allowMapAccess(boolean) map access} is allowed.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @see #getHashValue(Object)
+     * @see #getHashEntriesIterator()
+     * @since 20.0
+     */
+    public boolean hasHashEntries() {
+        return impl.hasHashEntries(receiver);
+    }
+
+    /**
+     * Returns the number of hash entries of this value.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasHashEntries() hash entries}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public long getHashSize() {
+        return impl.getHashSize(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if this value has a readable hash entry for the given key. If the
+     * value has no {@link #hasHashEntries() hash entries} then <code>false</code> is returned.
+     * The key is converted like the arguments of {@link #execute(Object...)}.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public boolean hasHashEntry(Object key) {
+        return impl.hasHashEntry(receiver, key);
+    }
+
+    /**
+     * Returns the value of the hash entry for the given key, or <code>null</code> if there is no
+     * entry for the key. The key is converted like the arguments of {@link #execute(Object...)}.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasHashEntries() hash entries}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public Value getHashValue(Object key) {
+        return impl.getHashValue(receiver, key);
+    }
+
+    /**
+     * Returns a new {@link #isIterator() iterator} over the hash entries of this value. Each
+     * element of the iterator has two {@link #hasArrayElements() array elements}, the key at
+     * index <code>0</code> and the value at index <code>1</code>. The entries are produced one at
+     * a time, so large maps can be traversed without materializing all of their keys.
+     *
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasHashEntries() hash entries}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.0
+     */
+    public Value getHashEntriesIterator() {
+        return impl.getHashEntriesIterator(receiver);
+    }
+
     /**
      * Returns <code>true</code> if this value generally supports containing members. To check
      * whether a value has <i>no</i> members use
@@ -50,6 +50,7 @@ import java.io.Reader;
 import java.lang.reflect.AnnotatedElement;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.time.Instant;
@@ -179,6 +180,12 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract boolean isListAccessible(HostAccess access);
 
+        public abstract boolean isIterableAccessible(HostAccess access);
+
+        public abstract boolean isMapAccessible(HostAccess access);
+
+        public abstract boolean isBufferAccessible(HostAccess access);
+
         public abstract Object getHostAccessImpl(HostAccess conf);
 
         public abstract void setHostAccessImpl(HostAccess conf, Object impl);
@@ -571,6 +578,56 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract long getArraySize(Object receiver);
 
+        public boolean hasBufferElements(Object receiver) {
+            return false;
+        }
+
+        public abstract boolean isBufferWritable(Object receiver);
+
+        public abstract long getBufferSize(Object receiver);
+
+        public abstract byte readBufferByte(Object receiver, long byteOffset);
+
+        public abstract void writeBufferByte(Object receiver, long byteOffset, byte value);
+
+        public abstract int readBufferInt(Object receiver, ByteOrder order, long byteOffset);
+
+        public abstract long readBufferLong(Object receiver, ByteOrder order, long byteOffset);
+
+        public abstract double readBufferDouble(Object receiver, ByteOrder order, long byteOffset);
+
+        public abstract void readBuffer(Object receiver, long byteOffset, byte[] destination, int destinationOffset, int length);
+
+        public abstract void writeBuffer(Object receiver, long byteOffset, byte[] source, int sourceOffset, int length);
+
+        public boolean hasIterator(Object receiver) {
+            return false;
+        }
+
+        public abstract Value getIterator(Object receiver);
+
+        public boolean isIterator(Object receiver) {
+            return false;
+        }
+
+        public abstract boolean hasIteratorNextElement(Object receiver);
+
+        public abstract Value getIteratorNextElement(Object receiver);
+
+        public boolean hasHashEntries(Object receiver) {
+            return false;
+        }
+
+        public abstract long getHashSize(Object receiver);
+
+        public boolean hasHashEntry(Object receiver, Object key) {
+            return false;
+        }
+
+        public abstract Value getHashValue(Object receiver, Object key);
+
+        public abstract Value getHashEntriesIterator(Object receiver);
+
         public boolean hasMembers(Object receiver) {
             return false;
         }
@@ -426,7 +426,7 @@ def native_image_context(common_args=None, hosted_assertions=True, native_image_
             mx.log(timestr() + 'Shutting down completed')
 
 native_image_context.hosted_assertions = ['-J-ea', '-J-esa']
-_native_unittest_features = '--features=com.oracle.svm.test.ImageInfoTest$TestFeature,com.oracle.svm.test.ServiceLoaderTest$TestFeature'
+_native_unittest_features = '--features=com.oracle.svm.test.ImageInfoTest$TestFeature,com.oracle.svm.test.ServiceLoaderTest$TestFeature,com.oracle.svm.test.TypeStateStoreTest$TestFeature,com.oracle.svm.test.CompilationCacheTest$TestFeature'
 
 
 def svm_gate_body(args, tasks):
@@ -78,6 +78,7 @@ import com.oracle.graal.pointsto.meta.AnalysisUniverse;
 import com.oracle.graal.pointsto.meta.HostedProviders;
 import com.oracle.graal.pointsto.typestate.PointsToStats;
 import com.oracle.graal.pointsto.typestate.TypeState;
+import com.oracle.graal.pointsto.typestate.TypeStateStore;
 import com.oracle.graal.pointsto.util.CompletionExecutor;
 import com.oracle.graal.pointsto.util.CompletionExecutor.DebugContextRunnable;
 import com.oracle.graal.pointsto.util.Timer;
@@ -106,6 +107,7 @@ public abstract class BigBang {
     protected final AnalysisMetaAccess metaAccess;
     protected final HostVM hostVM;
     private final UnsupportedFeatures unsupportedFeatures;
+    private final TypeStateStore typeStateStore;
 
     protected final boolean trackTypeFlowInputs;
     protected final boolean reportAnalysisStatistics;
@@ -139,6 +141,7 @@ public abstract class BigBang {
         this.replacements = providers.getReplacements();
         this.unsupportedFeatures = unsupportedFeatures;
         this.providers = providers;
+        this.typeStateStore = new TypeStateStore(this);
 
         this.objectType = metaAccess.lookupJavaType(Object.class);
         /*
@@ -289,6 +292,10 @@ public abstract class BigBang {
         return replacements;
     }
 
+    public TypeStateStore getTypeStateStore() {
+        return typeStateStore;
+    }
+
     public UnsupportedFeatures getUnsupportedFeatures() {
         return unsupportedFeatures;
     }
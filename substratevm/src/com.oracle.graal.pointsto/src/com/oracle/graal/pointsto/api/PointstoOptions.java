@@ -101,6 +101,12 @@ public class PointstoOptions {
     @Option(help = "Object scanning in parallel")//
     public static final OptionKey<Boolean> ScanObjectsParallel = new OptionKey<>(true);
 
+    @Option(help = "Canonicalize equal type states so that they are shared between type flows.")//
+    public static final OptionKey<Boolean> InternTypeStates = new OptionKey<>(true);
+
+    @Option(help = "The number of entries of the cache for the results of type state union operations. 0 disables the cache.")//
+    public static final OptionKey<Integer> TypeStateUnionCacheSize = new OptionKey<>(4096);
+
     /**
      * Controls the static analysis context sensitivity. Available values:
      * <p/>
@@ -74,7 +74,8 @@ public class MultiTypeState extends TypeState {
          * another thread calls clone() the words[] array can be in an inconsistent state.
          */
         TypeStateUtils.trimBitSetToSize(typesBitSet);
-        this.typesBitSet = typesBitSet;
+        /* Many type states have the same types, so share the bit set between them. */
+        this.typesBitSet = bb.getTypeStateStore().intern(typesBitSet);
         long cardinality = typesBitSet.cardinality();
         assert cardinality < Integer.MAX_VALUE : "We don't expect so much types.";
         this.typesCount = (int) cardinality;
@@ -39,6 +39,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -114,6 +115,7 @@ public class PointsToStats {
 
             doReport(statsDirectory, reportNameRoot, "type state stats", timeStamp, PointsToStats::reportTypeStateStats);
             doReport(statsDirectory, reportNameRoot, "union operation stats", timeStamp, PointsToStats::reportUnionOpertationsStats);
+            doReport(statsDirectory, reportNameRoot, "type state store stats", timeStamp, PointsToStats::reportTypeStateStoreStats);
             doReport(statsDirectory, reportNameRoot, "type flow stats", timeStamp, PointsToStats::reportTypeFlowStats);
             doReport(statsDirectory, reportNameRoot, "pruned type flow stats", timeStamp, PointsToStats::reportPrunedTypeFlows);
 
@@ -380,6 +382,53 @@ public class PointsToStats {
                         });
     }
 
+    // type state store
+
+    private static final AtomicLong internedStates = new AtomicLong();
+    private static final AtomicLong deduplicatedStates = new AtomicLong();
+    private static final AtomicLong unionCacheLookups = new AtomicLong();
+    private static final AtomicLong unionCacheHits = new AtomicLong();
+
+    static void registerTypeStateIntern(BigBang bb, boolean deduplicated) {
+
+        if (!bb.reportAnalysisStatistics()) {
+            return;
+        }
+
+        internedStates.incrementAndGet();
+        if (deduplicated) {
+            deduplicatedStates.incrementAndGet();
+        }
+    }
+
+    static void registerUnionCacheLookup(BigBang bb, boolean hit) {
+
+        if (!bb.reportAnalysisStatistics()) {
+            return;
+        }
+
+        unionCacheLookups.incrementAndGet();
+        if (hit) {
+            unionCacheHits.incrementAndGet();
+        }
+    }
+
+    private static void reportTypeStateStoreStats(BufferedWriter out) {
+
+        long interned = internedStates.get();
+        long deduplicated = deduplicatedStates.get();
+        long lookups = unionCacheLookups.get();
+        long hits = unionCacheHits.get();
+
+        doWrite(out, String.format("%30s\t%10s\t%10s\t%10s\n", "Operation", "Total", "Shared", "Shared %"));
+        doWrite(out, String.format("%30s\t%10d\t%10d\t%10.2f\n", "Interned type states", interned, deduplicated, percentage(deduplicated, interned)));
+        doWrite(out, String.format("%30s\t%10d\t%10d\t%10.2f\n", "Union cache lookups", lookups, hits, percentage(hits, lookups)));
+    }
+
+    private static double percentage(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
     // union operations frequency
 
     private static ConcurrentHashMap<UnionOperation, AtomicInteger> unionStats = new ConcurrentHashMap<>();
@@ -300,7 +300,7 @@ public abstract class TypeState {
 
     /** Wraps an analysis object into a non-null type state. */
     public static TypeState forNonNullObject(BigBang bb, AnalysisObject object) {
-        return new SingleTypeState(bb, false, bb.analysisPolicy().makePoperties(bb, object), object);
+        return bb.getTypeStateStore().intern(new SingleTypeState(bb, false, bb.analysisPolicy().makePoperties(bb, object), object));
     }
 
     /** Wraps the analysis object corresponding to a JavaConstant into a non-null type state. */
@@ -344,7 +344,7 @@ public abstract class TypeState {
 
     public static TypeState forExactType(BigBang bb, AnalysisObject object, boolean canBeNull) {
         assert object.type().isArray() || (object.type().isInstanceClass() && !Modifier.isAbstract(object.type().getModifiers())) : object.type();
-        return new SingleTypeState(bb, canBeNull, bb.analysisPolicy().makePoperties(bb, object), object);
+        return bb.getTypeStateStore().intern(new SingleTypeState(bb, canBeNull, bb.analysisPolicy().makePoperties(bb, object), object));
     }
 
     public static TypeState forExactTypes(BigBang bb, BitSet exactTypes, boolean canBeNull) {
@@ -354,7 +354,7 @@ public abstract class TypeState {
         } else if (numTypes == 1) {
             AnalysisType type = bb.getUniverse().getType(exactTypes.nextSetBit(0));
             AnalysisObject analysisObject = type.getContextInsensitiveAnalysisObject();
-            return new SingleTypeState(bb, canBeNull, bb.analysisPolicy().makePoperties(bb, analysisObject), analysisObject);
+            return bb.getTypeStateStore().intern(new SingleTypeState(bb, canBeNull, bb.analysisPolicy().makePoperties(bb, analysisObject), analysisObject));
         } else {
             AnalysisObject[] objectsArray = new AnalysisObject[numTypes];
             int idx = 0;
@@ -368,7 +368,7 @@ public abstract class TypeState {
              */
             BitSet typesBitSet = (BitSet) exactTypes.clone();
             int properties = bb.analysisPolicy().makePoperties(bb, objectsArray);
-            return new MultiTypeState(bb, canBeNull, properties, typesBitSet, objectsArray);
+            return bb.getTypeStateStore().intern(new MultiTypeState(bb, canBeNull, properties, typesBitSet, objectsArray));
         }
     }
 
@@ -385,7 +385,7 @@ public abstract class TypeState {
             if (state.isSingleTypeState()) {
                 AnalysisType type = state.exactType();
                 AnalysisObject analysisObject = type.getContextInsensitiveAnalysisObject();
-                return new SingleTypeState(bb, state.canBeNull(), bb.analysisPolicy().makePoperties(bb, analysisObject), analysisObject);
+                return bb.getTypeStateStore().intern(new SingleTypeState(bb, state.canBeNull(), bb.analysisPolicy().makePoperties(bb, analysisObject), analysisObject));
             } else {
                 MultiTypeState multiState = (MultiTypeState) state;
                 AnalysisObject[] objectsArray = new AnalysisObject[multiState.typesCount()];
@@ -401,13 +401,13 @@ public abstract class TypeState {
 
                 BitSet typesBitSet = multiState.typesBitSet;
                 int properties = bb.analysisPolicy().makePoperties(bb, objectsArray);
-                return new MultiTypeState(bb, multiState.canBeNull(), properties, typesBitSet, objectsArray);
+                return bb.getTypeStateStore().intern(new MultiTypeState(bb, multiState.canBeNull(), properties, typesBitSet, objectsArray));
             }
         }
     }
 
     public final TypeState forNonNull(BigBang bb) {
-        return forCanBeNull(bb, false);
+        return bb.getTypeStateStore().intern(forCanBeNull(bb, false));
     }
 
     protected abstract TypeState forCanBeNull(BigBang bb, boolean stateCanBeNull);
@@ -421,12 +421,44 @@ public abstract class TypeState {
         } else if (s1.isEmpty()) {
             return s2;
         } else if (s1.isNull()) {
-            return s2.forCanBeNull(bb, true);
+            return bb.getTypeStateStore().intern(s2.forCanBeNull(bb, true));
         } else if (s2.isEmpty()) {
             return s1;
         } else if (s2.isNull()) {
-            return s1.forCanBeNull(bb, true);
-        } else if (s1 instanceof SingleTypeState && s2 instanceof SingleTypeState) {
+            return bb.getTypeStateStore().intern(s1.forCanBeNull(bb, true));
+        } else {
+            /* The same pairs of states are merged over and over again, so look for a result. */
+            TypeStateStore store = bb.getTypeStateStore();
+            TypeState result = store.lookupUnion(s1, s2);
+            if (result == null) {
+                result = store.intern(forUnion0(bb, s1, s2));
+                store.cacheUnion(s1, s2, result);
+            } else if (bb.reportAnalysisStatistics()) {
+                registerCachedUnion(bb, s1, s2, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Registers a union that was found in the union cache like {@link #forUnion0} registers the
+     * unions it computes: only if the result has more objects than both inputs, with the inputs in
+     * the same order.
+     */
+    private static void registerCachedUnion(BigBang bb, TypeState s1, TypeState s2, TypeState result) {
+        if (result.objectsCount() <= s1.objectsCount() || result.objectsCount() <= s2.objectsCount()) {
+            /* One of the inputs was returned, with at most a different null state. */
+            return;
+        }
+        if ((s1 instanceof SingleTypeState && s2 instanceof MultiTypeState) || (s1 instanceof MultiTypeState && s2 instanceof MultiTypeState && s1.objectsCount() < s2.objectsCount())) {
+            PointsToStats.registerUnionOperation(bb, s2, s1, result);
+        } else {
+            PointsToStats.registerUnionOperation(bb, s1, s2, result);
+        }
+    }
+
+    private static TypeState forUnion0(BigBang bb, TypeState s1, TypeState s2) {
+        if (s1 instanceof SingleTypeState && s2 instanceof SingleTypeState) {
             return doUnion(bb, (SingleTypeState) s1, (SingleTypeState) s2);
         } else if (s1 instanceof SingleTypeState && s2 instanceof MultiTypeState) {
             return doUnion(bb, (MultiTypeState) s2, (SingleTypeState) s1);
@@ -443,6 +475,10 @@ public abstract class TypeState {
     }
 
     public static TypeState forIntersection(BigBang bb, TypeState s1, TypeState s2) {
+        return bb.getTypeStateStore().intern(forIntersection0(bb, s1, s2));
+    }
+
+    private static TypeState forIntersection0(BigBang bb, TypeState s1, TypeState s2) {
         if (s1.isUnknown() || s2.isUnknown()) {
             // Intersection with unknown type state is undefined.
             bb.getUnsupportedFeatures().addMessage("Intersection with unknown type state is undefined.", null,
@@ -471,6 +507,10 @@ public abstract class TypeState {
     }
 
     public static TypeState forSubtraction(BigBang bb, TypeState s1, TypeState s2) {
+        return bb.getTypeStateStore().intern(forSubtraction0(bb, s1, s2));
+    }
+
+    private static TypeState forSubtraction0(BigBang bb, TypeState s1, TypeState s2) {
         if (s1.isUnknown() || s2.isUnknown()) {
             // Subtraction of unknown type state is undefined.
             bb.getUnsupportedFeatures().addMessage("Subtraction of unknown type state is undefined.", null,
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.pointsto.typestate;
+
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.oracle.graal.pointsto.BigBang;
+import com.oracle.graal.pointsto.api.PointstoOptions;
+
+/**
+ * Canonicalizes the type states created during the analysis, so that equal type states are
+ * represented by a single object that is shared between all the type flows that hold it. Type
+ * states are immutable, which makes sharing safe. The types bit sets of {@link MultiTypeState}s
+ * are canonicalized too, since many type states with different objects have the same types.
+ *
+ * Canonical objects are only weakly referenced, so a type state that is no longer the state of
+ * any type flow can still be collected. The store additionally caches the results of recent union
+ * operations, keyed by the identity of the (canonical) inputs, since the same pairs of states are
+ * merged over and over again while the analysis propagates them through the type flow graph.
+ *
+ * States are interned after they have been created, so interning reduces the heap retained by the
+ * type flows, not the number of states that are allocated. Only a hit in the union cache avoids
+ * creating a state.
+ */
+public final class TypeStateStore {
+
+    private final BigBang bb;
+    private final boolean enabled;
+    private final Interner<TypeState> states;
+    private final Interner<BitSet> bitSets;
+    private final UnionEntry[] unionCache;
+
+    public TypeStateStore(BigBang bb) {
+        this.bb = bb;
+        this.enabled = PointstoOptions.InternTypeStates.getValue(bb.getOptions());
+        this.states = new Interner<>();
+        this.bitSets = new Interner<>();
+        int cacheSize = PointstoOptions.TypeStateUnionCacheSize.getValue(bb.getOptions());
+        this.unionCache = enabled && cacheSize > 0 ? new UnionEntry[Integer.highestOneBit(cacheSize)] : null;
+    }
+
+    /**
+     * Returns the canonical type state that is equal to the given state. Only single and multi type
+     * states are canonicalized, the other type states are singletons already.
+     */
+    public TypeState intern(TypeState state) {
+        if (!enabled || !(state instanceof SingleTypeState || state instanceof MultiTypeState)) {
+            return state;
+        }
+        TypeState result = states.intern(state);
+        if (result.getProperties() != state.getProperties()) {
+            /* The analysis policy distinguishes the states, so they cannot be shared. */
+            result = state;
+        }
+        PointsToStats.registerTypeStateIntern(bb, result != state);
+        return result;
+    }
+
+    /**
+     * Returns the canonical bit set that is equal to the given types bit set. The bit set must not
+     * be modified after it has been passed to this method.
+     */
+    public BitSet intern(BitSet typesBitSet) {
+        if (!enabled) {
+            return typesBitSet;
+        }
+        return bitSets.intern(typesBitSet);
+    }
+
+    /** Returns the cached result of the union of the two states, or null if there is none. */
+    TypeState lookupUnion(TypeState s1, TypeState s2) {
+        if (unionCache == null) {
+            return null;
+        }
+        UnionEntry entry = unionCache[unionIndex(s1, s2)];
+        TypeState result = null;
+        if (entry != null && ((entry.s1 == s1 && entry.s2 == s2) || (entry.s1 == s2 && entry.s2 == s1))) {
+            result = entry.result;
+        }
+        PointsToStats.registerUnionCacheLookup(bb, result != null);
+        return result;
+    }
+
+    /** Records the result of the union of the two states, replacing any previous entry. */
+    void cacheUnion(TypeState s1, TypeState s2, TypeState result) {
+        if (unionCache != null) {
+            /*
+             * The entries are immutable, so a racy write can at worst replace a more recent entry
+             * with an older one.
+             */
+            unionCache[unionIndex(s1, s2)] = new UnionEntry(s1, s2, result);
+        }
+    }
+
+    private int unionIndex(TypeState s1, TypeState s2) {
+        /* Union is commutative, so the index must not depend on the order of the inputs. */
+        int hash = System.identityHashCode(s1) + System.identityHashCode(s2);
+        hash ^= hash >>> 16;
+        return hash & (unionCache.length - 1);
+    }
+
+    private static final class UnionEntry {
+        final TypeState s1;
+        final TypeState s2;
+        final TypeState result;
+
+        UnionEntry(TypeState s1, TypeState s2, TypeState result) {
+            this.s1 = s1;
+            this.s2 = s2;
+            this.result = result;
+        }
+    }
+
+    /**
+     * A weak interner. The table is split into segments that are locked separately, since type
+     * states are created concurrently by all the analysis threads.
+     */
+    private static final class Interner<T> {
+        private static final int SEGMENTS = 64;
+
+        private final Map<T, WeakReference<T>>[] segments;
+
+        @SuppressWarnings("unchecked")
+        Interner() {
+            segments = new Map[SEGMENTS];
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new WeakHashMap<>();
+            }
+        }
+
+        T intern(T value) {
+            int hash = value.hashCode();
+            Map<T, WeakReference<T>> segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+            synchronized (segment) {
+                WeakReference<T> ref = segment.get(value);
+                T canonical = ref == null ? null : ref.get();
+                if (canonical == null) {
+                    segment.put(value, new WeakReference<>(value));
+                    canonical = value;
+                }
+                return canonical;
+            }
+        }
+    }
+}
@@ -453,6 +453,13 @@ public class AlignedHeapChunk extends HeapChunk {
             trace.newline().string("  ").string("  index: ").unsigned(index);
             /* If the card is dirty, visit the objects it covers. */
             if (CardTable.isDirtyEntryAtIndex(cardTableStart, index)) {
+                /*
+                 * Clean the card before visiting the objects, so that the visitor can dirty it
+                 * again, e.g., if an object still references a survivor object afterwards.
+                 */
+                if (clean) {
+                    CardTable.cleanEntryAtIndex(cardTableStart, index);
+                }
                 final Pointer cardLimit = CardTable.indexToMemoryPointer(objectsStart, index.add(1));
                 final Pointer crossingOntoPointer = FirstObjectTable.getPreciseFirstObjectPointer(fotStart, objectsStart, objectsLimit, index);
                 final Object crossingOntoObject = crossingOntoPointer.toObject();
@@ -496,9 +503,6 @@ public class AlignedHeapChunk extends HeapChunk {
                     }
                     ptr = objEnd;
                 }
-                if (clean) {
-                    CardTable.cleanEntryAtIndex(cardTableStart, index);
-                }
             }
         }
         trace.string("]").newline();
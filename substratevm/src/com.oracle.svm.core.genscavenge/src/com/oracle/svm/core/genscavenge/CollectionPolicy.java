@@ -52,6 +52,9 @@ public abstract class CollectionPolicy {
          */
         @Option(help = "Percentage of time that should be spent in young generation collections.")//
         public static final RuntimeOptionKey<Integer> PercentTimeInIncrementalCollection = new RuntimeOptionKey<>(50);
+
+        @Option(help = "Percentage of the old generation occupied by dead objects above which a mark-sweep policy copies the old generation to compact it.")//
+        public static final RuntimeOptionKey<Integer> OldGenerationCompactionThresholdPercent = new RuntimeOptionKey<>(25);
     }
 
     @Platforms(Platform.HOSTED_ONLY.class)
@@ -65,6 +68,14 @@ public abstract class CollectionPolicy {
     /** Return true if this collection should be a complete collection. */
     public abstract boolean collectCompletely();
 
+    /**
+     * Return true if this complete collection should mark and sweep the old generation in place,
+     * rather than copy it.
+     */
+    public boolean collectOldGenerationInPlace() {
+        return false;
+    }
+
     /** Constructor for subclasses. */
     CollectionPolicy() {
         /* Nothing to do. */
@@ -296,4 +307,28 @@ public abstract class CollectionPolicy {
             return veto;
         }
     }
+
+    /**
+     * A collection policy that decides like {@link BySpaceAndTime} when to collect, but collects
+     * the old generation in place, so that a complete collection does not need space for a copy of
+     * the old generation. The old generation is copied instead once the dead objects left in it by
+     * sweeping exceed {@link Options#OldGenerationCompactionThresholdPercent}.
+     */
+    public static class MarkSweepBySpaceAndTime extends BySpaceAndTime {
+
+        @Override
+        public boolean collectOldGenerationInPlace() {
+            final Log trace = Log.noopLog().string("[CollectionPolicy.MarkSweepBySpaceAndTime.collectOldGenerationInPlace:");
+            final int fragmentationPercent = HeapImpl.getHeapImpl().getOldGeneration().getFragmentationPercent();
+            final boolean result = fragmentationPercent <= Options.OldGenerationCompactionThresholdPercent.getValue();
+            trace.string("  fragmentationPercent: ").signed(fragmentationPercent).string("  returns: ").bool(result).string("]").newline();
+            return result;
+        }
+
+        @Override
+        public void nameToLog(Log log) {
+            super.nameToLog(log);
+            log.string(", old generation in place up to ").signed(Options.OldGenerationCompactionThresholdPercent.getValue()).string("% fragmentation");
+        }
+    }
 }
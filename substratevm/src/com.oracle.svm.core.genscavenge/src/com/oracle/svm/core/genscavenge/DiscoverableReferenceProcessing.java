@@ -148,6 +148,7 @@ public class DiscoverableReferenceProcessing {
             /* If the referent got forwarded, then update the referent. */
             final Pointer forwardedPointer = ObjectHeaderImpl.getObjectHeaderImpl().getForwardingPointer(refPointer);
             dr.setReferentPointer(forwardedPointer);
+            dirtyCardIfReferentIsYoung(dr, forwardedPointer.toObject());
             trace.string("  forwarded header: updated referent: ").hex(forwardedPointer).string("]").newline();
             return true;
         }
@@ -157,6 +158,7 @@ public class DiscoverableReferenceProcessing {
         final Object refObject = refPointer.toObject();
         if (HeapImpl.getHeapImpl().hasSurvivedThisCollection(refObject)) {
             /* The referent has survived, it does not need to be updated. */
+            dirtyCardIfReferentIsYoung(dr, refObject);
             trace.string("  referent will survive: not updated").string("]").newline();
             return true;
         }
@@ -172,6 +174,16 @@ public class DiscoverableReferenceProcessing {
         return false;
     }
 
+    /**
+     * A DiscoverableReference in the old generation is only discovered again by an incremental
+     * collection if its card is dirty, so keep it dirty while the referent is in a survivor space.
+     */
+    private static void dirtyCardIfReferentIsYoung(DiscoverableReference dr, Object referent) {
+        if (HeapPolicy.getMaxSurvivorSpaces() > 0 && HeapImpl.getHeapImpl().isInYoungGeneration(referent)) {
+            GreyToBlackObjectVisitor.dirtyCardIfOld(dr);
+        }
+    }
+
     /** Pop the first element off the discovered references list. */
     private static DiscoverableReference popDiscoveredReference() {
         final DiscoverableReference result = getDiscoveredList();
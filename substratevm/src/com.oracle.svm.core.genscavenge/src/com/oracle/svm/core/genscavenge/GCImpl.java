@@ -129,6 +129,7 @@ public class GCImpl implements GC {
 
     private CollectionPolicy policy;
     private boolean completeCollection;
+    private boolean oldGenerationInPlace;
     private UnsignedWord sizeBefore;
 
     @Platforms(Platform.HOSTED_ONLY.class)
@@ -142,6 +143,7 @@ public class GCImpl implements GC {
         this.noAllocationVerifier = NoAllocationVerifier.factory("GCImpl.GCImpl()", false);
         this.discoveredReferenceList = null;
         this.completeCollection = false;
+        this.oldGenerationInPlace = false;
         this.sizeBefore = WordFactory.zero();
 
         this.policy = CollectionPolicy.getInitialPolicy(access);
@@ -294,12 +296,17 @@ public class GCImpl implements GC {
                  * find them on the free list.
                  *
                  */
+                completeCollection = false;
+                oldGenerationInPlace = false;
                 if (getPolicy().collectIncrementally()) {
                     scavenge(true);
                 }
                 completeCollection = getPolicy().collectCompletely();
                 if (completeCollection) {
+                    oldGenerationInPlace = getPolicy().collectOldGenerationInPlace();
                     scavenge(false);
+                } else if (HeapPolicy.getMaxSurvivorSpaces() > 0) {
+                    heap.getYoungGeneration().updateTenuringThreshold();
                 }
             }
 
@@ -391,7 +398,7 @@ public class GCImpl implements GC {
                 verboseGCLog.string(" GC:").string(" after ").string("  epoch: ").unsigned(getCollectionEpoch()).string("  cause: ").string(cause);
                 verboseGCLog.string("  policy: ");
                 getPolicy().nameToLog(verboseGCLog);
-                verboseGCLog.string("  type: ").string(completeCollection ? "complete" : "incremental");
+                verboseGCLog.string("  type: ").string(completeCollection ? (oldGenerationInPlace ? "complete in place" : "complete") : "incremental");
                 if (HeapOptions.PrintHeapShape.getValue()) {
                     heap.report(verboseGCLog);
                 }
@@ -400,6 +407,10 @@ public class GCImpl implements GC {
                     verboseGCLog.string("  collection time: ").unsigned(collectionTimer.getCollectedNanos()).string(" nanoSeconds");
                 } else {
                     logGCTimers(verboseGCLog);
+                    if (HeapPolicy.getMaxSurvivorSpaces() > 0) {
+                        verboseGCLog.newline().string("  ");
+                        heap.getYoungGeneration().reportTenuringDistribution(verboseGCLog);
+                    }
                 }
                 verboseGCLog.string("]");
                 verboseGCLog.string("]").newline();
@@ -422,6 +433,9 @@ public class GCImpl implements GC {
         verbosePostCondition();
         assert youngGen.getSpace().isEmpty() : "youngGen.getSpace() should be empty after a collection.";
         assert oldGen.getToSpace().isEmpty() : "oldGen.getToSpace() should be empty after a collection.";
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            assert youngGen.getSurvivorToSpaceAt(i).isEmpty() : "survivor toSpaces should be empty after a collection.";
+        }
     }
 
     private void verbosePostCondition() {
@@ -467,8 +481,8 @@ public class GCImpl implements GC {
 
     private boolean checkIfOutOfMemory() {
         final UnsignedWord allowed = HeapPolicy.getMaximumHeapSize();
-        /* Only the old generation has objects in it because the young generation is empty. */
-        final UnsignedWord inUse = getAccounting().getOldGenerationAfterChunkBytes();
+        /* Only the old generation and the survivor spaces have objects in them. */
+        final UnsignedWord inUse = getAccounting().getOldGenerationAfterChunkBytes().add(getAccounting().getSurvivorAfterChunkBytes());
         return allowed.belowThan(inUse);
     }
 
@@ -796,6 +810,7 @@ public class GCImpl implements GC {
 
     private static void prepareForPromotion() {
         final HeapImpl heap = HeapImpl.getHeapImpl();
+        heap.getYoungGeneration().prepareForPromotion();
         final OldGeneration oldGen = heap.getOldGeneration();
         oldGen.prepareForPromotion();
     }
@@ -804,9 +819,22 @@ public class GCImpl implements GC {
     private void scanGreyObjects() {
         final Log trace = Log.noopLog().string("[GCImpl.scanGreyObjects").newline();
         final HeapImpl heap = HeapImpl.getHeapImpl();
+        final YoungGeneration youngGen = heap.getYoungGeneration();
         final OldGeneration oldGen = heap.getOldGeneration();
         try (Timer sgot = scanGreyObjectsTimer.open()) {
-            oldGen.scanGreyObjects();
+            if (HeapPolicy.getMaxSurvivorSpaces() == 0) {
+                oldGen.scanGreyObjects();
+            } else {
+                /*
+                 * Scanning the grey objects of the old generation can make objects in the survivor
+                 * spaces grey, and vice versa, so scan until neither has any grey objects.
+                 */
+                boolean hasGrey = true;
+                while (hasGrey) {
+                    oldGen.scanGreyObjects();
+                    hasGrey = youngGen.scanGreyObjects();
+                }
+            }
         }
         trace.string("]").newline();
     }
@@ -834,6 +862,7 @@ public class GCImpl implements GC {
         final HeapImpl heap = HeapImpl.getHeapImpl();
         final OldGeneration oldGen = heap.getOldGeneration();
         oldGen.swapSpaces();
+        heap.getYoungGeneration().swapSpaces();
         trace.string("]").newline();
     }
 
@@ -999,6 +1028,16 @@ public class GCImpl implements GC {
      * Field access methods.
      */
 
+    /** Does the current collection promote all young objects to the old generation? */
+    boolean isCompleteCollection() {
+        return completeCollection;
+    }
+
+    /** Does the current collection mark and sweep the old generation instead of copying it? */
+    boolean isCollectingOldGenerationInPlace() {
+        return oldGenerationInPlace;
+    }
+
     protected Accounting getAccounting() {
         return accounting;
     }
@@ -1141,6 +1180,7 @@ public class GCImpl implements GC {
         private UnsignedWord youngChunkBytesBefore;
         private UnsignedWord oldChunkBytesBefore;
         private UnsignedWord oldChunkBytesAfter;
+        private UnsignedWord survivorChunkBytesAfter;
         /* History of promotions and copies. */
         private int history;
         private UnsignedWord[] promotedUnpinnedChunkBytes;
@@ -1153,6 +1193,7 @@ public class GCImpl implements GC {
         private UnsignedWord youngObjectBytesBefore;
         private UnsignedWord oldObjectBytesBefore;
         private UnsignedWord oldObjectBytesAfter;
+        private UnsignedWord survivorObjectBytesAfter;
         private UnsignedWord normalObjectBytes;
 
         @Platforms(Platform.HOSTED_ONLY.class)
@@ -1169,6 +1210,7 @@ public class GCImpl implements GC {
             this.youngChunkBytesBefore = WordFactory.zero();
             this.oldChunkBytesBefore = WordFactory.zero();
             this.oldChunkBytesAfter = WordFactory.zero();
+            this.survivorChunkBytesAfter = WordFactory.zero();
             /* Initialize histories. */
             this.promotedUnpinnedChunkBytes = historyFactory(WordFactory.zero());
             this.copiedUnpinnedChunkBytes = historyFactory(WordFactory.zero());
@@ -1177,6 +1219,7 @@ public class GCImpl implements GC {
             this.youngObjectBytesBefore = WordFactory.zero();
             this.oldObjectBytesBefore = WordFactory.zero();
             this.oldObjectBytesAfter = WordFactory.zero();
+            this.survivorObjectBytesAfter = WordFactory.zero();
             this.normalObjectBytes = WordFactory.zero();
         }
 
@@ -1234,6 +1277,11 @@ public class GCImpl implements GC {
             return oldChunkBytesAfter;
         }
 
+        /** Bytes held in the survivor spaces of the young generation. */
+        UnsignedWord getSurvivorAfterChunkBytes() {
+            return survivorChunkBytesAfter;
+        }
+
         /** Average promoted unpinned chunk bytes. */
         UnsignedWord averagePromotedUnpinnedChunkBytes() {
             return averageOfHistory(promotedUnpinnedChunkBytes);
@@ -1310,18 +1358,21 @@ public class GCImpl implements GC {
             /* Gather some space statistics. */
             incrementHistory();
             final HeapImpl heap = HeapImpl.getHeapImpl();
-            final Space youngSpace = heap.getYoungGeneration().getSpace();
-            youngChunkBytesBefore = youngSpace.getChunkBytes();
+            final YoungGeneration youngGen = heap.getYoungGeneration();
+            final Space youngSpace = youngGen.getSpace();
+            /* The young generation is the young space and the survivors of earlier collections. */
+            youngChunkBytesBefore = youngSpace.getChunkBytes().add(youngGen.getSurvivorChunkBytes());
             /* This is called before the collection, so OldSpace is FromSpace. */
             final Space oldSpace = heap.getOldGeneration().getFromSpace();
             oldChunkBytesBefore = oldSpace.getChunkBytes();
-            /* Objects are allocated in the young generation. */
-            normalChunkBytes = normalChunkBytes.add(youngChunkBytesBefore);
+            /* Objects are allocated in the young space. */
+            normalChunkBytes = normalChunkBytes.add(youngSpace.getChunkBytes());
             /* Keep some aggregate metrics. */
             if (SubstrateOptions.PrintGCSummary.getValue()) {
-                youngObjectBytesBefore = youngSpace.getObjectBytes();
+                final UnsignedWord allocatedObjectBytes = youngSpace.getObjectBytes();
+                youngObjectBytesBefore = allocatedObjectBytes.add(youngGen.getSurvivorObjectBytes());
                 oldObjectBytesBefore = oldSpace.getObjectBytes();
-                normalObjectBytes = normalObjectBytes.add(youngObjectBytesBefore);
+                normalObjectBytes = normalObjectBytes.add(allocatedObjectBytes);
             }
             trace.string("  youngChunkBytesBefore: ").unsigned(youngChunkBytesBefore)
                             .string("  oldChunkBytesBefore: ").unsigned(oldChunkBytesBefore);
@@ -1377,15 +1428,18 @@ public class GCImpl implements GC {
              */
             final Space oldSpace = heap.getOldGeneration().getFromSpace();
             oldChunkBytesAfter = oldSpace.getChunkBytes();
+            /* The survivors of this collection have been moved to the survivor from spaces. */
+            survivorChunkBytesAfter = heap.getYoungGeneration().getSurvivorChunkBytes();
             final UnsignedWord beforeChunkBytes = youngChunkBytesBefore.add(oldChunkBytesBefore);
-            final UnsignedWord afterChunkBytes = oldChunkBytesAfter;
+            final UnsignedWord afterChunkBytes = oldChunkBytesAfter.add(survivorChunkBytesAfter);
             final UnsignedWord collectedChunkBytes = beforeChunkBytes.subtract(afterChunkBytes);
             collectedTotalChunkBytes = collectedTotalChunkBytes.add(collectedChunkBytes);
             if (SubstrateOptions.PrintGCSummary.getValue()) {
-                /* The young generation is empty after the collection. */
+                /* The young space is empty after the collection, but not the survivor spaces. */
                 oldObjectBytesAfter = oldSpace.getObjectBytes();
+                survivorObjectBytesAfter = heap.getYoungGeneration().getSurvivorObjectBytes();
                 final UnsignedWord beforeObjectBytes = youngObjectBytesBefore.add(oldObjectBytesBefore);
-                final UnsignedWord collectedObjectBytes = beforeObjectBytes.subtract(oldObjectBytesAfter);
+                final UnsignedWord collectedObjectBytes = beforeObjectBytes.subtract(oldObjectBytesAfter.add(survivorObjectBytesAfter));
                 collectedTotalObjectBytes = collectedTotalObjectBytes.add(collectedObjectBytes);
             }
         }
@@ -1602,6 +1656,7 @@ public class GCImpl implements GC {
         log.string(prefix).string("MinimumHeapSize: ").unsigned(HeapPolicy.getMinimumHeapSize()).newline();
         log.string(prefix).string("MaximumHeapSize: ").unsigned(HeapPolicy.getMaximumHeapSize()).newline();
         log.string(prefix).string("AlignedChunkSize: ").unsigned(HeapPolicy.getAlignedHeapChunkSize()).newline();
+        log.string(prefix).string("MaxSurvivorSpaces: ").signed(HeapPolicy.getMaxSurvivorSpaces()).newline();
 
         /* Add in any young objects allocated since the last collection. */
         JavaVMOperation.enqueueBlockingSafepoint("PrintGCSummaryShutdownHook", ThreadLocalAllocation::disableThreadLocalAllocation);
@@ -1619,6 +1674,11 @@ public class GCImpl implements GC {
         log.string(prefix).string("CollectedTotalObjectBytes: ").signed(accounting.getCollectedTotalObjectBytes()).newline();
         log.string(prefix).string("AllocatedNormalChunkBytes: ").signed(allocatedNormalChunkBytes).newline();
         log.string(prefix).string("AllocatedNormalObjectBytes: ").signed(allocatedNormalObjectBytes).newline();
+        log.string(prefix).string("PromotedTotalChunkBytes: ").signed(accounting.getPromotedTotalChunkBytes()).newline();
+        if (HeapPolicy.getMaxSurvivorSpaces() > 0) {
+            log.string(prefix);
+            heap.getYoungGeneration().reportTenuringDistribution(log).newline();
+        }
 
         /* Print the collection counts and times. */
         final long incrementalNanos = accounting.getIncrementalCollectionTotalNanos();
@@ -101,6 +101,9 @@ public class GreyToBlackObjRefVisitor implements ObjectReferenceVisitor {
             final Object obj = ohi.getForwardedObject(p);
             final Object offsetObj = (innerOffset == 0) ? obj : Word.objectToUntrackedPointer(obj).add(innerOffset).toObject();
             ReferenceAccess.singleton().writeObjectAt(objRef, offsetObj, compressed);
+            if (HeapPolicy.getMaxSurvivorSpaces() > 0) {
+                noteReferent(obj);
+            }
             trace.object(obj);
             if (trace.isEnabled()) {
                 trace.string("  objectHeader: ").string(ohi.toStringFromObject(obj)).string("]").newline();
@@ -140,10 +143,34 @@ public class GreyToBlackObjRefVisitor implements ObjectReferenceVisitor {
         } else {
             getCounters().noteUnmodifiedReference();
         }
+        if (HeapPolicy.getMaxSurvivorSpaces() > 0) {
+            noteReferent(copy);
+        }
         trace.string("]").newline();
         return true;
     }
 
+    /**
+     * Note if a referent remains in the young generation, i.e., it was promoted to a survivor
+     * space, so that the card of an old object holding the reference can be dirtied.
+     */
+    @AlwaysInline("GC performance")
+    private void noteReferent(Object referent) {
+        if (!youngReferentVisited && HeapImpl.getHeapImpl().isInYoungGeneration(referent)) {
+            youngReferentVisited = true;
+        }
+    }
+
+    /** Forget about the young referents visited so far. */
+    void resetYoungReferentVisited() {
+        youngReferentVisited = false;
+    }
+
+    /** Has a reference to a young object been visited since the last reset? */
+    boolean getYoungReferentVisited() {
+        return youngReferentVisited;
+    }
+
     protected Counters getCounters() {
         return counters;
     }
@@ -170,6 +197,9 @@ public class GreyToBlackObjRefVisitor implements ObjectReferenceVisitor {
     // Immutable state.
     protected final Counters counters;
 
+    // Mutable state.
+    private boolean youngReferentVisited;
+
     /** A set of counters. The default implementation is a noop. */
     public interface Counters extends AutoCloseable {
 
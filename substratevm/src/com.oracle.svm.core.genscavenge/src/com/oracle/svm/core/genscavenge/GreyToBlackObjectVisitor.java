@@ -35,7 +35,6 @@ import org.graalvm.word.WordFactory;
 import com.oracle.svm.core.SubstrateUtil;
 import com.oracle.svm.core.annotate.AlwaysInline;
 import com.oracle.svm.core.annotate.RestrictHeapAccess;
-import com.oracle.svm.core.heap.ObjectReferenceVisitor;
 import com.oracle.svm.core.heap.ObjectVisitor;
 import com.oracle.svm.core.hub.DynamicHub;
 import com.oracle.svm.core.hub.InteriorObjRefWalker;
@@ -58,7 +57,7 @@ public final class GreyToBlackObjectVisitor implements ObjectVisitor {
     private final DiagnosticReporter diagnosticReporter;
 
     @Platforms(Platform.HOSTED_ONLY.class)
-    public static GreyToBlackObjectVisitor factory(final ObjectReferenceVisitor objRefVisitor) {
+    public static GreyToBlackObjectVisitor factory(final GreyToBlackObjRefVisitor objRefVisitor) {
         return new GreyToBlackObjectVisitor(objRefVisitor);
     }
 
@@ -87,13 +86,38 @@ public final class GreyToBlackObjectVisitor implements ObjectVisitor {
         }
         trace.string("[GreyToBlackObjectVisitor:").string("  o: ").object(o);
         DiscoverableReferenceProcessing.discoverDiscoverableReference(o);
-        InteriorObjRefWalker.walkObjectInline(o, objRefVisitor);
+        if (HeapPolicy.getMaxSurvivorSpaces() == 0) {
+            InteriorObjRefWalker.walkObjectInline(o, objRefVisitor);
+        } else {
+            objRefVisitor.resetYoungReferentVisited();
+            InteriorObjRefWalker.walkObjectInline(o, objRefVisitor);
+            if (objRefVisitor.getYoungReferentVisited()) {
+                dirtyCardIfOld(o);
+            }
+        }
         trace.string("]").newline();
         return true;
     }
 
+    /**
+     * An old object that references an object in a survivor space is an incremental collection
+     * root until that object is tenured, so its card has to stay dirty. The card of an object is
+     * cleaned before it is visited as a dirty root, and the cards of newly-promoted objects start
+     * clean.
+     */
+    static void dirtyCardIfOld(Object o) {
+        final UnsignedWord header = ObjectHeaderImpl.readHeaderFromObject(o);
+        if (ObjectHeaderImpl.hasRememberedSet(header) && !HeapImpl.getHeapImpl().isInYoungGeneration(o)) {
+            if (ObjectHeaderImpl.isHeapObjectUnaligned(header)) {
+                UnalignedHeapChunk.dirtyCardForObjectOfUnalignedHeapChunk(o, false);
+            } else {
+                AlignedHeapChunk.dirtyCardForObjectOfAlignedHeapChunk(o, false);
+            }
+        }
+    }
+
     @Platforms(Platform.HOSTED_ONLY.class)
-    private GreyToBlackObjectVisitor(final ObjectReferenceVisitor objRefVisitor) {
+    private GreyToBlackObjectVisitor(final GreyToBlackObjRefVisitor objRefVisitor) {
         super();
         this.objRefVisitor = objRefVisitor;
         if (DiagnosticReporter.getHistoryLength() > 0) {
@@ -105,7 +129,7 @@ public final class GreyToBlackObjectVisitor implements ObjectVisitor {
     }
 
     // Immutable state.
-    private final ObjectReferenceVisitor objRefVisitor;
+    private final GreyToBlackObjRefVisitor objRefVisitor;
 
     /*
      * History.
@@ -271,13 +271,29 @@ public class HeapImpl extends Heap {
     public Object promoteObject(Object original) {
         final Log trace = Log.noopLog().string("[HeapImpl.promoteObject:").string("  original: ").object(original);
 
-        final OldGeneration oldGen = getOldGeneration();
-        final Object result = oldGen.promoteObject(original);
+        Object result = null;
+        if (HeapPolicy.getMaxSurvivorSpaces() > 0 && !getGCImpl().isCompleteCollection()) {
+            /* Young objects below the tenuring threshold are promoted to a survivor space. */
+            result = getYoungGeneration().promoteObject(original);
+        }
+        if (result == null) {
+            final OldGeneration oldGen = getOldGeneration();
+            result = oldGen.promoteObject(original);
+        }
 
         trace.string("  result: ").object(result).string("]").newline();
         return result;
     }
 
+    /** Is the object in one of the spaces of the young generation? */
+    boolean isInYoungGeneration(Object obj) {
+        final ObjectHeaderImpl ohi = getObjectHeaderImpl();
+        if (!ohi.isHeapAllocated(obj)) {
+            return false;
+        }
+        return isYoungGeneration(getEnclosingHeapChunk(obj).getSpace());
+    }
+
     boolean hasSurvivedThisCollection(Object obj) {
         final ObjectHeaderImpl ohi = getObjectHeaderImpl();
         if (ohi.isBootImage(obj)) {
@@ -287,12 +303,12 @@ public class HeapImpl extends Heap {
         if (ohi.isHeapAllocated(obj)) {
             /*
              * If the object is in the heap, then check if it is in the destination part of the old
-             * generation.
+             * generation, or in a survivor to space of the young generation, or if it has been
+             * marked by a collection of the old generation in place.
              */
             final HeapChunk.Header<?> chunk = getEnclosingHeapChunk(obj);
             final Space space = chunk.getSpace();
-            final OldGeneration oldGen = getOldGeneration();
-            return space == oldGen.getToSpace();
+            return !space.isFromSpace() || ohi.isMarkedObject(obj);
         }
         return false;
     }
@@ -360,7 +376,8 @@ public class HeapImpl extends Heap {
 
     UnsignedWord getYoungUsedChunkBytes() {
         final Space.Accounting young = getYoungGeneration().getSpace().getAccounting();
-        return young.getAlignedChunkBytes().add(young.getUnalignedChunkBytes());
+        final UnsignedWord youngBytes = young.getAlignedChunkBytes().add(young.getUnalignedChunkBytes());
+        return youngBytes.add(getYoungGeneration().getSurvivorChunkBytes());
     }
 
     UnsignedWord getOldUsedChunkBytes() {
@@ -383,8 +400,7 @@ public class HeapImpl extends Heap {
 
     /** Return the size, in bytes, of the actual used memory, not the committed memory. */
     public UnsignedWord getUsedObjectBytes() {
-        final Space youngSpace = getYoungGeneration().getSpace();
-        final UnsignedWord youngBytes = youngSpace.getObjectBytes();
+        final UnsignedWord youngBytes = getYoungGeneration().getObjectBytes();
         final Space fromSpace = getOldGeneration().getFromSpace();
         final UnsignedWord fromBytes = fromSpace.getObjectBytes();
         return youngBytes.add(fromBytes);
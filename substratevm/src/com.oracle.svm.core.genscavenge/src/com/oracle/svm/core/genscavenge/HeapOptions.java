@@ -66,4 +66,13 @@ public class HeapOptions {
 
     @Option(help = "Trace stack verification.")//
     public static final HostedOptionKey<Boolean> TraceStackVerification = new HostedOptionKey<>(false);
+
+    @Option(help = "Record which image heap objects were touched when the image exits, for -H:ImageHeapLayoutTrace.")//
+    public static final HostedOptionKey<Boolean> TraceImageHeapAccess = new HostedOptionKey<>(false);
+
+    @Option(help = "File the image heap access trace is written to, if +TraceImageHeapAccess.")//
+    public static final RuntimeOptionKey<String> ImageHeapAccessTraceOutput = new RuntimeOptionKey<>("image-heap-trace.txt");
+
+    @Option(help = "Place the image heap objects recorded in the given access trace at the beginning of their partitions.")//
+    public static final HostedOptionKey<String> ImageHeapLayoutTrace = new HostedOptionKey<>("");
 }
@@ -68,6 +68,9 @@ public class HeapPolicy {
             throw UserError.abort("LargeArrayThreshold (" + getLargeArrayThreshold().rawValue() + ")" +
                             " should be below or equal to AlignedHeapChunkSize (" + getAlignedHeapChunkSize().rawValue() + ").");
         }
+        if (getMaxSurvivorSpaces() < 0) {
+            throw UserError.abort("MaxSurvivorSpaces (" + getMaxSurvivorSpaces() + ") should not be negative.");
+        }
         /* Policy variables. */
         userRequestedGCPolicy = instantiatePolicy(access, HeapPolicy.HintGCPolicy.class, HeapPolicyOptions.UserRequestedGCPolicy.getValue());
         collectOnAllocationPolicy = CollectOnAllocationPolicy.Sometimes.factory();
@@ -182,6 +185,25 @@ public class HeapPolicy {
         return result;
     }
 
+    private static int getMaximumSurvivorSizePercent() {
+        final int result = HeapPolicyOptions.MaximumSurvivorSizePercent.getValue();
+        VMError.guarantee((result >= 0) && (result <= 100), "MaximumSurvivorSizePercent should be in [0 ..100]");
+        return result;
+    }
+
+    static int getTargetSurvivorPercent() {
+        final int result = HeapPolicyOptions.TargetSurvivorPercent.getValue();
+        VMError.guarantee((result >= 0) && (result <= 100), "TargetSurvivorPercent should be in [0 ..100]");
+        return result;
+    }
+
+    /** The requested tenuring threshold, or 0 if the threshold should be adapted. */
+    static int getTenuringThresholdOption() {
+        final int result = HeapPolicyOptions.TenuringThreshold.getValue();
+        VMError.guarantee(result >= 0, "TenuringThreshold should not be negative");
+        return result;
+    }
+
     private static UnsignedWord getAllocationBeforePhysicalMemorySize() {
         return WordFactory.unsigned(HeapPolicyOptions.AllocationBeforePhysicalMemorySize.getValue());
     }
@@ -228,6 +250,17 @@ public class HeapPolicy {
         return result;
     }
 
+    /** The number of survivor spaces of the young generation. */
+    @Fold
+    public static int getMaxSurvivorSpaces() {
+        return HeapPolicyOptions.MaxSurvivorSpaces.getValue();
+    }
+
+    /** The maximum number of bytes held in the survivor spaces before objects are tenured early. */
+    public static UnsignedWord getMaximumSurvivorSize() {
+        return getMaximumYoungGenerationSize().unsignedDivide(100).multiply(getMaximumSurvivorSizePercent());
+    }
+
     /** The maximum size of the heap as an UnsignedWord. */
     @SuppressWarnings("try")
     public static UnsignedWord getMaximumHeapSize() {
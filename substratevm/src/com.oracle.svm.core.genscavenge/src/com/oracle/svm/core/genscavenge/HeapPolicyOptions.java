@@ -40,6 +40,18 @@ public class HeapPolicyOptions {
     @Option(help = "The maximum size of the young generation as a percent of the maximum heap size") //
     public static final RuntimeOptionKey<Integer> MaximumYoungGenerationSizePercent = new RuntimeOptionKey<>(10);
 
+    @Option(help = "The number of survivor spaces in the young generation, which is also the maximum age of young objects. 0 implies that objects are promoted to the old generation at their first collection.") //
+    public static final HostedOptionKey<Integer> MaxSurvivorSpaces = new HostedOptionKey<>(0);
+
+    @Option(help = "The age at which young objects are promoted to the old generation. 0 implies an adaptive threshold in [1 .. MaxSurvivorSpaces].") //
+    public static final RuntimeOptionKey<Integer> TenuringThreshold = new RuntimeOptionKey<>(0);
+
+    @Option(help = "The maximum size of the survivor spaces as a percent of the maximum size of the young generation") //
+    public static final RuntimeOptionKey<Integer> MaximumSurvivorSizePercent = new RuntimeOptionKey<>(50);
+
+    @Option(help = "The desired occupancy of the survivor spaces after a collection as a percent of their maximum size, used to adapt the tenuring threshold") //
+    public static final RuntimeOptionKey<Integer> TargetSurvivorPercent = new RuntimeOptionKey<>(50);
+
     @Option(help = "Bytes that can be allocated before asking what the physical memory size is") //
     public static final HostedOptionKey<Long> AllocationBeforePhysicalMemorySize = new HostedOptionKey<>(1L * 1024L * 1024L);
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.graalvm.compiler.word.Word;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.hub.DynamicHub;
+import com.oracle.svm.core.hub.LayoutEncoding;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.os.VirtualMemoryProvider;
+import com.oracle.svm.core.snippets.KnownIntrinsics;
+import com.oracle.svm.core.util.UserError;
+
+/**
+ * Records which image heap objects have been touched by an execution of the image, so that a later
+ * build can place them together, see {@link HeapOptions#ImageHeapLayoutTrace}.
+ * <p>
+ * When the image exits, the resident pages of the image heap are read from
+ * {@code /proc/self/pagemap} before the image heap is walked, and every object on a resident page
+ * is written to the trace. The trace cannot tell in which order the pages were touched, so objects
+ * are written in the order of their addresses.
+ * <p>
+ * Objects are identified by their class name and their ordinal among the objects of that class,
+ * in the order of the image heap partitions and of the objects within the partitions. The build
+ * that reads the trace computes the same keys, so it must build the same image heap, and the traced
+ * image must have been built without a layout trace.
+ */
+public final class ImageHeapAccessTrace {
+
+    /** Present and swapped bits of a {@code /proc/self/pagemap} entry. */
+    private static final long PAGE_TOUCHED_MASK = (1L << 63) | (1L << 62);
+
+    private ImageHeapAccessTrace() {
+    }
+
+    /** Returns the key that identifies an object in a trace. */
+    public static String key(String className, int ordinal) {
+        return className + " " + ordinal;
+    }
+
+    /** Returns the name of the class of an image heap object as seen at image run time. */
+    public static String className(Object object) {
+        if (object instanceof DynamicHub) {
+            return Class.class.getName();
+        }
+        return object.getClass().getName();
+    }
+
+    static void dumpTrace() {
+        ImageHeapInfo info = HeapImpl.getImageHeapInfo();
+        Object[] partitions = {info.firstReadOnlyPrimitiveObject, info.lastReadOnlyPrimitiveObject, info.firstReadOnlyReferenceObject, info.lastReadOnlyReferenceObject,
+                        info.firstWritablePrimitiveObject, info.lastWritablePrimitiveObject, info.firstWritableReferenceObject, info.lastWritableReferenceObject};
+
+        Pointer begin = WordFactory.nullPointer();
+        Pointer end = WordFactory.nullPointer();
+        for (int i = 0; i < partitions.length; i += 2) {
+            if (partitions[i] != null) {
+                if (begin.isNull()) {
+                    begin = Word.objectToUntrackedPointer(partitions[i]);
+                }
+                end = LayoutEncoding.getObjectEnd(partitions[i + 1]);
+            }
+        }
+        if (begin.isNull()) {
+            return;
+        }
+
+        long pageSize = VirtualMemoryProvider.get().getGranularity().rawValue();
+        long firstPage = begin.rawValue() / pageSize;
+        String fileName = HeapOptions.ImageHeapAccessTraceOutput.getValue();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
+            /* Read the page state first, walking the image heap touches every page. */
+            long[] pageStates = readPageStates(firstPage, (end.rawValue() + pageSize - 1) / pageSize - firstPage);
+
+            Map<String, Integer> ordinals = new HashMap<>();
+            for (int i = 0; i < partitions.length; i += 2) {
+                if (partitions[i] == null) {
+                    continue;
+                }
+                Pointer current = Word.objectToUntrackedPointer(partitions[i]);
+                Pointer last = Word.objectToUntrackedPointer(partitions[i + 1]);
+                while (current.belowOrEqual(last)) {
+                    Object object = KnownIntrinsics.convertUnknownValue(current.toObject(), Object.class);
+                    Pointer objectEnd = LayoutEncoding.getObjectEnd(object);
+                    String className = className(object);
+                    int ordinal = ordinals.merge(className, 1, Integer::sum) - 1;
+                    if (isTouched(pageStates, current.rawValue() / pageSize - firstPage, (objectEnd.rawValue() - 1) / pageSize - firstPage)) {
+                        writer.println(key(className, ordinal));
+                    }
+                    current = objectEnd;
+                }
+            }
+        } catch (IOException ex) {
+            Log.log().string("Cannot write image heap access trace to ").string(fileName).string(": ").string(ex.getMessage()).newline();
+        }
+    }
+
+    private static long[] readPageStates(long firstPage, long pageCount) throws IOException {
+        long[] result = new long[(int) pageCount];
+        try (RandomAccessFile pagemap = new RandomAccessFile("/proc/self/pagemap", "r")) {
+            pagemap.seek(firstPage * Long.BYTES);
+            for (int i = 0; i < result.length; i++) {
+                /* Entries are in native byte order, which is little endian on supported platforms. */
+                result[i] = Long.reverseBytes(pagemap.readLong());
+            }
+        }
+        return result;
+    }
+
+    private static boolean isTouched(long[] pageStates, long firstPage, long lastPage) {
+        for (long page = firstPage; page <= lastPage; page++) {
+            if ((pageStates[(int) page] & PAGE_TOUCHED_MASK) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
+
+@AutomaticFeature
+class ImageHeapAccessTraceFeature implements Feature {
+
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return HeapOptions.TraceImageHeapAccess.getValue();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        if (!Platform.includedIn(Platform.LINUX.class)) {
+            throw UserError.abort("Tracing image heap accesses is only supported on Linux");
+        }
+        if (!HeapOptions.ImageHeapLayoutTrace.getValue().isEmpty()) {
+            throw UserError.abort("An image that traces image heap accesses must not be built with an image heap layout trace");
+        }
+        RuntimeSupport.getRuntimeSupport().addShutdownHook(ImageHeapAccessTrace::dumpTrace);
+    }
+}
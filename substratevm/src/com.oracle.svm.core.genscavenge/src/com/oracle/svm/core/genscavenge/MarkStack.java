@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge;
+
+import org.graalvm.compiler.word.Word;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.config.ConfigurationValues;
+
+/**
+ * A stack of objects that have been marked, but whose references have not been visited yet.
+ *
+ * The collector must not allocate Java objects, so the stack is kept in AlignedHeapChunks that
+ * are not part of any Space. The chunks are linked through their previous pointers, and the top of
+ * each chunk is the top of the stack within that chunk. Chunks are returned to the
+ * HeapChunkProvider as soon as they are empty.
+ */
+final class MarkStack {
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    MarkStack() {
+        this.chunk = WordFactory.nullPointer();
+    }
+
+    boolean isEmpty() {
+        return chunk.isNull();
+    }
+
+    void push(Object obj) {
+        final UnsignedWord entrySize = getEntrySize();
+        Pointer entry = (chunk.isNull() ? WordFactory.nullPointer() : AlignedHeapChunk.allocateMemory(chunk, entrySize));
+        if (entry.isNull()) {
+            final AlignedHeapChunk.AlignedHeader newChunk = HeapChunkProvider.get().produceAlignedChunk();
+            newChunk.setPrevious(chunk);
+            newChunk.setNext(WordFactory.nullPointer());
+            chunk = newChunk;
+            entry = AlignedHeapChunk.allocateMemory(chunk, entrySize);
+        }
+        entry.writeWord(0, Word.objectToUntrackedPointer(obj));
+    }
+
+    Object pop() {
+        assert !isEmpty() : "Popping from an empty mark stack.";
+        final Pointer entry = chunk.getTop().subtract(getEntrySize());
+        final Pointer result = entry.readWord(0);
+        /* Lowering the top releases the entry. */
+        chunk.setTop(entry);
+        if (entry.equal(AlignedHeapChunk.getAlignedHeapChunkStart(chunk))) {
+            final AlignedHeapChunk.AlignedHeader previous = chunk.getPrevious();
+            HeapChunkProvider.get().consumeAlignedChunk(chunk);
+            chunk = previous;
+        }
+        return result.toObject();
+    }
+
+    private static UnsignedWord getEntrySize() {
+        return WordFactory.unsigned(ConfigurationValues.getTarget().wordSize);
+    }
+
+    /* State. */
+    private AlignedHeapChunk.AlignedHeader chunk;
+}
@@ -112,9 +112,10 @@ import com.oracle.svm.core.util.VMError;
  * </tr>
  * <tr>
  * <td>1 0 1</td>
- * <td>--</td>
- * <td>--</td>
- * <td>This value is unused.</td>
+ * <td>Yes</td>
+ * <td>Aligned</td>
+ * <td>Old objects that have been marked live by a complete collection that collects the old
+ * generation in place. The mark is removed when the old generation is swept.</td>
  * </tr>
  * <tr>
  * <tr>
@@ -138,7 +139,7 @@ public class ObjectHeaderImpl extends ObjectHeader {
     private static final UnsignedWord NO_REMEMBERED_SET_UNALIGNED   = WordFactory.unsigned(0b010);  // 2 or a.
     private static final UnsignedWord CARD_REMEMBERED_SET_UNALIGNED = WordFactory.unsigned(0b011);  // 3 or b.
     private static final UnsignedWord UNUSED_100                    = WordFactory.unsigned(0b100);  // 4 or c.
-    private static final UnsignedWord UNUSED_101                    = WordFactory.unsigned(0b101);  // 5 or d.
+    private static final UnsignedWord MARKED_ALIGNED                = WordFactory.unsigned(0b101);  // 5 or d.
     private static final UnsignedWord BOOT_IMAGE                    = WordFactory.unsigned(0b110);  // 6 or e.
     private static final UnsignedWord FORWARDED                     = WordFactory.unsigned(0b111);  // 7 or f.
 
@@ -422,8 +423,8 @@ public class ObjectHeaderImpl extends ObjectHeader {
     }
 
     private static boolean isAlignedHeaderBits(UnsignedWord headerBits) {
-        /* An Object is aligned if the headerBits are either of these values. */
-        return (isNoRememberedSetAlignedHeaderBits(headerBits) || isCardRememberedSetAlignedHeaderBits(headerBits));
+        /* An Object is aligned if the headerBits are any of these values. */
+        return (isNoRememberedSetAlignedHeaderBits(headerBits) || isCardRememberedSetAlignedHeaderBits(headerBits) || isMarkedAlignedHeaderBits(headerBits));
     }
 
     private static boolean isNoRememberedSetAlignedHeaderBits(UnsignedWord headerBits) {
@@ -438,6 +439,35 @@ public class ObjectHeaderImpl extends ObjectHeader {
         setHeaderBitsOnObject(o, CARD_REMEMBERED_SET_ALIGNED);
     }
 
+    /*
+     * Marked objects are aligned objects of the old generation, so they have a card remembered set.
+     * Removing the mark restores the CARD_REMEMBERED_SET_ALIGNED bits.
+     */
+
+    private static boolean isMarkedAlignedHeaderBits(UnsignedWord headerBits) {
+        return headerBitsEqual(headerBits, MARKED_ALIGNED);
+    }
+
+    public boolean isMarkedHeader(UnsignedWord header) {
+        final UnsignedWord headerBits = ObjectHeaderImpl.getHeaderBitsFromHeader(header);
+        return isMarkedAlignedHeaderBits(headerBits);
+    }
+
+    boolean isMarkedObject(Object o) {
+        final UnsignedWord headerBits = ObjectHeaderImpl.readHeaderBitsFromObject(o);
+        return isMarkedAlignedHeaderBits(headerBits);
+    }
+
+    void setMarkedAligned(Object o) {
+        assert isCardRememberedSetAlignedHeaderBits(readHeaderBitsFromObject(o)) : "Only old aligned objects can be marked.";
+        setHeaderBitsOnObject(o, MARKED_ALIGNED);
+    }
+
+    void clearMarkedAligned(Object o) {
+        assert isMarkedObject(o) : "Object should be marked.";
+        setHeaderBitsOnObject(o, CARD_REMEMBERED_SET_ALIGNED);
+    }
+
     protected boolean isUnalignedHeader(UnsignedWord header) {
         final UnsignedWord headerBits = ObjectHeaderImpl.getHeaderBitsFromHeader(header);
         return isUnalignedHeaderBits(headerBits);
@@ -608,8 +638,8 @@ public class ObjectHeaderImpl extends ObjectHeader {
             return "BOOT_IMAGE";
         } else if (headerBits.equal(UNUSED_100)) {
             return "UNUSED_100";
-        } else if (headerBits.equal(UNUSED_101)) {
-            return "UNUSED_101";
+        } else if (isMarkedAlignedHeaderBits(headerBits)) {
+            return "MARKED_ALIGNED";
         } else if (isCardRememberedSetAlignedHeaderBits(headerBits)) {
             return "CARD_REMEMBERED_SET_ALIGNED";
         } else if (isCardRememberedSetUnalignedHeaderBits(headerBits)) {
@@ -668,6 +698,8 @@ public class ObjectHeaderImpl extends ObjectHeader {
             headerBitsClassification = 5;
         } else if (headerBits.equal(FORWARDED)) {
             headerBitsClassification = 6;
+        } else if (headerBits.equal(MARKED_ALIGNED)) {
+            headerBitsClassification = 7;
         } else {
             headerBitsClassification = -1;
         }
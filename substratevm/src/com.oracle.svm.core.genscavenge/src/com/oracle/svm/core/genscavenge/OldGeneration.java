@@ -28,16 +28,29 @@ import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
 import org.graalvm.word.Pointer;
 import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
 
 import com.oracle.svm.core.MemoryWalker;
 import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.config.ConfigurationValues;
 import com.oracle.svm.core.heap.ObjectVisitor;
+import com.oracle.svm.core.hub.DynamicHub;
 import com.oracle.svm.core.hub.LayoutEncoding;
 import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.util.VMError;
 
 /**
  * An OldGeneration has two Spaces, {@link #fromSpace} for existing objects, and {@link #toSpace}
  * for newly-allocated or promoted objects.
+ *
+ * A complete collection either copies the live objects of {@link #fromSpace} to {@link #toSpace},
+ * or, if the {@link CollectionPolicy} asks for it, collects the old generation in place: live
+ * aligned objects of {@link #fromSpace} are marked in their object header instead of being copied,
+ * and then the chunks of {@link #fromSpace} are swept. Chunks without live objects are released,
+ * dead objects at the end of a chunk are reclaimed by lowering the top of the chunk, and other
+ * dead objects are overwritten with filler objects. The swept chunks are moved to
+ * {@link #toSpace}. The filler objects are only reclaimed when the old generation is copied
+ * again, which the policy does once too much of it is fragmented.
  */
 public class OldGeneration extends Generation {
 
@@ -51,14 +64,20 @@ public class OldGeneration extends Generation {
 
     /** Walkers of Spaces where there might be grey objects. */
     private final GreyObjectsWalker toGreyObjectsWalker;
+    /* Marked objects of from space whose references have not been visited yet. */
+    private final MarkStack markStack;
+    /* The result of the last sweep, if there was one since the last copying collection. */
+    private int fragmentationPercent;
 
     /** Constructor. */
     @Platforms(Platform.HOSTED_ONLY.class)
     OldGeneration(String name) {
         super(name);
-        this.fromSpace = new Space("fromSpace", false);
-        this.toSpace = new Space("toSpace", false);
+        this.fromSpace = new Space("fromSpace", false, true, HeapPolicy.getMaxSurvivorSpaces() + 1);
+        this.toSpace = new Space("toSpace", false, false, HeapPolicy.getMaxSurvivorSpaces() + 1);
         this.toGreyObjectsWalker = GreyObjectsWalker.factory();
+        this.markStack = new MarkStack();
+        this.fragmentationPercent = 0;
     }
 
     /** Return all allocated virtual memory chunks to HeapChunkProvider. */
@@ -104,7 +123,33 @@ public class OldGeneration extends Generation {
         return result;
     }
 
+    /** Mark an aligned object of from space as live, and remember to visit its references. */
+    private void markAlignedObject(Object original) {
+        final ObjectHeaderImpl ohi = ObjectHeaderImpl.getObjectHeaderImpl();
+        if (!ohi.isMarkedObject(original)) {
+            ohi.setMarkedAligned(original);
+            markStack.push(original);
+        }
+    }
+
+    /** Visit the references of marked objects, returning true if there were any. */
+    private boolean drainMarkStack(ObjectVisitor visitor) {
+        boolean result = false;
+        while (!markStack.isEmpty()) {
+            visitor.visitObjectInline(markStack.pop());
+            result = true;
+        }
+        return result;
+    }
+
     void releaseSpaces() {
+        if (HeapImpl.getHeapImpl().getGCImpl().isCollectingOldGenerationInPlace()) {
+            /* The marked chunks of from space survive in to space. */
+            sweepFromSpace();
+        } else {
+            /* Copying the old generation removes all fragmentation. */
+            fragmentationPercent = 0;
+        }
         /* Release any spaces associated with this generation after a collection. */
         getFromSpace().release();
         /* Clean the spaces that have been scanned for grey objects. */
@@ -138,7 +183,10 @@ public class OldGeneration extends Generation {
         final Space originalSpace = originalChunk.getSpace();
         trace.string("  originalSpace: ").string(originalSpace.getName());
         Object result = original;
-        if (shouldPromoteFrom(originalSpace)) {
+        if (originalSpace == getFromSpace() && HeapImpl.getHeapImpl().getGCImpl().isCollectingOldGenerationInPlace()) {
+            trace.string("  marking");
+            markAlignedObject(original);
+        } else if (shouldPromoteFrom(originalSpace)) {
             trace.string("  promoting");
             if (HeapOptions.TraceObjectPromotion.getValue()) {
                 final Log promotionTrace = Log.log().string("[OldGeneration.promoteAlignedObject:").string("  original: ").object(original);
@@ -202,10 +250,112 @@ public class OldGeneration extends Generation {
     protected void scanGreyObjects() {
         final Log trace = Log.noopLog().string("[OldGeneration.scanGreyObjects:");
         final GCImpl gc = HeapImpl.getHeapImpl().getGCImpl();
-        getToGreyObjectsWalker().walkGreyObjects(gc.getGreyToBlackObjectVisitor());
+        /*
+         * Visiting copied objects can mark objects, and visiting marked objects can copy objects,
+         * so alternate until neither has anything left to visit.
+         */
+        do {
+            getToGreyObjectsWalker().walkGreyObjects(gc.getGreyToBlackObjectVisitor());
+        } while (drainMarkStack(gc.getGreyToBlackObjectVisitor()));
+        trace.string("]").newline();
+    }
+
+    /**
+     * Sweep the aligned chunks of from space after their live objects have been marked, and move
+     * the chunks with live objects to to space. The unaligned chunks with live objects have already
+     * been moved to to space when their objects were promoted.
+     */
+    private void sweepFromSpace() {
+        final Log trace = Log.noopLog().string("[OldGeneration.sweepFromSpace:");
+        final Space from = getFromSpace();
+        final Space to = getToSpace();
+        UnsignedWord usedBytes = WordFactory.zero();
+        UnsignedWord liveBytes = WordFactory.zero();
+        AlignedHeapChunk.AlignedHeader aChunk = from.getFirstAlignedHeapChunk();
+        while (aChunk.isNonNull()) {
+            final AlignedHeapChunk.AlignedHeader next = aChunk.getNext();
+            final UnsignedWord chunkLiveBytes = sweepAlignedHeapChunk(aChunk);
+            from.extractAlignedHeapChunk(aChunk);
+            if (chunkLiveBytes.equal(0)) {
+                HeapChunkProvider.get().consumeAlignedChunk(aChunk);
+            } else {
+                to.appendAlignedHeapChunk(aChunk);
+                usedBytes = usedBytes.add(AlignedHeapChunk.usedObjectMemoryOfAlignedHeapChunk(aChunk));
+                liveBytes = liveBytes.add(chunkLiveBytes);
+            }
+            aChunk = next;
+        }
+        fragmentationPercent = (usedBytes.equal(0) ? 0 : (int) usedBytes.subtract(liveBytes).multiply(100).unsignedDivide(usedBytes).rawValue());
+        trace.string("  usedBytes: ").unsigned(usedBytes).string("  liveBytes: ").unsigned(liveBytes).string("  fragmentationPercent: ").signed(fragmentationPercent);
         trace.string("]").newline();
     }
 
+    /**
+     * Sweep one aligned chunk: remove the marks of the live objects, and replace runs of dead
+     * objects by filler objects. The first object table is rebuilt on the way, since a filler can
+     * cover the start of a card. Returns the number of bytes of live objects in the chunk.
+     */
+    private static UnsignedWord sweepAlignedHeapChunk(AlignedHeapChunk.AlignedHeader aChunk) {
+        final ObjectHeaderImpl ohi = ObjectHeaderImpl.getObjectHeaderImpl();
+        final Pointer fotStart = AlignedHeapChunk.getFirstObjectTableStart(aChunk);
+        final Pointer objectsStart = AlignedHeapChunk.getAlignedHeapChunkStart(aChunk);
+        /* No objects of a swept chunk reference young objects after a complete collection. */
+        AlignedHeapChunk.cleanRememberedSetOfAlignedHeapChunk(aChunk);
+        UnsignedWord liveBytes = WordFactory.zero();
+        Pointer deadStart = WordFactory.nullPointer();
+        Pointer current = objectsStart;
+        final Pointer top = aChunk.getTop();
+        while (current.belowThan(top)) {
+            final Object obj = current.toObject();
+            final Pointer objEnd = LayoutEncoding.getObjectEnd(obj);
+            if (ohi.isMarkedObject(obj)) {
+                if (deadStart.isNonNull()) {
+                    formatFillerObject(deadStart, current);
+                    FirstObjectTable.setTableForObject(fotStart, objectsStart, deadStart, current);
+                    deadStart = WordFactory.nullPointer();
+                }
+                ohi.clearMarkedAligned(obj);
+                FirstObjectTable.setTableForObject(fotStart, objectsStart, current, objEnd);
+                liveBytes = liveBytes.add(objEnd.subtract(current));
+            } else if (deadStart.isNull()) {
+                deadStart = current;
+            }
+            current = objEnd;
+        }
+        if (deadStart.isNonNull()) {
+            /* Dead objects at the end of the chunk make room for promotions into the chunk. */
+            aChunk.setTop(deadStart);
+        }
+        return liveBytes;
+    }
+
+    /**
+     * Format the memory of dead objects as a filler object without references, so that the chunk
+     * can still be walked. An int array fits any run of dead objects, except for runs that are
+     * smaller than an empty int array, which then are exactly the size of a plain Object.
+     */
+    private static void formatFillerObject(Pointer start, Pointer end) {
+        final UnsignedWord size = end.subtract(start);
+        final DynamicHub arrayHub = DynamicHub.fromClass(int[].class);
+        final int arrayEncoding = arrayHub.getLayoutEncoding();
+        final UnsignedWord arrayBaseOffset = LayoutEncoding.getArrayBaseOffset(arrayEncoding);
+        if (size.aboveOrEqual(LayoutEncoding.getArraySize(arrayEncoding, 0))) {
+            final int length = (int) size.subtract(arrayBaseOffset).unsignedShiftRight(LayoutEncoding.getArrayIndexShift(arrayEncoding)).rawValue();
+            ObjectHeaderImpl.getObjectHeaderImpl().initializeHeaderOfNewObject(start, arrayHub, true, false);
+            start.writeInt(ConfigurationValues.getObjectLayout().getArrayLengthOffset(), length);
+        } else {
+            final DynamicHub objectHub = DynamicHub.fromClass(Object.class);
+            VMError.guarantee(LayoutEncoding.getInstanceSize(objectHub.getLayoutEncoding()).equal(size), "Run of dead objects is too small for a filler object.");
+            ObjectHeaderImpl.getObjectHeaderImpl().initializeHeaderOfNewObject(start, objectHub, true, false);
+        }
+        assert LayoutEncoding.getObjectEnd(start.toObject()).equal(end) : "Filler object must cover the dead objects exactly.";
+    }
+
+    /** The percentage of the old generation occupied by dead objects after the last sweep. */
+    int getFragmentationPercent() {
+        return fragmentationPercent;
+    }
+
     @Override
     public Log report(Log log, boolean traceHeapChunks) {
         log.string("[Old generation: ").indent(true);
@@ -235,7 +385,8 @@ public class OldGeneration extends Generation {
             result = false;
             heapVerifier.getWitnessLog().string("[OldGeneration.verify:").string("  old from space fails to verify").string("]").newline();
         }
-        if (occasion.equals(HeapVerifier.Occasion.AFTER_COLLECTION)) {
+        if (occasion.equals(HeapVerifier.Occasion.AFTER_COLLECTION) && HeapPolicy.getMaxSurvivorSpaces() == 0) {
+            /* With survivor spaces, cards of old objects that reference survivors stay dirty. */
             if (!spaceVerifier.verifyOnlyCleanCards()) {
                 result = false;
                 heapVerifier.getWitnessLog().string("[OldGeneration.verify:").string("  old from space contains dirty cards").string("]").newline();
@@ -66,12 +66,13 @@ class RuntimeCodeCacheReachabilityAnalyzer implements ObjectReferenceVisitor {
         assert ptrToObj.isNonNull();
         UnsignedWord header = ObjectHeaderImpl.readHeaderFromPointer(ptrToObj);
         ObjectHeaderImpl ohi = ObjectHeaderImpl.getObjectHeaderImpl();
-        if (ohi.isForwardedHeader(header) || ohi.isBootImageHeader(header)) {
+        if (ohi.isForwardedHeader(header) || ohi.isBootImageHeader(header) || ohi.isMarkedHeader(header)) {
             return true;
         }
 
         Space space = getSpace(ptrToObj, header);
-        if (space == HeapImpl.getHeapImpl().getOldGeneration().getToSpace()) {
+        if (!space.isFromSpace()) {
+            /* The object is in the old to space or a survivor to space. */
             return true;
         }
 
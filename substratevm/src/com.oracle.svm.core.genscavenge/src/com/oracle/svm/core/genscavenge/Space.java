@@ -66,6 +66,15 @@ public class Space {
     /** Flag specifying if this is a young space. */
     private final boolean isYoungSpace;
 
+    /** Flag specifying if objects in this Space are evacuated by a collection. */
+    private final boolean isFromSpace;
+
+    /**
+     * The number of collections the objects in this Space have survived: 0 for the eden space of
+     * the young generation, and the index of the survivor space plus one for survivor spaces.
+     */
+    private final int age;
+
     /** The name of this Space. */
     protected final String name;
 
@@ -117,12 +126,14 @@ public class Space {
      * with a simple, fast, constant check.
      */
     @Platforms(Platform.HOSTED_ONLY.class)
-    protected Space(String name, boolean isYoungSpace) {
+    protected Space(String name, boolean isYoungSpace, boolean isFromSpace, int age) {
         this.name = name;
         assert name != null : "Space name should not be null.";
         this.accounting = Accounting.factory();
 
         this.isYoungSpace = isYoungSpace;
+        this.isFromSpace = isFromSpace;
+        this.age = age;
     }
 
     /** Return all allocated virtual memory chunks to HeapChunkProvider. */
@@ -136,6 +147,20 @@ public class Space {
         return isYoungSpace;
     }
 
+    /**
+     * Is this a Space whose objects are evacuated during a collection, as opposed to a Space that
+     * objects are promoted into? Objects in a Space that is not a from-space have survived the
+     * current collection.
+     */
+    final boolean isFromSpace() {
+        return isFromSpace;
+    }
+
+    /** The age of the objects in this Space, in collections survived. */
+    final int getAge() {
+        return age;
+    }
+
     /** Walk the Objects in this Space, passing each to a Visitor. */
     public boolean walkObjects(ObjectVisitor visitor) {
         /*
@@ -644,16 +669,19 @@ public class Space {
             /*
              * This copies words, without regard to whether they are pointers and so need to dirty
              * remembered sets, etc. That's okay, because when the dust settles, anything the copy
-             * references will be in the old Space, so any card remembered sets for the object can
-             * be "clean". This writes the hub from the original over the hub installed by the
-             * allocateArray or allocateObject. That shouldn't be an issue, here.
+             * references will be in the old Space, or the card of the copy will be dirtied by the
+             * GreyToBlackObjectVisitor if it references a survivor space. This writes the hub from
+             * the original over the hub installed by the allocateArray or allocateObject. That
+             * shouldn't be an issue, here.
              */
             copyMemory.writeWord(offset, originalMemory.readWord(offset));
             offset = offset.add(ConfigurationValues.getTarget().wordSize);
         }
         final Object copyObj = copyMemory.toObject();
-        /* Note that the object needs a remembered set. */
-        setAlignedRememberedSet(copyObj);
+        /* Note that the object needs a remembered set, unless it was copied to a young space. */
+        if (!isYoungSpace()) {
+            setAlignedRememberedSet(copyObj);
+        }
         trace.string("  copyObj: ").object(copyObj).string("]").newline();
         return copyObj;
     }
@@ -669,10 +697,10 @@ public class Space {
             originalSpace.extractAlignedHeapChunk(aChunk);
             appendAlignedHeapChunk(aChunk);
             /*
-             * If the original chunk is from the young space, then it doesn't have a remembered set,
-             * so build one.
+             * If the original chunk is from a young space, then it doesn't have a remembered set,
+             * so build one, unless it is moving to another young space.
              */
-            if (HeapImpl.getHeapImpl().isYoungGeneration(originalSpace)) {
+            if (originalSpace.isYoungSpace() && !isYoungSpace()) {
                 trace.string("  setting up remembered set");
                 AlignedHeapChunk.constructRememberedSetOfAlignedHeapChunk(aChunk);
             }
@@ -691,10 +719,10 @@ public class Space {
             originalSpace.extractUnalignedHeapChunk(uChunk);
             appendUnalignedHeapChunk(uChunk);
             /*
-             * If the original chunk is from the young space, then it doesn't have a remembered set,
-             * so build one.
+             * If the original chunk is from a young space, then it doesn't have a remembered set,
+             * so build one, unless it is moving to another young space.
              */
-            if (HeapImpl.getHeapImpl().isYoungGeneration(originalSpace)) {
+            if (originalSpace.isYoungSpace() && !isYoungSpace()) {
                 trace.string("  setting up remembered set");
                 UnalignedHeapChunk.setUpRememberedSetOfUnalignedHeapChunk(uChunk);
             }
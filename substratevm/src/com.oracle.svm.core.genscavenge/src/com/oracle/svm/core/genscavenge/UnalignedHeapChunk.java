@@ -229,6 +229,10 @@ public class UnalignedHeapChunk extends HeapChunk {
         trace.string("  rememberedSetStart: ").hex(rememberedSetStart).string("  objectIndex: ").unsigned(objectIndex);
         // If the card for this chunk is dirty, visit the object.
         if (CardTable.isDirtyEntryAtIndex(rememberedSetStart, objectIndex)) {
+            // Clean the card before the visit, which might dirty it again.
+            if (clean) {
+                CardTable.cleanEntryAtIndex(rememberedSetStart, objectIndex);
+            }
             final Pointer objectsStart = getUnalignedStart(that);
             final Object obj = objectsStart.toObject();
             trace.string("  obj: ").object(obj);
@@ -236,9 +240,6 @@ public class UnalignedHeapChunk extends HeapChunk {
             if (!visitor.visitObjectInline(obj)) {
                 result = false;
             }
-            if (clean) {
-                CardTable.cleanEntryAtIndex(rememberedSetStart, objectIndex);
-            }
         }
         trace.string("  returns: ").bool(result).string("]").newline();
         return result;
@@ -27,32 +27,63 @@ package com.oracle.svm.core.genscavenge;
 import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
 import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
 
 import com.oracle.svm.core.MemoryWalker;
 import com.oracle.svm.core.annotate.Uninterruptible;
 import com.oracle.svm.core.heap.ObjectVisitor;
+import com.oracle.svm.core.hub.LayoutEncoding;
 import com.oracle.svm.core.log.Log;
-import com.oracle.svm.core.util.VMError;
 
 /**
- * A Young Generation has one space, for ordinary objects.
+ * A Young Generation has one space for newly-allocated objects, and a set of survivor spaces.
+ *
+ * The survivor spaces come in pairs of from and to spaces, one pair per age. Objects in the
+ * survivor spaces at index i have survived i + 1 collections. An incremental collection copies an
+ * object from the space of its age to the survivor to space of the next age, until the object
+ * reaches the tenuring threshold and is promoted to the old generation. After the collection, the
+ * from spaces are released and the contents of the to spaces are moved to the from spaces.
  */
 public class YoungGeneration extends Generation {
 
     // Final State.
     private final Space space;
+    private final Space[] survivorFromSpaces;
+    private final Space[] survivorToSpaces;
+    /** Walkers of the survivor to spaces, where there might be grey objects. */
+    private final GreyObjectsWalker[] survivorGreyObjectsWalkers;
+    /** The object bytes of each survivor from space after the last incremental collection. */
+    private final UnsignedWord[] survivorObjectBytes;
+
+    // Mutable State.
+    /** The tenuring threshold computed from the survivor occupancy of the last collection. */
+    private int adaptiveTenuringThreshold;
 
     /* Constructors. */
 
     @Platforms(Platform.HOSTED_ONLY.class)
     YoungGeneration(String name) {
-        this(name, new Space("youngSpace", true));
+        this(name, new Space("youngSpace", true, true, 0));
     }
 
     @Platforms(Platform.HOSTED_ONLY.class)
     private YoungGeneration(String name, Space space) {
         super(name);
         this.space = space;
+        final int maxSurvivorSpaces = HeapPolicy.getMaxSurvivorSpaces();
+        this.survivorFromSpaces = new Space[maxSurvivorSpaces];
+        this.survivorToSpaces = new Space[maxSurvivorSpaces];
+        this.survivorGreyObjectsWalkers = new GreyObjectsWalker[maxSurvivorSpaces];
+        this.survivorObjectBytes = new UnsignedWord[maxSurvivorSpaces];
+        for (int i = 0; i < maxSurvivorSpaces; i += 1) {
+            final int age = i + 1;
+            this.survivorFromSpaces[i] = new Space("Survivor-" + age + " From", true, true, age);
+            this.survivorToSpaces[i] = new Space("Survivor-" + age + " To", true, false, age);
+            this.survivorGreyObjectsWalkers[i] = GreyObjectsWalker.factory();
+            /* Initialization to WordFactory.zero() is implicit. */
+        }
+        this.adaptiveTenuringThreshold = maxSurvivorSpaces;
     }
 
     /** Return all allocated virtual memory chunks to HeapChunkProvider. */
@@ -60,23 +91,50 @@ public class YoungGeneration extends Generation {
     public final void tearDown() {
         ThreadLocalAllocation.tearDown();
         space.tearDown();
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            survivorFromSpaces[i].tearDown();
+            survivorToSpaces[i].tearDown();
+        }
     }
 
     @Override
     public boolean walkObjects(ObjectVisitor visitor) {
         /* Flush the thread-local allocation data. */
         ThreadLocalAllocation.disableThreadLocalAllocation();
-        return getSpace().walkObjects(visitor);
+        if (!getSpace().walkObjects(visitor)) {
+            return false;
+        }
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            if (!survivorFromSpaces[i].walkObjects(visitor) || !survivorToSpaces[i].walkObjects(visitor)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public Log report(Log log, boolean traceHeapChunks) {
         log.string("[Young generation: ").indent(true);
         getSpace().report(log, traceHeapChunks);
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            log.newline();
+            survivorFromSpaces[i].report(log, traceHeapChunks).newline();
+            survivorToSpaces[i].report(log, traceHeapChunks);
+        }
         log.redent(false).string("]");
         return log;
     }
 
+    /** Report the survivor bytes by age, and the tenuring threshold. */
+    Log reportTenuringDistribution(Log log) {
+        log.string("[Tenuring distribution:").string("  threshold: ").signed(getTenuringThreshold());
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            log.string("  age ").signed(i + 1).string(": ").unsigned(survivorObjectBytes[i]);
+        }
+        log.string("]");
+        return log;
+    }
+
     /**
      * Space access method.
      *
@@ -86,18 +144,191 @@ public class YoungGeneration extends Generation {
         return space;
     }
 
-    /** Check if that space is the young space. */
+    Space getSurvivorFromSpaceAt(int index) {
+        return survivorFromSpaces[index];
+    }
+
+    Space getSurvivorToSpaceAt(int index) {
+        return survivorToSpaces[index];
+    }
+
+    /** Check if that space is one of the young spaces. */
     boolean isYoungSpace(Space thatSpace) {
-        return (getSpace() == thatSpace);
+        if (HeapPolicy.getMaxSurvivorSpaces() == 0) {
+            /* Without survivor spaces, this compiles to a test against a constant. */
+            return (getSpace() == thatSpace);
+        }
+        return thatSpace.isYoungSpace();
     }
 
+    /**
+     * The age at which objects are promoted to the old generation rather than to a survivor space:
+     * either the value of the TenuringThreshold option, or the threshold adapted to the survivor
+     * occupancy of the last incremental collection.
+     */
+    int getTenuringThreshold() {
+        final int requested = HeapPolicy.getTenuringThresholdOption();
+        if (requested > 0) {
+            return Math.min(requested, HeapPolicy.getMaxSurvivorSpaces());
+        }
+        return adaptiveTenuringThreshold;
+    }
+
+    /**
+     * Promote an Object to a survivor space, either by HeapChunk motion or copying.
+     *
+     * @return The promoted Object, or null if the Object is not in a young space, has reached the
+     *         tenuring threshold, or the survivor spaces are full, so that it has to be promoted to
+     *         the old generation instead.
+     */
     @Override
     protected Object promoteObject(Object original) {
-        throw VMError.shouldNotReachHere("Can not promote to a YoungGeneration.");
+        final Log trace = Log.noopLog().string("[YoungGeneration.promoteObject:").string("  original: ").object(original);
+        final boolean isAligned = ObjectHeaderImpl.getObjectHeaderImpl().isAlignedObject(original);
+        final Space originalSpace;
+        if (isAligned) {
+            originalSpace = AlignedHeapChunk.getEnclosingAlignedHeapChunk(original).getSpace();
+        } else {
+            originalSpace = UnalignedHeapChunk.getEnclosingUnalignedHeapChunk(original).getSpace();
+        }
+        if (!originalSpace.isYoungSpace()) {
+            trace.string("  not young: returns null]").newline();
+            return null;
+        }
+        if (!originalSpace.isFromSpace()) {
+            /* The Object has already been promoted to a survivor space during this collection. */
+            trace.string("  already in: ").string(originalSpace.getName()).string("]").newline();
+            return original;
+        }
+        final int age = originalSpace.getAge();
+        if (age >= getTenuringThreshold() || survivorSpacesAreFull()) {
+            trace.string("  tenured at age: ").signed(age).string("  returns null]").newline();
+            return null;
+        }
+        final Space toSpace = getSurvivorToSpaceAt(age);
+        if (HeapOptions.TraceObjectPromotion.getValue()) {
+            final Log promotionTrace = Log.log().string("[YoungGeneration.promoteObject:").string("  original: ").object(original);
+            final UnsignedWord size = LayoutEncoding.getSizeFromObject(original);
+            promotionTrace.string("  size: ").unsigned(size).string("  to: ").string(toSpace.getName()).string("]").newline();
+        }
+        final Object result;
+        if (isAligned) {
+            /* Promote by Object copying to the survivor space. */
+            result = toSpace.promoteAlignedObject(original);
+        } else {
+            /* Promote by HeapChunk motion to the survivor space. */
+            toSpace.promoteUnalignedHeapChunk(UnalignedHeapChunk.getEnclosingUnalignedHeapChunk(original));
+            result = original;
+        }
+        trace.string("  returns: ").object(result).string("]").newline();
+        return result;
+    }
+
+    /** Have the survivor to spaces used up the space allowed for survivors? */
+    private boolean survivorSpacesAreFull() {
+        return getSurvivorToSpacesChunkBytes().aboveOrEqual(HeapPolicy.getMaximumSurvivorSize());
+    }
+
+    private UnsignedWord getSurvivorToSpacesChunkBytes() {
+        UnsignedWord result = WordFactory.zero();
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            result = result.add(survivorToSpaces[i].getChunkBytes());
+        }
+        return result;
+    }
+
+    /** The bytes in chunks of the survivor from spaces, i.e., of the survivors between collections. */
+    UnsignedWord getSurvivorChunkBytes() {
+        UnsignedWord result = WordFactory.zero();
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            result = result.add(survivorFromSpaces[i].getChunkBytes());
+        }
+        return result;
+    }
+
+    /** The bytes in Objects of the survivor from spaces. */
+    UnsignedWord getSurvivorObjectBytes() {
+        UnsignedWord result = WordFactory.zero();
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            result = result.add(survivorFromSpaces[i].getObjectBytes());
+        }
+        return result;
+    }
+
+    /** The bytes in chunks of all the young spaces. */
+    UnsignedWord getChunkBytes() {
+        return getSpace().getChunkBytes().add(getSurvivorChunkBytes()).add(getSurvivorToSpacesChunkBytes());
+    }
+
+    /** The bytes in Objects of all the young spaces. */
+    UnsignedWord getObjectBytes() {
+        UnsignedWord result = getSpace().getObjectBytes().add(getSurvivorObjectBytes());
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            result = result.add(survivorToSpaces[i].getObjectBytes());
+        }
+        return result;
     }
 
     void releaseSpaces() {
         getSpace().release();
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            survivorFromSpaces[i].release();
+        }
+    }
+
+    /** Move the survivors of this collection from the to spaces to the from spaces. */
+    void swapSpaces() {
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            assert survivorFromSpaces[i].isEmpty() : "survivor fromSpace should be empty.";
+            survivorFromSpaces[i].absorb(survivorToSpaces[i]);
+        }
+    }
+
+    /**
+     * Record the survivor bytes by age, and adapt the tenuring threshold such that the survivors
+     * younger than the threshold fit in the desired survivor occupancy.
+     */
+    void updateTenuringThreshold() {
+        final int maxSurvivorSpaces = HeapPolicy.getMaxSurvivorSpaces();
+        final UnsignedWord desiredSurvivorBytes = HeapPolicy.getMaximumSurvivorSize().unsignedDivide(100).multiply(HeapPolicy.getTargetSurvivorPercent());
+        UnsignedWord cumulativeBytes = WordFactory.zero();
+        int threshold = maxSurvivorSpaces;
+        for (int i = 0; i < maxSurvivorSpaces; i += 1) {
+            survivorObjectBytes[i] = survivorFromSpaces[i].getObjectBytes();
+            cumulativeBytes = cumulativeBytes.add(survivorObjectBytes[i]);
+            if (threshold == maxSurvivorSpaces && cumulativeBytes.aboveThan(desiredSurvivorBytes)) {
+                threshold = i + 1;
+            }
+        }
+        adaptiveTenuringThreshold = threshold;
+    }
+
+    protected void prepareForPromotion() {
+        /* Prepare the Space walkers. */
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            assert survivorToSpaces[i].isEmpty() : "survivor toSpace should be empty.";
+            survivorGreyObjectsWalkers[i].setScanStart(survivorToSpaces[i]);
+        }
+    }
+
+    /**
+     * Visit the grey objects in the survivor spaces.
+     *
+     * @return True if there were grey objects to visit, false otherwise.
+     */
+    protected boolean scanGreyObjects() {
+        final Log trace = Log.noopLog().string("[YoungGeneration.scanGreyObjects:");
+        final GCImpl gc = HeapImpl.getHeapImpl().getGCImpl();
+        boolean hasGrey = false;
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            final GreyObjectsWalker walker = survivorGreyObjectsWalkers[i];
+            if (walker.haveGreyObjects()) {
+                hasGrey = true;
+                walker.walkGreyObjects(gc.getGreyToBlackObjectVisitor());
+            }
+        }
+        trace.string("  returns: ").bool(hasGrey).string("]").newline();
+        return hasGrey;
     }
 
     @Override
@@ -107,7 +338,7 @@ public class YoungGeneration extends Generation {
 
     @Override
     protected boolean verify(final HeapVerifierImpl.Occasion occasion) {
-        // The young "generation" consists of just one space.
+        // The young generation consists of the young space and the survivor spaces.
         boolean result = true;
         final HeapImpl heap = HeapImpl.getHeapImpl();
         final HeapVerifierImpl heapVerifier = heap.getHeapVerifierImpl();
@@ -126,6 +357,25 @@ public class YoungGeneration extends Generation {
                 heapVerifier.getWitnessLog().string("[YoungGeneration.verify:").string("  young space fails to verify").string("]").newline();
             }
         }
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            spaceVerifier.initialize(survivorFromSpaces[i]);
+            if (!spaceVerifier.verify()) {
+                result = false;
+                heapVerifier.getWitnessLog().string("[YoungGeneration.verify:").string("  survivor from space fails to verify").string("]").newline();
+            }
+            spaceVerifier.initialize(survivorToSpaces[i]);
+            if (!spaceVerifier.verify()) {
+                result = false;
+                heapVerifier.getWitnessLog().string("[YoungGeneration.verify:").string("  survivor to space fails to verify").string("]").newline();
+            }
+            if (!occasion.equals(HeapVerifier.Occasion.DURING_COLLECTION)) {
+                // The survivor to spaces should be empty except during a collection.
+                if (spaceVerifier.containsChunks()) {
+                    result = false;
+                    heapVerifier.getWitnessLog().string("[YoungGeneration.verify:").string("  survivor to space contains chunks").string("]").newline();
+                }
+            }
+        }
         return result;
     }
 
@@ -133,11 +383,26 @@ public class YoungGeneration extends Generation {
         if (HeapVerifierImpl.slowlyFindPointerInSpace(getSpace(), p, HeapVerifierImpl.ChunkLimit.top)) {
             return true;
         }
-
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            if (HeapVerifierImpl.slowlyFindPointerInSpace(survivorFromSpaces[i], p, HeapVerifierImpl.ChunkLimit.top)) {
+                return true;
+            }
+            if (HeapVerifierImpl.slowlyFindPointerInSpace(survivorToSpaces[i], p, HeapVerifierImpl.ChunkLimit.top)) {
+                return true;
+            }
+        }
         return false;
     }
 
     boolean walkHeapChunks(MemoryWalker.Visitor visitor) {
-        return getSpace().walkHeapChunks(visitor);
+        if (!getSpace().walkHeapChunks(visitor)) {
+            return false;
+        }
+        for (int i = 0; i < HeapPolicy.getMaxSurvivorSpaces(); i += 1) {
+            if (!survivorFromSpaces[i].walkHeapChunks(visitor) || !survivorToSpaces[i].walkHeapChunks(visitor)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -40,6 +40,7 @@ import com.oracle.svm.core.annotate.AutomaticFeature;
 import com.oracle.svm.core.genscavenge.HeapImpl;
 import com.oracle.svm.core.genscavenge.HeapOptions;
 import com.oracle.svm.core.genscavenge.ImageHeapInfo;
+import com.oracle.svm.core.genscavenge.hosted.AccessOrderImageHeapLayouter;
 import com.oracle.svm.core.genscavenge.hosted.LinearImageHeapLayouter;
 import com.oracle.svm.core.graal.GraalFeature;
 import com.oracle.svm.core.graal.meta.RuntimeConfiguration;
@@ -66,7 +67,8 @@ public class HeapFeature implements GraalFeature {
     @Override
     public void afterRegistration(AfterRegistrationAccess access) {
         ImageSingletons.add(Heap.class, new HeapImpl(access));
-        ImageSingletons.add(ImageHeapLayouter.class, new LinearImageHeapLayouter());
+        String layoutTrace = HeapOptions.ImageHeapLayoutTrace.getValue();
+        ImageSingletons.add(ImageHeapLayouter.class, layoutTrace.isEmpty() ? new LinearImageHeapLayouter() : new AccessOrderImageHeapLayouter(layoutTrace));
     }
 
     @Override
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge.hosted;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+
+import com.oracle.svm.core.genscavenge.HeapOptions;
+import com.oracle.svm.core.genscavenge.ImageHeapAccessTrace;
+import com.oracle.svm.core.image.ImageHeap;
+import com.oracle.svm.core.image.ImageHeapObject;
+import com.oracle.svm.core.image.ImageHeapPartition;
+import com.oracle.svm.core.util.UserError;
+
+/**
+ * Places the image heap objects that were touched in a traced execution of the image, see
+ * {@link HeapOptions#TraceImageHeapAccess}, at the beginning of their partitions, in the order of
+ * the trace. The remaining objects follow in their original order. Objects never move between
+ * partitions, so the layout of the partitions is not affected.
+ */
+@Platforms(value = Platform.HOSTED_ONLY.class)
+public class AccessOrderImageHeapLayouter extends LinearImageHeapLayouter {
+
+    private final Path traceFile;
+
+    public AccessOrderImageHeapLayouter(String traceFile) {
+        this.traceFile = Paths.get(traceFile);
+    }
+
+    @Override
+    public void assignPartitionRelativeOffsets(ImageHeap imageHeap) {
+        Map<String, Integer> trace = loadTrace();
+
+        Map<ImageHeapPartition, List<ImageHeapObject>> objectsByPartition = new HashMap<>();
+        for (ImageHeapObject info : imageHeap.getObjects()) {
+            objectsByPartition.computeIfAbsent(info.getPartition(), p -> new ArrayList<>()).add(info);
+        }
+
+        /* Compute the keys in the same order in which the traced image walked its image heap. */
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<ImageHeapObject> result = new ArrayList<>(imageHeap.getObjects().size());
+        for (ImageHeapPartition partition : getPartitions()) {
+            List<ImageHeapObject> objects = objectsByPartition.get(partition);
+            if (objects == null) {
+                continue;
+            }
+            List<ImageHeapObject> touched = new ArrayList<>();
+            List<ImageHeapObject> untouched = new ArrayList<>();
+            Map<ImageHeapObject, Integer> ranks = new HashMap<>();
+            for (ImageHeapObject info : objects) {
+                String className = ImageHeapAccessTrace.className(info.getObject());
+                int ordinal = ordinals.merge(className, 1, Integer::sum) - 1;
+                Integer rank = trace.get(ImageHeapAccessTrace.key(className, ordinal));
+                if (rank != null) {
+                    ranks.put(info, rank);
+                    touched.add(info);
+                } else {
+                    untouched.add(info);
+                }
+            }
+            touched.sort((a, b) -> Integer.compare(ranks.get(a), ranks.get(b)));
+            result.addAll(touched);
+            result.addAll(untouched);
+        }
+        allocate(result);
+    }
+
+    private Map<String, Integer> loadTrace() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(traceFile);
+        } catch (IOException ex) {
+            throw UserError.abort("Cannot read image heap layout trace " + traceFile.toAbsolutePath() + ": " + ex.getMessage(), ex);
+        }
+        Map<String, Integer> trace = new HashMap<>();
+        for (String line : lines) {
+            trace.putIfAbsent(line, trace.size());
+        }
+        return trace;
+    }
+}
@@ -24,6 +24,8 @@
  */
 package com.oracle.svm.core.genscavenge.hosted;
 
+import java.util.Collection;
+
 import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
 
@@ -64,7 +66,14 @@ public class LinearImageHeapLayouter extends AbstractImageHeapLayouter<LinearIma
 
     @Override
     public void assignPartitionRelativeOffsets(ImageHeap imageHeap) {
-        for (ImageHeapObject info : imageHeap.getObjects()) {
+        allocate(imageHeap.getObjects());
+    }
+
+    /**
+     * Allocates the objects in their partitions in the given order.
+     */
+    protected void allocate(Collection<? extends ImageHeapObject> objects) {
+        for (ImageHeapObject info : objects) {
             ImageHeapPartition partition = info.getPartition();
             partition.allocate(info);
 
@@ -36,6 +36,8 @@ import org.graalvm.compiler.core.common.SuppressFBWarnings;
 import org.graalvm.compiler.serviceprovider.GraalUnsafeAccess;
 import org.graalvm.compiler.word.BarrieredAccess;
 import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
 import org.graalvm.nativeimage.hosted.Feature;
 
 import com.oracle.svm.core.annotate.Alias;
@@ -76,7 +78,9 @@ import sun.misc.Unsafe;
  * UniverseBuilder.canHaveMonitorFields(AnalysisType) for details.
  * <p>
  * Synchronization on {@link String}, arrays, and other types not detected by the static analysis
- * (like synchronization via JNI) fall back to a monitor stored in {@link #additionalMonitors}.
+ * (like synchronization via JNI) fall back to a monitor stored in {@link #additionalMonitors}. That
+ * secondary storage is split into stripes by identity hash code, so that threads synchronizing on
+ * different objects rarely contend on the lock that guards the storage.
  * <p>
  * Because so few objects are receivers of {@link #wait()} and {@link #notify()} calls[citation
  * needed], condition variables for those objects are kept in {@link #additionalConditions}.
@@ -84,13 +88,15 @@ import sun.misc.Unsafe;
 public class MonitorSupport {
 
     private static final Unsafe UNSAFE = GraalUnsafeAccess.getUnsafe();
+    /** Number of stripes of {@link #additionalMonitors}, must be a power of two. */
+    private static final int ADDITIONAL_MONITORS_STRIPES = 64;
+
     /**
-     * Secondary storage for monitor slots.
+     * Secondary storage for monitor slots, split into stripes by identity hash code.
      *
-     * Synchronized to prevent concurrent access and modification.
+     * Each stripe is synchronized to prevent concurrent access and modification.
      */
-    private final Map<Object, ReentrantLock> additionalMonitors = new WeakIdentityHashMap<>();
-    private final ReentrantLock additionalMonitorsLock = new ReentrantLock();
+    private final AdditionalMonitors[] additionalMonitors;
 
     /**
      * Secondary storage for condition variable slots.
@@ -100,6 +106,20 @@ public class MonitorSupport {
     private final Map<Object, Condition> additionalConditions = new WeakIdentityHashMap<>();
     private final ReentrantLock additionalConditionsLock = new ReentrantLock();
 
+    @Platforms(Platform.HOSTED_ONLY.class)
+    MonitorSupport() {
+        additionalMonitors = new AdditionalMonitors[ADDITIONAL_MONITORS_STRIPES];
+        for (int i = 0; i < additionalMonitors.length; i++) {
+            additionalMonitors[i] = new AdditionalMonitors();
+        }
+    }
+
+    /** One stripe of the secondary storage for monitor slots. */
+    private static final class AdditionalMonitors {
+        final Map<Object, ReentrantLock> monitors = new WeakIdentityHashMap<>();
+        final ReentrantLock lock = new ReentrantLock();
+    }
+
     /**
      * Called from {@code Unsafe.park} when changing the current thread's state before parking the
      * thread. When the thread is parked due to a monitor operation via {@link ReentrantLock}, we
@@ -362,12 +382,13 @@ public class MonitorSupport {
         } else {
             /* No memory reserved for a lock in the object, fall back to our secondary storage. */
             /*
-             * Lock the monitor map and maybe add a monitor for this object. This serialization
-             * might be a scalability problem.
+             * Lock the stripe of the monitor map that is responsible for this object and maybe add
+             * a monitor for this object. Only objects in the same stripe are serialized.
              */
-            additionalMonitorsLock.lock();
+            final AdditionalMonitors stripe = additionalMonitorsStripe(obj);
+            stripe.lock.lock();
             try {
-                final ReentrantLock existingEntry = additionalMonitors.get(obj);
+                final ReentrantLock existingEntry = stripe.monitors.get(obj);
                 if (existingEntry != null) {
                     assert isMonitorLock(existingEntry);
                     return existingEntry;
@@ -377,15 +398,20 @@ public class MonitorSupport {
                     return null;
                 }
                 final ReentrantLock newEntry = newMonitorLock();
-                final ReentrantLock previousEntry = additionalMonitors.put(obj, newEntry);
+                final ReentrantLock previousEntry = stripe.monitors.put(obj, newEntry);
                 VMError.guarantee(previousEntry == null, "MonitorSupport.getOrCreateMonitor: Replaced monitor");
                 return newEntry;
             } finally {
-                additionalMonitorsLock.unlock();
+                stripe.lock.unlock();
             }
         }
     }
 
+    private AdditionalMonitors additionalMonitorsStripe(Object obj) {
+        final int hash = System.identityHashCode(obj);
+        return additionalMonitors[(hash ^ (hash >>> 16)) & (ADDITIONAL_MONITORS_STRIPES - 1)];
+    }
+
     private static ReentrantLock newMonitorLock() {
         final ReentrantLock newMonitor = new ReentrantLock();
         SubstrateUtil.cast(newMonitor, Target_java_util_concurrent_locks_ReentrantLock.class).sync.isObjectMonitor = true;
@@ -335,7 +335,8 @@ public final class Deoptimizer {
             return;
         }
         IsolateThread currentThread = CurrentIsolate.getCurrentThread();
-        JavaVMOperation.enqueueBlockingSafepoint("DeoptimizeFrame", () -> Deoptimizer.deoptimizeFrameOperation(sourceSp, ignoreNonDeoptimizable, speculation, currentThread));
+        /* Only the stack of the current thread is modified, so there is no need to stop others. */
+        JavaVMOperation.enqueueBlockingHandshake("DeoptimizeFrame", currentThread, () -> Deoptimizer.deoptimizeFrameOperation(sourceSp, ignoreNonDeoptimizable, speculation, currentThread));
     }
 
     private static void deoptimizeFrameOperation(Pointer sourceSp, boolean ignoreNonDeoptimizable, SpeculationReason speculation, IsolateThread currentThread) {
@@ -610,7 +611,10 @@ public final class Deoptimizer {
         return operation.getResult();
     }
 
-    /** A VMOperation to encapsulate deoptSourceFrame. */
+    /**
+     * A VMOperation to encapsulate deoptSourceFrame. Only the thread that owns the source frame
+     * needs to be stopped.
+     */
     private static final class DeoptSourceFrameOperation extends JavaVMOperation {
 
         private final Deoptimizer receiver;
@@ -620,7 +624,7 @@ public final class Deoptimizer {
         private IsolateThread thread;
 
         DeoptSourceFrameOperation(Deoptimizer receiver, CodePointer pc, boolean ignoreNonDeoptimizable, IsolateThread thread) {
-            super("DeoptSourceFrameOperation", SystemEffect.SAFEPOINT);
+            super("DeoptSourceFrameOperation", SystemEffect.HANDSHAKE);
             this.receiver = receiver;
             this.pc = pc;
             this.ignoreNonDeoptimizable = ignoreNonDeoptimizable;
@@ -628,6 +632,11 @@ public final class Deoptimizer {
             this.thread = thread;
         }
 
+        @Override
+        protected boolean isHandshakeTarget(IsolateThread vmThread) {
+            return vmThread == thread;
+        }
+
         @Override
         public void operate() {
             result = receiver.deoptSourceFrameOperation(pc, ignoreNonDeoptimizable, thread);
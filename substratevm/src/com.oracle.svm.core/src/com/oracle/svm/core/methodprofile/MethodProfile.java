@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.methodprofile;
+
+// Checkstyle: allow reflection
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.graalvm.compiler.options.Option;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.hosted.Feature;
+
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.option.HostedOptionKey;
+import com.oracle.svm.core.option.RuntimeOptionKey;
+import com.oracle.svm.core.util.VMError;
+
+/**
+ * Records the order in which methods are executed for the first time, and how often they are
+ * invoked. The prologue of every instrumented method increments the global method entry clock and
+ * its own {@link MethodProfileCounter}, and stores the clock in the counter on the first
+ * invocation. At exit, the executed methods are written in the order of their first invocation.
+ *
+ * The resulting file can be passed to a later image build with {@code -H:CodeLayoutProfile} to
+ * group the code of startup and hot methods in the text section.
+ */
+public final class MethodProfile {
+
+    public static class Options {
+        @Option(help = "Instrument methods to record the order of their first execution and their invocation counts")//
+        public static final HostedOptionKey<Boolean> MethodProfiling = new HostedOptionKey<>(false);
+
+        @Option(help = "File the method profile is written to at exit")//
+        public static final RuntimeOptionKey<String> MethodProfilingOutput = new RuntimeOptionKey<>("method-profile.txt");
+    }
+
+    /** Number of method entries so far; the clock for the first invocation of methods. */
+    private static long entries;
+
+    @Platforms(Platform.HOSTED_ONLY.class)//
+    public static final Field ENTRIES_FIELD;
+
+    /**
+     * Head of the list of all counters. Counters are created during compilation, when everything
+     * is concurrent.
+     */
+    private static final AtomicReference<MethodProfileCounter> firstCounter = new AtomicReference<>();
+
+    static {
+        try {
+            ENTRIES_FIELD = MethodProfile.class.getDeclaredField("entries");
+        } catch (NoSuchFieldException ex) {
+            throw VMError.shouldNotReachHere(ex);
+        }
+        /*
+         * The static analysis sees the counter type as instantiated, but the actual objects are
+         * only created during compilation. Adding an unused counter makes the type reachable.
+         */
+        createCounter("__unused_to_make_counter_type_reachable__");
+    }
+
+    private MethodProfile() {
+    }
+
+    public static MethodProfileCounter createCounter(String methodName) {
+        MethodProfileCounter counter;
+        do {
+            counter = new MethodProfileCounter(methodName, firstCounter.get());
+        } while (!firstCounter.compareAndSet(counter.getNext(), counter));
+        return counter;
+    }
+
+    /**
+     * Writes one line per executed method, ordered by first invocation: the method entry clock at
+     * the first invocation, the invocation count, and the method name.
+     */
+    public static void dumpProfile() {
+        assert Options.MethodProfiling.getValue();
+
+        List<MethodProfileCounter> executed = new ArrayList<>();
+        for (MethodProfileCounter counter = firstCounter.get(); counter != null; counter = counter.getNext()) {
+            if (counter.getCount() > 0) {
+                executed.add(counter);
+            }
+        }
+        executed.sort(Comparator.comparingLong(MethodProfileCounter::getFirstEntry));
+
+        String fileName = Options.MethodProfilingOutput.getValue();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
+            for (MethodProfileCounter counter : executed) {
+                writer.print(counter.getFirstEntry());
+                writer.print(' ');
+                writer.print(counter.getCount());
+                writer.print(' ');
+                writer.println(counter.getName());
+            }
+        } catch (IOException ex) {
+            Log.log().string("Cannot write method profile to ").string(fileName).string(": ").string(ex.getMessage()).newline();
+        }
+    }
+}
+
+@AutomaticFeature
+class MethodProfilingFeature implements Feature {
+
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return MethodProfile.Options.MethodProfiling.getValue();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        RuntimeSupport.getRuntimeSupport().addShutdownHook(MethodProfile::dumpProfile);
+    }
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access) {
+        /* The fields are only written by code that is inserted during compilation. */
+        access.registerAsAccessed(MethodProfile.ENTRIES_FIELD);
+        access.registerAsAccessed(MethodProfileCounter.COUNT_FIELD);
+        access.registerAsAccessed(MethodProfileCounter.FIRST_ENTRY_FIELD);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.methodprofile;
+
+// Checkstyle: allow reflection
+
+import java.lang.reflect.Field;
+
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+
+import com.oracle.svm.core.util.VMError;
+
+/**
+ * Invocation counter of one compiled method, embedded as a constant in the method prologue and
+ * incremented on every entry of the method.
+ */
+public final class MethodProfileCounter {
+    /** Name of the method that increments this counter. */
+    private final String name;
+    /** Next method profile counter. */
+    private final MethodProfileCounter next;
+    /** Number of invocations. */
+    private long count;
+    /** Value of the method entry clock at the first invocation. */
+    private long firstEntry;
+
+    @Platforms(Platform.HOSTED_ONLY.class)//
+    public static final Field COUNT_FIELD;
+    @Platforms(Platform.HOSTED_ONLY.class)//
+    public static final Field FIRST_ENTRY_FIELD;
+
+    static {
+        try {
+            COUNT_FIELD = MethodProfileCounter.class.getDeclaredField("count");
+            FIRST_ENTRY_FIELD = MethodProfileCounter.class.getDeclaredField("firstEntry");
+        } catch (NoSuchFieldException ex) {
+            throw VMError.shouldNotReachHere(ex);
+        }
+    }
+
+    MethodProfileCounter(String name, MethodProfileCounter next) {
+        this.name = name;
+        this.next = next;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public MethodProfileCounter getNext() {
+        return next;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getFirstEntry() {
+        return firstEntry;
+    }
+}
@@ -104,7 +104,7 @@ public final class JavaStackWalker {
      */
     @Uninterruptible(reason = "Prevent deoptimization of stack frames while in this method.", callerMustBe = true)
     public static boolean initWalk(JavaStackWalk walk, IsolateThread thread) {
-        assert VMOperation.isInProgressAtSafepoint() : "Walking the stack of another thread is only safe when that thread is stopped at a safepoint";
+        assert VMOperation.isInProgressAtSafepoint(thread) : "Walking the stack of another thread is only safe when that thread is stopped at a safepoint";
 
         JavaFrameAnchor anchor = JavaFrameAnchors.getFrameAnchor(thread);
         boolean result = anchor.isNonNull();
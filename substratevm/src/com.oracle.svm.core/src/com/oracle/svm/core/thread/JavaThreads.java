@@ -533,16 +533,35 @@ public abstract class JavaThreads {
     }
 
     static StackTraceElement[] getStackTrace(Thread thread) {
-        StackTraceElement[][] result = new StackTraceElement[1][0];
-        JavaVMOperation.enqueueBlockingSafepoint("getStackTrace", () -> {
+        GetStackTraceOperation vmOperation = new GetStackTraceOperation(thread);
+        vmOperation.enqueue();
+        return vmOperation.result;
+    }
+
+    /** Walks the stack of a single thread, so only that thread needs to be stopped. */
+    private static final class GetStackTraceOperation extends JavaVMOperation {
+        private final Thread thread;
+        private StackTraceElement[] result;
+
+        GetStackTraceOperation(Thread thread) {
+            super("getStackTrace", SystemEffect.HANDSHAKE);
+            this.thread = thread;
+        }
+
+        @Override
+        protected boolean isHandshakeTarget(IsolateThread vmThread) {
+            return JavaThreads.fromVMThread(vmThread) == thread;
+        }
+
+        @Override
+        protected void operate() {
             for (IsolateThread cur = VMThreads.firstThread(); cur.isNonNull(); cur = VMThreads.nextThread(cur)) {
                 if (JavaThreads.fromVMThread(cur) == thread) {
-                    result[0] = getStackTrace(cur);
+                    result = getStackTrace(cur);
                     break;
                 }
             }
-        });
-        return result[0];
+        }
     }
 
     static Map<Thread, StackTraceElement[]> getAllStackTraces() {
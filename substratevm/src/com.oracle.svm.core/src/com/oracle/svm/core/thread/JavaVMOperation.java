@@ -110,6 +110,15 @@ public abstract class JavaVMOperation extends VMOperation implements VMOperation
         vmOperation.enqueue();
     }
 
+    /**
+     * Convenience method for thunks that can be run by allocating a VMOperation and that only need
+     * the given thread to be stopped.
+     */
+    public static void enqueueBlockingHandshake(String name, IsolateThread target, Thunk thunk) {
+        HandshakeThunkOperation vmOperation = new HandshakeThunkOperation(name, target, thunk);
+        vmOperation.enqueue();
+    }
+
     @Override
     public final void operate(NativeVMOperationData data) {
         operate();
@@ -132,4 +141,19 @@ public abstract class JavaVMOperation extends VMOperation implements VMOperation
             thunk.invoke();
         }
     }
+
+    /** A VMOperation that executes a thunk while a single thread is stopped. */
+    public static class HandshakeThunkOperation extends ThunkOperation {
+        private final IsolateThread target;
+
+        HandshakeThunkOperation(String name, IsolateThread target, Thunk thunk) {
+            super(name, SystemEffect.HANDSHAKE, thunk);
+            this.target = target;
+        }
+
+        @Override
+        protected boolean isHandshakeTarget(IsolateThread thread) {
+            return thread == target;
+        }
+    }
 }
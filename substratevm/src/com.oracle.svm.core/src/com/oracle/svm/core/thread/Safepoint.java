@@ -113,6 +113,13 @@ import com.oracle.svm.core.util.VMError;
  * {@link #safepointRequested} value is reset to {@link SafepointRequestValues#RESET}. Because
  * {@link #safepointRequested} still eventually decrements to 0, threads can very infrequently call
  * {@link #slowPathSafepointCheck} without cause.
+ * <p>
+ * A handshake is a safepoint for only some of the threads: the master brings the threads for which
+ * {@link VMOperation#isHandshakeTarget} returns true to a safepoint as described above, but all
+ * other threads keep running. The targets are marked in {@link #handshakeLevel}, and only marked
+ * threads block on the mutex when they notice the request. Handshakes can be nested into each other
+ * and into a safepoint, and a safepoint can be nested into a handshake: a nested operation only
+ * stops the threads that are not stopped yet, and only releases the threads it stopped itself.
  *
  * @see SafepointCheckNode
  */
@@ -167,7 +174,7 @@ public final class Safepoint {
             assert !ThreadingSupportImpl.isRecurringCallbackRegistered(myself) || ThreadingSupportImpl.isRecurringCallbackPaused();
         } else {
             do {
-                if (Master.singleton().getRequestingThread().isNonNull()) {
+                if (Master.singleton().isStopRequested(myself)) {
                     Statistics.incFrozen();
                     freezeAtSafepoint(callerHasJavaFrameAnchor);
                     Statistics.incThawed();
@@ -277,6 +284,12 @@ public final class Safepoint {
      */
     static final FastThreadLocalInt safepointRequested = FastThreadLocalFactory.createInt();
 
+    /**
+     * The nesting level of the handshake that stopped a thread, or 0 if the thread is not stopped by
+     * a handshake. Only written by the master while it holds {@link VMThreads#THREAD_MUTEX}.
+     */
+    static final FastThreadLocalInt handshakeLevel = FastThreadLocalFactory.createInt();
+
     /**
      * Use this method with care as it potentially destroys or skews data that is needed for
      * scheduling the execution of recurring callbacks (i.e., the number of executed safepoints in a
@@ -413,6 +426,9 @@ public final class Safepoint {
         /** The thread requesting a safepoint. */
         private volatile IsolateThread requestingThread;
 
+        /** The number of nested handshakes that are in progress. */
+        private int handshakes;
+
         @Platforms(Platform.HOSTED_ONLY.class)
         private Master() {
             this.safepointState = NOT_AT_SAFEPOINT;
@@ -442,7 +458,7 @@ public final class Safepoint {
             ImageSingletons.lookup(Heap.class).prepareForSafepoint();
             safepointState = SYNCHRONIZING;
             requestSafepoints(reason);
-            waitForSafepoints(reason);
+            waitForSafepoints(reason, 0);
             Statistics.setFrozenNanos();
             safepointState = AT_SAFEPOINT;
             return lock;
@@ -455,10 +471,12 @@ public final class Safepoint {
             assert VMOperationControl.mayExecuteVmOperations();
 
             safepointState = NOT_AT_SAFEPOINT;
-            releaseSafepoints(reason);
+            releaseSafepoints(reason, 0);
             ImageSingletons.lookup(Heap.class).endSafepoint();
             Statistics.setThawedNanos();
-            requestingThread = WordFactory.nullPointer();
+            if (handshakes == 0) {
+                requestingThread = WordFactory.nullPointer();
+            }
 
             if (unlock) {
                 VMThreads.THREAD_MUTEX.unlock();
@@ -468,11 +486,78 @@ public final class Safepoint {
             VMThreads.singleton().cleanupExitedOsThreads();
         }
 
+        /**
+         * Have the threads that are targeted by the given handshake operation stop at a safepoint,
+         * while all other threads keep running. Threads that are already stopped by an enclosing
+         * handshake are not requested again.
+         *
+         * Like {@link #freeze}, this method is only executed by the thread that executes VM
+         * operations, so locking {@linkplain VMThreads#THREAD_MUTEX} is fine.
+         */
+        @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, mayBeInlined = true, reason = "The safepoint logic must not allocate.")
+        protected boolean freezeForHandshake(VMOperation operation) {
+            assert SubstrateOptions.MultiThreaded.getValue() : "Should only freeze for a handshake when multi-threaded.";
+            assert VMOperationControl.mayExecuteVmOperations();
+            assert !isFrozen() : "All threads are already stopped";
+
+            boolean lock = !VMThreads.THREAD_MUTEX.isOwner();
+            if (lock) {
+                VMThreads.THREAD_MUTEX.lock();
+            }
+
+            requestingThread = CurrentIsolate.getCurrentThread();
+            handshakes += 1;
+            requestHandshakes(operation, handshakes);
+            waitForSafepoints(operation.getName(), handshakes);
+            return lock;
+        }
+
+        /** Let the threads that were stopped by the innermost handshake proceed. */
+        @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, mayBeInlined = true, reason = "The safepoint logic must not allocate.")
+        protected void thawHandshake(VMOperation operation, boolean unlock) {
+            assert SubstrateOptions.MultiThreaded.getValue() : "Should only thaw from a handshake when multi-threaded.";
+            assert VMOperationControl.mayExecuteVmOperations();
+            assert handshakes > 0 && safepointState == NOT_AT_SAFEPOINT;
+
+            releaseSafepoints(operation.getName(), handshakes);
+            handshakes -= 1;
+            if (handshakes == 0) {
+                requestingThread = WordFactory.nullPointer();
+            }
+
+            if (unlock) {
+                VMThreads.THREAD_MUTEX.unlock();
+            }
+        }
+
         private static boolean isMyself(IsolateThread thread) {
             return thread == CurrentIsolate.getCurrentThread();
         }
 
-        /** Send each of the threads (except myself) a request to come to a safepoint. */
+        /**
+         * Send each of the threads (except myself) that are targeted by the handshake operation and
+         * are not stopped yet a request to come to a safepoint.
+         */
+        private static void requestHandshakes(VMOperation operation, int level) {
+            VMThreads.THREAD_MUTEX.assertIsOwner("Must hold mutex while requesting a handshake.");
+            final Log trace = Log.noopLog().string("[Safepoint.Master.requestHandshakes:  operation: ").string(operation.getName()).string("  level: ").signed(level);
+            for (IsolateThread vmThread = VMThreads.firstThread(); vmThread.isNonNull(); vmThread = VMThreads.nextThread(vmThread)) {
+                if (isMyself(vmThread) || VMThreads.StatusSupport.isStatusIgnoreSafepoints(vmThread) || handshakeLevel.getVolatile(vmThread) != 0) {
+                    continue;
+                }
+                if (operation.isHandshakeTarget(vmThread)) {
+                    /* Mark the thread first, so that it blocks when it notices the request. */
+                    handshakeLevel.setVolatile(vmThread, level);
+                    requestSafepoint(vmThread);
+                }
+            }
+            trace.string("]").newline();
+        }
+
+        /**
+         * Send each of the threads (except myself and the threads that are already stopped by a
+         * handshake) a request to come to a safepoint.
+         */
         private static void requestSafepoints(String reason) {
             VMThreads.THREAD_MUTEX.assertIsOwner("Must hold mutex while requesting a safepoint.");
             final Log trace = Log.noopLog().string("[Safepoint.Master.requestSafepoints:  reason: ").string(reason);
@@ -490,6 +575,10 @@ public final class Safepoint {
                      */
                     continue;
                 }
+                if (handshakeLevel.getVolatile(vmThread) != 0) {
+                    /* The thread is already stopped by an enclosing handshake. */
+                    continue;
+                }
                 requestSafepoint(vmThread);
             }
             trace.string("  returns");
@@ -539,8 +628,12 @@ public final class Safepoint {
             }
         }
 
-        /** Wait for there to be no threads (except myself) still waiting to reach a safepoint. */
-        private static void waitForSafepoints(String reason) {
+        /**
+         * Wait for there to be no threads (except myself) still waiting to reach a safepoint. Only
+         * the threads that were stopped with the given handshake level are considered, where level
+         * 0 means all threads that are not stopped by a handshake.
+         */
+        private static void waitForSafepoints(String reason, int level) {
             final Log trace = Log.noopLog().string("[Safepoint.Master.waitForSafepoints:  reason: ").string(reason).newline();
             VMThreads.THREAD_MUTEX.assertIsOwner("Must hold mutex while waiting for safepoints.");
             final long startNanos = System.nanoTime();
@@ -560,6 +653,11 @@ public final class Safepoint {
                          * then I do not need to worry about bringing it to a safepoint.
                          */
                         ignoreSafepoints += 1;
+                    } else if (handshakeLevel.getVolatile(vmThread) != level) {
+                        /*
+                         * The thread is not requested by this operation, or it is already stopped
+                         * by an enclosing handshake.
+                         */
                     } else {
                         int status = VMThreads.StatusSupport.getStatusVolatile(vmThread);
                         switch (status) {
@@ -620,13 +718,22 @@ public final class Safepoint {
             }
         }
 
-        /** Release each thread at a safepoint. */
-        private static void releaseSafepoints(String reason) {
+        /**
+         * Release each thread at a safepoint that was stopped with the given handshake level, where
+         * level 0 means all threads that are not stopped by a handshake.
+         */
+        private static void releaseSafepoints(String reason, int level) {
             final Log trace = Log.noopLog().string("[Safepoint.Master.releaseSafepoints:").string("  reason: ").string(reason).newline();
             VMThreads.THREAD_MUTEX.assertIsOwner("Must hold mutex when releasing safepoints.");
             // Set all the thread statuses that are at safepoint back to being in native code.
             for (IsolateThread vmThread = VMThreads.firstThread(); vmThread.isNonNull(); vmThread = VMThreads.nextThread(vmThread)) {
-                if (!isMyself(vmThread) && !VMThreads.StatusSupport.isStatusIgnoreSafepoints(vmThread)) {
+                if (isMyself(vmThread) || handshakeLevel.getVolatile(vmThread) != level) {
+                    continue;
+                }
+                if (level != 0) {
+                    handshakeLevel.setVolatile(vmThread, 0);
+                }
+                if (!VMThreads.StatusSupport.isStatusIgnoreSafepoints(vmThread)) {
                     if (trace.isEnabled()) {
                         trace.string("  vmThread status: ").string(VMThreads.StatusSupport.getStatusString(vmThread));
                     }
@@ -685,6 +792,21 @@ public final class Safepoint {
             return requestingThread;
         }
 
+        /**
+         * Returns true if the given thread must stop: either all threads are requested to stop at a
+         * safepoint, or the thread is the target of a handshake.
+         */
+        @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+        protected boolean isStopRequested(IsolateThread thread) {
+            return requestingThread.isNonNull() && (safepointState != NOT_AT_SAFEPOINT || handshakeLevel.getVolatile(thread) != 0);
+        }
+
+        /** Returns true if the given thread is stopped by a handshake that is in progress. */
+        @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+        protected boolean isStoppedForHandshake(IsolateThread thread) {
+            return handshakeLevel.getVolatile(thread) != 0;
+        }
+
         @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
         protected boolean isFrozen() {
             return safepointState == AT_SAFEPOINT;
@@ -40,6 +40,11 @@ import com.oracle.svm.core.util.VMError;
  * {@linkplain VMOperationControl}). While executing a VM operation, it is guaranteed that the
  * yellow zone is enabled and that recurring callbacks are paused. This is necessary to avoid
  * unexpected exceptions while executing critical code.
+ * <p>
+ * Operations that only concern one or a few threads (e.g., walking or modifying the stack of a
+ * single thread) should use {@linkplain SystemEffect#HANDSHAKE handshakes}: only the threads for
+ * which {@link #isHandshakeTarget} returns true are stopped at a safepoint, while all other threads
+ * keep running.
  */
 public abstract class VMOperation {
     private final String name;
@@ -64,6 +69,11 @@ public abstract class VMOperation {
         return systemEffect == SystemEffect.SAFEPOINT;
     }
 
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public final boolean getCausesHandshake() {
+        return systemEffect == SystemEffect.HANDSHAKE;
+    }
+
     protected final void execute(NativeVMOperationData data) {
         assert VMOperationControl.mayExecuteVmOperations();
         assert !isFinished(data);
@@ -115,6 +125,19 @@ public abstract class VMOperation {
         return isInProgress(inProgress) && inProgress.operation.getCausesSafepoint();
     }
 
+    /**
+     * Returns true if the current thread is currently executing a VM operation that either causes a
+     * safepoint, or is a handshake that stopped the given thread.
+     */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public static boolean isInProgressAtSafepoint(IsolateThread thread) {
+        OpInProgress inProgress = VMOperationControl.get().getInProgress();
+        if (!isInProgress(inProgress)) {
+            return false;
+        }
+        return inProgress.operation.getCausesSafepoint() || Safepoint.Master.singleton().isFrozen() || Safepoint.Master.singleton().isStoppedForHandshake(thread);
+    }
+
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     private static boolean isInProgress(OpInProgress inProgress) {
         return inProgress.getExecutingThread() == CurrentIsolate.getCurrentThread();
@@ -161,6 +184,16 @@ public abstract class VMOperation {
         return true;
     }
 
+    /**
+     * Used to determine the threads that must be stopped while a VM operation with
+     * {@linkplain SystemEffect#HANDSHAKE} executes. The thread that executes the VM operation is
+     * never stopped. This method is called while the VM operation thread holds
+     * {@linkplain VMThreads#THREAD_MUTEX}, so it must not allocate or block.
+     */
+    protected boolean isHandshakeTarget(@SuppressWarnings("unused") IsolateThread thread) {
+        return false;
+    }
+
     protected abstract IsolateThread getQueuingThread(NativeVMOperationData data);
 
     protected abstract void setQueuingThread(NativeVMOperationData data, IsolateThread value);
@@ -174,6 +207,7 @@ public abstract class VMOperation {
 
     public enum SystemEffect {
         NONE,
-        SAFEPOINT
+        SAFEPOINT,
+        HANDSHAKE
     }
 }
@@ -77,6 +77,10 @@ import com.oracle.svm.core.util.VMError;
  * implicitly (e.g. a GC). Such recursive VM operations are executed immediately (see
  * {@link #immediateQueues}).
  * <p>
+ * VM operations that need a {@linkplain VMOperation.SystemEffect#HANDSHAKE handshake} are executed
+ * one at a time, each while only its target threads are stopped. If a safepoint is already in
+ * progress, they are executed right away.
+ * <p>
  * If a VM operation was queued successfully, it is guaranteed that the VM operation will get
  * executed at some point in time. This is crucial for {@linkplain NativeVMOperation}s as their
  * mutable state (see {@linkplain NativeVMOperationData}) could be allocated on the stack.
@@ -191,6 +195,7 @@ public final class VMOperationControl {
         } else {
             log.string("VMOperation in progress: ").string(op.getName()).newline();
             log.string("  causesSafepoint: ").bool(op.getCausesSafepoint()).newline();
+            log.string("  causesHandshake: ").bool(op.getCausesHandshake()).newline();
             log.string("  queuingThread: ").zhex(control.inProgress.queueingThread.rawValue()).newline();
             log.string("  executingThread: ").zhex(control.inProgress.executingThread.rawValue()).newline();
         }
@@ -379,6 +384,7 @@ public final class VMOperationControl {
         private final NativeVMOperationQueue nativeSafepointOperations;
         private final JavaVMOperationQueue javaNonSafepointOperations;
         private final JavaVMOperationQueue javaSafepointOperations;
+        private final JavaVMOperationQueue javaHandshakeOperations;
 
         /**
          * This mutex is used by the application threads and by the VM operation thread. Only normal
@@ -396,13 +402,15 @@ public final class VMOperationControl {
             this.nativeSafepointOperations = new NativeVMOperationQueue(prefix + "NativeSafepointOperations");
             this.javaNonSafepointOperations = new JavaVMOperationQueue(prefix + "JavaNonSafepointOperations");
             this.javaSafepointOperations = new JavaVMOperationQueue(prefix + "JavaSafepointOperations");
+            this.javaHandshakeOperations = new JavaVMOperationQueue(prefix + "JavaHandshakeOperations");
             this.mutex = createMutex(needsLocking);
             this.operationQueued = createCondition();
             this.operationFinished = createCondition();
         }
 
         boolean isEmpty() {
-            return nativeNonSafepointOperations.isEmpty() && nativeSafepointOperations.isEmpty() && javaNonSafepointOperations.isEmpty() && javaSafepointOperations.isEmpty();
+            return nativeNonSafepointOperations.isEmpty() && nativeSafepointOperations.isEmpty() && javaNonSafepointOperations.isEmpty() && javaSafepointOperations.isEmpty() &&
+                            javaHandshakeOperations.isEmpty();
         }
 
         void waitForWorkAndExecute() {
@@ -458,11 +466,14 @@ public final class VMOperationControl {
             if (operation instanceof JavaVMOperation) {
                 if (operation.getCausesSafepoint()) {
                     javaSafepointOperations.push((JavaVMOperation) operation);
+                } else if (operation.getCausesHandshake()) {
+                    javaHandshakeOperations.push((JavaVMOperation) operation);
                 } else {
                     javaNonSafepointOperations.push((JavaVMOperation) operation);
                 }
             } else if (operation instanceof NativeVMOperation) {
                 assert operation == data.getNativeVMOperation();
+                VMError.guarantee(!operation.getCausesHandshake(), "Handshakes are only supported for Java VM operations");
                 if (operation.getCausesSafepoint()) {
                     nativeSafepointOperations.push(data);
                 } else {
@@ -480,6 +491,10 @@ public final class VMOperationControl {
             drain(nativeNonSafepointOperations);
             drain(javaNonSafepointOperations);
 
+            // Drain the handshake queue, stopping only the target threads of each operation.
+            filterUnnecessary(javaHandshakeOperations);
+            drainHandshakes(javaHandshakeOperations);
+
             // Filter operations that need a safepoint but don't have any work to do.
             filterUnnecessary(nativeSafepointOperations);
             filterUnnecessary(javaSafepointOperations);
@@ -554,6 +569,34 @@ public final class VMOperationControl {
             }
         }
 
+        private void drainHandshakes(JavaVMOperationQueue workQueue) {
+            assertIsLocked();
+            if (!workQueue.isEmpty()) {
+                Log trace = log();
+                trace.string("[Worklist.drainHandshakes:  queue: ").string(workQueue.name);
+                Safepoint.Master master = Safepoint.Master.singleton();
+                while (!workQueue.isEmpty()) {
+                    JavaVMOperation operation = workQueue.pop();
+                    try {
+                        if (master.isFrozen()) {
+                            // all threads are already stopped
+                            operation.execute(WordFactory.nullPointer());
+                        } else {
+                            boolean lockedForHandshake = master.freezeForHandshake(operation);
+                            try {
+                                operation.execute(WordFactory.nullPointer());
+                            } finally {
+                                master.thawHandshake(operation, lockedForHandshake);
+                            }
+                        }
+                    } finally {
+                        markAsFinished(operation, WordFactory.nullPointer(), operationFinished);
+                    }
+                }
+                trace.string("]").newline();
+            }
+        }
+
         private void filterUnnecessary(JavaVMOperationQueue workQueue) {
             Log trace = log();
             JavaVMOperation prev = null;
@@ -0,0 +1,1252 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.code;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.graalvm.collections.UnmodifiableMapCursor;
+import org.graalvm.compiler.bytecode.Bytecode;
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.code.CompilationResult.CodeAnnotation;
+import org.graalvm.compiler.core.GraalCompiler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.spi.ForeignCallDescriptor;
+import org.graalvm.compiler.core.common.type.AbstractObjectStamp;
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeMap;
+import org.graalvm.compiler.graph.Position;
+import org.graalvm.compiler.nodes.FieldLocationIdentity;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.word.LocationIdentity;
+
+import com.oracle.svm.core.StaticFieldsSupport;
+import com.oracle.svm.core.config.ConfigurationValues;
+import com.oracle.svm.core.deopt.DeoptEntryInfopoint;
+import com.oracle.svm.core.graal.code.SubstrateBackend;
+import com.oracle.svm.core.heap.ReferenceMapEncoder;
+import com.oracle.svm.core.heap.SubstrateReferenceMap;
+import com.oracle.svm.core.hub.DynamicHub;
+import com.oracle.svm.core.meta.SubstrateObjectConstant;
+import com.oracle.svm.core.option.HostedOptionKey;
+import com.oracle.svm.core.option.HostedOptionValues;
+import com.oracle.svm.core.util.UserError;
+import com.oracle.svm.core.util.VMError;
+import com.oracle.svm.hosted.code.amd64.AMD64HostedPatcher;
+import com.oracle.svm.hosted.meta.HostedField;
+import com.oracle.svm.hosted.meta.HostedInstanceClass;
+import com.oracle.svm.hosted.meta.HostedMethod;
+import com.oracle.svm.hosted.meta.HostedType;
+import com.oracle.svm.hosted.meta.HostedUniverse;
+
+import jdk.vm.ci.code.BytecodeFrame;
+import jdk.vm.ci.code.BytecodePosition;
+import jdk.vm.ci.code.DebugInfo;
+import jdk.vm.ci.code.ReferenceMap;
+import jdk.vm.ci.code.StackSlot;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.code.ValueUtil;
+import jdk.vm.ci.code.site.Call;
+import jdk.vm.ci.code.site.ConstantReference;
+import jdk.vm.ci.code.site.DataPatch;
+import jdk.vm.ci.code.site.ExceptionHandler;
+import jdk.vm.ci.code.site.Infopoint;
+import jdk.vm.ci.code.site.InfopointReason;
+import jdk.vm.ci.code.site.Mark;
+import jdk.vm.ci.meta.Constant;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.JavaTypeProfile;
+import jdk.vm.ci.meta.JavaTypeProfile.ProfiledType;
+import jdk.vm.ci.meta.JavaValue;
+import jdk.vm.ci.meta.PlatformKind;
+import jdk.vm.ci.meta.PrimitiveConstant;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.meta.SpeculationLog;
+import jdk.vm.ci.meta.VMConstant;
+import jdk.vm.ci.meta.Value;
+import jdk.vm.ci.meta.ValueKind;
+
+/**
+ * An on-disk cache of compiled methods that is shared by image builds, e.g., by the repeated
+ * builds of an image server or of a CI job that keeps the cache directory between runs.
+ *
+ * An entry is keyed by a digest of everything that the compiler sees of a method. This is mainly
+ * the graph before compilation, i.e., after parsing, analysis-based stamp strengthening and
+ * trivial inlining. The graph reflects the bytecode of the method and of all inlined callees, the
+ * analysis type states (as stamps and devirtualized calls), and all constant folding done while
+ * parsing. To this the key adds the hosted layout facts that lowering reads from the types,
+ * fields and methods the graph refers to (type IDs, instance sizes, field offsets, vtable
+ * indices), and a fingerprint of the image builder and of the hosted options of the build. The
+ * static analysis still runs in every build; the cache only skips the compilation of methods
+ * whose inputs are unchanged.
+ *
+ * Objects of the image heap have no identity across builds, so object constants are stored by a
+ * stable identity and resolved again when an entry is loaded: a constant of the graph by its index
+ * among the object constants of the graph (the key covers the content of these constants), a hub
+ * by the name of its type, and the arrays of static fields by their role. Call targets and the
+ * methods of debug info frames are stored by name and resolved in the current universe. Methods
+ * with other object constants or with data section items are always compiled. Why methods are not
+ * cached is reported by {@link Options#PrintCompilationCacheStatistics}.
+ *
+ * The size of the cache directory is bounded by {@link Options#CompilationCacheMaxSize}. At the end
+ * of the compilation the least recently used entries are deleted; entries that are reused get
+ * their modification time updated.
+ */
+public final class CompilationCache {
+
+    public static class Options {
+        @Option(help = "Directory of an on-disk cache of compiled methods that is reused by subsequent image builds. The cache is disabled if no directory is specified.")//
+        public static final HostedOptionKey<String> CompilationCacheDirectory = new HostedOptionKey<>("");
+
+        @Option(help = "Maximum size of the compilation cache directory in MB. The least recently used entries are deleted at the end of the compilation. 0 means unbounded.")//
+        public static final HostedOptionKey<Integer> CompilationCacheMaxSize = new HostedOptionKey<>(1024);
+
+        @Option(help = "Print how many methods were reused from the compilation cache, and why methods could not be cached.")//
+        public static final HostedOptionKey<Boolean> PrintCompilationCacheStatistics = new HostedOptionKey<>(false);
+    }
+
+    /** Version of the key and of the entries. Increment on every incompatible change. */
+    private static final int FORMAT_VERSION = 2;
+    private static final String ENTRY_SUFFIX = ".compilation";
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** Temporary files older than this were left behind by a build that did not finish. */
+    private static final long TEMP_FILE_EXPIRY_MILLIS = 60 * 60 * 1000;
+
+    /** Classes whose code sources identify the image builder and the compiler. */
+    private static final Class<?>[] FINGERPRINT_CLASSES = {CompilationCache.class, SubstrateBackend.class, GraalCompiler.class};
+
+    private static final byte INFOPOINT = 0;
+    private static final byte CALL = 1;
+    private static final byte DEOPT_ENTRY = 2;
+
+    private static final byte NO_POSITION = 0;
+    private static final byte POSITION = 1;
+    private static final byte FRAME = 2;
+
+    private static final byte VALUE_ILLEGAL = 0;
+    private static final byte VALUE_NULL = 1;
+    private static final byte VALUE_PRIMITIVE = 2;
+    private static final byte VALUE_STACK_SLOT = 3;
+    private static final byte VALUE_OBJECT = 4;
+
+    private static final byte OBJECT_GRAPH_CONSTANT = 0;
+    private static final byte OBJECT_HUB = 1;
+    private static final byte OBJECT_STATIC_OBJECT_FIELDS = 2;
+    private static final byte OBJECT_STATIC_PRIMITIVE_FIELDS = 3;
+
+    private static final byte KIND_VALUE = 0;
+    private static final byte KIND_REFERENCE = 1;
+    private static final byte KIND_COMPRESSED_REFERENCE = 2;
+
+    /** Thrown when a graph or a compilation result contains something that cannot be cached. */
+    @SuppressWarnings("serial")
+    private static final class UncacheableException extends Exception {
+        UncacheableException(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    /**
+     * The key of a compilation, and the object constants of the graph it was computed from. The
+     * constants are taken before compilation, because the compiler modifies the graph.
+     */
+    public static final class Key {
+        final String digest;
+        final List<JavaConstant> graphConstants;
+
+        Key(String digest, List<JavaConstant> graphConstants) {
+            this.digest = digest;
+            this.graphConstants = graphConstants;
+        }
+
+        @Override
+        public int hashCode() {
+            return digest.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && digest.equals(((Key) obj).digest);
+        }
+
+        @Override
+        public String toString() {
+            return digest;
+        }
+    }
+
+    private final HostedUniverse universe;
+    private final Path directory;
+    private final byte[] buildFingerprint;
+    private final ConcurrentMap<HostedType, String> typeDescriptions;
+    private volatile Map<String, HostedMethod> methodsByName;
+    private volatile Map<String, DynamicHub> hubsByName;
+
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong uncacheable = new AtomicLong();
+    private final AtomicLong unkeyed = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> uncacheableReasons;
+
+    /** Returns the cache of this build, or null if the cache is disabled. */
+    public static CompilationCache create(HostedUniverse universe) {
+        String directoryName = Options.CompilationCacheDirectory.getValue();
+        if (directoryName.isEmpty()) {
+            return null;
+        }
+        return create(universe, Paths.get(directoryName));
+    }
+
+    /** Returns a cache of this build that uses the given directory. */
+    public static CompilationCache create(HostedUniverse universe, Path cacheDirectory) {
+        Path directory = cacheDirectory.toAbsolutePath();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw UserError.abort("Cannot create the compilation cache directory " + directory + ": " + ex.getMessage());
+        }
+        return new CompilationCache(universe, directory);
+    }
+
+    private CompilationCache(HostedUniverse universe, Path directory) {
+        this.universe = universe;
+        this.directory = directory;
+        this.buildFingerprint = computeBuildFingerprint();
+        this.typeDescriptions = new ConcurrentHashMap<>();
+        this.uncacheableReasons = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Computes the key of the compilation of a method, or returns null if the graph refers to
+     * something that cannot be identified across image builds.
+     */
+    public Key computeKey(HostedMethod method, StructuredGraph graph) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<JavaConstant> graphConstants = new ArrayList<>();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(buildFingerprint);
+            out.writeUTF(describeMethod(method));
+            out.writeInt(method.getModifiers());
+            out.writeUTF(Arrays.toString(method.getAnnotations()));
+            writeBytes(out, method.getCode());
+            for (ResolvedJavaMethod inlined : graph.getMethods()) {
+                out.writeUTF(inlined.format("%H.%n(%P)%R"));
+                writeBytes(out, inlined.getCode());
+            }
+            writeGraph(out, graph, graphConstants);
+        } catch (UncacheableException ex) {
+            unkeyed.incrementAndGet();
+            registerUncacheable(ex.getMessage());
+            return null;
+        } catch (IOException ex) {
+            throw VMError.shouldNotReachHere(ex);
+        }
+        return new Key(toHexString(digest(bytes.toByteArray())), graphConstants);
+    }
+
+    /**
+     * Returns a compilation result that is filled with the cached code for the key, or null if
+     * there is no usable entry, in which case the method must be compiled. The result is only
+     * allocated if there is an entry, and is discarded if the entry is stale.
+     */
+    public CompilationResult lookup(Key key, StructuredGraph graph, Supplier<CompilationResult> resultFactory) {
+        Path file = directory.resolve(key.digest + ENTRY_SUFFIX);
+        byte[] entry;
+        try {
+            entry = Files.readAllBytes(file);
+        } catch (IOException ex) {
+            /* There is no entry, or it was just evicted by a concurrent build. */
+            missing.incrementAndGet();
+            return null;
+        }
+        CompilationResult result = resultFactory.get();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry))) {
+            readResult(in, result, key);
+        } catch (IOException | ReflectiveOperationException | IllegalArgumentException | UncacheableException ex) {
+            /* The entry is corrupt, or refers to a method or type that no longer exists. */
+            stale.incrementAndGet();
+            return null;
+        }
+        try {
+            /* The modification time is the last use when the cache directory is trimmed. */
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            /* The entry is only evicted earlier. */
+        }
+        result.setMethods(graph.method(), graph.getMethods());
+        result.setFields(graph.getFields());
+        result.setBytecodeSize(graph.getBytecodeSize());
+        result.setHasUnsafeAccess(graph.hasUnsafeAccess());
+        reused.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Stores a new compilation result, before its code is patched. The cache is best effort, so a
+     * failed write is only counted.
+     */
+    public void store(Key key, CompilationResult result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeResult(out, result, key);
+        } catch (UncacheableException ex) {
+            registerUncacheable(ex.getMessage());
+            return;
+        } catch (IOException ex) {
+            throw VMError.shouldNotReachHere(ex);
+        }
+
+        Path temp = null;
+        try {
+            /* Write and rename, so that concurrent builds never see a partial entry. */
+            temp = Files.createTempFile(directory, key.digest, TEMP_SUFFIX);
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, directory.resolve(key.digest + ENTRY_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            stored.incrementAndGet();
+        } catch (IOException ex) {
+            failedWrites.incrementAndGet();
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    /* The temporary file is only garbage in the cache directory. */
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache directory is within
+     * {@link Options#CompilationCacheMaxSize}, and temporary files of builds that did not finish.
+     * Other builds may use the directory concurrently, so files that disappear are skipped.
+     */
+    public void trim() {
+        long maxBytes = Options.CompilationCacheMaxSize.getValue() * 1024L * 1024L;
+        long now = System.currentTimeMillis();
+        List<Path> entries = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        long totalBytes = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    BasicFileAttributes fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (name.endsWith(TEMP_SUFFIX) && now - fileAttributes.lastModifiedTime().toMillis() > TEMP_FILE_EXPIRY_MILLIS) {
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(ENTRY_SUFFIX)) {
+                        entries.add(file);
+                        attributes.put(file, fileAttributes);
+                        totalBytes += fileAttributes.size();
+                    }
+                } catch (IOException ignored) {
+                    /* Deleted by a concurrent build. */
+                }
+            }
+        } catch (IOException ignored) {
+            /* The cache is best effort; the directory is trimmed by the next build. */
+            return;
+        }
+        if (maxBytes <= 0 || totalBytes <= maxBytes) {
+            return;
+        }
+        entries.sort((f1, f2) -> attributes.get(f1).lastModifiedTime().compareTo(attributes.get(f2).lastModifiedTime()));
+        for (Path file : entries) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            try {
+                if (Files.deleteIfExists(file)) {
+                    evicted.incrementAndGet();
+                }
+            } catch (IOException ignored) {
+                /* Counted as deleted, it is retried by the next build. */
+            }
+            totalBytes -= attributes.get(file).size();
+        }
+    }
+
+    public void printStatistics() {
+        if (!Options.PrintCompilationCacheStatistics.getValue()) {
+            return;
+        }
+        long lookups = reused.get() + missing.get() + stale.get();
+        long compiled = lookups + unkeyed.get();
+        System.out.format("Compilation cache %s: %d reused, %d missing, %d stale, %d stored, %d failed writes, %d not cacheable, %d evicted%n",
+                        directory, reused.get(), missing.get(), stale.get(), stored.get(), failedWrites.get(), uncacheable.get(), evicted.get());
+        System.out.format("Compilation cache hit ratio: %.1f%% of lookups, %.1f%% of compiled methods%n",
+                        lookups == 0 ? 0.0 : 100.0 * reused.get() / lookups, compiled == 0 ? 0.0 : 100.0 * reused.get() / compiled);
+        List<Map.Entry<String, AtomicLong>> reasons = new ArrayList<>(uncacheableReasons.entrySet());
+        reasons.sort((e1, e2) -> Long.compare(e2.getValue().get(), e1.getValue().get()));
+        for (Map.Entry<String, AtomicLong> reason : reasons) {
+            System.out.format("%8d  %s%n", reason.getValue().get(), reason.getKey());
+        }
+    }
+
+    private void registerUncacheable(String reason) {
+        uncacheable.incrementAndGet();
+        uncacheableReasons.computeIfAbsent(reason, r -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static byte[] computeBuildFingerprint() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(System.getProperty("java.vm.version", ""));
+            for (Class<?> clazz : FINGERPRINT_CLASSES) {
+                URL url = clazz.getResource(clazz.getSimpleName() + ".class");
+                out.writeUTF(String.valueOf(url));
+                if (url != null) {
+                    URLConnection connection = url.openConnection();
+                    out.writeLong(connection.getLastModified());
+                    out.writeLong(connection.getContentLengthLong());
+                }
+            }
+
+            TargetDescription target = ConfigurationValues.getTarget();
+            out.writeUTF(target.arch.getName());
+            out.writeInt(target.wordSize);
+            out.writeBoolean(target.inlineObjects);
+
+            /* Options that only print diagnostics do not change the code. */
+            List<String> options = new ArrayList<>();
+            UnmodifiableMapCursor<OptionKey<?>, Object> cursor = HostedOptionValues.singleton().getMap().getEntries();
+            while (cursor.advance()) {
+                String name = cursor.getKey().getName();
+                if (!name.startsWith("Print") && !name.equals(Options.CompilationCacheDirectory.getName()) && !name.equals(Options.CompilationCacheMaxSize.getName())) {
+                    Object value = cursor.getValue();
+                    options.add(name + "=" + (value instanceof Object[] ? Arrays.deepToString((Object[]) value) : String.valueOf(value)));
+                }
+            }
+            Collections.sort(options);
+            for (String option : options) {
+                out.writeUTF(option);
+            }
+        } catch (IOException ex) {
+            throw VMError.shouldNotReachHere(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException ex) {
+            throw VMError.shouldNotReachHere(ex);
+        }
+    }
+
+    private static String toHexString(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /*
+     * The key.
+     */
+
+    private void writeGraph(DataOutputStream out, StructuredGraph graph, List<JavaConstant> graphConstants) throws IOException, UncacheableException {
+        out.writeUTF(graph.getGuardsStage().name());
+        out.writeBoolean(graph.hasUnsafeAccess());
+
+        NodeMap<Integer> ids = graph.createNodeMap();
+        int count = 0;
+        for (Node node : graph.getNodes()) {
+            ids.set(node, count++);
+        }
+        out.writeInt(count);
+
+        for (Node node : graph.getNodes()) {
+            out.writeUTF(node.getClass().getName());
+            if (node instanceof ValueNode) {
+                writeStamp(out, ((ValueNode) node).stamp(NodeView.DEFAULT));
+            }
+            for (int i = 0; i < node.getNodeClass().getData().getCount(); i++) {
+                writeNodeData(out, node.getNodeClass().getData().get(node, i), graphConstants);
+            }
+            for (Position position : node.inputPositions()) {
+                writeEdge(out, ids, position, position.get(node));
+            }
+            for (Position position : node.successorPositions()) {
+                writeEdge(out, ids, position, position.get(node));
+            }
+        }
+    }
+
+    private static void writeEdge(DataOutputStream out, NodeMap<Integer> ids, Position position, Node target) throws IOException {
+        out.writeInt(position.getIndex());
+        out.writeInt(position.getSubIndex());
+        out.writeInt(target == null ? -1 : ids.get(target));
+    }
+
+    private void writeStamp(DataOutputStream out, Stamp stamp) throws IOException, UncacheableException {
+        out.writeUTF(stamp.getClass().getName() + " " + stamp);
+        if (stamp instanceof AbstractObjectStamp && ((AbstractObjectStamp) stamp).type() != null) {
+            out.writeUTF(describeType(((AbstractObjectStamp) stamp).type()));
+        }
+    }
+
+    /**
+     * Writes a data field of a node. Values are written by content, so any type that is not known
+     * to have a complete and stable description makes the method uncacheable. Object constants are
+     * also collected in the graph constants, which identify them in the compilation result.
+     */
+    private void writeNodeData(DataOutputStream out, Object value, List<JavaConstant> graphConstants) throws IOException, UncacheableException {
+        if (value == null) {
+            out.writeUTF("null");
+        } else if (value instanceof Boolean || value instanceof Number || value instanceof Character || value instanceof String) {
+            out.writeUTF(value.getClass().getSimpleName() + " " + value);
+        } else if (value instanceof Enum) {
+            out.writeUTF(value.getClass().getName() + " " + ((Enum<?>) value).name());
+        } else if (value instanceof Stamp) {
+            writeStamp(out, (Stamp) value);
+        } else if (value instanceof Constant) {
+            writeConstant(out, (Constant) value, graphConstants);
+        } else if (value instanceof ResolvedJavaType) {
+            out.writeUTF(describeType((ResolvedJavaType) value));
+        } else if (value instanceof ResolvedJavaMethod) {
+            out.writeUTF(describeMethod((ResolvedJavaMethod) value));
+        } else if (value instanceof ResolvedJavaField) {
+            out.writeUTF(describeField((ResolvedJavaField) value));
+        } else if (value instanceof FieldLocationIdentity) {
+            out.writeUTF("location " + describeField(((FieldLocationIdentity) value).getField()));
+        } else if (value instanceof LocationIdentity) {
+            out.writeUTF(value.getClass().getName() + " " + value);
+        } else if (value instanceof ForeignCallDescriptor) {
+            out.writeUTF("foreign call " + value);
+        } else if (value instanceof Bytecode) {
+            out.writeUTF(describeMethod(((Bytecode) value).getMethod()));
+            writeBytes(out, ((Bytecode) value).getCode());
+        } else if (value instanceof JavaTypeProfile) {
+            JavaTypeProfile profile = (JavaTypeProfile) value;
+            out.writeUTF(profile.getNullSeen().name());
+            out.writeDouble(profile.getNotRecordedProbability());
+            out.writeInt(profile.getTypes().length);
+            for (ProfiledType type : profile.getTypes()) {
+                out.writeUTF(describeType(type.getType()));
+                out.writeDouble(type.getProbability());
+            }
+        } else if (value == SpeculationLog.NO_SPECULATION) {
+            out.writeUTF("no speculation");
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            out.writeInt(array.length);
+            for (Object element : array) {
+                writeNodeData(out, element, graphConstants);
+            }
+        } else if (value.getClass().isArray() && value.getClass().getComponentType().isPrimitive()) {
+            /* E.g., the keys, successor indices and probabilities of a switch. */
+            writePrimitiveArray(out, value);
+        } else {
+            throw new UncacheableException("node data of type " + value.getClass().getName());
+        }
+    }
+
+    private static void writePrimitiveArray(DataOutputStream out, Object array) throws IOException {
+        Class<?> componentType = array.getClass().getComponentType();
+        out.writeUTF(componentType.getName() + "[]");
+        int length = Array.getLength(array);
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            if (componentType == boolean.class) {
+                out.writeBoolean(Array.getBoolean(array, i));
+            } else if (componentType == float.class || componentType == double.class) {
+                out.writeLong(Double.doubleToRawLongBits(Array.getDouble(array, i)));
+            } else {
+                out.writeLong(Array.getLong(array, i));
+            }
+        }
+    }
+
+    /**
+     * Writes a constant by content. Of object constants, only strings, hubs and enum values have a
+     * description that identifies their content across builds.
+     */
+    private void writeConstant(DataOutputStream out, Constant constant, List<JavaConstant> graphConstants) throws IOException, UncacheableException {
+        if (constant instanceof PrimitiveConstant) {
+            PrimitiveConstant primitive = (PrimitiveConstant) constant;
+            out.writeUTF(primitive.getJavaKind().name() + " " + rawBits(primitive));
+            return;
+        } else if (!(constant instanceof JavaConstant) || ((JavaConstant) constant).getJavaKind() != JavaKind.Object) {
+            throw new UncacheableException("constant of type " + constant.getClass().getName());
+        }
+        JavaConstant javaConstant = (JavaConstant) constant;
+        out.writeBoolean(SubstrateObjectConstant.isCompressed(javaConstant));
+        if (javaConstant.isNull()) {
+            out.writeUTF("null");
+            return;
+        } else if (!(javaConstant instanceof SubstrateObjectConstant)) {
+            throw new UncacheableException("constant of type " + constant.getClass().getName());
+        }
+        Object object = SubstrateObjectConstant.asObject(javaConstant);
+        if (object instanceof String) {
+            String string = (String) object;
+            out.writeUTF("string");
+            out.writeInt(string.length());
+            out.writeChars(string);
+        } else if (object instanceof DynamicHub) {
+            out.writeUTF("hub " + ((DynamicHub) object).getName());
+        } else if (object instanceof Enum) {
+            out.writeUTF("enum " + object.getClass().getName() + " " + ((Enum<?>) object).name());
+        } else {
+            throw new UncacheableException("object constant of type " + object.getClass().getName());
+        }
+        graphConstants.add(javaConstant);
+    }
+
+    private static long rawBits(PrimitiveConstant constant) {
+        switch (constant.getJavaKind()) {
+            case Boolean:
+                return constant.asBoolean() ? 1 : 0;
+            case Float:
+                return Float.floatToRawIntBits(constant.asFloat());
+            case Double:
+                return Double.doubleToRawLongBits(constant.asDouble());
+            case Illegal:
+                return 0;
+            default:
+                return constant.asLong();
+        }
+    }
+
+    private String describeType(ResolvedJavaType javaType) throws UncacheableException {
+        if (!(javaType instanceof HostedType)) {
+            throw new UncacheableException("type of class " + javaType.getClass().getName());
+        }
+        HostedType type = (HostedType) javaType;
+        String description = typeDescriptions.get(type);
+        if (description == null) {
+            StringBuilder sb = new StringBuilder(type.toJavaName(true));
+            sb.append(" id ").append(type.getTypeID());
+            sb.append(" instanceOf ").append(type.getInstanceOfFromTypeID()).append('+').append(type.getInstanceOfNumTypeIDs());
+            sb.append(" instantiated ").append(type.isInstantiated());
+            sb.append(" initialized ").append(type.isInitialized());
+            HostedType unique = type.getUniqueConcreteImplementation();
+            sb.append(" unique ").append(unique == null ? "-" : unique.toJavaName(true));
+            if (type instanceof HostedInstanceClass) {
+                HostedInstanceClass instanceClass = (HostedInstanceClass) type;
+                sb.append(" size ").append(instanceClass.getInstanceSize());
+                sb.append(" monitor ").append(instanceClass.getMonitorFieldOffset());
+                sb.append(" hashCode ").append(instanceClass.getHashCodeFieldOffset());
+            }
+            description = sb.toString();
+            typeDescriptions.put(type, description);
+        }
+        return description;
+    }
+
+    private static String describeMethod(ResolvedJavaMethod javaMethod) throws UncacheableException {
+        if (!(javaMethod instanceof HostedMethod)) {
+            throw new UncacheableException("method of class " + javaMethod.getClass().getName());
+        }
+        HostedMethod method = (HostedMethod) javaMethod;
+        return methodName(method) + " vtable " + (method.hasVTableIndex() ? method.getVTableIndex() : -1) + " entryPoint " + method.isEntryPoint();
+    }
+
+    private static String describeField(ResolvedJavaField javaField) throws UncacheableException {
+        if (!(javaField instanceof HostedField)) {
+            throw new UncacheableException("field of class " + javaField.getClass().getName());
+        }
+        HostedField field = (HostedField) javaField;
+        return field.format("%H.%n:%T") + " location " + (field.hasLocation() ? field.getLocation() : -1) + " accessed " + field.isAccessed() + " written " + field.isWritten();
+    }
+
+    /*
+     * Method names, which identify methods across image builds.
+     */
+
+    private static String methodName(HostedMethod method) {
+        return method.format("%H.%n(%P)%R");
+    }
+
+    private HostedMethod lookupMethod(String name) {
+        Map<String, HostedMethod> result = methodsByName;
+        if (result == null) {
+            result = initMethodsByName();
+        }
+        return result.get(name);
+    }
+
+    /**
+     * Initialized on first use, when all deoptimization target methods have been created. Names
+     * that are not unique, e.g., of methods from different class loaders, are left out.
+     */
+    private synchronized Map<String, HostedMethod> initMethodsByName() {
+        if (methodsByName == null) {
+            Map<String, HostedMethod> result = new HashMap<>();
+            Set<String> ambiguous = new HashSet<>();
+            for (HostedMethod method : universe.getMethods()) {
+                registerMethodName(result, ambiguous, method);
+                if (method.compilationInfo.getDeoptTargetMethod() != null) {
+                    registerMethodName(result, ambiguous, method.compilationInfo.getDeoptTargetMethod());
+                }
+            }
+            result.keySet().removeAll(ambiguous);
+            methodsByName = result;
+        }
+        return methodsByName;
+    }
+
+    private static void registerMethodName(Map<String, HostedMethod> result, Set<String> ambiguous, HostedMethod method) {
+        HostedMethod existing = result.putIfAbsent(methodName(method), method);
+        if (existing != null && existing != method) {
+            ambiguous.add(methodName(method));
+        }
+    }
+
+    private DynamicHub lookupHub(String name) {
+        Map<String, DynamicHub> result = hubsByName;
+        if (result == null) {
+            result = initHubsByName();
+        }
+        return result.get(name);
+    }
+
+    /** Names of types from different class loaders are not unique and left out. */
+    private synchronized Map<String, DynamicHub> initHubsByName() {
+        if (hubsByName == null) {
+            Map<String, DynamicHub> result = new HashMap<>();
+            Set<String> ambiguous = new HashSet<>();
+            for (HostedType type : universe.getTypes()) {
+                DynamicHub hub = type.getHub();
+                DynamicHub existing = result.putIfAbsent(hub.getName(), hub);
+                if (existing != null && existing != hub) {
+                    ambiguous.add(hub.getName());
+                }
+            }
+            result.keySet().removeAll(ambiguous);
+            hubsByName = result;
+        }
+        return hubsByName;
+    }
+
+    /**
+     * Writes the stable identity of an object constant of the compilation result: preferably the
+     * identical constant of the graph, otherwise the hub of a type or an array of static fields.
+     */
+    private void writeObjectConstant(DataOutputStream out, JavaConstant constant, Key key) throws IOException, UncacheableException {
+        Object object = SubstrateObjectConstant.asObject(constant);
+        out.writeBoolean(SubstrateObjectConstant.isCompressed(constant));
+        for (int i = 0; i < key.graphConstants.size(); i++) {
+            if (SubstrateObjectConstant.asObject(key.graphConstants.get(i)) == object) {
+                out.writeByte(OBJECT_GRAPH_CONSTANT);
+                out.writeInt(i);
+                return;
+            }
+        }
+        if (object instanceof DynamicHub) {
+            String name = ((DynamicHub) object).getName();
+            if (lookupHub(name) != object) {
+                throw new UncacheableException("hub without a unique name");
+            }
+            out.writeByte(OBJECT_HUB);
+            out.writeUTF(name);
+        } else if (object == StaticFieldsSupport.getStaticObjectFields()) {
+            out.writeByte(OBJECT_STATIC_OBJECT_FIELDS);
+        } else if (object == StaticFieldsSupport.getStaticPrimitiveFields()) {
+            out.writeByte(OBJECT_STATIC_PRIMITIVE_FIELDS);
+        } else {
+            throw new UncacheableException("object constant of type " + (object == null ? "null" : object.getClass().getName()) + " not in the graph");
+        }
+    }
+
+    private JavaConstant readObjectConstant(DataInputStream in, Key key) throws IOException, UncacheableException {
+        boolean compressed = in.readBoolean();
+        byte tag = in.readByte();
+        Object object;
+        switch (tag) {
+            case OBJECT_GRAPH_CONSTANT:
+                int index = in.readInt();
+                if (index < 0 || index >= key.graphConstants.size()) {
+                    throw new IOException("graph constant " + index);
+                }
+                object = SubstrateObjectConstant.asObject(key.graphConstants.get(index));
+                break;
+            case OBJECT_HUB:
+                String name = in.readUTF();
+                object = lookupHub(name);
+                if (object == null) {
+                    throw new UncacheableException("unknown type " + name);
+                }
+                break;
+            case OBJECT_STATIC_OBJECT_FIELDS:
+                object = StaticFieldsSupport.getStaticObjectFields();
+                break;
+            case OBJECT_STATIC_PRIMITIVE_FIELDS:
+                object = StaticFieldsSupport.getStaticPrimitiveFields();
+                break;
+            default:
+                throw new IOException("object constant tag " + tag);
+        }
+        return SubstrateObjectConstant.forObject(object, compressed);
+    }
+
+    private void writeMethodReference(DataOutputStream out, ResolvedJavaMethod javaMethod) throws IOException, UncacheableException {
+        if (javaMethod == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        if (!(javaMethod instanceof HostedMethod)) {
+            throw new UncacheableException("method of class " + javaMethod.getClass().getName());
+        }
+        String name = methodName((HostedMethod) javaMethod);
+        if (lookupMethod(name) != javaMethod) {
+            throw new UncacheableException("method without a unique name");
+        }
+        out.writeBoolean(true);
+        out.writeUTF(name);
+    }
+
+    private HostedMethod readMethodReference(DataInputStream in) throws IOException, UncacheableException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String name = in.readUTF();
+        HostedMethod result = lookupMethod(name);
+        if (result == null) {
+            throw new UncacheableException("unknown method " + name);
+        }
+        return result;
+    }
+
+    /*
+     * The entries.
+     */
+
+    private void writeResult(DataOutputStream out, CompilationResult result, Key key) throws IOException, UncacheableException {
+        if (result.getDataSection().iterator().hasNext()) {
+            throw new UncacheableException("data section item");
+        } else if (result.getAssumptions() != null && result.getAssumptions().length > 0) {
+            throw new UncacheableException("assumption");
+        } else if (!result.getSourceMappings().isEmpty()) {
+            throw new UncacheableException("source mapping");
+        } else if (result.getCustomStackArea() != null) {
+            throw new UncacheableException("custom stack area");
+        }
+
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(result.getTargetCodeSize());
+        out.write(result.getTargetCode(), 0, result.getTargetCodeSize());
+        out.writeInt(result.getTotalFrameSize());
+        out.writeInt(result.getMaxInterpreterFrameSize());
+        out.writeInt(result.getEntryBCI());
+
+        out.writeInt(result.getMarks().size());
+        for (Mark mark : result.getMarks()) {
+            if (!(mark.id instanceof String)) {
+                throw new UncacheableException("mark of type " + (mark.id == null ? "null" : mark.id.getClass().getName()));
+            }
+            out.writeInt(mark.pcOffset);
+            out.writeUTF((String) mark.id);
+        }
+
+        out.writeInt(result.getExceptionHandlers().size());
+        for (ExceptionHandler handler : result.getExceptionHandlers()) {
+            out.writeInt(handler.pcOffset);
+            out.writeInt(handler.handlerPos);
+        }
+
+        out.writeInt(result.getCodeAnnotations().size());
+        for (CodeAnnotation annotation : result.getCodeAnnotations()) {
+            if (annotation.getClass() != AMD64HostedPatcher.class) {
+                throw new UncacheableException("code annotation " + annotation.getClass().getName());
+            }
+            AMD64HostedPatcher patcher = (AMD64HostedPatcher) annotation;
+            out.writeInt(patcher.position);
+            out.writeInt(patcher.getOperandPosition());
+            out.writeInt(patcher.getOperandSize());
+            out.writeInt(patcher.getNextInstructionPosition());
+        }
+
+        out.writeInt(result.getDataPatches().size());
+        for (DataPatch patch : result.getDataPatches()) {
+            if (!(patch.reference instanceof ConstantReference) || patch.note != null) {
+                throw new UncacheableException("data patch " + patch.reference.getClass().getName());
+            }
+            VMConstant constant = ((ConstantReference) patch.reference).getConstant();
+            if (!(constant instanceof SubstrateObjectConstant)) {
+                throw new UncacheableException("data patch constant " + constant.getClass().getName());
+            }
+            out.writeInt(patch.pcOffset);
+            writeObjectConstant(out, (SubstrateObjectConstant) constant, key);
+        }
+
+        out.writeInt(result.getInfopoints().size());
+        for (Infopoint infopoint : result.getInfopoints()) {
+            out.writeInt(infopoint.pcOffset);
+            if (infopoint.getClass() == Call.class) {
+                Call call = (Call) infopoint;
+                out.writeByte(CALL);
+                if (call.target != null && !(call.target instanceof HostedMethod)) {
+                    throw new UncacheableException("call target " + call.target.getClass().getName());
+                }
+                writeMethodReference(out, (HostedMethod) call.target);
+                out.writeInt(call.size);
+                out.writeBoolean(call.direct);
+            } else if (infopoint.getClass() == DeoptEntryInfopoint.class) {
+                out.writeByte(DEOPT_ENTRY);
+            } else if (infopoint.getClass() == Infopoint.class) {
+                out.writeByte(INFOPOINT);
+                out.writeUTF(infopoint.reason.name());
+            } else {
+                throw new UncacheableException("infopoint " + infopoint.getClass().getName());
+            }
+            writeDebugInfo(out, infopoint.debugInfo, key);
+        }
+    }
+
+    private void readResult(DataInputStream in, CompilationResult result, Key key) throws IOException, ReflectiveOperationException, UncacheableException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("format version");
+        }
+        int codeSize = in.readInt();
+        byte[] code = new byte[codeSize];
+        in.readFully(code);
+        result.setTargetCode(code, codeSize);
+        result.setTotalFrameSize(in.readInt());
+        result.setMaxInterpreterFrameSize(in.readInt());
+        result.setEntryBCI(in.readInt());
+
+        int numMarks = in.readInt();
+        for (int i = 0; i < numMarks; i++) {
+            int pcOffset = in.readInt();
+            /* Mark ids are string constants that are compared by identity. */
+            result.recordMark(pcOffset, in.readUTF().intern());
+        }
+
+        int numHandlers = in.readInt();
+        for (int i = 0; i < numHandlers; i++) {
+            int pcOffset = in.readInt();
+            result.recordExceptionHandler(pcOffset, in.readInt());
+        }
+
+        int numAnnotations = in.readInt();
+        for (int i = 0; i < numAnnotations; i++) {
+            result.addAnnotation(new AMD64HostedPatcher(in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+        }
+
+        int numDataPatches = in.readInt();
+        for (int i = 0; i < numDataPatches; i++) {
+            int pcOffset = in.readInt();
+            result.recordDataPatch(pcOffset, new ConstantReference((VMConstant) readObjectConstant(in, key)));
+        }
+
+        int numInfopoints = in.readInt();
+        for (int i = 0; i < numInfopoints; i++) {
+            int pcOffset = in.readInt();
+            byte tag = in.readByte();
+            if (tag == CALL) {
+                HostedMethod target = readMethodReference(in);
+                int size = in.readInt();
+                boolean direct = in.readBoolean();
+                result.addInfopoint(new Call(target, pcOffset, size, direct, readDebugInfo(in, key)));
+            } else if (tag == DEOPT_ENTRY) {
+                result.addInfopoint(new DeoptEntryInfopoint(pcOffset, readDebugInfo(in, key)));
+            } else if (tag == INFOPOINT) {
+                InfopointReason reason = InfopointReason.valueOf(in.readUTF());
+                result.addInfopoint(new Infopoint(pcOffset, readDebugInfo(in, key), reason));
+            } else {
+                throw new IOException("infopoint tag " + tag);
+            }
+        }
+        if (in.read() != -1) {
+            throw new IOException("trailing data");
+        }
+    }
+
+    private void writeDebugInfo(DataOutputStream out, DebugInfo debugInfo, Key key) throws IOException, UncacheableException {
+        if (debugInfo == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        if (debugInfo.getVirtualObjectMapping() != null && debugInfo.getVirtualObjectMapping().length > 0) {
+            throw new UncacheableException("virtual object in debug info");
+        } else if (debugInfo.getCalleeSaveInfo() != null) {
+            throw new UncacheableException("callee save info");
+        }
+        out.writeBoolean(true);
+        writeReferenceMap(out, debugInfo.getReferenceMap());
+        writePosition(out, debugInfo.getBytecodePosition(), key);
+    }
+
+    private DebugInfo readDebugInfo(DataInputStream in, Key key) throws IOException, ReflectiveOperationException, UncacheableException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        SubstrateReferenceMap referenceMap = readReferenceMap(in);
+        DebugInfo result = new DebugInfo(readPosition(in, key));
+        if (referenceMap != null) {
+            result.setReferenceMap(referenceMap);
+        }
+        return result;
+    }
+
+    private static void writeReferenceMap(DataOutputStream out, ReferenceMap referenceMap) throws IOException, UncacheableException {
+        if (referenceMap == null) {
+            out.writeInt(-1);
+            return;
+        } else if (!(referenceMap instanceof SubstrateReferenceMap)) {
+            throw new UncacheableException("reference map " + referenceMap.getClass().getName());
+        }
+        SubstrateReferenceMap map = (SubstrateReferenceMap) referenceMap;
+        int count = 0;
+        for (ReferenceMapEncoder.OffsetIterator it = map.getOffsets(); it.hasNext(); it.nextInt()) {
+            count++;
+        }
+        out.writeInt(count);
+        for (ReferenceMapEncoder.OffsetIterator it = map.getOffsets(); it.hasNext();) {
+            boolean compressed = it.isNextCompressed();
+            boolean derived = it.isNextDerived();
+            int offset = it.nextInt();
+            out.writeInt(offset);
+            out.writeBoolean(compressed);
+            if (derived) {
+                List<Integer> derivedOffsets = new ArrayList<>(it.getDerivedOffsets(offset));
+                Collections.sort(derivedOffsets);
+                out.writeInt(derivedOffsets.size());
+                for (int derivedOffset : derivedOffsets) {
+                    out.writeInt(derivedOffset);
+                }
+            } else {
+                out.writeInt(0);
+            }
+        }
+    }
+
+    private static SubstrateReferenceMap readReferenceMap(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        SubstrateReferenceMap result = new SubstrateReferenceMap();
+        for (int i = 0; i < count; i++) {
+            int offset = in.readInt();
+            boolean compressed = in.readBoolean();
+            int numDerived = in.readInt();
+            if (numDerived == 0) {
+                result.markReferenceAtOffset(offset, compressed);
+            }
+            for (int j = 0; j < numDerived; j++) {
+                result.markReferenceAtOffset(in.readInt(), offset, compressed);
+            }
+        }
+        return result;
+    }
+
+    private void writePosition(DataOutputStream out, BytecodePosition position, Key key) throws IOException, UncacheableException {
+        if (position == null) {
+            out.writeByte(NO_POSITION);
+        } else if (position.getClass() == BytecodePosition.class) {
+            out.writeByte(POSITION);
+            writePosition(out, position.getCaller(), key);
+            writeMethodReference(out, position.getMethod());
+            out.writeInt(position.getBCI());
+        } else if (position.getClass() == BytecodeFrame.class) {
+            BytecodeFrame frame = (BytecodeFrame) position;
+            out.writeByte(FRAME);
+            writePosition(out, frame.caller(), key);
+            writeMethodReference(out, frame.getMethod());
+            out.writeInt(frame.getBCI());
+            out.writeBoolean(frame.rethrowException);
+            out.writeBoolean(frame.duringCall);
+            out.writeInt(frame.numLocals);
+            out.writeInt(frame.numStack);
+            out.writeInt(frame.numLocks);
+            for (int i = 0; i < frame.numLocals; i++) {
+                out.writeUTF(frame.getLocalValueKind(i).name());
+            }
+            for (int i = 0; i < frame.numStack; i++) {
+                out.writeUTF(frame.getStackValueKind(i).name());
+            }
+            out.writeInt(frame.values.length);
+            for (JavaValue value : frame.values) {
+                writeFrameValue(out, value, key);
+            }
+        } else {
+            throw new UncacheableException("bytecode position " + position.getClass().getName());
+        }
+    }
+
+    private BytecodePosition readPosition(DataInputStream in, Key key) throws IOException, ReflectiveOperationException, UncacheableException {
+        byte tag = in.readByte();
+        if (tag == NO_POSITION) {
+            return null;
+        }
+        BytecodePosition caller = readPosition(in, key);
+        HostedMethod method = readMethodReference(in);
+        int bci = in.readInt();
+        if (tag == POSITION) {
+            return new BytecodePosition(caller, method, bci);
+        } else if (tag != FRAME || (caller != null && !(caller instanceof BytecodeFrame))) {
+            throw new IOException("bytecode position tag " + tag);
+        }
+        boolean rethrowException = in.readBoolean();
+        boolean duringCall = in.readBoolean();
+        int numLocals = in.readInt();
+        int numStack = in.readInt();
+        int numLocks = in.readInt();
+        JavaKind[] slotKinds = new JavaKind[numLocals + numStack];
+        for (int i = 0; i < slotKinds.length; i++) {
+            slotKinds[i] = JavaKind.valueOf(in.readUTF());
+        }
+        JavaValue[] values = new JavaValue[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readFrameValue(in, key);
+        }
+        return new BytecodeFrame((BytecodeFrame) caller, method, bci, rethrowException, duringCall, values, slotKinds, numLocals, numStack, numLocks);
+    }
+
+    private void writeFrameValue(DataOutputStream out, JavaValue value, Key key) throws IOException, UncacheableException {
+        if (ValueUtil.isIllegalJavaValue(value)) {
+            out.writeByte(VALUE_ILLEGAL);
+        } else if (value == JavaConstant.NULL_POINTER) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof PrimitiveConstant) {
+            PrimitiveConstant constant = (PrimitiveConstant) value;
+            out.writeByte(VALUE_PRIMITIVE);
+            out.writeUTF(constant.getJavaKind().name());
+            out.writeLong(rawBits(constant));
+        } else if (value instanceof StackSlot) {
+            StackSlot slot = (StackSlot) value;
+            out.writeByte(VALUE_STACK_SLOT);
+            writeLIRKind(out, slot.getValueKind());
+            out.writeInt(slot.getRawOffset());
+            out.writeBoolean(slot.getRawAddFrameSize());
+        } else if (value instanceof SubstrateObjectConstant) {
+            out.writeByte(VALUE_OBJECT);
+            writeObjectConstant(out, (SubstrateObjectConstant) value, key);
+        } else {
+            throw new UncacheableException("frame value " + value.getClass().getName());
+        }
+    }
+
+    private JavaValue readFrameValue(DataInputStream in, Key key) throws IOException, ReflectiveOperationException, UncacheableException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case VALUE_ILLEGAL:
+                return Value.ILLEGAL;
+            case VALUE_NULL:
+                return JavaConstant.NULL_POINTER;
+            case VALUE_PRIMITIVE:
+                JavaKind kind = JavaKind.valueOf(in.readUTF());
+                return JavaConstant.forPrimitive(kind, in.readLong());
+            case VALUE_STACK_SLOT:
+                LIRKind lirKind = readLIRKind(in);
+                int offset = in.readInt();
+                return StackSlot.get(lirKind, offset, in.readBoolean());
+            case VALUE_OBJECT:
+                return readObjectConstant(in, key);
+            default:
+                throw new IOException("frame value tag " + tag);
+        }
+    }
+
+    private static void writeLIRKind(DataOutputStream out, ValueKind<?> valueKind) throws IOException, UncacheableException {
+        if (!(valueKind instanceof LIRKind) || !(valueKind.getPlatformKind() instanceof Enum)) {
+            throw new UncacheableException("value kind " + valueKind);
+        }
+        LIRKind kind = (LIRKind) valueKind;
+        PlatformKind platformKind = kind.getPlatformKind();
+        out.writeUTF(platformKind.getClass().getName());
+        out.writeUTF(((Enum<?>) platformKind).name());
+        if (kind.isValue()) {
+            out.writeByte(KIND_VALUE);
+        } else if (!kind.isUnknownReference() && !kind.isDerivedReference() && kind.getReferenceCount() == 1 && platformKind.getVectorLength() == 1) {
+            out.writeByte(kind.isCompressedReference(0) ? KIND_COMPRESSED_REFERENCE : KIND_REFERENCE);
+        } else {
+            throw new UncacheableException("value kind " + kind);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static LIRKind readLIRKind(DataInputStream in) throws IOException, ReflectiveOperationException {
+        Class<?> platformKindClass = Class.forName(in.readUTF(), false, CompilationCache.class.getClassLoader());
+        if (!platformKindClass.isEnum() || !PlatformKind.class.isAssignableFrom(platformKindClass)) {
+            throw new IOException("platform kind " + platformKindClass.getName());
+        }
+        PlatformKind platformKind = (PlatformKind) Enum.valueOf((Class) platformKindClass, in.readUTF());
+        byte tag = in.readByte();
+        switch (tag) {
+            case KIND_VALUE:
+                return LIRKind.value(platformKind);
+            case KIND_REFERENCE:
+                return LIRKind.reference(platformKind);
+            case KIND_COMPRESSED_REFERENCE:
+                return LIRKind.compressedReference(platformKind);
+            default:
+                throw new IOException("value kind tag " + tag);
+        }
+    }
+}
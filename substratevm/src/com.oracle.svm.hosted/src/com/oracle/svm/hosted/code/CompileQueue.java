@@ -169,6 +169,7 @@ public class CompileQueue {
     private LIRSuites regularLIRSuites = null;
     private LIRSuites deoptTargetLIRSuites = null;
     private final ConcurrentMap<Constant, DataSection.Data> dataCache;
+    private final CompilationCache compilationCache;
 
     private SnippetReflectionProvider snippetReflection;
     private final FeatureHandler featureHandler;
@@ -316,6 +317,7 @@ public class CompileQueue {
         this.runtimeConfig = runtimeConfigBuilder.getRuntimeConfig();
         this.deoptimizeAll = deoptimizeAll;
         this.dataCache = new ConcurrentHashMap<>();
+        this.compilationCache = CompilationCache.create(universe);
         this.executor = new CompletionExecutor(universe.getBigBang(), executorService);
         this.featureHandler = featureHandler;
         this.snippetReflection = snippetReflection;
@@ -361,6 +363,10 @@ public class CompileQueue {
             try (StopTimer t = new Timer(imageName, "(compile)").start()) {
                 compileAll();
             }
+            if (compilationCache != null) {
+                compilationCache.trim();
+                compilationCache.printStatistics();
+            }
         } catch (InterruptedException ie) {
             throw new InterruptImageBuilding();
         }
@@ -968,11 +974,21 @@ public class CompileQueue {
                 Suites suites = method.compilationInfo.isDeoptTarget() ? deoptTargetSuites : regularSuites;
                 LIRSuites lirSuites = method.compilationInfo.isDeoptTarget() ? deoptTargetLIRSuites : regularLIRSuites;
 
-                CompilationResult result = backend.newCompilationResult(compilationIdentifier, method.format("%H.%n(%p)"));
-
-                try (Indent indent = debug.logAndIndent("compile %s", method)) {
-                    GraalCompiler.compileGraph(graph, method, backend.getProviders(), backend, null, getOptimisticOpts(), method.getProfilingInfo(), suites, lirSuites, result,
-                                    new HostedCompilationResultBuilderFactory(), false);
+                String compilationName = method.format("%H.%n(%p)");
+                CompilationResult result = null;
+                CompilationCache.Key cacheKey = compilationCache == null ? null : compilationCache.computeKey(method, graph);
+                if (cacheKey != null) {
+                    result = compilationCache.lookup(cacheKey, graph, () -> backend.newCompilationResult(compilationIdentifier, compilationName));
+                }
+                if (result == null) {
+                    result = backend.newCompilationResult(compilationIdentifier, compilationName);
+                    try (Indent indent = debug.logAndIndent("compile %s", method)) {
+                        GraalCompiler.compileGraph(graph, method, backend.getProviders(), backend, null, getOptimisticOpts(), method.getProfilingInfo(), suites, lirSuites, result,
+                                        new HostedCompilationResultBuilderFactory(), false);
+                    }
+                    if (cacheKey != null) {
+                        compilationCache.store(cacheKey, result);
+                    }
                 }
                 method.getProfilingInfo().setCompilerIRSize(StructuredGraph.class, method.compilationInfo.graph.getNodeCount());
                 method.compilationInfo.numNodesAfterCompilation = graph.getNodeCount();
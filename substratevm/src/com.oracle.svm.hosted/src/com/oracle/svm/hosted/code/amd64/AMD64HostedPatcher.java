@@ -69,21 +69,45 @@ class AMD64HostedPatcherFeature implements Feature {
 }
 
 public class AMD64HostedPatcher extends CompilationResult.CodeAnnotation implements HostedPatcher {
-    private final OperandDataAnnotation annotation;
+    private final int operandPosition;
+    private final int operandSize;
+    private final int nextInstructionPosition;
 
     public AMD64HostedPatcher(int instructionStartPosition, OperandDataAnnotation annotation) {
+        this(instructionStartPosition, annotation.operandPosition, annotation.operandSize, annotation.nextInstructionPosition);
+    }
+
+    /**
+     * Creates a patcher without an assembler annotation, e.g., for code that is reused from the
+     * {@link com.oracle.svm.hosted.code.CompilationCache}.
+     */
+    public AMD64HostedPatcher(int instructionStartPosition, int operandPosition, int operandSize, int nextInstructionPosition) {
         super(instructionStartPosition);
-        this.annotation = annotation;
+        this.operandPosition = operandPosition;
+        this.operandSize = operandSize;
+        this.nextInstructionPosition = nextInstructionPosition;
+    }
+
+    public int getOperandPosition() {
+        return operandPosition;
+    }
+
+    public int getOperandSize() {
+        return operandSize;
+    }
+
+    public int getNextInstructionPosition() {
+        return nextInstructionPosition;
     }
 
     @Uninterruptible(reason = ".")
     @Override
     public void patch(int codePos, int relative, byte[] code) {
-        int curValue = relative - (annotation.nextInstructionPosition - annotation.instructionPosition);
+        int curValue = relative - (nextInstructionPosition - position);
 
-        for (int i = 0; i < annotation.operandSize; i++) {
-            assert code[annotation.operandPosition + i] == 0;
-            code[annotation.operandPosition + i] = (byte) (curValue & 0xFF);
+        for (int i = 0; i < operandSize; i++) {
+            assert code[operandPosition + i] == 0;
+            code[operandPosition + i] = (byte) (curValue & 0xFF);
             curValue = curValue >>> 8;
         }
         assert curValue == 0;
@@ -102,18 +126,18 @@ public class AMD64HostedPatcher extends CompilationResult.CodeAnnotation impleme
          * out of the RelocationSiteInfo accounts for the first two, since we pass it the whole
          * method. We add the method start to get the section-relative offset.
          */
-        long siteOffset = compStart + annotation.operandPosition;
+        long siteOffset = compStart + operandPosition;
         if (ref instanceof DataSectionReference || ref instanceof CGlobalDataReference) {
             /*
              * Do we have an addend? Yes; it's constStart. BUT x86/x86-64 PC-relative references are
              * relative to the *next* instruction. So, if the next instruction starts n bytes from
              * the relocation site, we want to subtract n bytes from our addend.
              */
-            long addend = (annotation.nextInstructionPosition - annotation.operandPosition);
-            relocs.addPCRelativeRelocationWithAddend((int) siteOffset, annotation.operandSize, addend, ref);
+            long addend = (nextInstructionPosition - operandPosition);
+            relocs.addPCRelativeRelocationWithAddend((int) siteOffset, operandSize, addend, ref);
         } else if (ref instanceof ConstantReference) {
             assert SubstrateOptions.SpawnIsolates.getValue() : "Inlined object references must be base-relative";
-            relocs.addDirectRelocationWithoutAddend((int) siteOffset, annotation.operandSize, ref);
+            relocs.addDirectRelocationWithoutAddend((int) siteOffset, operandSize, ref);
         } else {
             throw VMError.shouldNotReachHere("Unknown type of reference in code");
         }
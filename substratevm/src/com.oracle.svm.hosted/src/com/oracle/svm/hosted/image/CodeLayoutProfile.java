@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.image;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.svm.core.methodprofile.MethodProfile;
+import com.oracle.svm.core.util.UserError;
+import com.oracle.svm.hosted.meta.HostedMethod;
+import com.oracle.svm.hosted.phases.InsertMethodProfileCounterPhase;
+
+/**
+ * Orders methods in the text section according to a profile written by an image that was built
+ * with {@link MethodProfile.Options#MethodProfiling}. Methods are placed in three groups, so that
+ * the code touched by an execution is packed onto as few pages as possible:
+ * <ol>
+ * <li>hot methods, invoked at least {@link NativeImageCodeCache.Options#CodeLayoutHotThreshold}
+ * times, in the order of their first invocation,</li>
+ * <li>all other executed methods in the order of their first invocation, i.e., mostly startup
+ * code,</li>
+ * <li>methods that were not executed in the profiling run, in their original order.</li>
+ * </ol>
+ */
+final class CodeLayoutProfile {
+
+    private static final class Entry {
+        final int rank;
+        long count;
+
+        Entry(int rank, long count) {
+            this.rank = rank;
+            this.count = count;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private CodeLayoutProfile() {
+    }
+
+    static CodeLayoutProfile load(String fileName) {
+        Path file = Paths.get(fileName);
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException ex) {
+            throw UserError.abort("Cannot read code layout profile " + file.toAbsolutePath() + ": " + ex.getMessage(), ex);
+        }
+
+        CodeLayoutProfile profile = new CodeLayoutProfile();
+        for (String line : lines) {
+            /* Each line is: first entry, invocation count, method name (which contains spaces). */
+            String[] parts = line.split(" ", 3);
+            if (parts.length != 3) {
+                throw UserError.abort("Malformed line in code layout profile " + file.toAbsolutePath() + ": " + line);
+            }
+            long count;
+            try {
+                count = Long.parseLong(parts[1]);
+            } catch (NumberFormatException ex) {
+                throw UserError.abort("Malformed line in code layout profile " + file.toAbsolutePath() + ": " + line, ex);
+            }
+            /* Deoptimization targets share the name of their method, so counts are merged. */
+            Entry existing = profile.entries.get(parts[2]);
+            if (existing != null) {
+                existing.count += count;
+            } else {
+                profile.entries.put(parts[2], new Entry(profile.entries.size(), count));
+            }
+        }
+        return profile;
+    }
+
+    List<HostedMethod> order(Collection<HostedMethod> methods, long hotThreshold) {
+        List<HostedMethod> hot = new ArrayList<>();
+        List<HostedMethod> executed = new ArrayList<>();
+        List<HostedMethod> cold = new ArrayList<>();
+        Map<HostedMethod, Entry> methodEntries = new HashMap<>();
+        for (HostedMethod method : methods) {
+            Entry entry = entries.get(method.format(InsertMethodProfileCounterPhase.METHOD_NAME_FORMAT));
+            if (entry == null) {
+                cold.add(method);
+            } else {
+                methodEntries.put(method, entry);
+                (entry.count >= hotThreshold ? hot : executed).add(method);
+            }
+        }
+        Comparator<HostedMethod> byFirstEntry = Comparator.comparingInt(method -> methodEntries.get(method).rank);
+        hot.sort(byFirstEntry);
+        executed.sort(byFirstEntry);
+
+        List<HostedMethod> result = new ArrayList<>(methods.size());
+        result.addAll(hot);
+        result.addAll(executed);
+        result.addAll(cold);
+        return result;
+    }
+}
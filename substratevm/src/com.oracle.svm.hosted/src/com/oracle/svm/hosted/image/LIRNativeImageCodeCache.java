@@ -25,6 +25,7 @@
 package com.oracle.svm.hosted.image;
 
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -77,13 +78,12 @@ public class LIRNativeImageCodeCache extends NativeImageCodeCache {
             // Assign a location to all methods.
             assert codeCacheSize == 0;
             HostedMethod firstMethod = null;
-            for (Entry<HostedMethod, CompilationResult> entry : compilations.entrySet()) {
+            for (HostedMethod method : getMethodsInLayoutOrder()) {
 
-                HostedMethod method = entry.getKey();
                 if (firstMethod == null) {
                     firstMethod = method;
                 }
-                CompilationResult compilation = entry.getValue();
+                CompilationResult compilation = compilations.get(method);
                 compilationsByStart.put(codeCacheSize, compilation);
                 method.setCodeAddressOffset(codeCacheSize);
                 codeCacheSize = NumUtil.roundUp(codeCacheSize + compilation.getTargetCodeSize(), SubstrateOptions.codeAlignment());
@@ -93,6 +93,14 @@ public class LIRNativeImageCodeCache extends NativeImageCodeCache {
         }
     }
 
+    private Collection<HostedMethod> getMethodsInLayoutOrder() {
+        String profileFile = Options.CodeLayoutProfile.getValue();
+        if (profileFile.isEmpty()) {
+            return compilations.keySet();
+        }
+        return CodeLayoutProfile.load(profileFile).order(compilations.keySet(), Options.CodeLayoutHotThreshold.getValue());
+    }
+
     /**
      * Patch references from code to other code and constant data. Generate relocation information
      * in the process. More patching can be done, and correspondingly fewer relocation records
@@ -86,6 +86,12 @@ public abstract class NativeImageCodeCache {
     public static class Options {
         @Option(help = "Verify that all possible deoptimization entry points have been properly compiled and registered in the metadata")//
         public static final HostedOptionKey<Boolean> VerifyDeoptimizationEntryPoints = new HostedOptionKey<>(false);
+
+        @Option(help = "Order the methods in the text section according to a method profile written by an image built with -H:+MethodProfiling")//
+        public static final HostedOptionKey<String> CodeLayoutProfile = new HostedOptionKey<>("");
+
+        @Option(help = "Minimum invocation count in the code layout profile for a method to be placed with the hot methods")//
+        public static final HostedOptionKey<Integer> CodeLayoutHotThreshold = new HostedOptionKey<>(10000);
     }
 
     private final NativeImageHeap imageHeap;
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.phases;
+
+import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerEqualsNode;
+import org.graalvm.compiler.nodes.java.LoadFieldNode;
+import org.graalvm.compiler.nodes.java.StoreFieldNode;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.graalvm.compiler.phases.tiers.Suites;
+import org.graalvm.compiler.phases.util.Providers;
+import org.graalvm.nativeimage.c.function.CFunction;
+
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.graal.GraalFeature;
+import com.oracle.svm.core.meta.SharedMethod;
+import com.oracle.svm.core.methodprofile.MethodProfile;
+import com.oracle.svm.core.methodprofile.MethodProfileCounter;
+
+import jdk.vm.ci.meta.ResolvedJavaField;
+
+/**
+ * Inserts the method entry instrumentation of {@link MethodProfile} at the beginning of every
+ * method: the global method entry clock and the invocation count of the method are incremented,
+ * and the clock is stored as the first entry of the method if the method was not invoked before.
+ *
+ * The counters are not updated atomically, so a few counts can get lost when threads race. That is
+ * good enough for a profile that is only used to order methods.
+ */
+public class InsertMethodProfileCounterPhase extends BasePhase<HighTierContext> {
+
+    /** The method name format used in method profiles. */
+    public static final String METHOD_NAME_FORMAT = "%H.%n(%p) %r";
+
+    private final SnippetReflectionProvider snippetReflection;
+
+    public InsertMethodProfileCounterPhase(SnippetReflectionProvider snippetReflection) {
+        this.snippetReflection = snippetReflection;
+    }
+
+    @Override
+    public boolean checkContract() {
+        /* The instrumentation is only used for profiling runs. */
+        return false;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, HighTierContext context) {
+        if (graph.method().getAnnotation(Uninterruptible.class) != null || graph.method().getAnnotation(RestrictHeapAccess.class) != null) {
+            /* The counters are ordinary heap objects, and races would not be benign here. */
+            return;
+        } else if (((SharedMethod) graph.method()).isEntryPoint() || graph.method().getAnnotation(CFunction.class) != null) {
+            /* The heap base and thread register might not be set up. */
+            return;
+        }
+
+        MethodProfileCounter counter = MethodProfile.createCounter(graph.method().format(METHOD_NAME_FORMAT));
+        ResolvedJavaField entriesField = context.getMetaAccess().lookupJavaField(MethodProfile.ENTRIES_FIELD);
+        ResolvedJavaField countField = context.getMetaAccess().lookupJavaField(MethodProfileCounter.COUNT_FIELD);
+        ResolvedJavaField firstEntryField = context.getMetaAccess().lookupJavaField(MethodProfileCounter.FIRST_ENTRY_FIELD);
+
+        FrameState stateAfter = graph.start().stateAfter();
+        ValueNode counterNode = ConstantNode.forConstant(snippetReflection.forObject(counter), context.getMetaAccess(), graph);
+        ValueNode one = ConstantNode.forLong(1, graph);
+        FixedWithNextNode last = graph.start();
+
+        /* entries = entries + 1 */
+        LoadFieldNode entries = graph.add(LoadFieldNode.create(graph.getAssumptions(), null, entriesField));
+        graph.addAfterFixed(last, entries);
+        ValueNode clock = graph.addOrUniqueWithInputs(AddNode.create(entries, one, NodeView.DEFAULT));
+        last = store(graph, entries, null, entriesField, clock, stateAfter);
+
+        /* count = count + 1 */
+        LoadFieldNode count = graph.add(LoadFieldNode.create(graph.getAssumptions(), counterNode, countField));
+        graph.addAfterFixed(last, count);
+        ValueNode newCount = graph.addOrUniqueWithInputs(AddNode.create(count, one, NodeView.DEFAULT));
+        last = store(graph, count, counterNode, countField, newCount, stateAfter);
+
+        /* firstEntry = count == 0 ? entries : firstEntry */
+        LoadFieldNode firstEntry = graph.add(LoadFieldNode.create(graph.getAssumptions(), counterNode, firstEntryField));
+        graph.addAfterFixed(last, firstEntry);
+        LogicNode isFirst = graph.addOrUniqueWithInputs(IntegerEqualsNode.create(count, ConstantNode.forLong(0, graph), NodeView.DEFAULT));
+        ValueNode newFirstEntry = graph.addOrUniqueWithInputs(ConditionalNode.create(isFirst, clock, firstEntry, NodeView.DEFAULT));
+        store(graph, firstEntry, counterNode, firstEntryField, newFirstEntry, stateAfter);
+    }
+
+    private static StoreFieldNode store(StructuredGraph graph, FixedWithNextNode predecessor, ValueNode object, ResolvedJavaField field, ValueNode value, FrameState stateAfter) {
+        StoreFieldNode store = graph.add(new StoreFieldNode(object, field, value));
+        store.setStateAfter(stateAfter);
+        graph.addAfterFixed(predecessor, store);
+        return store;
+    }
+}
+
+@AutomaticFeature
+final class MethodProfileCounterFeature implements GraalFeature {
+
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return MethodProfile.Options.MethodProfiling.getValue();
+    }
+
+    @Override
+    public void registerGraalPhases(Providers providers, SnippetReflectionProvider snippetReflection, Suites suites, boolean hosted) {
+        if (hosted) {
+            suites.getHighTier().appendPhase(new InsertMethodProfileCounterPhase(snippetReflection));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.java.LoadFieldNode;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeClassInitialization;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.svm.core.config.ConfigurationValues;
+import com.oracle.svm.core.heap.SubstrateReferenceMap;
+import com.oracle.svm.core.meta.SubstrateObjectConstant;
+import com.oracle.svm.core.option.HostedOptionValues;
+import com.oracle.svm.hosted.FeatureImpl.AfterCompilationAccessImpl;
+import com.oracle.svm.hosted.code.CompilationCache;
+import com.oracle.svm.hosted.meta.HostedField;
+import com.oracle.svm.hosted.meta.HostedMetaAccess;
+import com.oracle.svm.hosted.meta.HostedMethod;
+
+import jdk.vm.ci.code.BytecodeFrame;
+import jdk.vm.ci.code.DebugInfo;
+import jdk.vm.ci.code.StackSlot;
+import jdk.vm.ci.code.site.Call;
+import jdk.vm.ci.code.site.ConstantReference;
+import jdk.vm.ci.code.site.Infopoint;
+import jdk.vm.ci.code.site.InfopointReason;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.JavaValue;
+import jdk.vm.ci.meta.PlatformKind;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.VMConstant;
+
+/**
+ * Checks that the {@link CompilationCache} restores a stored compilation result exactly, and that
+ * the key changes with the inputs of a compilation. The checks run in the image generator, the
+ * test only verifies that they were executed.
+ */
+public class CompilationCacheTest {
+
+    static boolean verified;
+
+    public static class TestFeature implements Feature {
+        @Override
+        public void beforeAnalysis(BeforeAnalysisAccess access) {
+            RuntimeClassInitialization.initializeAtBuildTime(CompilationCacheTest.class);
+        }
+
+        @Override
+        public void afterCompilation(AfterCompilationAccess a) {
+            AfterCompilationAccessImpl access = (AfterCompilationAccessImpl) a;
+            Path directory = null;
+            try {
+                directory = Files.createTempDirectory("compilation-cache");
+                CompilationCache cache = CompilationCache.create(access.getUniverse(), directory);
+                HostedMetaAccess metaAccess = access.getMetaAccess();
+                HostedMethod method = metaAccess.lookupJavaMethod(CompilationCacheTest.class.getDeclaredMethod("testCompilationCache"));
+                HostedField field = metaAccess.lookupJavaField(CompilationCacheTest.class.getDeclaredField("verified"));
+
+                checkRoundTrip(cache, access.getDebugContext(), metaAccess, method);
+                checkKeys(cache, access.getDebugContext(), metaAccess, method, field);
+            } catch (ReflectiveOperationException | IOException ex) {
+                throw new AssertionError(ex);
+            } finally {
+                if (directory != null) {
+                    delete(directory);
+                }
+            }
+            verified = true;
+        }
+    }
+
+    static StructuredGraph newGraph(DebugContext debug, HostedMethod method) {
+        return new StructuredGraph.Builder(HostedOptionValues.singleton(), debug).method(method).recordInlinedMethods(true).build();
+    }
+
+    static void checkRoundTrip(CompilationCache cache, DebugContext debug, HostedMetaAccess metaAccess, HostedMethod method) {
+        StructuredGraph graph = newGraph(debug, method);
+        CompilationCache.Key key = cache.computeKey(method, graph);
+        Assert.assertNotNull(key);
+        Assert.assertNull(cache.lookup(key, graph, () -> new CompilationResult("lookup")));
+
+        CompilationResult expected = newResult(metaAccess, method);
+        cache.store(key, expected);
+        CompilationResult actual = cache.lookup(key, graph, () -> new CompilationResult("lookup"));
+        Assert.assertNotNull(actual);
+
+        Assert.assertEquals(expected.getTargetCodeSize(), actual.getTargetCodeSize());
+        for (int i = 0; i < expected.getTargetCodeSize(); i++) {
+            Assert.assertEquals(expected.getTargetCode()[i], actual.getTargetCode()[i]);
+        }
+        Assert.assertEquals(expected.getTotalFrameSize(), actual.getTotalFrameSize());
+        Assert.assertEquals(expected.getMarks(), actual.getMarks());
+        Assert.assertEquals(expected.getExceptionHandlers(), actual.getExceptionHandlers());
+        Assert.assertEquals(expected.getDataPatches(), actual.getDataPatches());
+        Assert.assertEquals(expected.getInfopoints(), actual.getInfopoints());
+        for (int i = 0; i < expected.getInfopoints().size(); i++) {
+            DebugInfo expectedDebugInfo = expected.getInfopoints().get(i).debugInfo;
+            DebugInfo actualDebugInfo = actual.getInfopoints().get(i).debugInfo;
+            Assert.assertEquals(expectedDebugInfo == null ? null : expectedDebugInfo.getReferenceMap(), actualDebugInfo == null ? null : actualDebugInfo.getReferenceMap());
+        }
+    }
+
+    static CompilationResult newResult(HostedMetaAccess metaAccess, HostedMethod method) {
+        CompilationResult result = new CompilationResult("store");
+        byte[] code = new byte[32];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = (byte) (i * 7);
+        }
+        result.setTargetCode(code, code.length);
+        result.setTotalFrameSize(48);
+        result.recordMark(0, "PROLOGUE_END");
+        result.recordExceptionHandler(12, 24);
+
+        JavaConstant hub = SubstrateObjectConstant.forObject(metaAccess.lookupJavaType(CompilationCacheTest.class).getHub());
+        result.recordDataPatch(4, new ConstantReference((VMConstant) hub));
+
+        PlatformKind wordKind = ConfigurationValues.getTarget().arch.getWordKind();
+        JavaValue[] values = {JavaConstant.forInt(42), hub, StackSlot.get(LIRKind.reference(wordKind), 16, true)};
+        JavaKind[] slotKinds = {JavaKind.Int, JavaKind.Object, JavaKind.Object};
+        BytecodeFrame frame = new BytecodeFrame(null, method, 3, false, true, values, slotKinds, 3, 0, 0);
+        SubstrateReferenceMap referenceMap = new SubstrateReferenceMap();
+        referenceMap.markReferenceAtOffset(16, false);
+        referenceMap.markReferenceAtOffset(24, 8, false);
+        DebugInfo debugInfo = new DebugInfo(frame);
+        debugInfo.setReferenceMap(referenceMap);
+        result.addInfopoint(new Call(method, 12, 5, true, debugInfo));
+        result.addInfopoint(new Infopoint(20, null, InfopointReason.SAFEPOINT));
+        return result;
+    }
+
+    static void checkKeys(CompilationCache cache, DebugContext debug, HostedMetaAccess metaAccess, HostedMethod method, HostedField field) throws ReflectiveOperationException {
+        /* The content of an object constant, not its identity, is part of the key. */
+        CompilationCache.Key key = constantKey(cache, debug, metaAccess, method, "constant");
+        Assert.assertEquals(key, constantKey(cache, debug, metaAccess, method, new String("constant")));
+        Assert.assertNotEquals(key, constantKey(cache, debug, metaAccess, method, "other constant"));
+
+        /* The offset of an accessed field. */
+        key = fieldKey(cache, debug, method, field);
+        Field location = HostedField.class.getDeclaredField("location");
+        location.setAccessible(true);
+        int originalLocation = location.getInt(field);
+        try {
+            location.setInt(field, originalLocation + 8);
+            Assert.assertNotEquals(key, fieldKey(cache, debug, method, field));
+        } finally {
+            location.setInt(field, originalLocation);
+        }
+        Assert.assertEquals(key, fieldKey(cache, debug, method, field));
+
+        /* The bytecode of an inlined callee. */
+        key = calleeKey(cache, debug, method, new byte[]{0x03, (byte) 0xac});
+        Assert.assertEquals(key, calleeKey(cache, debug, method, new byte[]{0x03, (byte) 0xac}));
+        Assert.assertNotEquals(key, calleeKey(cache, debug, method, new byte[]{0x04, (byte) 0xac}));
+    }
+
+    static CompilationCache.Key constantKey(CompilationCache cache, DebugContext debug, HostedMetaAccess metaAccess, HostedMethod method, String value) {
+        StructuredGraph graph = newGraph(debug, method);
+        ConstantNode.forConstant(SubstrateObjectConstant.forObject(value), metaAccess, graph);
+        return cache.computeKey(method, graph);
+    }
+
+    static CompilationCache.Key fieldKey(CompilationCache cache, DebugContext debug, HostedMethod method, HostedField field) {
+        StructuredGraph graph = newGraph(debug, method);
+        graph.addWithoutUnique(LoadFieldNode.create(null, null, field));
+        return cache.computeKey(method, graph);
+    }
+
+    static CompilationCache.Key calleeKey(CompilationCache cache, DebugContext debug, HostedMethod method, byte[] calleeCode) {
+        StructuredGraph graph = newGraph(debug, method);
+        graph.recordMethod(newCallee(calleeCode));
+        return cache.computeKey(method, graph);
+    }
+
+    /** A method that the key only reads the name and the bytecode of. */
+    static ResolvedJavaMethod newCallee(byte[] code) {
+        return (ResolvedJavaMethod) Proxy.newProxyInstance(CompilationCacheTest.class.getClassLoader(), new Class<?>[]{ResolvedJavaMethod.class}, (proxy, m, args) -> {
+            switch (m.getName()) {
+                case "getCode":
+                    return code.clone();
+                case "getCodeSize":
+                    return code.length;
+                case "format":
+                    return "com.oracle.svm.test.CompilationCacheTest.callee()I";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "callee";
+                default:
+                    throw new UnsupportedOperationException(m.getName());
+            }
+        });
+    }
+
+    static void delete(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException ex) {
+            /* Only a temporary directory is left behind. */
+        }
+    }
+
+    @Test
+    public void testCompilationCache() {
+        Assert.assertTrue(verified);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.util.BitSet;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeClassInitialization;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.graal.pointsto.BigBang;
+import com.oracle.graal.pointsto.api.PointstoOptions;
+import com.oracle.graal.pointsto.meta.AnalysisType;
+import com.oracle.graal.pointsto.typestate.SingleTypeState;
+import com.oracle.graal.pointsto.typestate.TypeState;
+import com.oracle.graal.pointsto.typestate.TypeStateStore;
+import com.oracle.svm.hosted.FeatureImpl.BeforeAnalysisAccessImpl;
+
+/**
+ * Checks the canonicalization of type states by the {@link TypeStateStore}. The checks run in the
+ * image generator, the test only verifies that they were executed.
+ */
+public class TypeStateStoreTest {
+
+    static boolean verified;
+
+    public static class TestFeature implements Feature {
+        @Override
+        public void beforeAnalysis(BeforeAnalysisAccess a) {
+            RuntimeClassInitialization.initializeAtBuildTime(TypeStateStoreTest.class);
+
+            BeforeAnalysisAccessImpl access = (BeforeAnalysisAccessImpl) a;
+            BigBang bb = access.getBigBang();
+            if (PointstoOptions.InternTypeStates.getValue(bb.getOptions())) {
+                AnalysisType t1 = access.getMetaAccess().lookupJavaType(StringBuilder.class);
+                AnalysisType t2 = access.getMetaAccess().lookupJavaType(StringBuffer.class);
+                checkEqualStatesAreShared(bb, t1, t2);
+                checkDifferentPropertiesAreNotShared(bb, t1);
+                checkCachedUnion(bb, t1, t2);
+            }
+            verified = true;
+        }
+    }
+
+    static void checkEqualStatesAreShared(BigBang bb, AnalysisType t1, AnalysisType t2) {
+        Assert.assertSame(TypeState.forExactType(bb, t1, false), TypeState.forExactType(bb, t1, false));
+        Assert.assertSame(TypeState.forExactType(bb, t1, true), TypeState.forExactType(bb, t1, true));
+        Assert.assertNotSame(TypeState.forExactType(bb, t1, false), TypeState.forExactType(bb, t1, true));
+
+        Assert.assertSame(TypeState.forExactTypes(bb, typesBitSet(t1, t2), false), TypeState.forExactTypes(bb, typesBitSet(t1, t2), false));
+
+        TypeStateStore store = bb.getTypeStateStore();
+        BitSet bitSet = typesBitSet(t1, t2);
+        Assert.assertSame(store.intern(bitSet), store.intern(typesBitSet(t1, t2)));
+        Assert.assertNotSame(store.intern(bitSet), store.intern(typesBitSet(t1)));
+    }
+
+    static void checkDifferentPropertiesAreNotShared(BigBang bb, AnalysisType t1) {
+        TypeState canonical = TypeState.forExactType(bb, t1, false);
+        TypeState other = new SingleTypeState(bb, false, canonical.getProperties() + 1, t1.getContextInsensitiveAnalysisObject());
+        TypeState interned = bb.getTypeStateStore().intern(other);
+        Assert.assertNotSame(canonical, interned);
+        Assert.assertEquals(canonical.getProperties() + 1, interned.getProperties());
+        /* The canonical state must not have been replaced either. */
+        Assert.assertSame(canonical, TypeState.forExactType(bb, t1, false));
+    }
+
+    static void checkCachedUnion(BigBang bb, AnalysisType t1, AnalysisType t2) {
+        TypeState s1 = TypeState.forExactType(bb, t1, false);
+        TypeState s2 = TypeState.forExactType(bb, t2, false);
+        TypeState union = TypeState.forUnion(bb, s1, s2);
+        Assert.assertSame(union, TypeState.forUnion(bb, s1, s2));
+        Assert.assertSame(union, TypeState.forUnion(bb, s2, s1));
+        Assert.assertSame(union, TypeState.forExactTypes(bb, typesBitSet(t1, t2), false));
+    }
+
+    private static BitSet typesBitSet(AnalysisType... types) {
+        BitSet result = new BitSet();
+        for (AnalysisType type : types) {
+            result.set(type.getId());
+        }
+        return result;
+    }
+
+    @Test
+    public void testTypeStatesAreCanonicalized() {
+        Assert.assertTrue(verified);
+    }
+}
@@ -39,6 +39,8 @@ import org.graalvm.nativeimage.PinnedObject;
 import org.graalvm.nativeimage.StackValue;
 import org.graalvm.nativeimage.UnmanagedMemory;
 import org.graalvm.nativeimage.c.CContext;
+import org.graalvm.nativeimage.c.function.CFunctionPointer;
+import org.graalvm.nativeimage.c.function.InvokeCFunctionPointer;
 import org.graalvm.nativeimage.c.struct.CFieldAddress;
 import org.graalvm.nativeimage.c.struct.CStruct;
 import org.graalvm.nativeimage.c.struct.SizeOf;
@@ -151,6 +153,143 @@ final class NativeSignature {
         }
     }
 
+    /**
+     * Calls native functions whose arguments are all integers or pointers, or all doubles, without
+     * going through libffi. The arguments are passed in registers by the compiled call.
+     */
+    static class DirectCallHelper {
+
+        interface LongFunction0 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            long invoke();
+        }
+
+        interface LongFunction1 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            long invoke(long arg0);
+        }
+
+        interface LongFunction2 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            long invoke(long arg0, long arg1);
+        }
+
+        interface LongFunction3 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            long invoke(long arg0, long arg1, long arg2);
+        }
+
+        interface LongFunction4 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            long invoke(long arg0, long arg1, long arg2, long arg3);
+        }
+
+        interface LongFunction5 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            long invoke(long arg0, long arg1, long arg2, long arg3, long arg4);
+        }
+
+        interface LongFunction6 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            long invoke(long arg0, long arg1, long arg2, long arg3, long arg4, long arg5);
+        }
+
+        interface DoubleFunction0 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            double invoke();
+        }
+
+        interface DoubleFunction1 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            double invoke(double arg0);
+        }
+
+        interface DoubleFunction2 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            double invoke(double arg0, double arg1);
+        }
+
+        interface DoubleFunction3 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            double invoke(double arg0, double arg1, double arg2);
+        }
+
+        interface DoubleFunction4 extends CFunctionPointer {
+            @InvokeCFunctionPointer
+            double invoke(double arg0, double arg1, double arg2, double arg3);
+        }
+
+        @SuppressWarnings("try")
+        static long executeLong(long functionPointer, int argCount, long a0, long a1, long a2, long a3, long a4, long a5) {
+            long ret;
+            try (NativeErrnoContext mirror = new NativeErrnoContext()) {
+                switch (argCount) {
+                    case 0:
+                        ret = WordFactory.<LongFunction0> pointer(functionPointer).invoke();
+                        break;
+                    case 1:
+                        ret = WordFactory.<LongFunction1> pointer(functionPointer).invoke(a0);
+                        break;
+                    case 2:
+                        ret = WordFactory.<LongFunction2> pointer(functionPointer).invoke(a0, a1);
+                        break;
+                    case 3:
+                        ret = WordFactory.<LongFunction3> pointer(functionPointer).invoke(a0, a1, a2);
+                        break;
+                    case 4:
+                        ret = WordFactory.<LongFunction4> pointer(functionPointer).invoke(a0, a1, a2, a3);
+                        break;
+                    case 5:
+                        ret = WordFactory.<LongFunction5> pointer(functionPointer).invoke(a0, a1, a2, a3, a4);
+                        break;
+                    case 6:
+                        ret = WordFactory.<LongFunction6> pointer(functionPointer).invoke(a0, a1, a2, a3, a4, a5);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("too many arguments for a direct call");
+                }
+            }
+            checkPendingException();
+            return ret;
+        }
+
+        @SuppressWarnings("try")
+        static double executeDouble(long functionPointer, int argCount, double a0, double a1, double a2, double a3) {
+            double ret;
+            try (NativeErrnoContext mirror = new NativeErrnoContext()) {
+                switch (argCount) {
+                    case 0:
+                        ret = WordFactory.<DoubleFunction0> pointer(functionPointer).invoke();
+                        break;
+                    case 1:
+                        ret = WordFactory.<DoubleFunction1> pointer(functionPointer).invoke(a0);
+                        break;
+                    case 2:
+                        ret = WordFactory.<DoubleFunction2> pointer(functionPointer).invoke(a0, a1);
+                        break;
+                    case 3:
+                        ret = WordFactory.<DoubleFunction3> pointer(functionPointer).invoke(a0, a1, a2);
+                        break;
+                    case 4:
+                        ret = WordFactory.<DoubleFunction4> pointer(functionPointer).invoke(a0, a1, a2, a3);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("too many arguments for a direct call");
+                }
+            }
+            checkPendingException();
+            return ret;
+        }
+
+        private static void checkPendingException() {
+            Throwable pending = NativeClosure.pendingException.get();
+            if (pending != null) {
+                NativeClosure.pendingException.set(null);
+                throw rethrow(pending);
+            }
+        }
+    }
+
     @SuppressWarnings({"unchecked"})
     private static <E extends Throwable> RuntimeException rethrow(Throwable ex) throws E {
         throw (E) ex;
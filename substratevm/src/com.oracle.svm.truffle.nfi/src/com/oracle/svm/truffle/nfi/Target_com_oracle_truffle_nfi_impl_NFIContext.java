@@ -24,6 +24,7 @@
  */
 package com.oracle.svm.truffle.nfi;
 
+import static com.oracle.svm.truffle.nfi.NativeSignature.DirectCallHelper;
 import static com.oracle.svm.truffle.nfi.NativeSignature.ExecuteHelper;
 
 import com.oracle.svm.core.snippets.KnownIntrinsics;
@@ -179,6 +180,16 @@ final class Target_com_oracle_truffle_nfi_impl_NFIContext {
         }
     }
 
+    @Substitute
+    static long executeDirectLong(long functionPointer, int argCount, long a0, long a1, long a2, long a3, long a4, long a5) {
+        return DirectCallHelper.executeLong(functionPointer, argCount, a0, a1, a2, a3, a4, a5);
+    }
+
+    @Substitute
+    static double executeDirectDouble(long functionPointer, int argCount, double a0, double a1, double a2, double a3) {
+        return DirectCallHelper.executeDouble(functionPointer, argCount, a0, a1, a2, a3);
+    }
+
     @Substitute
     Object executeObject(long cif, long functionPointer, byte[] primArgs, int patchCount, int[] patchOffsets, Object[] objArgs) {
         try (LocalNativeScope scope = TruffleNFISupport.createLocalScope(patchCount)) {
@@ -110,6 +110,21 @@ suite = {
       "testProject" : True,
       "jacoco" : "exclude",
     },
+    "com.oracle.truffle.llvm.tests.benchmark" : {
+      "subDir" : "tests",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.llvm.runtime",
+        "mx:JMH_1_21",
+      ],
+      "checkstyle" : "com.oracle.truffle.llvm.runtime",
+      "annotationProcessors" : ["mx:JMH_1_21"],
+      "javaCompliance" : "1.8+",
+      "workingSets" : "Truffle, LLVM",
+      "license" : "BSD-new",
+      "testProject" : True,
+      "jacoco" : "exclude",
+    },
     "com.oracle.truffle.llvm.tests.tck" : {
       "subDir" : "tests",
       "sourceDirs" : ["src"],
@@ -1062,10 +1077,12 @@ suite = {
         "com.oracle.truffle.llvm.tests",
         "com.oracle.truffle.llvm.tests.types",
         "com.oracle.truffle.llvm.tests.pipe",
-        "com.oracle.truffle.llvm.tests.tck"
+        "com.oracle.truffle.llvm.tests.tck",
+        "com.oracle.truffle.llvm.tests.benchmark",
       ],
       "exclude" : [
-       "mx:JUNIT"
+       "mx:JUNIT",
+       "mx:JMH_1_21",
       ],
       "distDependencies" : [
         "truffle:TRUFFLE_API",
@@ -30,8 +30,9 @@
 package com.oracle.truffle.llvm.runtime.memory;
 
 import java.lang.reflect.Field;
-import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntBinaryOperator;
 import java.util.function.LongBinaryOperator;
 
@@ -560,16 +561,47 @@ public final class LLVMNativeMemory extends LLVMMemory {
         return deref ? new DerefHandleContainer(noDerefHandleAssumption) : new CommonHandleContainer(noCommonHandleAssumption);
     }
 
+    /**
+     * Maps managed objects to handles and back. Handles are handed out and released concurrently by
+     * all threads of a context, so the table is split as follows:
+     * <ul>
+     * <li>The handle slots live in fixed-size segments that are allocated on demand. Growing the
+     * table only adds a segment, existing slots are never copied, so readers need no locking.</li>
+     * <li>Every slot is allocated once together with its segment and reused afterwards. Released
+     * slots are kept on a lock-free stack of slot indices that is linked through the slots
+     * themselves, so allocating and releasing handles does not allocate.</li>
+     * <li>The mapping from managed objects to slots is striped by hash code. The stripe lock also
+     * guards the reference counts of the slots that are mapped in it.</li>
+     * </ul>
+     */
     private abstract static class AbstractHandleContainer extends HandleContainer {
 
+        private static final int SEGMENT_BITS = 10;
+        private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+        private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+        private static final int STRIPE_COUNT = 16;
+
+        /*
+         * The head of the free list is a slot index (biased by one, so that 0 means empty) in the
+         * lower half and a modification counter in the upper half, to protect against ABA problems.
+         */
+        private static final long FREE_LIST_TAG_INCREMENT = 1L << Integer.SIZE;
+        private static final long FREE_LIST_TAG_MASK = -1L << Integer.SIZE;
+        private static final long FREE_LIST_INDEX_MASK = ~FREE_LIST_TAG_MASK;
+
         private final Assumption noHandleAssumption;
-        private final ArrayDeque<Long> freeList = new ArrayDeque<>();
-        private final EconomicMap<Object, Handle> handleFromManaged = EconomicMap.create();
-        private Handle[] handleFromPointer = new Handle[1024];
-        private long top = getStart(); // address of the next handle
+        private final Stripe[] stripes;
+        private final AtomicLong freeList = new AtomicLong();
+        private final AtomicInteger top = new AtomicInteger(); // index of the next fresh handle
+        private volatile Handle[][] segments = new Handle[16][];
 
         AbstractHandleContainer(Assumption noHandleAssumption) {
             this.noHandleAssumption = noHandleAssumption;
+            this.stripes = new Stripe[STRIPE_COUNT];
+            for (int i = 0; i < STRIPE_COUNT; i++) {
+                stripes[i] = new Stripe();
+            }
         }
 
         protected abstract long getStart();
@@ -580,38 +612,96 @@ public final class LLVMNativeMemory extends LLVMMemory {
             return (int) (((address - getStart()) >> HANDLE_OBJECT_SIZE_BITS));
         }
 
+        private Stripe stripeFor(Object value) {
+            int hash = value.hashCode();
+            return stripes[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+        }
+
+        /**
+         * Returns the slot with the given index, or {@code null} if its segment was not allocated.
+         */
+        private Handle findSlot(int index) {
+            if (index < 0) {
+                return null;
+            }
+            Handle[][] array = segments;
+            int segment = index >>> SEGMENT_BITS;
+            if (segment >= array.length || array[segment] == null) {
+                return null;
+            }
+            return array[segment][index & SEGMENT_MASK];
+        }
+
+        private Handle allocateSlot() {
+            long head;
+            while (((head = freeList.get()) & FREE_LIST_INDEX_MASK) != 0) {
+                Handle handle = findSlot((int) (head & FREE_LIST_INDEX_MASK) - 1);
+                long next = ((head + FREE_LIST_TAG_INCREMENT) & FREE_LIST_TAG_MASK) | ((handle.nextFree + 1) & FREE_LIST_INDEX_MASK);
+                if (freeList.compareAndSet(head, next)) {
+                    return handle;
+                }
+            }
+
+            noHandleAssumption.invalidate();
+            int index = top.getAndIncrement();
+            if (index < 0 || getStart() + ((long) index << HANDLE_OBJECT_SIZE_BITS) >= getEnd()) {
+                throw new OutOfMemoryError("handle space exhausted");
+            }
+            Handle handle = findSlot(index);
+            if (handle == null) {
+                handle = allocateSegment(index >>> SEGMENT_BITS)[index & SEGMENT_MASK];
+            }
+            return handle;
+        }
+
+        private synchronized Handle[] allocateSegment(int segment) {
+            Handle[][] array = segments;
+            if (segment < array.length && array[segment] != null) {
+                // another thread was faster
+                return array[segment];
+            }
+            if (segment >= array.length) {
+                // only the segment directory is copied, the segments themselves stay in place
+                array = Arrays.copyOf(array, Math.max(array.length * 2, segment + 1));
+            }
+            Handle[] slots = new Handle[SEGMENT_SIZE];
+            long address = getStart() + ((long) segment << (SEGMENT_BITS + HANDLE_OBJECT_SIZE_BITS));
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                slots[i] = new Handle(LLVMNativePointer.create(address));
+                address += HANDLE_OBJECT_SIZE;
+            }
+            array[segment] = slots;
+            segments = array;
+            return slots;
+        }
+
+        private void releaseSlot(Handle handle, int index) {
+            long head;
+            do {
+                head = freeList.get();
+                handle.nextFree = (int) (head & FREE_LIST_INDEX_MASK) - 1;
+            } while (!freeList.compareAndSet(head, ((head + FREE_LIST_TAG_INCREMENT) & FREE_LIST_TAG_MASK) | (index + 1)));
+        }
+
         @Override
         @TruffleBoundary
-        public synchronized LLVMNativePointer allocate(Object value) {
-            Handle handle = handleFromManaged.get(value);
-            if (handle == null) {
-                Long free = freeList.pollFirst();
-                long address;
-                if (free != null) {
-                    address = free;
-                } else {
-                    noHandleAssumption.invalidate();
-                    if (top >= getEnd()) {
-                        throw new OutOfMemoryError("handle space exhausted");
-                    }
-                    address = top;
-                    top += HANDLE_OBJECT_SIZE;
+        public LLVMNativePointer allocate(Object value) {
+            Stripe stripe = stripeFor(value);
+            synchronized (stripe) {
+                Handle handle = stripe.handleFromManaged.get(value);
+                if (handle == null) {
+                    handle = allocateSlot();
+                    handle.managed = value;
+                    stripe.handleFromManaged.put(value, handle);
                 }
-                handle = new Handle(LLVMNativePointer.create(address), value);
-                int index = indexFromPointer(address);
-                if (handleFromPointer.length <= index) {
-                    handleFromPointer = Arrays.copyOf(handleFromPointer, handleFromPointer.length * 2);
-                }
-                handleFromPointer[index] = handle;
-                handleFromManaged.put(value, handle);
+                handle.refcnt++;
+                return handle.pointer;
             }
-            handle.refcnt++;
-            return handle.pointer;
         }
 
         @Override
         @TruffleBoundary
-        public synchronized void free(long address) {
+        public void free(long address) {
             if ((address & HANDLE_OFFSET_MASK) != 0) {
                 throw new UnsupportedOperationException("Cannot resolve invalid native handle: " + address);
             }
@@ -619,17 +709,25 @@ public final class LLVMNativeMemory extends LLVMMemory {
                 throw new UnsupportedOperationException("Cannot resolve invalid native handle: " + address);
             }
             int index = indexFromPointer(address);
-            if (index < 0 || index >= handleFromPointer.length) {
+            Handle handle = findSlot(index);
+            if (handle == null) {
                 throw new UnsupportedOperationException("Cannot resolve native handle: " + address);
             }
-            Handle handle = handleFromPointer[index];
-            if (handle == null) {
+            Object managed = handle.managed;
+            if (managed == null) {
                 throw new UnsupportedOperationException("Cannot resolve native handle (double-free?): " + address);
             }
-            if (--handle.refcnt == 0) {
-                handleFromPointer[index] = null;
-                handleFromManaged.removeKey(handle.managed);
-                freeList.addLast(address);
+            Stripe stripe = stripeFor(managed);
+            synchronized (stripe) {
+                if (handle.managed != managed) {
+                    // released (and maybe reused) by another thread in the meantime
+                    throw new UnsupportedOperationException("Cannot resolve native handle (double-free?): " + address);
+                }
+                if (--handle.refcnt == 0) {
+                    stripe.handleFromManaged.removeKey(managed);
+                    handle.managed = null;
+                    releaseSlot(handle, index);
+                }
             }
         }
 
@@ -638,27 +736,33 @@ public final class LLVMNativeMemory extends LLVMMemory {
             if ((address & HANDLE_HEADER_MASK) != getStart()) {
                 return false;
             }
-            int index = indexFromPointer(address);
-            Handle[] array = handleFromPointer;
-            return index >= 0 && index < array.length && array[index] != null;
+            Handle handle = findSlot(indexFromPointer(address));
+            return handle != null && handle.managed != null;
         }
 
         @Override
         public LLVMManagedPointer getValue(long address) {
-            return LLVMManagedPointer.create(handleFromPointer[indexFromPointer(address)].managed, address & HANDLE_OFFSET_MASK);
+            return LLVMManagedPointer.create(findSlot(indexFromPointer(address)).managed, address & HANDLE_OFFSET_MASK);
         }
     }
 
+    private static final class Stripe {
+
+        private final EconomicMap<Object, Handle> handleFromManaged = EconomicMap.create();
+    }
+
     private static final class Handle {
 
-        private int refcnt;
         private final LLVMNativePointer pointer;
-        private final Object managed;
+        private volatile Object managed; // null while the handle is not in use
+        private int refcnt; // guarded by the stripe of managed
+        private int nextFree; // index of the next free handle while on the free list, or -1
 
-        private Handle(LLVMNativePointer pointer, Object managed) {
-            this.refcnt = 0;
+        private Handle(LLVMNativePointer pointer) {
             this.pointer = pointer;
-            this.managed = managed;
+            this.managed = null;
+            this.refcnt = 0;
+            this.nextFree = -1;
         }
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory.HandleContainer;
+import com.oracle.truffle.llvm.runtime.memory.LLVMNativeMemory;
+
+/**
+ * Allocates and releases managed-to-native handles from several threads at once. Every thread
+ * keeps {@link #HANDLES} handles alive at a time, so the table is both grown and reused.
+ */
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class HandleContainerBenchmark {
+
+    static final int HANDLES = 256;
+
+    @State(Scope.Benchmark)
+    public static class SharedState {
+
+        final HandleContainer handles = createContainer();
+        final Object[] sharedObjects = createObjects();
+
+        @SuppressWarnings("deprecation")
+        private static HandleContainer createContainer() {
+            return LLVMNativeMemory.getInstance().createHandleContainer(false);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        final Object[] objects = createObjects();
+        final long[] addresses = new long[HANDLES];
+    }
+
+    static Object[] createObjects() {
+        Object[] objects = new Object[HANDLES];
+        for (int i = 0; i < HANDLES; i++) {
+            objects[i] = new Object();
+        }
+        return objects;
+    }
+
+    private static long churn(HandleContainer handles, Object[] objects, long[] addresses) {
+        long sum = 0;
+        for (int i = 0; i < HANDLES; i++) {
+            addresses[i] = handles.allocate(objects[i]).asNative();
+        }
+        for (int i = 0; i < HANDLES; i++) {
+            sum += addresses[i];
+            handles.free(addresses[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(HANDLES)
+    public long churn1(SharedState shared, ThreadState thread) {
+        return churn(shared.handles, thread.objects, thread.addresses);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(HANDLES)
+    public long churn4(SharedState shared, ThreadState thread) {
+        return churn(shared.handles, thread.objects, thread.addresses);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(HANDLES)
+    public long churnMax(SharedState shared, ThreadState thread) {
+        return churn(shared.handles, thread.objects, thread.addresses);
+    }
+
+    /**
+     * All threads create handles for the same objects, so they contend on the reference counts.
+     */
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(HANDLES)
+    public long churnShared4(SharedState shared, ThreadState thread) {
+        return churn(shared.handles, shared.sharedObjects, thread.addresses);
+    }
+}
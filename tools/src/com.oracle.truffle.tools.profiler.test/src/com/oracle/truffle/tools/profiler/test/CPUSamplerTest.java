@@ -204,6 +204,62 @@ public class CPUSamplerTest extends AbstractProfilerTest {
         Assert.assertTrue(sampler.hasStackOverflowed());
     }
 
+    @Test
+    public void testSafepointSampling() {
+        sampler.setFilter(NO_INTERNAL_ROOT_TAG_FILTER);
+        sampler.setSafepointSampling(true);
+        sampler.setCollecting(true);
+        for (int i = 0; i < executionCount; i++) {
+            eval(defaultSourceForSampling);
+        }
+        sampler.setCollecting(false);
+
+        Assert.assertNotEquals(0, sampler.getSampleCount());
+        Assert.assertTrue(sampler.hasData());
+        Assert.assertFalse(sampler.hasStackOverflowed());
+
+        Collection<ProfilerNode<CPUSampler.Payload>> children = sampler.getRootNodes();
+        Assert.assertEquals(1, children.size());
+        ProfilerNode<CPUSampler.Payload> program = children.iterator().next();
+        Assert.assertEquals("", program.getRootName());
+        for (ProfilerNode<CPUSampler.Payload> child : program.getChildren()) {
+            checkCallers(child);
+        }
+    }
+
+    @Test
+    public void testSafepointSamplingStackOverflows() {
+        sampler.setFilter(NO_INTERNAL_ROOT_TAG_FILTER);
+        sampler.setSafepointSampling(true);
+        sampler.setStackLimit(2);
+        sampler.setCollecting(true);
+        for (int i = 0; i < executionCount; i++) {
+            eval(defaultSourceForSampling);
+        }
+        Assert.assertTrue(sampler.hasStackOverflowed());
+    }
+
+    /*
+     * Checks that the stacks captured at safepoints have the call structure of
+     * defaultSourceForSampling.
+     */
+    private static void checkCallers(ProfilerNode<CPUSampler.Payload> node) {
+        checkTimeline(node.getPayload());
+        for (ProfilerNode<CPUSampler.Payload> child : node.getChildren()) {
+            switch (child.getRootName()) {
+                case "bar":
+                    Assert.assertEquals("baz", node.getRootName());
+                    break;
+                case "foo":
+                    Assert.assertEquals("bar", node.getRootName());
+                    break;
+                default:
+                    Assert.fail("Unexpected callee " + child.getRootName() + " of " + node.getRootName());
+            }
+            checkCallers(child);
+        }
+    }
+
     private static void checkTimeline(CPUSampler.Payload payload) {
         Assert.assertEquals("Timeline length and self hit count to not match!", payload.getSelfHitCount(), payload.getSelfHitTimes().size());
     }
@@ -65,6 +65,10 @@ import com.oracle.truffle.tools.profiler.impl.ProfilerToolFactory;
  * intervals, i.e. the state of the stack is copied and saved into trees of {@linkplain ProfilerNode
  * nodes}, which represent the profile of the execution.
  * <p>
+ * Alternatively, the sampler can {@linkplain #setSafepointSampling(boolean) capture stacks at
+ * safepoints}. Instead of maintaining a shadow stack, the executing threads are asked to walk their
+ * own stack at the next instrumented location whenever a sample is due.
+ * <p>
  * Usage example: {@codesnippet CPUSamplerSnippets#example}
  *
  * @since 0.30
@@ -189,6 +193,12 @@ public final class CPUSampler implements Closeable {
 
     private Mode mode = Mode.EXCLUDE_INLINED_ROOTS;
 
+    /**
+     * Maximum time in milliseconds that {@link #takeSample()} waits for threads to answer when
+     * {@linkplain #setSafepointSampling(boolean) sampling at safepoints}.
+     */
+    private static final long TAKE_SAMPLE_TIMEOUT = 100;
+
     static final SourceSectionFilter DEFAULT_FILTER = SourceSectionFilter.newBuilder().tagIs(RootTag.class).build();
 
     private volatile boolean closed;
@@ -211,7 +221,10 @@ public final class CPUSampler implements Closeable {
 
     private TimerTask samplerTask;
 
+    private boolean safepointSampling = false;
+
     private volatile ShadowStack shadowStack;
+    private volatile SafepointStackSampler safepointSampler;
     private volatile EventBinding<?> stacksBinding;
 
     private final Map<Thread, ProfilerNode<Payload>> rootNodes = new HashMap<>();
@@ -383,6 +396,35 @@ public final class CPUSampler implements Closeable {
         this.delaySamplingUntilNonInternalLangInit = delaySamplingUntilNonInternalLangInit;
     }
 
+    /**
+     * Sets whether stacks are captured at safepoints instead of being read from a shadow stack.
+     * <p>
+     * A shadow stack is updated on every entry and exit of an instrumented location. With
+     * safepoint sampling, every instrumented location only polls a thread-local flag, and the
+     * stack is captured with {@link com.oracle.truffle.api.TruffleRuntime#iterateFrames frame
+     * iteration} by the executing thread itself, at the first location it reaches after the sample
+     * was requested. This makes the overhead between samples much lower, at the cost of
+     * attributing samples to the next instrumented location rather than the current one. Threads
+     * that do not execute guest code when a sample is requested are not sampled, and the
+     * {@linkplain StackTraceEntry#isCompiled() execution state} is only known for the top entry of
+     * each captured stack.
+     *
+     * @param safepointSampling whether to capture stacks at safepoints
+     * @since 20.0
+     */
+    public synchronized void setSafepointSampling(boolean safepointSampling) {
+        enterChangeConfig();
+        this.safepointSampling = safepointSampling;
+    }
+
+    /**
+     * @return whether stacks are captured at safepoints, see {@link #setSafepointSampling(boolean)}
+     * @since 20.0
+     */
+    public synchronized boolean isSafepointSampling() {
+        return safepointSampling;
+    }
+
     /**
      * @return The filter describing which part of the source code to sample
      * @since 0.30
@@ -541,6 +583,9 @@ public final class CPUSampler implements Closeable {
      * @since 19.0
      */
     public Map<Thread, List<StackTraceEntry>> takeSample() {
+        if (isSafepointSampling()) {
+            return takeSafepointSample();
+        }
         ShadowStack localShadowStack = shadowStack;
         if (localShadowStack == null) {
             localShadowStack = initializeShadowStack();
@@ -566,6 +611,26 @@ public final class CPUSampler implements Closeable {
         return Collections.unmodifiableMap(stacks);
     }
 
+    private Map<Thread, List<StackTraceEntry>> takeSafepointSample() {
+        SafepointStackSampler localSampler = safepointSampler;
+        if (localSampler == null) {
+            localSampler = initializeSafepointSampler();
+        }
+        if (delaySamplingUntilNonInternalLangInit && !nonInternalLanguageContextInitialized) {
+            return Collections.emptyMap();
+        }
+        Map<Thread, List<StackTraceEntry>> stacks = new HashMap<>();
+        for (Entry<Thread, SafepointStackSampler.Sample> entry : localSampler.sampleAll(TAKE_SAMPLE_TIMEOUT).entrySet()) {
+            final List<StackTraceEntry> stackTraceEntries = Arrays.asList(entry.getValue().stack);
+            Collections.reverse(stackTraceEntries);
+            stacks.put(entry.getKey(), Collections.unmodifiableList(stackTraceEntries));
+        }
+        if (localSampler.hasStackOverflowed()) {
+            stackOverflowed = true;
+        }
+        return Collections.unmodifiableMap(stacks);
+    }
+
     static Map<Thread, StackTraceElement[]> toStackTraceElement(Map<Thread, List<StackTraceEntry>> sample) {
         Map<Thread, StackTraceElement[]> converted = new HashMap<>();
         for (Entry<Thread, List<StackTraceEntry>> entry : sample.entrySet()) {
@@ -588,6 +653,20 @@ public final class CPUSampler implements Closeable {
         return localShadowStack;
     }
 
+    private synchronized SafepointStackSampler initializeSafepointSampler() {
+        SafepointStackSampler localSampler = safepointSampler;
+        if (localSampler == null) {
+            assert stacksBinding == null;
+            SourceSectionFilter f = this.filter;
+            if (f == null) {
+                f = DEFAULT_FILTER;
+            }
+            this.safepointSampler = localSampler = new SafepointStackSampler(stackLimit, f, env.getInstrumenter(), TruffleLogger.getLogger(CPUSamplerInstrument.ID));
+            this.stacksBinding = localSampler.install(combine(f, mode));
+        }
+        return localSampler;
+    }
+
     private void resetSampling() {
         assert Thread.holdsLock(this);
         cleanup();
@@ -599,7 +678,11 @@ public final class CPUSampler implements Closeable {
             samplerThread = new Timer("Sampling thread", true);
         }
         this.stackOverflowed = false;
-        initializeShadowStack();
+        if (safepointSampling) {
+            initializeSafepointSampler();
+        } else {
+            initializeShadowStack();
+        }
         this.samplerTask = new SamplingTimerTask();
         this.samplerThread.schedule(samplerTask, delay, period);
     }
@@ -637,16 +720,15 @@ public final class CPUSampler implements Closeable {
     }
 
     private void invalidateStack() {
-        ShadowStack localShadowStack = this.shadowStack;
-        if (localShadowStack != null) {
+        if (this.shadowStack != null || this.safepointSampler != null) {
             synchronized (this) {
-                localShadowStack = this.shadowStack;
-                if (localShadowStack != null) {
+                if (this.shadowStack != null || this.safepointSampler != null) {
                     if (stacksBinding != null) {
                         stacksBinding.dispose();
                         stacksBinding = null;
                     }
                     shadowStack = null;
+                    safepointSampler = null;
                 } else {
                     assert stacksBinding == null;
                 }
@@ -666,23 +748,37 @@ public final class CPUSampler implements Closeable {
             ShadowStack localShadowStack = shadowStack;
             if (localShadowStack != null) {
                 for (ShadowStack.ThreadLocalStack stack : localShadowStack.getStacks()) {
-                    ProfilerNode<Payload> threadNode;
-                    synchronized (CPUSampler.this) {
-                        threadNode = rootNodes.computeIfAbsent(stack.getThread(), new Function<Thread, ProfilerNode<Payload>>() {
-                            @Override
-                            public ProfilerNode<Payload> apply(Thread thread) {
-                                return new ProfilerNode<>();
-                            }
-                        });
-                    }
-                    sampleTaken |= sample(stack, timestamp, threadNode);
+                    sampleTaken |= sample(stack, timestamp, getThreadNode(stack.getThread()));
+                }
+            }
+            SafepointStackSampler localSafepointSampler = safepointSampler;
+            if (localSafepointSampler != null) {
+                // samples requested by the previous run have been answered by now
+                for (Entry<Thread, SafepointStackSampler.Sample> entry : localSafepointSampler.collectSamples().entrySet()) {
+                    SafepointStackSampler.Sample sample = entry.getValue();
+                    sampleTaken |= sample(sample.stack, sample.timestamp, getThreadNode(entry.getKey()));
                 }
+                if (localSafepointSampler.hasStackOverflowed()) {
+                    stackOverflowed = true;
+                }
+                localSafepointSampler.requestSamples();
             }
             if (sampleTaken) {
                 samplesTaken.incrementAndGet();
             }
         }
 
+        private ProfilerNode<Payload> getThreadNode(Thread thread) {
+            synchronized (CPUSampler.this) {
+                return rootNodes.computeIfAbsent(thread, new Function<Thread, ProfilerNode<Payload>>() {
+                    @Override
+                    public ProfilerNode<Payload> apply(Thread t) {
+                        return new ProfilerNode<>();
+                    }
+                });
+            }
+        }
+
         boolean sample(ShadowStack.ThreadLocalStack stack, long timestamp, ProfilerNode<Payload> threadNode) {
             if (stack.hasStackOverflowed()) {
                 stackOverflowed = true;
@@ -692,7 +788,10 @@ public final class CPUSampler implements Closeable {
                 // nothing on the stack
                 return false;
             }
-            StackTraceEntry[] stackFrames = stack.getStack();
+            return sample(stack.getStack(), timestamp, threadNode);
+        }
+
+        boolean sample(StackTraceEntry[] stackFrames, long timestamp, ProfilerNode<Payload> threadNode) {
             if (stackFrames == null || stackFrames.length == 0) {
                 return false;
             }
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+
+/**
+ * Captures guest stacks on request instead of maintaining a {@link ShadowStack}.
+ *
+ * A poll is attached to every instrumented location. The poll only reads a flag of the current
+ * thread and does nothing else unless a sample has been requested from that thread. When it has,
+ * the thread captures its own stack with {@link com.oracle.truffle.api.TruffleRuntime#iterateFrames}
+ * at the next poll and hands it to the sampling thread. Threads that do not reach a poll, e.g.
+ * because they are blocked outside of guest code, do not answer and are not sampled. Their requests
+ * expire at the next period, and they are asked less and less often while they keep not answering,
+ * so that they do not keep the polls of the other threads on the slow path.
+ *
+ * Periodic requests of the sampling timer and on-demand requests of {@link #sampleAll(long)} are
+ * answered into separate slots, so that neither consumes the samples of the other.
+ *
+ * Since frame iteration does not tell whether a caller is executing in compiled code, only the
+ * entry at the top of a captured stack has a known execution state.
+ */
+final class SafepointStackSampler {
+
+    private final ConcurrentHashMap<Thread, ThreadState> threads = new ConcurrentHashMap<>();
+    private final int stackLimit;
+    private final SourceSectionFilter sourceSectionFilter;
+    private final Instrumenter instrumenter;
+    private final TruffleLogger logger;
+
+    /** Request kind of the sampling timer, see {@link #requestSamples()}. */
+    private static final int PERIODIC = 1;
+
+    /** Request kind of {@link #sampleAll(long)}. */
+    private static final int ON_DEMAND = 2;
+
+    /**
+     * A thread that did not answer {@code n} periodic requests in a row is only asked every
+     * {@code 2^min(n, MAX_BACKOFF)} periods.
+     */
+    private static final int MAX_BACKOFF = 6;
+
+    /**
+     * Number of threads that were asked for a sample and did not answer yet. Polled by locations
+     * that are executed by more than one thread.
+     */
+    private final AtomicInteger pendingThreads = new AtomicInteger();
+
+    /** Number of threads that did not answer the current on-demand request yet. */
+    private final AtomicInteger pendingOnDemand = new AtomicInteger();
+
+    /** Notified when {@link #pendingOnDemand} drops to zero. */
+    private final Object answerLock = new Object();
+
+    /** Serializes on-demand requests. */
+    private final Object onDemandLock = new Object();
+
+    private volatile boolean stackOverflowed;
+
+    SafepointStackSampler(int stackLimit, SourceSectionFilter sourceSectionFilter, Instrumenter instrumenter, TruffleLogger logger) {
+        this.stackLimit = stackLimit;
+        this.sourceSectionFilter = sourceSectionFilter;
+        this.instrumenter = instrumenter;
+        this.logger = logger;
+    }
+
+    EventBinding<?> install(SourceSectionFilter filter) {
+        return instrumenter.attachExecutionEventFactory(filter, new ExecutionEventNodeFactory() {
+            public ExecutionEventNode create(EventContext context) {
+                Node instrumentedNode = context.getInstrumentedNode();
+                if (instrumentedNode.getSourceSection() == null) {
+                    logger.warning("Instrumented node " + instrumentedNode + " has null SourceSection.");
+                    return null;
+                }
+                return new SafepointPollNode(SafepointStackSampler.this, context);
+            }
+        });
+    }
+
+    boolean hasStackOverflowed() {
+        return stackOverflowed;
+    }
+
+    /**
+     * Asks every thread that executed guest code to capture its stack at its next poll. Requests
+     * that were not answered since the previous call expire, and the threads that did not answer
+     * are skipped for an exponentially growing number of periods. Called by the sampling timer
+     * only.
+     */
+    synchronized void requestSamples() {
+        for (Iterator<ThreadState> iterator = threads.values().iterator(); iterator.hasNext();) {
+            ThreadState state = iterator.next();
+            if (!state.thread.isAlive()) {
+                iterator.remove();
+                withdraw(state, PERIODIC | ON_DEMAND);
+                continue;
+            }
+            if (state.periodicRequested) {
+                state.periodicRequested = false;
+                if (withdraw(state, PERIODIC)) {
+                    state.missed = Math.min(state.missed + 1, MAX_BACKOFF);
+                    state.skip = (1 << state.missed) - 1;
+                } else {
+                    state.missed = 0;
+                }
+            }
+            if (state.skip > 0) {
+                state.skip--;
+                continue;
+            }
+            request(state, PERIODIC);
+            state.periodicRequested = true;
+        }
+    }
+
+    /**
+     * Returns the stacks captured for periodic requests since the last call, ordered from the
+     * bottom to the top of the stack, and the time at which they were captured.
+     */
+    Map<Thread, Sample> collectSamples() {
+        Map<Thread, Sample> samples = new HashMap<>();
+        for (ThreadState state : threads.values()) {
+            Sample sample = state.sample;
+            if (sample != null) {
+                state.sample = null;
+                samples.put(state.thread, sample);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Requests a sample from all threads and waits until they answered, or until
+     * {@code timeoutMillis} have passed. The current thread captures its own stack immediately.
+     * Requests that were not answered in time are withdrawn. Does not affect the samples collected
+     * by {@link #collectSamples()}.
+     */
+    Map<Thread, Sample> sampleAll(long timeoutMillis) {
+        synchronized (onDemandLock) {
+            for (ThreadState state : threads.values()) {
+                // drop answers that arrived after the previous request was withdrawn
+                state.onDemandSample = null;
+                if (state.thread.isAlive()) {
+                    request(state, ON_DEMAND);
+                }
+            }
+            ThreadState current = threads.get(Thread.currentThread());
+            if (current != null) {
+                answer(current, null, StackTraceEntry.STATE_UNKNOWN);
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            synchronized (answerLock) {
+                long remaining;
+                while (pendingOnDemand.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(answerLock, remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            Map<Thread, Sample> samples = new HashMap<>();
+            for (ThreadState state : threads.values()) {
+                withdraw(state, ON_DEMAND);
+                Sample sample = state.onDemandSample;
+                if (sample != null) {
+                    state.onDemandSample = null;
+                    samples.put(state.thread, sample);
+                }
+            }
+            return samples;
+        }
+    }
+
+    /** Adds a request of the given kind to {@code state} unless one is pending already. */
+    private void request(ThreadState state, int kind) {
+        int requests;
+        do {
+            requests = state.requests.get();
+            if ((requests & kind) != 0) {
+                return;
+            }
+        } while (!state.requests.compareAndSet(requests, requests | kind));
+        if (kind == ON_DEMAND) {
+            pendingOnDemand.incrementAndGet();
+        }
+        if (requests == 0) {
+            pendingThreads.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes the pending requests of the given kinds from {@code state}. Returns {@code false} if
+     * none of them was pending, i.e. they were answered.
+     */
+    private boolean withdraw(ThreadState state, int kinds) {
+        int requests;
+        do {
+            requests = state.requests.get();
+            if ((requests & kinds) == 0) {
+                return false;
+            }
+        } while (!state.requests.compareAndSet(requests, requests & ~kinds));
+        answered(requests & kinds, requests & ~kinds);
+        return true;
+    }
+
+    @TruffleBoundary
+    ThreadState getState(Thread thread) {
+        ThreadState state = threads.get(thread);
+        if (state == null) {
+            state = new ThreadState(thread);
+            ThreadState prevState = threads.putIfAbsent(thread, state);
+            if (prevState != null) {
+                state = prevState;
+            }
+        }
+        return state;
+    }
+
+    @TruffleBoundary
+    private void answer(ThreadState state, EventContext context, byte topState) {
+        if (state.requests.get() == 0) {
+            return;
+        }
+        ArrayList<StackTraceEntry> entries = new ArrayList<>();
+        if (context != null) {
+            entries.add(new StackTraceEntry(instrumenter, context, topState));
+            addLocations(entries, context.getInstrumentedNode().getParent());
+        }
+        Truffle.getRuntime().iterateFrames(frame -> {
+            if (entries.size() > stackLimit) {
+                return frame;
+            }
+            addLocations(entries, frame.getCallNode());
+            return null;
+        });
+        Sample sample = null;
+        if (entries.size() > stackLimit) {
+            stackOverflowed = true;
+        } else if (!entries.isEmpty()) {
+            Collections.reverse(entries);
+            sample = new Sample(entries.toArray(new StackTraceEntry[entries.size()]), System.currentTimeMillis());
+        }
+        int requests = state.requests.getAndSet(0);
+        if (sample != null) {
+            if ((requests & PERIODIC) != 0) {
+                state.sample = sample;
+            }
+            if ((requests & ON_DEMAND) != 0) {
+                state.onDemandSample = sample;
+            }
+        }
+        answered(requests, 0);
+    }
+
+    /**
+     * Accounts for the requests of the kinds in {@code removed} that are no longer pending for a
+     * thread, which has the requests {@code remaining} left.
+     */
+    private void answered(int removed, int remaining) {
+        if (removed == 0) {
+            return;
+        }
+        if (remaining == 0) {
+            pendingThreads.decrementAndGet();
+        }
+        if ((removed & ON_DEMAND) != 0 && pendingOnDemand.decrementAndGet() <= 0) {
+            synchronized (answerLock) {
+                answerLock.notifyAll();
+            }
+        }
+    }
+
+    /** Adds {@code node} and its ancestors that are included by the filter, innermost first. */
+    private void addLocations(ArrayList<StackTraceEntry> entries, Node node) {
+        Node current = node;
+        while (current != null) {
+            if (sourceSectionFilter.includes(current) && current.getSourceSection() != null) {
+                entries.add(new StackTraceEntry(instrumenter, current, StackTraceEntry.STATE_UNKNOWN));
+            }
+            current = current.getParent();
+        }
+    }
+
+    static final class Sample {
+
+        final StackTraceEntry[] stack;
+        final long timestamp;
+
+        Sample(StackTraceEntry[] stack, long timestamp) {
+            this.stack = stack;
+            this.timestamp = timestamp;
+        }
+    }
+
+    static final class ThreadState {
+
+        final Thread thread;
+        /** The kinds of the requests this thread did not answer yet. */
+        final AtomicInteger requests = new AtomicInteger();
+        /** Answer to the last periodic request. */
+        volatile Sample sample;
+        /** Answer to the last on-demand request. */
+        volatile Sample onDemandSample;
+
+        /* Only accessed by requestSamples. */
+        boolean periodicRequested;
+        int missed;
+        int skip;
+
+        ThreadState(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    private static final class SafepointPollNode extends ExecutionEventNode {
+
+        private final SafepointStackSampler sampler;
+        private final EventContext context;
+
+        private final Thread cachedThread;
+        private final ThreadState cachedState;
+
+        @CompilationFinal private boolean seenOtherThreads;
+
+        SafepointPollNode(SafepointStackSampler sampler, EventContext context) {
+            this.sampler = sampler;
+            this.context = context;
+            this.cachedThread = Thread.currentThread();
+            this.cachedState = sampler.getState(cachedThread);
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            if (seenOtherThreads) {
+                if (CompilerDirectives.injectBranchProbability(CompilerDirectives.SLOWPATH_PROBABILITY, sampler.pendingThreads.get() > 0)) {
+                    pollSlow(executionState());
+                }
+            } else if (cachedThread == Thread.currentThread()) {
+                if (CompilerDirectives.injectBranchProbability(CompilerDirectives.SLOWPATH_PROBABILITY, cachedState.requests.get() != 0)) {
+                    sampler.answer(cachedState, context, executionState());
+                }
+            } else {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                seenOtherThreads = true;
+                pollSlow(executionState());
+            }
+        }
+
+        /** Same classification as the locations pushed on a {@link ShadowStack}. */
+        private static byte executionState() {
+            if (CompilerDirectives.inInterpreter()) {
+                return StackTraceEntry.STATE_INTERPRETED;
+            }
+            return CompilerDirectives.inCompilationRoot() ? StackTraceEntry.STATE_COMPILED : StackTraceEntry.STATE_COMPILATION_ROOT;
+        }
+
+        @TruffleBoundary
+        private void pollSlow(byte state) {
+            sampler.answer(sampler.getState(Thread.currentThread()), context, state);
+        }
+
+        @Override
+        public NodeCost getCost() {
+            return NodeCost.NONE;
+        }
+    }
+}
@@ -100,6 +100,9 @@ class CPUSamplerCLI extends ProfilerCLI {
     @Option(name = "StackLimit", help = "Maximum number of maximum stack elements.", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Integer> STACK_LIMIT = new OptionKey<>(10000);
 
+    @Option(name = "SafepointSampling", help = "Capture stacks at safepoints instead of maintaining a shadow stack (default: false).", category = OptionCategory.EXPERT) //
+    static final OptionKey<Boolean> SAFEPOINT_SAMPLING = new OptionKey<>(false);
+
     @Option(name = "Output", help = "Print a 'histogram', 'calltree' or 'json' as output (default:HISTOGRAM).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Output> OUTPUT = new OptionKey<>(Output.HISTOGRAM, CLI_OUTPUT_TYPE);
 
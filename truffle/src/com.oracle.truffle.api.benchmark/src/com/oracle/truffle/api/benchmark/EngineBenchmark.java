@@ -73,7 +73,7 @@ import com.oracle.truffle.api.nodes.RootNode;
 @Measurement(iterations = 5)
 public class EngineBenchmark extends TruffleBenchmark {
 
-    private static final String TEST_LANGUAGE = "benchmark-test-language";
+    static final String TEST_LANGUAGE = "benchmark-test-language";
 
     private static final String CONTEXT_LOOKUP = "contextLookup";
 
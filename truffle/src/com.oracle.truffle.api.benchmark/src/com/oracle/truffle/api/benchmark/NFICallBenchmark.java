@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import static com.oracle.truffle.api.benchmark.TruffleBenchmark.Defaults.FORKS;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Calls native functions through NFI with signatures that are eligible for direct calls. The
+ * nested {@link LibFFI} class runs the same benchmarks with direct calls disabled, so every call
+ * goes through libffi.
+ */
+@State(Scope.Thread)
+public class NFICallBenchmark extends TruffleBenchmark {
+
+    private static final int CALLS = 1000;
+
+    private final Context context = Context.newBuilder().allowNativeAccess(true).build();
+    private final Value defaultLibrary = context.eval(Source.create("nfi", "default"));
+    private final Value labs = defaultLibrary.getMember("labs").invokeMember("bind", "(sint64):sint64");
+    private final Value cos = defaultLibrary.getMember("cos").invokeMember("bind", "(double):double");
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long callLong() {
+        long sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += labs.execute(-i).asLong();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double callDouble() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += cos.execute((double) i).asDouble();
+        }
+        return sum;
+    }
+
+    @Fork(value = FORKS, jvmArgsAppend = "-Dtruffle.nfi.directCalls=false")
+    public static class LibFFI extends NFICallBenchmark {
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how the polyglot embedding API scales with the number of Java threads using it: context
+ * creation and close under a shared engine, {@link Value#execute} on a shared context, host object
+ * member access and {@link Context#eval} with a hot and a cold source cache.
+ * <p>
+ * Every invocation performs {@link #OPERATIONS} operations split evenly across {@code threads}
+ * worker threads, so with perfect scaling the time per operation drops linearly with the thread
+ * count. Allocation rates are reported when run with {@code -prof gc}, which {@link #main} does by
+ * default.
+ */
+@State(Scope.Benchmark)
+public class PolyglotEmbeddingBenchmark extends TruffleBenchmark {
+
+    static final int OPERATIONS = 1024;
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"}) int threads;
+
+    private final Engine engine = Engine.create();
+    private final Context context = Context.newBuilder(EngineBenchmark.TEST_LANGUAGE).engine(engine).allowHostAccess(HostAccess.ALL).build();
+    private final Source source = Source.create(EngineBenchmark.TEST_LANGUAGE, "");
+    private final Value value = context.eval(source);
+    private final Value hostValue = context.asValue(new HostPoint(42));
+    private final AtomicInteger uncachedSourceCounter = new AtomicInteger();
+    private ExecutorService executor;
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        context.close();
+        engine.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void createCloseContext() throws Exception {
+        runParallel(new Runnable() {
+            @Override
+            public void run() {
+                Context c = Context.newBuilder(EngineBenchmark.TEST_LANGUAGE).engine(engine).build();
+                c.initialize(EngineBenchmark.TEST_LANGUAGE);
+                c.close();
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void execute() throws Exception {
+        runParallel(new Runnable() {
+            @Override
+            public void run() {
+                value.execute();
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void hostMemberAccess() throws Exception {
+        runParallel(new Runnable() {
+            @Override
+            public void run() {
+                hostValue.getMember("x").asInt();
+                hostValue.invokeMember("getX").asInt();
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void evalCached() throws Exception {
+        runParallel(new Runnable() {
+            @Override
+            public void run() {
+                context.eval(source);
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void evalUncached() throws Exception {
+        runParallel(new Runnable() {
+            @Override
+            public void run() {
+                /*
+                 * Every source has different characters, so every eval misses the source cache
+                 * and parses.
+                 */
+                String characters = String.valueOf(uncachedSourceCounter.incrementAndGet());
+                context.eval(Source.create(EngineBenchmark.TEST_LANGUAGE, characters));
+            }
+        });
+    }
+
+    private void runParallel(Runnable operation) throws InterruptedException, ExecutionException {
+        int operationsPerThread = OPERATIONS / threads;
+        if (threads == 1) {
+            for (int i = 0; i < operationsPerThread; i++) {
+                operation.run();
+            }
+            return;
+        }
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads);
+        }
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        operation.run();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    public static class HostPoint {
+
+        public int x;
+
+        HostPoint(int x) {
+            this.x = x;
+        }
+
+        public int getX() {
+            return x;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(PolyglotEmbeddingBenchmark.class.getName()).addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * Grows a shape tree from several threads at once. Every operation adds {@link #DEPTH} properties,
+ * chosen randomly from {@link #KEYS} keys, to a root shape shared by all threads, so shapes get
+ * many outgoing transitions and threads race to add and look up the same transitions. The root
+ * shape is recreated for every iteration, so each iteration grows a fresh tree.
+ */
+@State(Scope.Benchmark)
+public class ShapeTransitionBenchmark extends TruffleBenchmark {
+
+    private static final int KEYS = 16;
+    private static final int DEPTH = 4;
+
+    private static final Layout LAYOUT = Layout.createLayout();
+    private static final Object[] KEY_NAMES = new Object[KEYS];
+    static {
+        for (int i = 0; i < KEYS; i++) {
+            KEY_NAMES[i] = "key" + i;
+        }
+    }
+
+    private Shape rootShape;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        rootShape = LAYOUT.createShape(new ObjectType());
+    }
+
+    private Shape growShapeTree() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Shape shape = rootShape;
+        for (int i = 0; i < DEPTH; i++) {
+            Object key = KEY_NAMES[random.nextInt(KEYS)];
+            // keys may repeat, redefining a property with another int value keeps the shape
+            shape = shape.defineProperty(key, i, 0);
+        }
+        return shape;
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(DEPTH)
+    public Shape growShapeTree1() {
+        return growShapeTree();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(DEPTH)
+    public Shape growShapeTree4() {
+        return growShapeTree();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(DEPTH)
+    public Shape growShapeTreeMax() {
+        return growShapeTree();
+    }
+}
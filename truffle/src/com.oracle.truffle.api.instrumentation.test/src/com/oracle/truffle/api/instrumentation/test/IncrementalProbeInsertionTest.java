@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.instrumentation.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.LoadSourceEvent;
+import com.oracle.truffle.api.instrumentation.LoadSourceListener;
+import com.oracle.truffle.api.instrumentation.SourceFilter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+
+public class IncrementalProbeInsertionTest {
+
+    private static final String DEFINE_FUNCTIONS = "ROOT(DEFINE(foo, STATEMENT), DEFINE(bar, STATEMENT), CALL(foo), CALL(bar))";
+    private static final String CALL_FUNCTIONS = "ROOT(CALL(foo), CALL(bar))";
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private Context context;
+
+    @After
+    public void teardown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private Instrumenter setupInstrumenter(boolean incremental) {
+        context = Context.newBuilder().option("engine.IncrementalProbeInsertion", String.valueOf(incremental)).build();
+        context.eval(InstrumentationTestLanguage.ID, DEFINE_FUNCTIONS);
+        return context.getEngine().getInstruments().get(InputFilterTestInstrument.ID).lookup(InputFilterTestInstrument.class).environment.getInstrumenter();
+    }
+
+    private static EventBinding<?> attachStatementCounter(Instrumenter instrumenter, AtomicInteger statements) {
+        return instrumenter.attachExecutionEventListener(SourceSectionFilter.newBuilder().tagIs(InstrumentationTestLanguage.STATEMENT).build(), new ExecutionEventListener() {
+            @Override
+            public void onEnter(EventContext c, VirtualFrame frame) {
+                statements.incrementAndGet();
+            }
+
+            @Override
+            public void onReturnValue(EventContext c, VirtualFrame frame, Object result) {
+            }
+
+            @Override
+            public void onReturnExceptional(EventContext c, VirtualFrame frame, Throwable exception) {
+            }
+        });
+    }
+
+    @Test
+    public void testBlockingInsertion() {
+        Instrumenter instrumenter = setupInstrumenter(false);
+        AtomicInteger statements = new AtomicInteger();
+        EventBinding<?> binding = attachStatementCounter(instrumenter, statements);
+        assertTrue(instrumenter.getAttachLatency(binding) >= 0);
+
+        context.eval(InstrumentationTestLanguage.ID, CALL_FUNCTIONS);
+        assertEquals(2, statements.get());
+        binding.dispose();
+    }
+
+    @Test
+    public void testIncrementalInsertion() throws InterruptedException {
+        Instrumenter instrumenter = setupInstrumenter(true);
+        AtomicInteger statements = new AtomicInteger();
+        EventBinding<?> binding = attachStatementCounter(instrumenter, statements);
+        awaitAttached(instrumenter, binding);
+
+        context.eval(InstrumentationTestLanguage.ID, CALL_FUNCTIONS);
+        assertEquals(2, statements.get());
+        binding.dispose();
+    }
+
+    @Test
+    public void testDisposeDuringInsertion() throws InterruptedException {
+        Instrumenter instrumenter = setupInstrumenter(true);
+        AtomicInteger statements = new AtomicInteger();
+        EventBinding<?> binding = attachStatementCounter(instrumenter, statements);
+        binding.dispose();
+        awaitAttached(instrumenter, binding);
+
+        context.eval(InstrumentationTestLanguage.ID, CALL_FUNCTIONS);
+        assertEquals(0, statements.get());
+    }
+
+    @Test
+    public void testCloseDuringInsertion() {
+        Instrumenter instrumenter = setupInstrumenter(true);
+        EventBinding<?> binding = attachStatementCounter(instrumenter, new AtomicInteger());
+        context.close();
+        context = null;
+        // closing the engine waits for the insertion
+        assertTrue(instrumenter.getAttachLatency(binding) >= 0);
+    }
+
+    private static void awaitAttached(Instrumenter instrumenter, EventBinding<?> binding) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (instrumenter.getAttachLatency(binding) < 0) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Incremental probe insertion did not finish within " + TIMEOUT_MILLIS + "ms.");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testNonExecutionBinding() {
+        Instrumenter instrumenter = setupInstrumenter(true);
+        EventBinding<?> binding = instrumenter.attachLoadSourceListener(SourceFilter.ANY, new LoadSourceListener() {
+            @Override
+            public void onLoad(LoadSourceEvent event) {
+            }
+        }, true);
+        assertEquals(0, instrumenter.getAttachLatency(binding));
+        binding.dispose();
+    }
+}
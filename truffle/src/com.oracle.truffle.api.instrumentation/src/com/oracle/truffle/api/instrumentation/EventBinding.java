@@ -123,6 +123,11 @@ public class EventBinding<T> {
         private final SourceSectionFilter filterSourceSection;
         private final SourceSectionFilter inputFilter;
         private final boolean isExecutionEvent;
+        /*
+         * Nanoseconds needed to insert the probes into the roots that were executed before the
+         * binding was attached, or -1 while the insertion is in progress.
+         */
+        private volatile long attachNanos;
 
         Source(AbstractInstrumenter instrumenter, SourceSectionFilter filterSourceSection, SourceSectionFilter inputFilter, T element, boolean isExecutionEvent) {
             super(instrumenter, element);
@@ -230,6 +235,14 @@ public class EventBinding<T> {
             return isExecutionEvent;
         }
 
+        long getAttachNanos() {
+            return attachNanos;
+        }
+
+        void setAttachNanos(long nanos) {
+            this.attachNanos = nanos;
+        }
+
         boolean isLanguageBinding() {
             return instrumenter instanceof LanguageClientInstrumenter;
         }
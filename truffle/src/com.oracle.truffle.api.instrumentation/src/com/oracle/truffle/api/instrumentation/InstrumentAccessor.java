@@ -248,6 +248,11 @@ final class InstrumentAccessor extends Accessor {
             ((InstrumentationHandler) instrumentationHandler).patch(out, err, in);
         }
 
+        @Override
+        public void closeInstrumentationHandler(Object instrumentationHandler) {
+            ((InstrumentationHandler) instrumentationHandler).close();
+        }
+
         @Override
         public boolean isInputValueSlotIdentifier(Object identifier) {
             return identifier instanceof ProbeNode.EventProviderWithInputChainNode.SavedInputValueID;
@@ -59,6 +59,10 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.Lock;
@@ -139,6 +143,10 @@ final class InstrumentationHandler {
     private final ReadWriteLock sourceBindingsLock = new ReentrantReadWriteLock();
     private final ReadWriteLock sourceExecutedBindingsLock = new ReentrantReadWriteLock();
 
+    private final Object probeInsertionLock = new Object();
+    private ExecutorService probeInsertionExecutor; // guarded by probeInsertionLock
+    private volatile boolean probeInsertionClosed;
+
     /*
      * Fast lookup of instrumenter instances based on a key provided by the accessor.
      */
@@ -403,10 +411,14 @@ final class InstrumentationHandler {
 
         if (cleanupRequired) {
             Collection<EventBinding.Source<?>> disposedExecutionBindings = filterBindingsForInstrumenter(executionBindings, disposedInstrumenter);
+            /*
+             * Mark the bindings disposed before the wrappers are removed, so an incremental probe
+             * insertion cannot add wrappers behind the dispose visitor.
+             */
+            disposeBindingsBulk(disposedExecutionBindings);
             if (!disposedExecutionBindings.isEmpty()) {
                 visitRoots(executedRoots, new DisposeWrappersWithBindingVisitor(disposedExecutionBindings));
             }
-            disposeBindingsBulk(disposedExecutionBindings);
             disposeBindingsBulk(filterBindingsForInstrumenter(sourceSectionBindings, disposedInstrumenter));
             disposeBindingsBulk(filterBindingsForInstrumenter(sourceBindings, disposedInstrumenter));
             disposeOutputBindingsBulk(out, outputStdBindings);
@@ -442,7 +454,13 @@ final class InstrumentationHandler {
         this.executionBindings.add(binding);
 
         if (!executedRoots.isEmpty()) {
-            visitRoots(executedRoots, new InsertWrappersWithBindingVisitor(binding));
+            if (polyglotEngine != null && InstrumentAccessor.engineAccess().isIncrementalProbeInsertion(polyglotEngine)) {
+                insertWrappersIncrementally(binding);
+            } else {
+                long start = System.nanoTime();
+                visitRoots(executedRoots, new InsertWrappersWithBindingVisitor(binding));
+                binding.setAttachNanos(System.nanoTime() - start);
+            }
         }
 
         if (TRACE) {
@@ -715,6 +733,92 @@ final class InstrumentationHandler {
         }
     }
 
+    /**
+     * Inserts the wrappers of a new execution binding into the executed roots on the probe
+     * insertion thread of this engine. The roots are visited one at a time, so the work done while
+     * a root is modified is bounded by the size of that root. Roots executed for the first time in
+     * the meantime get their wrappers in {@link #onFirstExecution(RootNode)} as usual.
+     * <p>
+     * Each root is visited while holding the lock of the binding and after checking that the
+     * binding is not yet disposed. The binding is disposed under the same lock, so no wrapper is
+     * inserted after its wrappers were removed.
+     */
+    private void insertWrappersIncrementally(EventBinding.Source<?> binding) {
+        binding.setAttachNanos(-1);
+        final long start = System.nanoTime();
+        Runnable insertion = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    AbstractNodeVisitor visitor = new InsertWrappersWithBindingVisitor(binding);
+                    for (RootNode root : executedRoots) {
+                        synchronized (binding) {
+                            if (binding.isDisposed() || probeInsertionClosed) {
+                                break;
+                            }
+                            visitRoot(root, root, visitor, false);
+                        }
+                    }
+                } finally {
+                    binding.setAttachNanos(System.nanoTime() - start);
+                    if (TRACE) {
+                        trace("Inserted probes of execution binding %s, %s in %d ns%n", binding.getFilter(), binding.getElement(), binding.getAttachNanos());
+                    }
+                }
+            }
+        };
+        synchronized (probeInsertionLock) {
+            if (probeInsertionClosed) {
+                binding.setAttachNanos(0);
+                return;
+            }
+            if (probeInsertionExecutor == null) {
+                probeInsertionExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "Truffle Probe Insertion");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            probeInsertionExecutor.execute(insertion);
+        }
+    }
+
+    /**
+     * Stops the incremental probe insertion of this engine and waits for the root that is
+     * currently being instrumented. Pending insertions are abandoned; their bindings report the
+     * time until the engine was closed as attach latency.
+     */
+    void close() {
+        ExecutorService executor;
+        synchronized (probeInsertionLock) {
+            probeInsertionClosed = true;
+            executor = probeInsertionExecutor;
+            probeInsertionExecutor = null;
+        }
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private void visitRoots(Collection<RootNode> roots, AbstractNodeVisitor addBindingsVisitor) {
         for (RootNode root : roots) {
             visitRoot(root, root, addBindingsVisitor, false);
@@ -1906,6 +2010,14 @@ final class InstrumentationHandler {
             }
         }
 
+        @Override
+        public final long getAttachLatency(EventBinding<?> binding) {
+            if (binding instanceof EventBinding.Source && ((EventBinding.Source<?>) binding).isExecutionEvent()) {
+                return ((EventBinding.Source<?>) binding).getAttachNanos();
+            }
+            return 0;
+        }
+
         @Override
         public <T extends ExecutionEventNodeFactory> EventBinding<T> attachExecutionEventFactory(SourceSectionFilter filter, SourceSectionFilter inputFilter, T factory) {
             verifyFilter(filter);
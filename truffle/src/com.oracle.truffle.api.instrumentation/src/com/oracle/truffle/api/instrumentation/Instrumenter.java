@@ -368,4 +368,24 @@ public abstract class Instrumenter {
      */
     public abstract ExecutionEventNode lookupExecutionEventNode(Node node, EventBinding<?> binding);
 
+    /**
+     * Returns the time in nanoseconds that was needed to insert the probes of an execution binding
+     * into all roots that were already executed when the binding was attached. Roots that are
+     * executed for the first time after the binding was attached are instrumented on their first
+     * execution and are not included.
+     * <p>
+     * By default the probes are inserted by the thread that attaches the binding, so this is the
+     * time the attach call was blocked. If the engine option
+     * <code>--engine.IncrementalProbeInsertion</code> is set, the probes are inserted on a
+     * background thread and the attach call returns immediately. In that case <code>-1</code> is
+     * returned until the probes were inserted into all executed roots; events of roots that were
+     * not yet visited are not reported until then.
+     * <p>
+     * Returns <code>0</code> for bindings that are not execution event bindings.
+     *
+     * @param binding an execution event binding attached by this instrumenter
+     * @since 20.0
+     */
+    public abstract long getAttachLatency(EventBinding<?> binding);
+
 }
@@ -47,6 +47,7 @@ import static com.oracle.truffle.api.interop.AssertUtils.validReturn;
 import static com.oracle.truffle.api.interop.AssertUtils.violationInvariant;
 import static com.oracle.truffle.api.interop.AssertUtils.violationPost;
 
+import java.nio.ByteOrder;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -909,6 +910,345 @@ public abstract class InteropLibrary extends Library {
         return isArrayElementModifiable(receiver, index) || isArrayElementReadable(receiver, index) || isArrayElementRemovable(receiver, index);
     }
 
+    // Buffer Messages
+
+    /**
+     * Returns <code>true</code> if the receiver may have buffer elements, i.e. if its contents can
+     * be accessed as a sequence of bytes at byte offsets. For example, the contents of a byte
+     * array, a typed array or a native memory region could be interpreted as buffer elements.
+     * Buffer elements are independent of {@link #hasArrayElements(Object) array elements}, a value
+     * may have both. Invoking this message does not cause any observable side-effects. Returns
+     * <code>false</code> by default.
+     *
+     * @see #getBufferSize(Object)
+     * @see #readBufferByte(Object, long)
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"getBufferSize", "isBufferWritable", "readBufferByte", "writeBufferByte", "readBufferInt", "readBufferLong", "readBufferDouble", "readBuffer", "writeBuffer"})
+    public boolean hasBufferElements(Object receiver) {
+        return false;
+    }
+
+    /**
+     * Returns <code>true</code> if the buffer elements of the receiver can be
+     * {@link #writeBufferByte(Object, long, byte) written}. Invoking this message does not cause
+     * any observable side-effects.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)}
+     *             returns <code>false</code>.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"writeBufferByte", "writeBuffer"})
+    public boolean isBufferWritable(Object receiver) throws UnsupportedMessageException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Returns the size of the buffer of the receiver in bytes.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)}
+     *             returns <code>false</code>.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public long getBufferSize(Object receiver) throws UnsupportedMessageException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Reads the byte at the given byte offset of the buffer of the receiver. This method must have
+     * not observable side-effect.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)}
+     *             returns <code>false</code>.
+     * @throws InvalidArrayIndexException if the byte offset is negative or not smaller than the
+     *             {@link #getBufferSize(Object) buffer size}.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public byte readBufferByte(Object receiver, long byteOffset) throws UnsupportedMessageException, InvalidArrayIndexException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Writes the byte at the given byte offset of the buffer of the receiver. This method must
+     * have not observable side-effects other than the changed byte.
+     *
+     * @throws UnsupportedMessageException if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code> or the buffer is not {@link #isBufferWritable(Object)
+     *             writable}.
+     * @throws InvalidArrayIndexException if the byte offset is negative or not smaller than the
+     *             {@link #getBufferSize(Object) buffer size}.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"isBufferWritable"})
+    public void writeBufferByte(Object receiver, long byteOffset, byte value) throws UnsupportedMessageException, InvalidArrayIndexException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Reads the four bytes at the given byte offset of the buffer of the receiver as an
+     * <code>int</code> in the given byte order. The offset does not need to be aligned. By default
+     * the value is composed from {@link #readBufferByte(Object, long) single byte reads}; buffers
+     * should export this message if they can read the value at once.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)}
+     *             returns <code>false</code>.
+     * @throws InvalidArrayIndexException if the byte offset is negative or the value does not fit
+     *             into the {@link #getBufferSize(Object) buffer size}.
+     * @since 20.0
+     */
+    public int readBufferInt(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidArrayIndexException {
+        return (int) readBufferBytes(receiver, order, byteOffset, Integer.BYTES);
+    }
+
+    /**
+     * Reads the eight bytes at the given byte offset of the buffer of the receiver as a
+     * <code>long</code> in the given byte order. The offset does not need to be aligned. By
+     * default the value is composed from {@link #readBufferByte(Object, long) single byte reads};
+     * buffers should export this message if they can read the value at once.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)}
+     *             returns <code>false</code>.
+     * @throws InvalidArrayIndexException if the byte offset is negative or the value does not fit
+     *             into the {@link #getBufferSize(Object) buffer size}.
+     * @since 20.0
+     */
+    public long readBufferLong(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidArrayIndexException {
+        return readBufferBytes(receiver, order, byteOffset, Long.BYTES);
+    }
+
+    /**
+     * Reads the eight bytes at the given byte offset of the buffer of the receiver as a
+     * <code>double</code> in the given byte order. The offset does not need to be aligned. By
+     * default the value is {@link #readBufferLong(Object, ByteOrder, long) read as a long} and
+     * converted with {@link Double#longBitsToDouble(long)}.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)}
+     *             returns <code>false</code>.
+     * @throws InvalidArrayIndexException if the byte offset is negative or the value does not fit
+     *             into the {@link #getBufferSize(Object) buffer size}.
+     * @since 20.0
+     */
+    public double readBufferDouble(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidArrayIndexException {
+        return Double.longBitsToDouble(readBufferLong(receiver, order, byteOffset));
+    }
+
+    private long readBufferBytes(Object receiver, ByteOrder order, long byteOffset, int count) throws UnsupportedMessageException, InvalidArrayIndexException {
+        if (byteOffset < 0 || byteOffset > getBufferSize(receiver) - count) {
+            throw InvalidArrayIndexException.create(byteOffset);
+        }
+        long result = 0;
+        for (int i = 0; i < count; i++) {
+            int shift = (order == ByteOrder.BIG_ENDIAN ? count - 1 - i : i) * Byte.SIZE;
+            result |= (readBufferByte(receiver, byteOffset + i) & 0xFFL) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * Copies <code>length</code> bytes starting at the given byte offset of the buffer of the
+     * receiver into <code>destination</code>, starting at <code>destinationOffset</code>. This
+     * allows to transfer large buffers with a single message instead of one message per byte.
+     * This method must have not observable side-effect. By default the bytes are copied with
+     * {@link #readBufferByte(Object, long) single byte reads}; buffers should export this message
+     * if they can copy the bytes at once.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)}
+     *             returns <code>false</code>.
+     * @throws InvalidArrayIndexException if the byte offset is negative or the range does not fit
+     *             into the {@link #getBufferSize(Object) buffer size}.
+     * @throws IndexOutOfBoundsException if the range does not fit into <code>destination</code>.
+     * @since 20.0
+     */
+    public void readBuffer(Object receiver, long byteOffset, byte[] destination, int destinationOffset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+        checkBufferRange(receiver, byteOffset, destination, destinationOffset, length);
+        for (int i = 0; i < length; i++) {
+            destination[destinationOffset + i] = readBufferByte(receiver, byteOffset + i);
+        }
+    }
+
+    /**
+     * Copies <code>length</code> bytes of <code>source</code>, starting at
+     * <code>sourceOffset</code>, into the buffer of the receiver starting at the given byte
+     * offset. This method must have not observable side-effects other than the changed bytes. By
+     * default the bytes are copied with {@link #writeBufferByte(Object, long, byte) single byte
+     * writes}; buffers should export this message if they can copy the bytes at once.
+     *
+     * @throws UnsupportedMessageException if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code> or the buffer is not {@link #isBufferWritable(Object)
+     *             writable}.
+     * @throws InvalidArrayIndexException if the byte offset is negative or the range does not fit
+     *             into the {@link #getBufferSize(Object) buffer size}.
+     * @throws IndexOutOfBoundsException if the range does not fit into <code>source</code>.
+     * @since 20.0
+     */
+    public void writeBuffer(Object receiver, long byteOffset, byte[] source, int sourceOffset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+        checkBufferRange(receiver, byteOffset, source, sourceOffset, length);
+        for (int i = 0; i < length; i++) {
+            writeBufferByte(receiver, byteOffset + i, source[sourceOffset + i]);
+        }
+    }
+
+    private void checkBufferRange(Object receiver, long byteOffset, byte[] array, int arrayOffset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+        if (arrayOffset < 0 || length < 0 || arrayOffset > array.length - length) {
+            throw outOfBounds(arrayOffset, length, array.length);
+        }
+        if (byteOffset < 0 || byteOffset > getBufferSize(receiver) - length) {
+            throw InvalidArrayIndexException.create(byteOffset);
+        }
+    }
+
+    @TruffleBoundary
+    private static IndexOutOfBoundsException outOfBounds(int offset, int length, int arrayLength) {
+        return new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length + ") out of bounds for length " + arrayLength);
+    }
+
+    // Iterator Messages
+
+    /**
+     * Returns <code>true</code> if the receiver provides an {@link #getIterator(Object) iterator}
+     * over its elements. For example, a collection or a sequence of values could provide an
+     * iterator. Iterating does not require the elements to be materialized up front, so this
+     * allows to traverse large or lazily computed collections in constant memory. Invoking this
+     * message does not cause any observable side-effects. Returns <code>false</code> by default.
+     *
+     * @see #getIterator(Object)
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"getIterator"})
+    public boolean hasIterator(Object receiver) {
+        return false;
+    }
+
+    /**
+     * Returns a new iterator over the elements of the receiver. The returned object is an
+     * {@link #isIterator(Object) iterator}. Each invocation returns a new iterator positioned
+     * before the first element.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasIterator(Object)} returns
+     *             <code>false</code>.
+     * @see #hasIterator(Object)
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"hasIterator"})
+    public Object getIterator(Object receiver) throws UnsupportedMessageException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Returns <code>true</code> if the receiver is an iterator. The elements of an iterator are
+     * traversed with {@link #hasIteratorNextElement(Object)} and
+     * {@link #getIteratorNextElement(Object)}. Invoking this message does not cause any observable
+     * side-effects. Returns <code>false</code> by default.
+     *
+     * @see #getIterator(Object)
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"hasIteratorNextElement", "getIteratorNextElement"})
+    public boolean isIterator(Object receiver) {
+        return false;
+    }
+
+    /**
+     * Returns <code>true</code> if the receiver iterator has an element that was not returned by
+     * {@link #getIteratorNextElement(Object)} yet. Invoking this message does not cause any
+     * observable side-effects.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #isIterator(Object)} returns
+     *             <code>false</code>.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"isIterator"})
+    public boolean hasIteratorNextElement(Object receiver) throws UnsupportedMessageException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Returns the next element of the receiver iterator and advances the iterator.
+     *
+     * @throws UnsupportedMessageException if {@link #isIterator(Object)} returns
+     *             <code>false</code> or the element is not readable.
+     * @throws StopIterationException if the iterator does not have more elements, i.e. if
+     *             {@link #hasIteratorNextElement(Object)} returns <code>false</code>.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"isIterator"})
+    public Object getIteratorNextElement(Object receiver) throws UnsupportedMessageException, StopIterationException {
+        throw UnsupportedMessageException.create();
+    }
+
+    // Hash Messages
+
+    /**
+     * Returns <code>true</code> if the receiver maps keys to values. Keys may be arbitrary interop
+     * values, unlike {@link #hasMembers(Object) members} which are identified by strings. The
+     * entries can be traversed with an {@link #getHashEntriesIterator(Object) iterator} without
+     * materializing all keys, and the value for a single key is read with
+     * {@link #readHashValue(Object, Object)}. Invoking this message does not cause any observable
+     * side-effects. Returns <code>false</code> by default.
+     *
+     * @see #getHashSize(Object)
+     * @see #getHashEntriesIterator(Object)
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"getHashSize", "isHashEntryReadable", "readHashValue", "getHashEntriesIterator"})
+    public boolean hasHashEntries(Object receiver) {
+        return false;
+    }
+
+    /**
+     * Returns the number of entries of the receiver.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasHashEntries(Object)} returns
+     *             <code>false</code>.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"hasHashEntries"})
+    public long getHashSize(Object receiver) throws UnsupportedMessageException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Returns <code>true</code> if the receiver has an entry for the given key that can be
+     * {@link #readHashValue(Object, Object) read}. This method may only return <code>true</code>
+     * if {@link #hasHashEntries(Object)} returns <code>true</code> as well. Invoking this message
+     * does not cause any observable side-effects. Returns <code>false</code> by default.
+     *
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"readHashValue"})
+    public boolean isHashEntryReadable(Object receiver, Object key) {
+        return false;
+    }
+
+    /**
+     * Reads the value of the entry for the given key.
+     *
+     * @throws UnsupportedMessageException if {@link #hasHashEntries(Object)} returns
+     *             <code>false</code> or the entry is not readable.
+     * @throws UnknownKeyException if the receiver does not have an entry for the given key.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"isHashEntryReadable"})
+    public Object readHashValue(Object receiver, Object key) throws UnsupportedMessageException, UnknownKeyException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Returns a new {@link #isIterator(Object) iterator} over the entries of the receiver. Each
+     * element of the iterator has two {@link #hasArrayElements(Object) array elements}, the key
+     * at index <code>0</code> and the value at index <code>1</code>.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasHashEntries(Object)} returns
+     *             <code>false</code>.
+     * @since 20.0
+     */
+    @Abstract(ifExported = {"hasHashEntries"})
+    public Object getHashEntriesIterator(Object receiver) throws UnsupportedMessageException {
+        throw UnsupportedMessageException.create();
+    }
+
     /**
      * Returns <code>true</code> if the receiver value represents a native pointer. Native pointers
      * are represented as 64 bit pointers. Invoking this message does not cause any observable
@@ -1872,6 +2212,249 @@ public abstract class InteropLibrary extends Library {
             return result;
         }
 
+        @Override
+        public boolean hasBufferElements(Object receiver) {
+            assert preCondition(receiver);
+            return delegate.hasBufferElements(receiver);
+        }
+
+        @Override
+        public boolean isBufferWritable(Object receiver) throws UnsupportedMessageException {
+            assert preCondition(receiver);
+            try {
+                boolean result = delegate.isBufferWritable(receiver);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public long getBufferSize(Object receiver) throws UnsupportedMessageException {
+            assert preCondition(receiver);
+            try {
+                long result = delegate.getBufferSize(receiver);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver);
+                assert result >= 0 : violationPost(receiver, result);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public byte readBufferByte(Object receiver, long byteOffset) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            try {
+                byte result = delegate.readBufferByte(receiver, byteOffset);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver, byteOffset);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeBufferByte(Object receiver, long byteOffset, byte value) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            try {
+                delegate.writeBufferByte(receiver, byteOffset, value);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver, byteOffset);
+                assert delegate.isBufferWritable(receiver) || isMultiThreaded(receiver) : violationInvariant(receiver, byteOffset);
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public int readBufferInt(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            assert order != null : violationInvariant(receiver, byteOffset);
+            try {
+                int result = delegate.readBufferInt(receiver, order, byteOffset);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver, byteOffset);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public long readBufferLong(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            assert order != null : violationInvariant(receiver, byteOffset);
+            try {
+                long result = delegate.readBufferLong(receiver, order, byteOffset);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver, byteOffset);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public double readBufferDouble(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            assert order != null : violationInvariant(receiver, byteOffset);
+            try {
+                double result = delegate.readBufferDouble(receiver, order, byteOffset);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver, byteOffset);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void readBuffer(Object receiver, long byteOffset, byte[] destination, int destinationOffset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            assert destination != null : violationInvariant(receiver, byteOffset);
+            try {
+                delegate.readBuffer(receiver, byteOffset, destination, destinationOffset, length);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver, byteOffset);
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeBuffer(Object receiver, long byteOffset, byte[] source, int sourceOffset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            assert source != null : violationInvariant(receiver, byteOffset);
+            try {
+                delegate.writeBuffer(receiver, byteOffset, source, sourceOffset, length);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver, byteOffset);
+                assert delegate.isBufferWritable(receiver) || isMultiThreaded(receiver) : violationInvariant(receiver, byteOffset);
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasIterator(Object receiver) {
+            assert preCondition(receiver);
+            return delegate.hasIterator(receiver);
+        }
+
+        @Override
+        public Object getIterator(Object receiver) throws UnsupportedMessageException {
+            assert preCondition(receiver);
+            try {
+                Object result = delegate.getIterator(receiver);
+                assert delegate.hasIterator(receiver) : violationInvariant(receiver);
+                assert validReturn(receiver, result);
+                assert isMultiThreaded(receiver) || InteropLibrary.getFactory().getUncached().isIterator(result) : violationPost(receiver, result);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean isIterator(Object receiver) {
+            assert preCondition(receiver);
+            return delegate.isIterator(receiver);
+        }
+
+        @Override
+        public boolean hasIteratorNextElement(Object receiver) throws UnsupportedMessageException {
+            assert preCondition(receiver);
+            try {
+                boolean result = delegate.hasIteratorNextElement(receiver);
+                assert delegate.isIterator(receiver) : violationInvariant(receiver);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public Object getIteratorNextElement(Object receiver) throws UnsupportedMessageException, StopIterationException {
+            assert preCondition(receiver);
+            try {
+                Object result = delegate.getIteratorNextElement(receiver);
+                assert delegate.isIterator(receiver) : violationInvariant(receiver);
+                assert validReturn(receiver, result);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof StopIterationException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasHashEntries(Object receiver) {
+            assert preCondition(receiver);
+            return delegate.hasHashEntries(receiver);
+        }
+
+        @Override
+        public long getHashSize(Object receiver) throws UnsupportedMessageException {
+            assert preCondition(receiver);
+            try {
+                long result = delegate.getHashSize(receiver);
+                assert delegate.hasHashEntries(receiver) : violationInvariant(receiver);
+                assert result >= 0 : violationPost(receiver, result);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean isHashEntryReadable(Object receiver, Object key) {
+            assert preCondition(receiver);
+            assert validArgument(receiver, key);
+            boolean result = delegate.isHashEntryReadable(receiver, key);
+            assert !result || delegate.hasHashEntries(receiver) || isMultiThreaded(receiver) : violationInvariant(receiver, key);
+            return result;
+        }
+
+        @Override
+        public Object readHashValue(Object receiver, Object key) throws UnsupportedMessageException, UnknownKeyException {
+            assert preCondition(receiver);
+            assert validArgument(receiver, key);
+            boolean wasReadable = delegate.isHashEntryReadable(receiver, key);
+            try {
+                Object result = delegate.readHashValue(receiver, key);
+                assert delegate.hasHashEntries(receiver) : violationInvariant(receiver, key);
+                assert wasReadable || isMultiThreaded(receiver) : violationInvariant(receiver, key);
+                assert validReturn(receiver, result);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof UnknownKeyException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public Object getHashEntriesIterator(Object receiver) throws UnsupportedMessageException {
+            assert preCondition(receiver);
+            try {
+                Object result = delegate.getHashEntriesIterator(receiver);
+                assert delegate.hasHashEntries(receiver) : violationInvariant(receiver);
+                assert validReturn(receiver, result);
+                assert isMultiThreaded(receiver) || InteropLibrary.getFactory().getUncached().isIterator(result) : violationPost(receiver, result);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
         @Override
         public boolean isPointer(Object receiver) {
             assert preCondition(receiver);
@@ -54,6 +54,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
@@ -68,6 +70,7 @@ import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.TruffleLanguage.ContextPolicy;
 import com.oracle.truffle.api.TruffleLanguage.ParsingRequest;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.test.GCUtils;
 
@@ -103,6 +106,138 @@ public class PolyglotCachingTest {
         assertEquals(4, parseCalled.get());
     }
 
+    @Test
+    public void testBoundedSourceCacheSize() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheSize", "2").build();
+        Source source0 = Source.create(ProxyLanguage.ID, "testBoundedSourceCacheSize0");
+        Source source1 = Source.create(ProxyLanguage.ID, "testBoundedSourceCacheSize1");
+        Source source2 = Source.create(ProxyLanguage.ID, "testBoundedSourceCacheSize2");
+        c.eval(source0);
+        c.eval(source1);
+        assertEquals(2, parseCalled.get());
+        c.eval(source0);
+        assertEquals(2, parseCalled.get());
+
+        // evicts source1, the least recently used
+        c.eval(source2);
+        assertEquals(3, parseCalled.get());
+        c.eval(source0);
+        c.eval(source2);
+        assertEquals(3, parseCalled.get());
+        c.eval(source1);
+        assertEquals(4, parseCalled.get());
+        c.close();
+    }
+
+    @Test
+    public void testBoundedSourceCacheFrequency() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheSize", "2").option("engine.SourceCacheEviction", "lfu").build();
+        Source source0 = Source.create(ProxyLanguage.ID, "testBoundedSourceCacheFrequency0");
+        Source source1 = Source.create(ProxyLanguage.ID, "testBoundedSourceCacheFrequency1");
+        Source source2 = Source.create(ProxyLanguage.ID, "testBoundedSourceCacheFrequency2");
+        c.eval(source0);
+        c.eval(source0);
+        c.eval(source0);
+        c.eval(source1);
+        assertEquals(2, parseCalled.get());
+
+        // evicts source1, the least frequently used, even though source0 was used before
+        c.eval(source2);
+        assertEquals(3, parseCalled.get());
+        c.eval(source0);
+        assertEquals(3, parseCalled.get());
+        c.eval(source1);
+        assertEquals(4, parseCalled.get());
+        c.close();
+    }
+
+    @Test
+    public void testBoundedSourceCacheWeight() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                int size = request.getSource().getCharacters().toString().startsWith("big") ? 8 : 2;
+                return Truffle.getRuntime().createCallTarget(new WeightedRootNode(size));
+            }
+        });
+        Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheWeight", "9").build();
+        Source small0 = Source.create(ProxyLanguage.ID, "small0");
+        Source small1 = Source.create(ProxyLanguage.ID, "small1");
+        Source big = Source.create(ProxyLanguage.ID, "big");
+        c.eval(small0);
+        c.eval(small1);
+        c.eval(small0);
+        c.eval(small1);
+        assertEquals(2, parseCalled.get());
+
+        // the big source only fits alone, so both small sources are evicted
+        c.eval(big);
+        assertEquals(3, parseCalled.get());
+        c.eval(big);
+        assertEquals(3, parseCalled.get());
+        c.eval(small0);
+        assertEquals(4, parseCalled.get());
+        c.eval(small1);
+        assertEquals(5, parseCalled.get());
+        c.eval(small0);
+        c.eval(small1);
+        assertEquals(5, parseCalled.get());
+        c.eval(big);
+        assertEquals(6, parseCalled.get());
+        c.close();
+    }
+
+    @Test
+    public void testSourceCacheStatistics() throws Exception {
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        List<String> messages = new ArrayList<>();
+        Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheSize", "1").option("engine.SourceCacheStatistics", "true").logHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        }).build();
+        Source source0 = Source.create(ProxyLanguage.ID, "testSourceCacheStatistics0");
+        Source source1 = Source.create(ProxyLanguage.ID, "testSourceCacheStatistics1");
+        c.eval(source0);
+        c.eval(source0);
+        c.eval(source1);
+        c.eval(Source.newBuilder(ProxyLanguage.ID, "testSourceCacheStatistics2", "uncached").cached(false).buildLiteral());
+        c.close();
+        Assert.assertTrue(messages.toString(), messages.contains("Source cache statistics: hits=1, misses=2, evictions=1, uncached parses=1"));
+    }
+
     /*
      * Tests that the outer source instance is never the same as the one passed in. That allows the
      * outer source instance to be collected while the inner one is still referenced strongly. The
@@ -282,6 +417,27 @@ public class PolyglotCachingTest {
     }
 
     @TruffleLanguage.Registration(id = ReuseLanguage.ID, name = ReuseLanguage.ID, contextPolicy = ContextPolicy.REUSE)
+    static final class WeightedRootNode extends RootNode {
+
+        @Children private final Node[] children;
+
+        WeightedRootNode(int size) {
+            super(null);
+            this.children = new Node[size];
+            for (int i = 0; i < size; i++) {
+                children[i] = new LeafNode();
+            }
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return "";
+        }
+    }
+
+    static final class LeafNode extends Node {
+    }
+
     public static class ReuseLanguage extends ProxyLanguage {
         public static final String ID = "ReuseLanguage";
 
@@ -56,6 +56,8 @@ import static org.junit.Assume.assumeTrue;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.AbstractList;
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -73,6 +75,8 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.TypeLiteral;
 import org.graalvm.polyglot.Value;
@@ -367,6 +371,171 @@ public class ValueHostInteropTest extends AbstractPolyglotTest {
         assertEquals(0L, arrObj.getArraySize());
     }
 
+    @Test
+    public void byteArrayHasBufferElements() {
+        byte[] bytes = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9};
+        Value buffer = context.asValue(bytes);
+        assertTrue(buffer.hasBufferElements());
+        assertTrue(buffer.isBufferWritable());
+        assertEquals(9L, buffer.getBufferSize());
+        assertEquals(5, buffer.readBufferByte(4));
+        assertEquals(0x02030405, buffer.readBufferInt(ByteOrder.BIG_ENDIAN, 1));
+        assertEquals(0x05040302, buffer.readBufferInt(ByteOrder.LITTLE_ENDIAN, 1));
+        assertEquals(0x0203040506070809L, buffer.readBufferLong(ByteOrder.BIG_ENDIAN, 1));
+        assertEquals(ByteBuffer.wrap(bytes).getDouble(1), buffer.readBufferDouble(ByteOrder.BIG_ENDIAN, 1), 0);
+
+        byte[] copy = new byte[4];
+        buffer.readBuffer(2, copy, 1, 3);
+        assertArrayEquals(new byte[]{0, 3, 4, 5}, copy);
+        buffer.writeBuffer(6, new byte[]{42, 43}, 0, 2);
+        buffer.writeBufferByte(0, (byte) 41);
+        assertArrayEquals(new byte[]{41, 2, 3, 4, 5, 6, 42, 43, 9}, bytes);
+
+        try {
+            buffer.readBufferInt(ByteOrder.BIG_ENDIAN, 6);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        try {
+            buffer.readBuffer(-1, copy, 0, 1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        assertFalse(context.asValue(new int[1]).hasBufferElements());
+    }
+
+    @Test
+    public void byteBufferHasBufferElements() {
+        ByteBuffer bytes = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putLong(0, 0x0102030405060708L);
+        bytes.position(12);
+        Value buffer = context.asValue(bytes);
+        assertTrue(buffer.hasBufferElements());
+        assertTrue(buffer.isBufferWritable());
+        assertEquals(16L, buffer.getBufferSize());
+        assertEquals(0x0102030405060708L, buffer.readBufferLong(ByteOrder.LITTLE_ENDIAN, 0));
+        assertEquals(0x0807060504030201L, buffer.readBufferLong(ByteOrder.BIG_ENDIAN, 0));
+        assertEquals(0x05060708, buffer.readBufferInt(ByteOrder.LITTLE_ENDIAN, 0));
+
+        byte[] copy = new byte[3];
+        buffer.readBuffer(0, copy, 0, 3);
+        assertArrayEquals(new byte[]{8, 7, 6}, copy);
+        buffer.writeBuffer(8, new byte[]{1, 2}, 0, 2);
+        assertEquals(0x0201, bytes.getShort(8));
+        assertEquals("bulk access must not move the position", 12, bytes.position());
+
+        Value readOnly = context.asValue(bytes.asReadOnlyBuffer());
+        assertTrue(readOnly.hasBufferElements());
+        assertFalse(readOnly.isBufferWritable());
+        try {
+            readOnly.writeBufferByte(0, (byte) 1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void iterableHasIterator() {
+        List<String> list = new ArrayList<>(Arrays.asList("a", "b", "c"));
+        Value iterable = context.asValue(list);
+        assertTrue(iterable.hasIterator());
+        assertFalse(iterable.isIterator());
+
+        Value iterator = iterable.getIterator();
+        assertTrue(iterator.isIterator());
+        StringBuilder elements = new StringBuilder();
+        while (iterator.hasIteratorNextElement()) {
+            elements.append(iterator.getIteratorNextElement().asString());
+        }
+        assertEquals("abc", elements.toString());
+        try {
+            iterator.getIteratorNextElement();
+            fail();
+        } catch (NoSuchElementException e) {
+        }
+        assertTrue("each call returns a new iterator", iterable.getIterator().hasIteratorNextElement());
+
+        assertFalse(context.asValue(new Object()).hasIterator());
+        try {
+            context.asValue(new Object()).getIterator();
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void mapHasHashEntries() {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        map.put("one", 1);
+        map.put("two", 2);
+        map.put("none", null);
+        Value hash = context.asValue(map);
+        assertTrue(hash.hasHashEntries());
+        assertEquals(3L, hash.getHashSize());
+        assertTrue(hash.hasHashEntry("one"));
+        assertTrue(hash.hasHashEntry("none"));
+        assertFalse(hash.hasHashEntry("three"));
+        assertEquals(2, hash.getHashValue("two").asInt());
+        assertTrue(hash.getHashValue("none").isNull());
+        assertNull(hash.getHashValue("three"));
+
+        Value entries = hash.getHashEntriesIterator();
+        assertTrue(entries.isIterator());
+        StringBuilder keys = new StringBuilder();
+        while (entries.hasIteratorNextElement()) {
+            Value entry = entries.getIteratorNextElement();
+            assertEquals(2L, entry.getArraySize());
+            keys.append(entry.getArrayElement(0).asString());
+            if (!entry.getArrayElement(1).isNull()) {
+                assertEquals((int) map.get(entry.getArrayElement(0).asString()), entry.getArrayElement(1).asInt());
+            }
+        }
+        assertEquals("onetwonone", keys.toString());
+
+        assertFalse(context.asValue(new ArrayList<>()).hasHashEntries());
+        try {
+            context.asValue(new ArrayList<>()).getHashSize();
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void bufferAccessRequiresPermission() {
+        ByteBuffer bytes = ByteBuffer.allocate(8);
+        try (Context restricted = Context.newBuilder().allowHostAccess(HostAccess.EXPLICIT).build()) {
+            Value buffer = restricted.asValue(bytes);
+            assertFalse(buffer.hasBufferElements());
+            try {
+                buffer.isBufferWritable();
+                fail();
+            } catch (UnsupportedOperationException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("isBufferWritable()"));
+            }
+            try {
+                buffer.readBufferByte(0);
+                fail();
+            } catch (UnsupportedOperationException e) {
+            }
+            try {
+                buffer.writeBuffer(0, new byte[]{1, 2}, 0, 2);
+                fail();
+            } catch (UnsupportedOperationException e) {
+            }
+            assertEquals(0, bytes.get(0));
+            assertFalse(restricted.asValue(new byte[8]).hasBufferElements());
+        }
+        HostAccess bufferAccess = HostAccess.newBuilder().allowBufferAccess(true).build();
+        try (Context allowed = Context.newBuilder().allowHostAccess(bufferAccess).build()) {
+            Value buffer = allowed.asValue(bytes);
+            assertTrue(buffer.hasBufferElements());
+            assertTrue(buffer.isBufferWritable());
+            buffer.writeBufferByte(0, (byte) 42);
+            assertEquals(42, bytes.get(0));
+            assertFalse("byte arrays need array access", allowed.asValue(new byte[8]).hasBufferElements());
+        }
+    }
+
     private static final TypeLiteral<List<String>> LIST_STRING = new TypeLiteral<List<String>>() {
     };
 
@@ -335,6 +335,8 @@ public abstract class Accessor {
 
         public abstract boolean isInstrumentExceptionsAreThrown(Object polyglotEngine);
 
+        public abstract boolean isIncrementalProbeInsertion(Object polyglotEngine);
+
         public abstract Object asBoxedGuestValue(Object guestObject, Object polyglotLanguageContext);
 
         public abstract Handler getLogHandler(Object polyglotEngine);
@@ -584,6 +586,8 @@ public abstract class Accessor {
 
         public abstract void patchInstrumentationHandler(Object instrumentationHandler, DispatchOutputStream out, DispatchOutputStream err, InputStream in);
 
+        public abstract void closeInstrumentationHandler(Object instrumentationHandler);
+
         public abstract boolean isInputValueSlotIdentifier(Object identifier);
 
     }
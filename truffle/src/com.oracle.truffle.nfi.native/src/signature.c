@@ -231,6 +231,77 @@ JNIEXPORT jobject JNICALL Java_com_oracle_truffle_nfi_impl_NFIContext_executeObj
     return ret;
 }
 
+/*
+ * Direct calls for signatures that consist only of integer and pointer types, or only of doubles.
+ * The arguments are passed in registers by the C compiler, without going through libffi. All
+ * integer arguments are sign or zero extended to 64 bit by the caller, so the callee sees the
+ * correct value no matter how wide it expects the argument to be, and narrow return values are
+ * truncated by the caller.
+ */
+JNIEXPORT jlong JNICALL Java_com_oracle_truffle_nfi_impl_NFIContext_executeDirectLong(JNIEnv *env, jclass self, jlong address, jint argCount,
+        jlong a0, jlong a1, jlong a2, jlong a3, jlong a4, jlong a5) {
+    jlong ret;
+
+    errno = errnoMirror;
+    switch (argCount) {
+        case 0:
+            ret = ((jlong (*)(void)) address)();
+            break;
+        case 1:
+            ret = ((jlong (*)(jlong)) address)(a0);
+            break;
+        case 2:
+            ret = ((jlong (*)(jlong, jlong)) address)(a0, a1);
+            break;
+        case 3:
+            ret = ((jlong (*)(jlong, jlong, jlong)) address)(a0, a1, a2);
+            break;
+        case 4:
+            ret = ((jlong (*)(jlong, jlong, jlong, jlong)) address)(a0, a1, a2, a3);
+            break;
+        case 5:
+            ret = ((jlong (*)(jlong, jlong, jlong, jlong, jlong)) address)(a0, a1, a2, a3, a4);
+            break;
+        case 6:
+            ret = ((jlong (*)(jlong, jlong, jlong, jlong, jlong, jlong)) address)(a0, a1, a2, a3, a4, a5);
+            break;
+        default:
+            ret = 0;
+            break;
+    }
+    errnoMirror = errno;
+    return ret;
+}
+
+JNIEXPORT jdouble JNICALL Java_com_oracle_truffle_nfi_impl_NFIContext_executeDirectDouble(JNIEnv *env, jclass self, jlong address, jint argCount,
+        jdouble a0, jdouble a1, jdouble a2, jdouble a3) {
+    jdouble ret;
+
+    errno = errnoMirror;
+    switch (argCount) {
+        case 0:
+            ret = ((jdouble (*)(void)) address)();
+            break;
+        case 1:
+            ret = ((jdouble (*)(jdouble)) address)(a0);
+            break;
+        case 2:
+            ret = ((jdouble (*)(jdouble, jdouble)) address)(a0, a1);
+            break;
+        case 3:
+            ret = ((jdouble (*)(jdouble, jdouble, jdouble)) address)(a0, a1, a2);
+            break;
+        case 4:
+            ret = ((jdouble (*)(jdouble, jdouble, jdouble, jdouble)) address)(a0, a1, a2, a3);
+            break;
+        default:
+            ret = 0;
+            break;
+    }
+    errnoMirror = errno;
+    return ret;
+}
+
 
 static struct cif_data *prepareArgs(JNIEnv *env, struct __TruffleContextInternal *ctx, int nargs, jobjectArray argTypes) {
     struct cif_data *data = (struct cif_data *) malloc(sizeof(struct cif_data) + nargs * sizeof(ffi_type*));
@@ -41,16 +41,35 @@
 package com.oracle.truffle.nfi.impl;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.nfi.impl.LibFFIType.Direction;
 import com.oracle.truffle.nfi.impl.NativeAllocation.FreeDestructor;
 import com.oracle.truffle.nfi.spi.types.NativeArrayTypeMirror;
 import com.oracle.truffle.nfi.spi.types.NativeSignature;
+import com.oracle.truffle.nfi.spi.types.NativeSimpleType;
 import com.oracle.truffle.nfi.spi.types.NativeTypeMirror;
 import java.util.List;
 
 final class LibFFISignature {
 
+    /**
+     * Calls through a signature made up only of integer and pointer types, or only of doubles, do
+     * not go through libffi, but through a native stub that passes the arguments in registers.
+     * Setting this property to {@code false} forces all calls through libffi.
+     */
+    private static final boolean DIRECT_CALLS = !"false".equals(System.getProperty("truffle.nfi.directCalls"));
+
+    static final int MAX_DIRECT_LONG_ARGS = 6;
+    static final int MAX_DIRECT_DOUBLE_ARGS = 4;
+
+    enum DirectCallKind {
+        NONE,
+        LONG,
+        DOUBLE
+    }
+
     public static LibFFISignature create(NFIContext context, NativeSignature signature) {
         LibFFISignature ret = new LibFFISignature(context, signature);
         NativeAllocation.getGlobalQueue().registerNativeAllocation(ret, new FreeDestructor(ret.cif));
@@ -69,6 +88,8 @@ final class LibFFISignature {
 
     private final Direction allowedCallDirection;
 
+    private final DirectCallKind directCallKind;
+
     private LibFFISignature(NFIContext context, NativeSignature signature) {
         if (signature.getRetType() instanceof NativeArrayTypeMirror) {
             throw new IllegalArgumentException("array type as return value is not supported");
@@ -150,6 +171,56 @@ final class LibFFISignature {
         this.primitiveSize = primSize;
         this.objectCount = objCount;
         this.realArgCount = argCount;
+        this.directCallKind = DIRECT_CALLS && !signature.isVarargs() ? computeDirectCallKind(retType, argTypes) : DirectCallKind.NONE;
+    }
+
+    private static DirectCallKind computeDirectCallKind(LibFFIType retType, LibFFIType[] argTypes) {
+        if (isDirectLongType(retType) || retType instanceof LibFFIType.VoidType) {
+            if (argTypes.length > MAX_DIRECT_LONG_ARGS) {
+                return DirectCallKind.NONE;
+            }
+            for (LibFFIType argType : argTypes) {
+                if (!isDirectLongType(argType)) {
+                    return DirectCallKind.NONE;
+                }
+            }
+            return DirectCallKind.LONG;
+        } else if (isDirectDoubleType(retType)) {
+            if (argTypes.length > MAX_DIRECT_DOUBLE_ARGS) {
+                return DirectCallKind.NONE;
+            }
+            for (LibFFIType argType : argTypes) {
+                if (!isDirectDoubleType(argType)) {
+                    return DirectCallKind.NONE;
+                }
+            }
+            return DirectCallKind.DOUBLE;
+        }
+        return DirectCallKind.NONE;
+    }
+
+    private static boolean isDirectLongType(LibFFIType type) {
+        if (!(type instanceof LibFFIType.SimpleType)) {
+            return false;
+        }
+        switch (((LibFFIType.SimpleType) type).simpleType) {
+            case UINT8:
+            case SINT8:
+            case UINT16:
+            case SINT16:
+            case UINT32:
+            case SINT32:
+            case UINT64:
+            case SINT64:
+            case POINTER:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isDirectDoubleType(LibFFIType type) {
+        return type instanceof LibFFIType.SimpleType && ((LibFFIType.SimpleType) type).simpleType == NativeSimpleType.DOUBLE;
     }
 
     public NativeArgumentBuffer.Array prepareBuffer() {
@@ -174,6 +245,11 @@ final class LibFFISignature {
 
     public Object execute(NFIContext ctx, long functionPointer, NativeArgumentBuffer.Array argBuffer) {
         CompilerAsserts.partialEvaluationConstant(retType);
+        CompilerAsserts.partialEvaluationConstant(directCallKind);
+        if (directCallKind != DirectCallKind.NONE && argBuffer.getPatchCount() == 0) {
+            // pointer arguments that need patching (e.g. Java arrays) still go through libffi
+            return executeDirect(ctx, functionPointer, argBuffer);
+        }
         if (retType instanceof LibFFIType.ObjectType) {
             Object ret = ctx.executeObject(cif, functionPointer, argBuffer.prim, argBuffer.getPatchCount(), argBuffer.patches, argBuffer.objects);
             if (ret == null) {
@@ -191,4 +267,58 @@ final class LibFFISignature {
             return retType.deserializeRet(retBuffer, ctx.language);
         }
     }
+
+    /**
+     * Reads the serialized arguments back from the buffer and passes them to the native stub. In
+     * compiled code the buffer is virtualized, so the arguments go straight to the stub.
+     */
+    @ExplodeLoop
+    private Object executeDirect(NFIContext ctx, long functionPointer, NativeArgumentBuffer.Array argBuffer) {
+        argBuffer.rewind();
+        if (directCallKind == DirectCallKind.LONG) {
+            long[] args = new long[MAX_DIRECT_LONG_ARGS];
+            for (int i = 0; i < argTypes.length; i++) {
+                LibFFIType.SimpleType type = (LibFFIType.SimpleType) argTypes[i];
+                argBuffer.align(type.alignment);
+                args[i] = readDirectLong(type, argBuffer);
+            }
+            long ret = NFIContext.executeDirectLong(functionPointer, argTypes.length, args[0], args[1], args[2], args[3], args[4], args[5]);
+            if (retType instanceof LibFFIType.VoidType) {
+                return NativePointer.create(ctx.language, 0);
+            }
+            return ((LibFFIType.SimpleType) retType).fromPrimitive(ret);
+        } else {
+            double[] args = new double[MAX_DIRECT_DOUBLE_ARGS];
+            for (int i = 0; i < argTypes.length; i++) {
+                argBuffer.align(argTypes[i].alignment);
+                args[i] = argBuffer.getDouble();
+            }
+            return NFIContext.executeDirectDouble(functionPointer, argTypes.length, args[0], args[1], args[2], args[3]);
+        }
+    }
+
+    private static long readDirectLong(LibFFIType.SimpleType type, NativeArgumentBuffer buffer) {
+        switch (type.simpleType) {
+            case UINT8:
+                return buffer.getInt8() & 0xFFL;
+            case SINT8:
+                return buffer.getInt8();
+            case UINT16:
+                return buffer.getInt16() & 0xFFFFL;
+            case SINT16:
+                return buffer.getInt16();
+            case UINT32:
+                return buffer.getInt32() & 0xFFFF_FFFFL;
+            case SINT32:
+                return buffer.getInt32();
+            case UINT64:
+            case SINT64:
+                return buffer.getInt64();
+            case POINTER:
+                return buffer.getPointer(type.size);
+            default:
+                CompilerDirectives.transferToInterpreter();
+                throw new AssertionError(type.simpleType.name());
+        }
+    }
 }
@@ -299,6 +299,12 @@ class NFIContext {
     @TruffleBoundary
     private static native TruffleObject executeObject(long nativeContext, long cif, long functionPointer, byte[] primArgs, int patchCount, int[] patchOffsets, Object[] objArgs);
 
+    @TruffleBoundary
+    static native long executeDirectLong(long functionPointer, int argCount, long a0, long a1, long a2, long a3, long a4, long a5);
+
+    @TruffleBoundary
+    static native double executeDirectDouble(long functionPointer, int argCount, double a0, double a1, double a2, double a3);
+
     private static native long loadLibrary(long nativeContext, String name, int flags);
 
     private static native long lookup(long nativeContext, long library, String name);
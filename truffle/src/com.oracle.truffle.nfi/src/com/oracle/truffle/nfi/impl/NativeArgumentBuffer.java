@@ -135,6 +135,13 @@ abstract class NativeArgumentBuffer {
         objIdx = 0;
     }
 
+    /**
+     * Moves back to the start of the buffer, to read the arguments that were serialized into it.
+     */
+    public void rewind() {
+        getPrimBuffer().position(0);
+    }
+
     public void align(int alignment) {
         assert alignment >= 1;
         int pos = getPrimBuffer().position();
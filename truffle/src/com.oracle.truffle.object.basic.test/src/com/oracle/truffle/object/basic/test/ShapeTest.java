@@ -40,13 +40,16 @@
  */
 package com.oracle.truffle.object.basic.test;
 
+import org.junit.Assert;
 import org.junit.Test;
 
+import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Layout;
 import com.oracle.truffle.api.object.Layout.ImplicitCast;
 import com.oracle.truffle.api.object.ObjectType;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ShapeImpl;
 import com.oracle.truffle.object.basic.DefaultLayoutFactory;
 
 public class ShapeTest {
@@ -91,4 +94,78 @@ public class ShapeTest {
                         "\"a\":int@0" +
                         "\n}", shapeWithExtArray);
     }
+
+    @Test
+    public void testManyProperties() {
+        Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+        Shape rootShape = layout.createShape(new ObjectType());
+
+        final int count = 100;
+        DynamicObject first = rootShape.newInstance();
+        for (int i = 0; i < count; i++) {
+            first.define("p" + i, new Object());
+        }
+        // repeated lookups switch to the hashed property index
+        for (int round = 0; round < 16; round++) {
+            for (int i = 0; i < count; i++) {
+                Property property = first.getShape().getProperty("p" + i);
+                Assert.assertNotNull(property);
+                Assert.assertEquals("p" + i, property.getKey());
+            }
+            Assert.assertNull(first.getShape().getProperty("q"));
+        }
+
+        // objects built up in a different order must still keep their values
+        DynamicObject second = rootShape.newInstance();
+        for (int i = count - 1; i >= 0; i--) {
+            second.define("p" + i, i);
+        }
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(i, second.get("p" + i));
+        }
+
+        ShapeImpl firstShape = (ShapeImpl) first.getShape();
+        ShapeImpl secondShape = (ShapeImpl) second.getShape();
+        Assert.assertTrue(firstShape.getObjectArrayCapacity() >= firstShape.getObjectArraySize());
+        Assert.assertTrue(secondShape.getObjectArrayCapacity() >= secondShape.getObjectArraySize());
+        Assert.assertEquals(firstShape.getObjectArraySize(), secondShape.getObjectArraySize());
+    }
+
+    @Test
+    public void testPresizedCapacity() {
+        boolean presize = Boolean.getBoolean(Layout.OPTION_PREFIX + "PresizeExtensionArrays");
+        Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+        Shape rootShape = layout.createShape(new ObjectType());
+
+        DynamicObject large = rootShape.newInstance();
+        for (int i = 0; i < 100; i++) {
+            large.define("p" + i, new Object());
+        }
+        ShapeImpl largeShape = (ShapeImpl) large.getShape();
+        Assert.assertTrue(largeShape.getObjectArraySize() > 64);
+        Assert.assertTrue(largeShape.getObjectArrayCapacity() >= largeShape.getObjectArraySize());
+
+        // branch off the transition subtree of the large object right after it spilled
+        DynamicObject sameSubtree = rootShape.newInstance();
+        defineUntilSpilled(sameSubtree, "p");
+        sameSubtree.define("q", new Object());
+        ShapeImpl branchedShape = (ShapeImpl) sameSubtree.getShape();
+        Assert.assertEquals(2, branchedShape.getObjectArraySize());
+        // pre-sized to the large object, bounded by MaxPresizedArraySize
+        Assert.assertEquals(presize ? 64 : 4, branchedShape.getObjectArrayCapacity());
+
+        // a different transition subtree is not affected by the large object
+        DynamicObject otherSubtree = rootShape.newInstance();
+        otherSubtree.define("other", new Object());
+        defineUntilSpilled(otherSubtree, "p");
+        ShapeImpl otherShape = (ShapeImpl) otherSubtree.getShape();
+        Assert.assertEquals(1, otherShape.getObjectArraySize());
+        Assert.assertEquals(4, otherShape.getObjectArrayCapacity());
+    }
+
+    private static void defineUntilSpilled(DynamicObject object, String prefix) {
+        for (int i = 0; ((ShapeImpl) object.getShape()).getObjectArraySize() == 0; i++) {
+            object.define(prefix + i, new Object());
+        }
+    }
 }
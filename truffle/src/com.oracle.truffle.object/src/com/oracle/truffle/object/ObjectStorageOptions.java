@@ -69,6 +69,16 @@ public final class ObjectStorageOptions {
     public static final boolean InObjectFields = booleanOption(OPTION_PREFIX + "InObjectFields", true);
 
     static final boolean TriePropertyMap = booleanOption(OPTION_PREFIX + "TriePropertyMap", true);
+    /** Minimum number of properties of a shape to use a hashed property index for lookups. */
+    static final int PropertyIndexThreshold = intOption(OPTION_PREFIX + "PropertyIndexThreshold", 32);
+
+    /**
+     * Pre-size extension arrays to the largest size observed in the same transition subtree.
+     * Experimental, off until its memory impact has been measured.
+     */
+    static final boolean PresizeExtensionArrays = booleanOption(OPTION_PREFIX + "PresizeExtensionArrays", false);
+    /** Upper bound for the pre-sized extension array size. */
+    static final int MaxPresizedArraySize = intOption(OPTION_PREFIX + "MaxPresizedArraySize", 64);
 
     // Debug options (should be final)
     /** @since 0.17 or earlier */
@@ -93,4 +103,9 @@ public final class ObjectStorageOptions {
         String value = System.getProperty(name);
         return value == null ? defaultValue : value.equalsIgnoreCase("true");
     }
+
+    static int intOption(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
 }
@@ -49,6 +49,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.BiConsumer;
 
@@ -145,8 +146,39 @@ public abstract class ShapeImpl extends Shape {
 
     private final Transition transitionFromParent;
 
+    /**
+     * The closest ancestor (or this shape) without extension arrays. The shapes that share it form
+     * the transition subtree of objects that have the same properties up to the point where they
+     * spill into extension arrays, which stands in for the allocation site. Only set if
+     * {@link ObjectStorageOptions#PresizeExtensionArrays} is enabled.
+     */
+    private final ShapeImpl presizeAnchor;
+    /**
+     * Largest object and primitive extension array sizes observed in the transition subtree of
+     * this shape; only maintained in the {@link #presizeAnchor} and only ever increasing.
+     *
+     * @see #presizedCapacity(int, int)
+     */
+    private volatile int maxObjectArraySize;
+    private volatile int maxPrimitiveArraySize;
+
+    /**
+     * Hashed property index for shapes with many properties; lazily initialized. Immutable once
+     * published, so it can be read concurrently without synchronization.
+     *
+     * @see #getProperty(Object)
+     */
+    private volatile Map<Object, Property> propertyIndex;
+    /** Number of lookups before the property index is built (racy, only a heuristic). */
+    private int propertyLookupCount;
+
     private static final AtomicReferenceFieldUpdater<ShapeImpl, Object> TRANSITION_MAP_UPDATER = AtomicReferenceFieldUpdater.newUpdater(ShapeImpl.class, Object.class, "transitionMap");
     private static final AtomicReferenceFieldUpdater<ShapeImpl, Assumption> LEAF_ASSUMPTION_UPDATER = AtomicReferenceFieldUpdater.newUpdater(ShapeImpl.class, Assumption.class, "leafAssumption");
+    private static final AtomicIntegerFieldUpdater<ShapeImpl> MAX_OBJECT_ARRAY_SIZE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(ShapeImpl.class, "maxObjectArraySize");
+    private static final AtomicIntegerFieldUpdater<ShapeImpl> MAX_PRIMITIVE_ARRAY_SIZE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(ShapeImpl.class, "maxPrimitiveArraySize");
+
+    /** Number of lookups in a shape after which a hashed property index is built. */
+    private static final int PROPERTY_INDEX_LOOKUP_THRESHOLD = 8;
 
     /**
      * Private constructor.
@@ -166,11 +198,22 @@ public abstract class ShapeImpl extends Shape {
         this.parent = parent;
 
         this.objectArraySize = objectArraySize;
-        this.objectArrayCapacity = capacityFromSize(objectArraySize);
         this.objectFieldSize = objectFieldSize;
         this.primitiveFieldSize = primitiveFieldSize;
         this.primitiveArraySize = primitiveArraySize;
-        this.primitiveArrayCapacity = capacityFromSize(primitiveArraySize);
+        if (!ObjectStorageOptions.PresizeExtensionArrays) {
+            this.presizeAnchor = null;
+            this.objectArrayCapacity = capacityFromSize(objectArraySize);
+            this.primitiveArrayCapacity = capacityFromSize(primitiveArraySize);
+        } else if (parent == null || (objectArraySize == 0 && primitiveArraySize == 0)) {
+            this.presizeAnchor = this;
+            this.objectArrayCapacity = capacityFromSize(objectArraySize);
+            this.primitiveArrayCapacity = capacityFromSize(primitiveArraySize);
+        } else {
+            this.presizeAnchor = parent.presizeAnchor;
+            this.objectArrayCapacity = presizedCapacity(objectArraySize, updateMaxSize(MAX_OBJECT_ARRAY_SIZE_UPDATER, presizeAnchor, objectArraySize));
+            this.primitiveArrayCapacity = presizedCapacity(primitiveArraySize, updateMaxSize(MAX_PRIMITIVE_ARRAY_SIZE_UPDATER, presizeAnchor, primitiveArraySize));
+        }
         this.hasPrimitiveArray = hasPrimitiveArray;
 
         if (parent != null) {
@@ -260,6 +303,34 @@ public abstract class ShapeImpl extends Shape {
         }
     }
 
+    /**
+     * Record an extension array size in the anchor of a transition subtree and return the largest
+     * size observed so far. The maximum never decreases and children are created after their
+     * parent, which keeps capacities monotonic along shape transitions.
+     */
+    private static int updateMaxSize(AtomicIntegerFieldUpdater<ShapeImpl> updater, ShapeImpl anchor, int size) {
+        int max;
+        do {
+            max = updater.get(anchor);
+            if (size <= max) {
+                return max;
+            }
+        } while (!updater.compareAndSet(anchor, max, size));
+        return size;
+    }
+
+    /**
+     * Calculate array capacity for the given number of elements, pre-sized to the final size of
+     * other objects in the same transition subtree, so that objects built up one property at a
+     * time do not have to copy their extension arrays on every capacity step.
+     */
+    private static int presizedCapacity(int size, int maxSize) {
+        if (size == 0) {
+            return 0;
+        }
+        return capacityFromSize(Math.max(size, Math.min(maxSize, ObjectStorageOptions.MaxPresizedArraySize)));
+    }
+
     /** @since 0.17 or earlier */
     public final int getObjectArraySize() {
         return objectArraySize;
@@ -312,9 +383,35 @@ public abstract class ShapeImpl extends Shape {
     @Override
     @TruffleBoundary
     public Property getProperty(Object key) {
+        if (propertyMap.size() >= ObjectStorageOptions.PropertyIndexThreshold) {
+            Map<Object, Property> index = getPropertyIndex();
+            if (index != null) {
+                return index.get(key);
+            }
+        }
         return propertyMap.get(key);
     }
 
+    /**
+     * Returns the hashed property index of this shape, building it once the shape has been looked
+     * up often enough, or {@code null} if it is not (yet) worth building. Racing threads may build
+     * it more than once; they all produce equal maps, so any of them can win.
+     */
+    private Map<Object, Property> getPropertyIndex() {
+        Map<Object, Property> index = propertyIndex;
+        if (index == null) {
+            if (propertyLookupCount++ < PROPERTY_INDEX_LOOKUP_THRESHOLD) {
+                return null;
+            }
+            index = new HashMap<>(propertyMap.size() * 4 / 3 + 1);
+            for (Property property : propertyMap.values()) {
+                index.put(property.getKey(), property);
+            }
+            propertyIndex = index;
+        }
+        return index;
+    }
+
     /** @since 0.17 or earlier */
     public final PropertyMap getPropertyMap() {
         return propertyMap;
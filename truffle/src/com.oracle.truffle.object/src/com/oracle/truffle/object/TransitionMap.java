@@ -45,21 +45,21 @@ import java.lang.ref.ReferenceQueue;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 
-import org.graalvm.collections.EconomicMap;
-import org.graalvm.collections.MapCursor;
-
 /**
- * A synchronized hash map with weakly referenced values. Cleared value references are expunged only
- * when the map is mutated.
+ * A concurrent hash map with weakly referenced values. Lookups never block. Adding a transition
+ * only contends with concurrent updates of the same hash bin, so threads that grow the shape tree
+ * from the same shape do not serialize on a single monitor. Cleared value references are expunged
+ * lazily, only when the map is mutated.
  */
 final class TransitionMap<K, V> implements Map<K, V> {
-    private final EconomicMap<K, StrongKeyWeakValueEntry<K, V>> map;
+    private final ConcurrentHashMap<K, StrongKeyWeakValueEntry<K, V>> map;
     private final ReferenceQueue<V> queue;
 
     TransitionMap() {
-        this.map = EconomicMap.create();
+        this.map = new ConcurrentHashMap<>(4);
         this.queue = new ReferenceQueue<>();
     }
 
@@ -72,37 +72,29 @@ final class TransitionMap<K, V> implements Map<K, V> {
         return entry == null ? null : entry.get();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public V get(Object key) {
-        synchronized (queue) {
-            return getValue(map.get((K) key));
-        }
+        return getValue(map.get(key));
     }
 
     @Override
     public V put(K key, V value) {
-        synchronized (queue) {
-            expungeStaleEntries();
-            return getValue(map.put(key, new StrongKeyWeakValueEntry<>(key, value, queue)));
-        }
+        expungeStaleEntries();
+        return getValue(map.put(key, new StrongKeyWeakValueEntry<>(key, value, queue)));
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public V remove(Object key) {
-        synchronized (queue) {
-            expungeStaleEntries();
-            return getValue(map.removeKey((K) key));
-        }
+        expungeStaleEntries();
+        return getValue(map.remove(key));
     }
 
     @SuppressWarnings("unchecked")
     private void expungeStaleEntries() {
         for (Reference<? extends V> x; (x = queue.poll()) != null;) {
             StrongKeyWeakValueEntry<K, V> ex = (StrongKeyWeakValueEntry<K, V>) x;
-            if (map.get(ex.getKey()) == ex) {
-                map.removeKey(ex.getKey());
+            // only remove the entry if it has not been replaced in the meantime
+            if (map.remove(ex.getKey(), ex)) {
                 ShapeImpl.shapeCacheExpunged.inc();
             }
         }
@@ -110,23 +102,18 @@ final class TransitionMap<K, V> implements Map<K, V> {
 
     @Override
     public void clear() {
-        synchronized (queue) {
-            while (queue.poll() != null) {
-                // clear out ref queue.
-            }
-            map.clear();
+        while (queue.poll() != null) {
+            // clear out ref queue.
         }
+        map.clear();
     }
 
     @Override
     public void forEach(BiConsumer<? super K, ? super V> consumer) {
-        synchronized (queue) {
-            MapCursor<K, StrongKeyWeakValueEntry<K, V>> cursor = map.getEntries();
-            while (cursor.advance()) {
-                V value = cursor.getValue().get();
-                if (value != null) {
-                    consumer.accept(cursor.getKey(), value);
-                }
+        for (Map.Entry<K, StrongKeyWeakValueEntry<K, V>> entry : map.entrySet()) {
+            V value = entry.getValue().get();
+            if (value != null) {
+                consumer.accept(entry.getKey(), value);
             }
         }
     }
@@ -731,6 +731,11 @@ final class EngineAccessor extends Accessor {
             return areAssertionsEnabled() || getEngine(polyglotEngine).engineOptionValues.get(PolyglotEngineOptions.InstrumentExceptionsAreThrown);
         }
 
+        @Override
+        public boolean isIncrementalProbeInsertion(Object polyglotEngine) {
+            return getEngine(polyglotEngine).engineOptionValues.get(PolyglotEngineOptions.IncrementalProbeInsertion);
+        }
+
         @SuppressWarnings("all")
         private static boolean areAssertionsEnabled() {
             boolean assertsEnabled = false;
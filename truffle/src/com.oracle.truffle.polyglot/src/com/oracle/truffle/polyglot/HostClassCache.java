@@ -63,6 +63,9 @@ final class HostClassCache {
     final HostAccess hostAccess;
     private final boolean arrayAccess;
     private final boolean listAccess;
+    private final boolean iterableAccess;
+    private final boolean mapAccess;
+    private final boolean bufferAccess;
     private final Map<Class<?>, Object> targetMappings;
     private final Object unnamedModule;
 
@@ -70,6 +73,9 @@ final class HostClassCache {
         this.hostAccess = conf;
         this.arrayAccess = apiAccess.isArrayAccessible(hostAccess);
         this.listAccess = apiAccess.isListAccessible(hostAccess);
+        this.iterableAccess = apiAccess.isIterableAccessible(hostAccess);
+        this.mapAccess = apiAccess.isMapAccessible(hostAccess);
+        this.bufferAccess = apiAccess.isBufferAccessible(hostAccess);
         this.apiAccess = apiAccess;
         this.targetMappings = groupMappings(apiAccess, conf);
         this.unnamedModule = EngineAccessor.JDKSERVICES.getUnnamedModule(classLoader);
@@ -204,6 +210,18 @@ final class HostClassCache {
         return listAccess;
     }
 
+    boolean isIterableAccess() {
+        return iterableAccess;
+    }
+
+    boolean isMapAccess() {
+        return mapAccess;
+    }
+
+    boolean isBufferAccess() {
+        return bufferAccess;
+    }
+
     boolean allowsImplementation(Class<?> type) {
         return apiAccess.allowsImplementation(hostAccess, type);
     }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.polyglot;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.StopIterationException;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.polyglot.PolyglotLanguageContext.ToGuestValueNode;
+
+/**
+ * Iterator over the entries of a host {@link Map}. Each element is an {@link Entry} with the key
+ * at index 0 and the value at index 1, which are converted to guest values only when they are
+ * read.
+ */
+@ExportLibrary(InteropLibrary.class)
+final class HostMapEntryIterator implements TruffleObject {
+
+    final Iterator<? extends Map.Entry<?, ?>> iterator;
+    final PolyglotLanguageContext languageContext;
+
+    HostMapEntryIterator(Iterator<? extends Map.Entry<?, ?>> iterator, PolyglotLanguageContext languageContext) {
+        this.iterator = iterator;
+        this.languageContext = languageContext;
+    }
+
+    @ExportMessage
+    @SuppressWarnings("static-method")
+    boolean isIterator() {
+        return true;
+    }
+
+    @ExportMessage
+    @TruffleBoundary
+    boolean hasIteratorNextElement() {
+        return iterator.hasNext();
+    }
+
+    @ExportMessage
+    @TruffleBoundary
+    Object getIteratorNextElement() throws StopIterationException {
+        try {
+            return new Entry(iterator.next(), languageContext);
+        } catch (NoSuchElementException e) {
+            throw StopIterationException.create();
+        }
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    static final class Entry implements TruffleObject {
+
+        final Map.Entry<?, ?> entry;
+        final PolyglotLanguageContext languageContext;
+
+        Entry(Map.Entry<?, ?> entry, PolyglotLanguageContext languageContext) {
+            this.entry = entry;
+            this.languageContext = languageContext;
+        }
+
+        @ExportMessage
+        @SuppressWarnings("static-method")
+        boolean hasArrayElements() {
+            return true;
+        }
+
+        @ExportMessage
+        @SuppressWarnings("static-method")
+        long getArraySize() {
+            return 2;
+        }
+
+        @ExportMessage
+        @SuppressWarnings("static-method")
+        boolean isArrayElementReadable(long index) {
+            return index == 0 || index == 1;
+        }
+
+        @ExportMessage
+        Object readArrayElement(long index,
+                        @Cached ToGuestValueNode toGuest) throws InvalidArrayIndexException {
+            if (index == 0) {
+                return toGuest.execute(languageContext, getKey(entry));
+            } else if (index == 1) {
+                return toGuest.execute(languageContext, getValue(entry));
+            }
+            throw InvalidArrayIndexException.create(index);
+        }
+
+        @TruffleBoundary
+        private static Object getKey(Map.Entry<?, ?> entry) {
+            return entry.getKey();
+        }
+
+        @TruffleBoundary
+        private static Object getValue(Map.Entry<?, ?> entry) {
+            return entry.getValue();
+        }
+    }
+}
@@ -41,6 +41,9 @@
 package com.oracle.truffle.polyglot;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -49,7 +52,10 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
 import com.oracle.truffle.api.CompilerDirectives;
@@ -62,8 +68,10 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.StopIterationException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnknownKeyException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
@@ -616,6 +624,349 @@ final class HostObject implements TruffleObject {
         return ((List<?>) obj).size();
     }
 
+    @ExportMessage
+    boolean hasBufferElements(@Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) {
+        return isByteArray(isArray) || isBuffer.execute(this);
+    }
+
+    private boolean isByteArray(IsArrayNode isArray) {
+        return isArray.execute(this) && obj instanceof byte[];
+    }
+
+    @ExportMessage
+    boolean isBufferWritable(@Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException {
+        if (isByteArray(isArray)) {
+            return true;
+        } else if (isBuffer.execute(this)) {
+            return !isReadOnly((ByteBuffer) obj);
+        }
+        throw UnsupportedMessageException.create();
+    }
+
+    @ExportMessage
+    long getBufferSize(@Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer) throws UnsupportedMessageException {
+        if (isByteArray(isArray)) {
+            return ((byte[]) obj).length;
+        } else if (isBuffer.execute(this)) {
+            return getLimit((ByteBuffer) obj);
+        }
+        throw UnsupportedMessageException.create();
+    }
+
+    @ExportMessage
+    byte readBufferByte(long byteOffset,
+                    @Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer,
+                    @Shared("bufferError") @Cached BranchProfile error) throws UnsupportedMessageException, InvalidArrayIndexException {
+        int index = checkBufferRange(byteOffset, Byte.BYTES, isArray, isBuffer, error);
+        if (obj instanceof byte[]) {
+            return ((byte[]) obj)[index];
+        }
+        return getByte((ByteBuffer) obj, index);
+    }
+
+    @ExportMessage
+    void writeBufferByte(long byteOffset, byte value,
+                    @Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer,
+                    @Shared("bufferError") @Cached BranchProfile error) throws UnsupportedMessageException, InvalidArrayIndexException {
+        int index = checkBufferRange(byteOffset, Byte.BYTES, isArray, isBuffer, error);
+        if (obj instanceof byte[]) {
+            ((byte[]) obj)[index] = value;
+        } else {
+            try {
+                putByte((ByteBuffer) obj, index, value);
+            } catch (ReadOnlyBufferException e) {
+                error.enter();
+                throw UnsupportedMessageException.create();
+            }
+        }
+    }
+
+    @ExportMessage
+    int readBufferInt(ByteOrder order, long byteOffset,
+                    @Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer,
+                    @Shared("bufferError") @Cached BranchProfile error) throws UnsupportedMessageException, InvalidArrayIndexException {
+        int index = checkBufferRange(byteOffset, Integer.BYTES, isArray, isBuffer, error);
+        if (obj instanceof byte[]) {
+            return (int) readBytes((byte[]) obj, order, index, Integer.BYTES);
+        }
+        return getInt((ByteBuffer) obj, order, index);
+    }
+
+    @ExportMessage
+    long readBufferLong(ByteOrder order, long byteOffset,
+                    @Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer,
+                    @Shared("bufferError") @Cached BranchProfile error) throws UnsupportedMessageException, InvalidArrayIndexException {
+        int index = checkBufferRange(byteOffset, Long.BYTES, isArray, isBuffer, error);
+        if (obj instanceof byte[]) {
+            return readBytes((byte[]) obj, order, index, Long.BYTES);
+        }
+        return getLong((ByteBuffer) obj, order, index);
+    }
+
+    @ExportMessage
+    double readBufferDouble(ByteOrder order, long byteOffset,
+                    @Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer,
+                    @Shared("bufferError") @Cached BranchProfile error) throws UnsupportedMessageException, InvalidArrayIndexException {
+        return Double.longBitsToDouble(readBufferLong(order, byteOffset, isArray, isBuffer, error));
+    }
+
+    @ExportMessage
+    void readBuffer(long byteOffset, byte[] destination, int destinationOffset, int length,
+                    @Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer,
+                    @Shared("bufferError") @Cached BranchProfile error) throws UnsupportedMessageException, InvalidArrayIndexException {
+        int index = checkBufferRange(byteOffset, length, isArray, isBuffer, error);
+        if (obj instanceof byte[]) {
+            System.arraycopy(obj, index, destination, destinationOffset, length);
+        } else {
+            getBytes((ByteBuffer) obj, index, destination, destinationOffset, length);
+        }
+    }
+
+    @ExportMessage
+    void writeBuffer(long byteOffset, byte[] source, int sourceOffset, int length,
+                    @Shared("isArray") @Cached IsArrayNode isArray,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer,
+                    @Shared("bufferError") @Cached BranchProfile error) throws UnsupportedMessageException, InvalidArrayIndexException {
+        int index = checkBufferRange(byteOffset, length, isArray, isBuffer, error);
+        if (obj instanceof byte[]) {
+            System.arraycopy(source, sourceOffset, obj, index, length);
+        } else {
+            try {
+                putBytes((ByteBuffer) obj, index, source, sourceOffset, length);
+            } catch (ReadOnlyBufferException e) {
+                error.enter();
+                throw UnsupportedMessageException.create();
+            }
+        }
+    }
+
+    /**
+     * Checks that <code>count</code> bytes starting at <code>byteOffset</code> are within the
+     * buffer of this host object and returns the offset as an index.
+     */
+    private int checkBufferRange(long byteOffset, int count, IsArrayNode isArray, IsBufferNode isBuffer, BranchProfile error) throws UnsupportedMessageException, InvalidArrayIndexException {
+        long size;
+        if (isByteArray(isArray)) {
+            size = ((byte[]) obj).length;
+        } else if (isBuffer.execute(this)) {
+            size = getLimit((ByteBuffer) obj);
+        } else {
+            error.enter();
+            throw UnsupportedMessageException.create();
+        }
+        if (byteOffset < 0 || count < 0 || byteOffset > size - count) {
+            error.enter();
+            throw InvalidArrayIndexException.create(byteOffset);
+        }
+        return (int) byteOffset;
+    }
+
+    private static long readBytes(byte[] bytes, ByteOrder order, int index, int count) {
+        long result = 0;
+        for (int i = 0; i < count; i++) {
+            int shift = (order == ByteOrder.BIG_ENDIAN ? count - 1 - i : i) * Byte.SIZE;
+            result |= (bytes[index + i] & 0xFFL) << shift;
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    private static boolean isReadOnly(ByteBuffer buffer) {
+        return buffer.isReadOnly();
+    }
+
+    @TruffleBoundary
+    private static int getLimit(ByteBuffer buffer) {
+        return buffer.limit();
+    }
+
+    @TruffleBoundary
+    private static byte getByte(ByteBuffer buffer, int index) {
+        return buffer.get(index);
+    }
+
+    @TruffleBoundary
+    private static void putByte(ByteBuffer buffer, int index, byte value) {
+        buffer.put(index, value);
+    }
+
+    @TruffleBoundary
+    private static int getInt(ByteBuffer buffer, ByteOrder order, int index) {
+        int value = buffer.getInt(index);
+        return buffer.order() == order ? value : Integer.reverseBytes(value);
+    }
+
+    @TruffleBoundary
+    private static long getLong(ByteBuffer buffer, ByteOrder order, int index) {
+        long value = buffer.getLong(index);
+        return buffer.order() == order ? value : Long.reverseBytes(value);
+    }
+
+    @TruffleBoundary
+    private static void getBytes(ByteBuffer buffer, int index, byte[] destination, int destinationOffset, int length) {
+        /* Use a duplicate so that the position of the shared buffer is not changed. */
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(index);
+        duplicate.get(destination, destinationOffset, length);
+    }
+
+    @TruffleBoundary
+    private static void putBytes(ByteBuffer buffer, int index, byte[] source, int sourceOffset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(index);
+        duplicate.put(source, sourceOffset, length);
+    }
+
+    @ExportMessage
+    boolean hasIterator(@Shared("isIterable") @Cached IsIterableNode isIterable) {
+        return isIterable.execute(this);
+    }
+
+    @ExportMessage
+    Object getIterator(@Shared("isIterable") @Cached IsIterableNode isIterable,
+                    @Shared("toGuest") @Cached ToGuestValueNode toGuest) throws UnsupportedMessageException {
+        if (!isIterable.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        return toGuest.execute(languageContext, newIterator((Iterable<?>) obj));
+    }
+
+    @ExportMessage
+    boolean isIterator(@Shared("isIterator") @Cached IsIteratorNode isIterator) {
+        return isIterator.execute(this);
+    }
+
+    @ExportMessage
+    boolean hasIteratorNextElement(@Shared("isIterator") @Cached IsIteratorNode isIterator) throws UnsupportedMessageException {
+        if (!isIterator.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        return iteratorHasNext((Iterator<?>) obj);
+    }
+
+    @ExportMessage
+    Object getIteratorNextElement(@Shared("isIterator") @Cached IsIteratorNode isIterator,
+                    @Shared("toGuest") @Cached ToGuestValueNode toGuest,
+                    @Cached BranchProfile stopped) throws UnsupportedMessageException, StopIterationException {
+        if (!isIterator.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        Object next;
+        try {
+            next = iteratorNext((Iterator<?>) obj);
+        } catch (NoSuchElementException e) {
+            stopped.enter();
+            throw StopIterationException.create();
+        }
+        return toGuest.execute(languageContext, next);
+    }
+
+    @TruffleBoundary
+    private static Iterator<?> newIterator(Iterable<?> iterable) {
+        return iterable.iterator();
+    }
+
+    @TruffleBoundary
+    private static boolean iteratorHasNext(Iterator<?> iterator) {
+        return iterator.hasNext();
+    }
+
+    @TruffleBoundary
+    private static Object iteratorNext(Iterator<?> iterator) throws NoSuchElementException {
+        return iterator.next();
+    }
+
+    @ExportMessage
+    boolean hasHashEntries(@Shared("isMap") @Cached IsMapNode isMap) {
+        return isMap.execute(this);
+    }
+
+    @ExportMessage
+    long getHashSize(@Shared("isMap") @Cached IsMapNode isMap) throws UnsupportedMessageException {
+        if (!isMap.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        return getMapSize((Map<?, ?>) obj);
+    }
+
+    @ExportMessage
+    boolean isHashEntryReadable(Object key,
+                    @Shared("isMap") @Cached IsMapNode isMap,
+                    @Shared("toHost") @Cached ToHostNode toHost) {
+        if (!isMap.execute(this)) {
+            return false;
+        }
+        Object hostKey;
+        try {
+            hostKey = toHost.execute(key, Object.class, null, languageContext, true);
+        } catch (ClassCastException | NullPointerException e) {
+            return false;
+        }
+        return mapContainsKey((Map<?, ?>) obj, hostKey);
+    }
+
+    @ExportMessage
+    Object readHashValue(Object key,
+                    @Shared("isMap") @Cached IsMapNode isMap,
+                    @Shared("toHost") @Cached ToHostNode toHost,
+                    @Shared("toGuest") @Cached ToGuestValueNode toGuest,
+                    @Cached BranchProfile unknownKey) throws UnsupportedMessageException, UnknownKeyException {
+        if (!isMap.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        Object hostKey;
+        try {
+            hostKey = toHost.execute(key, Object.class, null, languageContext, true);
+        } catch (ClassCastException | NullPointerException e) {
+            unknownKey.enter();
+            throw UnknownKeyException.create(key);
+        }
+        Map<?, ?> map = (Map<?, ?>) obj;
+        Object value = mapGet(map, hostKey);
+        if (value == null && !mapContainsKey(map, hostKey)) {
+            unknownKey.enter();
+            throw UnknownKeyException.create(key);
+        }
+        return toGuest.execute(languageContext, value);
+    }
+
+    @ExportMessage
+    Object getHashEntriesIterator(@Shared("isMap") @Cached IsMapNode isMap) throws UnsupportedMessageException {
+        if (!isMap.execute(this)) {
+            throw UnsupportedMessageException.create();
+        }
+        return new HostMapEntryIterator(newEntryIterator((Map<?, ?>) obj), languageContext);
+    }
+
+    @TruffleBoundary
+    private static int getMapSize(Map<?, ?> map) {
+        return map.size();
+    }
+
+    @TruffleBoundary
+    private static boolean mapContainsKey(Map<?, ?> map, Object key) {
+        return map.containsKey(key);
+    }
+
+    @TruffleBoundary
+    private static Object mapGet(Map<?, ?> map, Object key) {
+        return map.get(key);
+    }
+
+    @TruffleBoundary
+    private static Iterator<? extends Map.Entry<?, ?>> newEntryIterator(Map<?, ?> map) {
+        return map.entrySet().iterator();
+    }
+
     @ExportMessage
     boolean isNull() {
         return obj == null;
@@ -1329,6 +1680,62 @@ final class HostObject implements TruffleObject {
 
     }
 
+    @GenerateUncached
+    abstract static class IsIterableNode extends Node {
+
+        public abstract boolean execute(HostObject receiver);
+
+        @Specialization
+        public boolean doDefault(HostObject receiver,
+                        @Cached(value = "receiver.getHostClassCache().isIterableAccess()", allowUncached = true) boolean isIterableAccess) {
+            assert receiver.getHostClassCache().isIterableAccess() == isIterableAccess;
+            return isIterableAccess && receiver.obj instanceof Iterable;
+        }
+
+    }
+
+    @GenerateUncached
+    abstract static class IsIteratorNode extends Node {
+
+        public abstract boolean execute(HostObject receiver);
+
+        @Specialization
+        public boolean doDefault(HostObject receiver,
+                        @Cached(value = "receiver.getHostClassCache().isIterableAccess()", allowUncached = true) boolean isIterableAccess) {
+            assert receiver.getHostClassCache().isIterableAccess() == isIterableAccess;
+            return isIterableAccess && receiver.obj instanceof Iterator;
+        }
+
+    }
+
+    @GenerateUncached
+    abstract static class IsMapNode extends Node {
+
+        public abstract boolean execute(HostObject receiver);
+
+        @Specialization
+        public boolean doDefault(HostObject receiver,
+                        @Cached(value = "receiver.getHostClassCache().isMapAccess()", allowUncached = true) boolean isMapAccess) {
+            assert receiver.getHostClassCache().isMapAccess() == isMapAccess;
+            return isMapAccess && receiver.obj instanceof Map;
+        }
+
+    }
+
+    @GenerateUncached
+    abstract static class IsBufferNode extends Node {
+
+        public abstract boolean execute(HostObject receiver);
+
+        @Specialization
+        public boolean doDefault(HostObject receiver,
+                        @Cached(value = "receiver.getHostClassCache().isBufferAccess()", allowUncached = true) boolean isBufferAccess) {
+            assert receiver.getHostClassCache().isBufferAccess() == isBufferAccess;
+            return isBufferAccess && receiver.obj instanceof ByteBuffer;
+        }
+
+    }
+
     @GenerateUncached
     abstract static class IsArrayNode extends Node {
 
@@ -178,6 +178,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
     final int contextLength;
     private volatile EngineLimits limits;
     final boolean conservativeContextReferences;
+    final PolyglotSourceCache.Statistics sourceCacheStatistics = new PolyglotSourceCache.Statistics();
     private final MessageTransport messageInterceptor;
 
     PolyglotEngineImpl(PolyglotImpl impl, DispatchOutputStream out, DispatchOutputStream err, InputStream in, Map<String, String> options,
@@ -976,6 +977,8 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
                 contexts.clear();
             }
 
+            INSTRUMENT.closeInstrumentationHandler(instrumentationHandler);
+
             // instruments should be shut-down even if they are currently still executed
             // we want to see instrument output if the process is quit while executing.
             for (PolyglotInstrument instrumentImpl : idToInstrument.values()) {
@@ -999,6 +1002,9 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
             // don't commit to the close if still running as this might cause races in the executing
             // context.
             if (!stillRunning) {
+                if (engineOptionValues.get(PolyglotEngineOptions.SourceCacheStatistics)) {
+                    sourceCacheStatistics.print();
+                }
                 Object loggers = getEngineLoggers();
                 if (loggers != null) {
                     LANGUAGE.closeEngineLoggers(loggers);
@@ -40,9 +40,12 @@
  */
 package com.oracle.truffle.polyglot;
 
+import java.util.function.Function;
+
 import org.graalvm.options.OptionCategory;
 import org.graalvm.options.OptionKey;
 import org.graalvm.options.OptionStability;
+import org.graalvm.options.OptionType;
 
 import com.oracle.truffle.api.Option;
 
@@ -61,6 +64,40 @@ final class PolyglotEngineOptions {
     @Option(name = INSTRUMENT_EXCEPTIONS_ARE_THROWN_NAME, category = OptionCategory.INTERNAL, help = "Propagates exceptions thrown by instruments.")//
     static final OptionKey<Boolean> InstrumentExceptionsAreThrown = new OptionKey<>(false);
 
+    /**
+     * When the option is set, probes of new execution bindings are inserted into already executed
+     * roots on a background thread, so attaching a tool does not block the attaching thread.
+     */
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Insert the probes of new execution bindings into already executed roots " +
+                    "on a background thread instead of on the thread that attaches the binding. " +
+                    "Events of roots that were not yet visited may be missed until the insertion completes.")//
+    static final OptionKey<Boolean> IncrementalProbeInsertion = new OptionKey<>(false);
+
+    static final OptionType<PolyglotSourceCache.EvictionPolicy> EVICTION_POLICY_TYPE = new OptionType<>("EvictionPolicy",
+                    new Function<String, PolyglotSourceCache.EvictionPolicy>() {
+                        @Override
+                        public PolyglotSourceCache.EvictionPolicy apply(String s) {
+                            try {
+                                return PolyglotSourceCache.EvictionPolicy.valueOf(s.toUpperCase());
+                            } catch (IllegalArgumentException e) {
+                                throw new IllegalArgumentException("EvictionPolicy can be: lru or lfu.");
+                            }
+                        }
+                    });
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Maximum number of parsed sources cached per language (default: 0, unbounded).")//
+    static final OptionKey<Integer> SourceCacheSize = new OptionKey<>(0);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Maximum total number of AST nodes of the parsed sources cached per language (default: 0, unbounded).")//
+    static final OptionKey<Long> SourceCacheWeight = new OptionKey<>(0L);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Entries evicted first from a bounded source cache, approximated with a clock: " +
+                    "'lru' - the least recently used (default), 'lfu' - the least frequently used.")//
+    static final OptionKey<PolyglotSourceCache.EvictionPolicy> SourceCacheEviction = new OptionKey<>(PolyglotSourceCache.EvictionPolicy.LRU, EVICTION_POLICY_TYPE);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Print the hits, misses and evictions of the source caches when the engine is closed.")//
+    static final OptionKey<Boolean> SourceCacheStatistics = new OptionKey<>(false);
+
     @Option(category = OptionCategory.INTERNAL, stability = OptionStability.EXPERIMENTAL, help = "Enables conservative context references. " +
                     "This allows invalid sharing between contexts. " +
                     "For testing purposes only.")//
@@ -415,6 +415,8 @@ public final class PolyglotImpl extends AbstractPolyglotImpl {
             throw (PolyglotIllegalArgumentException) e;
         } else if (e instanceof PolyglotArrayIndexOutOfBoundsException) {
             throw (PolyglotArrayIndexOutOfBoundsException) e;
+        } else if (e instanceof PolyglotNoSuchElementException) {
+            throw (PolyglotNoSuchElementException) e;
         }
     }
 
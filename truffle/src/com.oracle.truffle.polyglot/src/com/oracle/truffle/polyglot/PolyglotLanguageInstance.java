@@ -80,7 +80,7 @@ final class PolyglotLanguageInstance implements VMObject {
     @SuppressWarnings("unchecked")
     PolyglotLanguageInstance(PolyglotLanguage language) {
         this.language = language;
-        this.sourceCache = new PolyglotSourceCache();
+        this.sourceCache = createSourceCache(language.engine);
         this.valueCodeCache = new ConcurrentHashMap<>();
         this.hostInteropCodeCache = new ConcurrentHashMap<>();
         try {
@@ -156,6 +156,13 @@ final class PolyglotLanguageInstance implements VMObject {
         }
     }
 
+    private static PolyglotSourceCache createSourceCache(PolyglotEngineImpl engine) {
+        OptionValuesImpl options = engine.engineOptionValues;
+        return new PolyglotSourceCache(options.get(PolyglotEngineOptions.SourceCacheSize), options.get(PolyglotEngineOptions.SourceCacheWeight),
+                        options.get(PolyglotEngineOptions.SourceCacheEviction),
+                        options.get(PolyglotEngineOptions.SourceCacheStatistics) ? engine.sourceCacheStatistics : null);
+    }
+
     PolyglotSourceCache getSourceCache() {
         return sourceCache;
     }
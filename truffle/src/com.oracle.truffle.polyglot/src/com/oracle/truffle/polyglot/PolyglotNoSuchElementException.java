@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -38,24 +38,25 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-package com.oracle.truffle.regex.util;
+package com.oracle.truffle.polyglot;
 
-import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
 
-/**
- * An implementation of a cache with a least-recently-used policy via LinkedHashMap.
- */
-public final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-    private static final long serialVersionUID = 7813848977534444613L;
-    private final int maxCacheSize;
+@SuppressWarnings("serial")
+class PolyglotNoSuchElementException extends NoSuchElementException {
 
-    public LRUCache(int maxCacheSize) {
-        super(16, 0.75F, true);
-        this.maxCacheSize = maxCacheSize;
+    PolyglotNoSuchElementException(String message) {
+        super(message);
+        // prevent polyglot stack trace to be attached.
+        initCause(null);
     }
 
     @Override
-    protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-        return size() > maxCacheSize;
+    public String toString() {
+        // make it look like normal unsupported operation.
+        String s = NoSuchElementException.class.getName();
+        String message = getLocalizedMessage();
+        return (message != null) ? (s + ": " + message) : s;
     }
+
 }
@@ -44,21 +44,74 @@ import static com.oracle.truffle.polyglot.EngineAccessor.LANGUAGE;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.source.Source;
 
+/**
+ * Caches the call targets of parsed cached sources of a language instance.
+ *
+ * By default the cache is only bounded by the lifetime of the sources. If a maximum number of
+ * entries or a maximum weight is configured, the cache evicts entries after an insertion exceeds a
+ * bound. The weight of an entry is the number of AST nodes of its root node when it was parsed.
+ * <p>
+ * Eviction approximates the {@link EvictionPolicy} with a clock: the entries of a bounded cache
+ * are kept in insertion order, and a lookup only bumps a small reference counter of the entry it
+ * hits. The eviction takes entries from the head; an entry with a non-zero counter gets its
+ * counter decremented and is moved to the tail, the first entry with a zero counter is evicted.
+ * For {@link EvictionPolicy#LRU} the counter is a single reference bit, for
+ * {@link EvictionPolicy#LFU} it saturates at {@link #LFU_MAX_REFERENCES}, so frequently used
+ * entries survive several passes. Lookups never lock and only write to the entry if its counter is
+ * not yet saturated; insertions and evictions of a bounded cache are serialized, as they follow a
+ * parse, which is much more expensive.
+ */
 final class PolyglotSourceCache {
 
-    private final ConcurrentHashMap<Object, CallTarget> sourceCache;
+    private static final TruffleLogger LOG = TruffleLogger.getLogger("engine", PolyglotSourceCache.class);
+
+    enum EvictionPolicy {
+        LRU,
+        LFU
+    }
+
+    static final int LFU_MAX_REFERENCES = 3;
+
+    private final ConcurrentHashMap<Object, Entry> sourceCache;
     private final ReferenceQueue<Source> deadSources = new ReferenceQueue<>();
 
-    PolyglotSourceCache() {
+    private final int maxSize;
+    private final long maxWeight;
+    private final int maxReferences;
+    private final Statistics statistics;
+    private final ArrayDeque<Entry> clock;  // guarded by this
+    private int removedInClock;             // guarded by this
+    private long totalWeight;               // guarded by this
+
+    /**
+     * @param maxSize maximum number of entries, {@code 0} if unbounded
+     * @param maxWeight maximum total number of AST nodes of the entries, {@code 0} if unbounded
+     * @param statistics the engine statistics to update or {@code null}
+     */
+    PolyglotSourceCache(int maxSize, long maxWeight, EvictionPolicy evictionPolicy, Statistics statistics) {
         this.sourceCache = new ConcurrentHashMap<>();
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.maxReferences = evictionPolicy == EvictionPolicy.LFU ? LFU_MAX_REFERENCES : 1;
+        this.statistics = statistics;
+        this.clock = isBounded() ? new ArrayDeque<>() : null;
+    }
+
+    private boolean isBounded() {
+        return maxSize > 0 || maxWeight > 0;
     }
 
     CallTarget parseCached(PolyglotLanguageContext context, Source source, String[] argumentNames) {
@@ -68,23 +121,95 @@ final class PolyglotSourceCache {
         if (source.isCached()) {
             Object sourceId = EngineAccessor.SOURCE.getSourceIdentifier(source);
             WeakSourceKey ref = new WeakSourceKey(sourceId, source, argumentNames, deadSources);
-            target = sourceCache.get(ref);
-            if (target == null) {
+            Entry entry = sourceCache.get(ref);
+            if (entry == null) {
+                if (statistics != null) {
+                    statistics.misses.increment();
+                }
                 target = parseImpl(context, argumentNames, EngineAccessor.SOURCE.copySource(source));
-                CallTarget prev = sourceCache.putIfAbsent(ref, target);
+                entry = new Entry(ref, target, isBounded() ? computeWeight(target) : 0L);
+                Entry prev = isBounded() ? insertBounded(ref, entry) : sourceCache.putIfAbsent(ref, entry);
                 if (prev != null) {
                     /*
                      * Parsed twice -> discard the one not in the cache.
                      */
-                    target = prev;
+                    target = prev.target;
+                    prev.access(maxReferences);
                 }
+            } else {
+                if (statistics != null) {
+                    statistics.hits.increment();
+                }
+                target = entry.target;
+                entry.access(maxReferences);
             }
         } else {
+            if (statistics != null) {
+                statistics.uncached.increment();
+            }
             target = parseImpl(context, argumentNames, source);
         }
         return target;
     }
 
+    private synchronized Entry insertBounded(WeakSourceKey ref, Entry entry) {
+        Entry prev = sourceCache.putIfAbsent(ref, entry);
+        if (prev != null) {
+            return prev;
+        }
+        clock.addLast(entry);
+        totalWeight += entry.weight;
+        while (sourceCache.size() > 1 && ((maxSize > 0 && sourceCache.size() > maxSize) || (maxWeight > 0 && totalWeight > maxWeight))) {
+            Entry victim = selectVictim(entry);
+            if (victim == null) {
+                break;
+            }
+            sourceCache.remove(victim.key, victim);
+            victim.removed = true;
+            totalWeight -= victim.weight;
+            if (statistics != null) {
+                statistics.evictions.increment();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Advances the clock to the next entry to evict and removes it from the clock. The entry that
+     * was just inserted is never selected, otherwise it would always be evicted while it has not
+     * yet been referenced. Each entry is passed at most {@link #maxReferences} times before it is
+     * selected, so the amortized cost per eviction is constant.
+     */
+    private Entry selectVictim(Entry inserted) {
+        int remaining = clock.size() * (maxReferences + 1);
+        while (remaining-- > 0) {
+            Entry candidate = clock.pollFirst();
+            if (candidate == null) {
+                return null;
+            }
+            if (candidate.removed) {
+                removedInClock--;
+                continue;
+            }
+            if (candidate == inserted || candidate.references > 0) {
+                if (candidate != inserted) {
+                    candidate.references--;
+                }
+                clock.addLast(candidate);
+                continue;
+            }
+            return candidate;
+        }
+        return null;
+    }
+
+    private static long computeWeight(CallTarget target) {
+        if (target instanceof RootCallTarget) {
+            return Math.max(1, NodeUtil.countNodes(((RootCallTarget) target).getRootNode()));
+        }
+        return 1;
+    }
+
     private static CallTarget parseImpl(PolyglotLanguageContext context, String[] argumentNames, Source source) {
         if (!EngineAccessor.SOURCE.isLegacySource(source)) {
             validateSource(context, source);
@@ -165,7 +290,73 @@ final class PolyglotSourceCache {
     private void cleanupStaleEntries() {
         WeakSourceKey sourceRef = null;
         while ((sourceRef = (WeakSourceKey) deadSources.poll()) != null) {
-            sourceCache.remove(sourceRef);
+            Entry entry = sourceCache.get(sourceRef);
+            /*
+             * An evicted source may have been parsed again, the new entry is only stale if it was
+             * created for the same key.
+             */
+            if (entry != null && entry.key == sourceRef) {
+                if (isBounded()) {
+                    removeBounded(entry);
+                } else {
+                    sourceCache.remove(sourceRef, entry);
+                }
+            }
+        }
+    }
+
+    private synchronized void removeBounded(Entry entry) {
+        if (sourceCache.remove(entry.key, entry)) {
+            totalWeight -= entry.weight;
+            entry.removed = true;
+            /*
+             * Stale entries are dropped lazily when the clock passes them. Compact the clock if
+             * they make up most of it, so it does not grow while nothing is evicted.
+             */
+            if (++removedInClock > clock.size() / 2) {
+                clock.removeIf((e) -> e.removed);
+                removedInClock = 0;
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final WeakSourceKey key;
+        final CallTarget target;
+        final long weight;
+        /*
+         * Racy updates are fine, the counter is only used as eviction heuristic.
+         */
+        int references;
+        boolean removed;    // guarded by the cache
+
+        Entry(WeakSourceKey key, CallTarget target, long weight) {
+            this.key = key;
+            this.target = target;
+            this.weight = weight;
+        }
+
+        void access(int maxReferences) {
+            if (references < maxReferences) {
+                references++;
+            }
+        }
+    }
+
+    /**
+     * Source cache statistics shared by all language instances of an engine.
+     */
+    static final class Statistics {
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+        final LongAdder uncached = new LongAdder();
+
+        void print() {
+            LOG.info(String.format("Source cache statistics: hits=%d, misses=%d, evictions=%d, uncached parses=%d",
+                            hits.sum(), misses.sum(), evictions.sum(), uncached.sum()));
         }
     }
 